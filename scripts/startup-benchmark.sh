@@ -0,0 +1,55 @@
+#!/usr/bin/env sh
+# Compares desktop cold-start time with and without the cds profile.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# Build both variants first:
+#   ./mvnw -DskipTests package          (plain fat jar)
+#   ./mvnw -Pcds -DskipTests package    (target/cds: extracted jar + AppCDS + AOT)
+#
+# Each run starts the app with -Dqdc.startup.exit-after-report=true, which exits
+# once the main window is shown, and reads the "Total: N ms" line of the startup
+# timing report. Needs a display and the configured database.
+
+RUNS="${1:-5}"
+cd "$(dirname "$0")/.." || exit 1
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+COMMON_OPTS="-Dqdc.startup.exit-after-report=true -Dqdc.backup.auto-enabled=false"
+
+FAT_JAR=$(ls target/*.jar 2>/dev/null | grep -v '\.original$' | head -n 1)
+CDS_DIR=target/cds
+
+measure() {
+    label="$1"
+    shift
+    total=0
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        ms=$("$@" 2>&1 | sed -n 's/^Total: \([0-9]*\) ms.*/\1/p' | tail -n 1)
+        if [ -z "$ms" ]; then
+            echo "$label: run $i did not report a startup time" >&2
+            return 1
+        fi
+        echo "$label: run $i: ${ms} ms"
+        total=$((total + ms))
+        i=$((i + 1))
+    done
+    echo "$label: average $((total / RUNS)) ms over $RUNS runs"
+    echo
+}
+
+if [ -n "$FAT_JAR" ]; then
+    measure "fat jar" "$JAVA" $COMMON_OPTS -jar "$FAT_JAR"
+else
+    echo "No jar in target/, skipping the fat jar baseline" >&2
+fi
+
+if [ -f "$CDS_DIR/qdc-lims.sh" ] && [ -n "$FAT_JAR" ]; then
+    measure "extracted, no CDS/AOT" sh -c "cd $CDS_DIR && \"$JAVA\" $COMMON_OPTS -jar $(basename "$FAT_JAR")"
+    JAVA_OPTS="$COMMON_OPTS"
+    export JAVA_OPTS
+    measure "extracted + CDS + AOT" sh "$CDS_DIR/qdc-lims.sh"
+else
+    echo "No $CDS_DIR/qdc-lims.sh, build with -Pcds first" >&2
+fi
@@ -0,0 +1,41 @@
+@echo off
+rem QDC LIMS fast-start launcher (built by: mvnw -Pcds package).
+rem Uses the AppCDS archive from the training run and the Spring AOT context.
+rem Extra JVM options can be passed through JAVA_OPTS.
+setlocal
+cd /d "%~dp0"
+
+rem The AOT context only holds the beans of the profile it was built for
+set "BUILT_PROFILE=@cds.profile@"
+set "REQUESTED=%SPRING_PROFILES_ACTIVE%"
+if defined JAVA_OPTS (
+    if not "%JAVA_OPTS:spring.profiles.active=%"=="%JAVA_OPTS%" (
+        echo Set the profile with --spring.profiles.active, not in JAVA_OPTS 1>&2
+        exit /b 1
+    )
+)
+rem cmd splits arguments at "=", so the profile name is the next argument
+set "ARGS=%*"
+:scan
+if "%~1"=="" goto scanned
+if /i "%~1"=="--spring.profiles.active" set "REQUESTED=%~2"
+if /i "%~1"=="-Dspring.profiles.active" set "REQUESTED=%~2"
+shift
+goto scan
+:scanned
+if defined REQUESTED if /i not "%REQUESTED%"=="%BUILT_PROFILE%" (
+    echo This fast-start build is for the '%BUILT_PROFILE%' profile, not '%REQUESTED%'. 1>&2
+    echo Build it with -Dcds.profile=%REQUESTED% or start the plain jar: java -jar @project.build.finalName@.jar 1>&2
+    exit /b 1
+)
+
+set "JAVA=java"
+if defined JAVA_HOME set "JAVA=%JAVA_HOME%\bin\java"
+
+set "CDS_OPTS=-XX:SharedArchiveFile=qdc-lims.jsa -Xshare:auto"
+if not exist qdc-lims.jsa (
+    echo qdc-lims.jsa not found, starting without class data sharing 1>&2
+    set "CDS_OPTS="
+)
+
+"%JAVA%" %CDS_OPTS% -Dspring.aot.enabled=true -Dspring.profiles.active=%BUILT_PROFILE% %JAVA_OPTS% -jar @project.build.finalName@.jar %ARGS%
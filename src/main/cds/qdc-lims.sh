@@ -0,0 +1,29 @@
+#!/usr/bin/env sh
+# QDC LIMS fast-start launcher (built by: ./mvnw -Pcds package).
+# Uses the AppCDS archive from the training run and the Spring AOT context.
+# Extra JVM options can be passed through JAVA_OPTS.
+cd "$(dirname "$0")" || exit 1
+
+# The AOT context only holds the beans of the profile it was built for
+BUILT_PROFILE="@cds.profile@"
+REQUESTED="${SPRING_PROFILES_ACTIVE:-}"
+for arg in $JAVA_OPTS "$@"; do
+    case "$arg" in
+        --spring.profiles.active=*|-Dspring.profiles.active=*) REQUESTED="${arg#*=}" ;;
+    esac
+done
+if [ -n "$REQUESTED" ] && [ "$REQUESTED" != "$BUILT_PROFILE" ]; then
+    echo "This fast-start build is for the '$BUILT_PROFILE' profile, not '$REQUESTED'." >&2
+    echo "Build it with -Dcds.profile=$REQUESTED or start the plain jar: java -jar @project.build.finalName@.jar" >&2
+    exit 1
+fi
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+CDS_OPTS="-XX:SharedArchiveFile=qdc-lims.jsa -Xshare:auto"
+if [ ! -f qdc-lims.jsa ]; then
+    echo "qdc-lims.jsa not found, starting without class data sharing" >&2
+    CDS_OPTS=""
+fi
+
+exec "$JAVA" $CDS_OPTS -Dspring.aot.enabled=true -Dspring.profiles.active="$BUILT_PROFILE" $JAVA_OPTS \
+    -jar @project.build.finalName@.jar "$@"
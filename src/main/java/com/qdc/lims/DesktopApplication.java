@@ -2,12 +2,20 @@ package com.qdc.lims;
 
 import com.qdc.lims.ui.AppPaths;
 import com.qdc.lims.service.BrandingService;
+import com.qdc.lims.ui.diagnostics.CdsTrainingRun;
+import com.qdc.lims.ui.diagnostics.FxThreadWatchdog;
+import com.qdc.lims.ui.diagnostics.StartupTimings;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 
@@ -18,10 +26,14 @@ import java.nio.file.Paths;
 /**
  * JavaFX Desktop Application entry point.
  * Integrates Spring Boot context with JavaFX lifecycle.
+ * <p>
+ * A splash screen is shown as soon as the toolkit is up; the Spring context is
+ * built on a background thread and the main window replaces the splash once it
+ * is ready.
  */
 public class DesktopApplication extends Application {
 
-    private ConfigurableApplicationContext springContext;
+    private volatile ConfigurableApplicationContext springContext;
 
     @Override
     public void init() throws Exception {
@@ -33,15 +45,93 @@ public class DesktopApplication extends Application {
         // Spring resolves this via application.properties:
         // spring.datasource.url=jdbc:sqlite:${qdc.db.path}
         System.setProperty("qdc.db.path", dbPath.toAbsolutePath().toString());
-
-        // Initialize Spring context before JavaFX starts
-        springContext = new SpringApplicationBuilder(QdcLimsApplication.class)
-                .headless(false) // Important for desktop apps
-                .run();
+        StartupTimings.mark("JavaFX init");
     }
 
     @Override
-    public void start(Stage primaryStage) throws Exception {
+    public void start(Stage primaryStage) {
+        Stage splash = createSplash();
+        splash.show();
+        StartupTimings.mark("Splash shown");
+
+        // Build the Spring context off the FX thread so the splash stays responsive
+        Thread startupThread = new Thread(() -> {
+            try {
+                ConfigurableApplicationContext context = new SpringApplicationBuilder(QdcLimsApplication.class)
+                        .headless(false) // Important for desktop apps
+                        .applicationStartup(StartupTimings.applicationStartup())
+                        .run();
+                springContext = context;
+                StartupTimings.mark("Spring context ready");
+
+                Platform.runLater(() -> {
+                    try {
+                        showMainWindow(primaryStage);
+                        splash.close();
+                        StartupTimings.mark("Main window shown");
+                        StartupTimings.report();
+                        exitIfStartupOnly();
+                    } catch (Exception e) {
+                        failStartup(splash, e);
+                    }
+                });
+            } catch (Throwable e) {
+                Platform.runLater(() -> failStartup(splash, e));
+            }
+        }, "spring-startup");
+        startupThread.setDaemon(true);
+        startupThread.start();
+    }
+
+    /**
+     * CDS training runs and startup benchmarks stop once the main window is up.
+     * The Spring shutdown hook closes the context.
+     */
+    private void exitIfStartupOnly() {
+        if (CdsTrainingRun.isTrainingRun()) {
+            CdsTrainingRun.run(springContext);
+            System.exit(0);
+        }
+        if (Boolean.getBoolean("qdc.startup.exit-after-report")) {
+            System.exit(0);
+        }
+    }
+
+    private Stage createSplash() {
+        Label title = new Label("QDC LIMS");
+        title.setStyle("-fx-font-size: 26; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+        Label status = new Label("Starting, please wait...");
+        status.setStyle("-fx-font-size: 12; -fx-text-fill: #7f8c8d;");
+        ProgressBar progress = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progress.setPrefWidth(260);
+
+        VBox box = new VBox(15, title, progress, status);
+        box.setAlignment(Pos.CENTER);
+        box.setStyle("-fx-background-color: white; -fx-padding: 30; -fx-border-color: #bdc3c7;");
+
+        Stage splash = new Stage(StageStyle.UNDECORATED);
+        splash.setScene(new Scene(box, 380, 200));
+        splash.centerOnScreen();
+        return splash;
+    }
+
+    private void failStartup(Stage splash, Throwable error) {
+        error.printStackTrace();
+        splash.close();
+        javafx.scene.control.Alert alert = new javafx.scene.control.Alert(
+                javafx.scene.control.Alert.AlertType.ERROR);
+        alert.setTitle("Startup Failed");
+        alert.setHeaderText("QDC LIMS could not start");
+        Throwable root = error;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        alert.setContentText(root.getMessage());
+        alert.showAndWait();
+        Platform.exit();
+    }
+
+    private void showMainWindow(Stage primaryStage) throws Exception {
         // Load the main application window with tabbed interface
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main_window.fxml"));
         loader.setControllerFactory(springContext::getBean);
@@ -80,12 +170,18 @@ public class DesktopApplication extends Application {
         });
 
         primaryStage.show();
+
+        springContext.getBean(FxThreadWatchdog.class).start();
     }
 
     @Override
     public void stop() {
         // Close Spring context when JavaFX app closes
-        springContext.close();
+        ConfigurableApplicationContext context = springContext;
+        if (context != null) {
+            context.getBean(FxThreadWatchdog.class).stop();
+            context.close();
+        }
         Platform.exit();
     }
 
@@ -1,6 +1,16 @@
 package com.qdc.lims;
 
+import com.qdc.lims.client.ThinClientApplication;
+import com.qdc.lims.migration.SqliteToPostgresMigrator;
+import com.qdc.lims.ui.AppPaths;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Main entry point for the LIMS Spring Boot application.
@@ -9,29 +19,87 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class QdcLimsApplication {
 
 	/**
-	 * Starts the QDC-LIMS Spring Boot application.
-	 * 
-	 * Note: When running in a desktop environment, this method delegates to
-	 * JavaFX Application.launch() via the DesktopLauncher class if used,
-	 * or simply bootstraps Spring if run as a web server.
-	 * 
-	 * However, since this is a JavaFX app, we should ideally run
-	 * DesktopApplication.main()
-	 * or rely on the Maven plugin to pick the right class.
-	 * 
-	 * Currently, `mvn spring-boot:run` targets this class. This class just starts
-	 * Spring.
-	 * If we want the GUI, we need to launch JavaFX.
+	 * Starts the QDC-LIMS application.
+	 * <p>
+	 * By default this launches the JavaFX desktop client. With {@code --server}
+	 * (or {@code QDC_MODE=server}) it starts the headless server instead: no
+	 * JavaFX, the {@code server} profile active and the HTTP API on an embedded
+	 * web server. With {@code --client[=<server url>]} (or {@code QDC_MODE=client}) it
+	 * starts the thin result entry station against such a server, without a Spring
+	 * context or database connection. With {@code --migrate-sqlite[=<file>]} it copies a SQLite database
+	 * (default: this PC's) into the configured PostgreSQL database and exits.
 	 */
 	public static void main(String[] args) {
-		// Detect if we are in a headless environment. If not, launch JavaFX.
-		// For simplicity in this project structure, we can just launch the
-		// DesktopApplication wrapper.
+		String migrateSource = argValue(args, "--migrate-sqlite");
+		if (migrateSource != null) {
+			System.exit(migrateSqlite(migrateSource, hasArg(args, "--force"), args));
+		}
+		if (isServerMode(args)) {
+			new SpringApplicationBuilder(QdcLimsApplication.class)
+					.profiles("server")
+					.headless(true)
+					.run(args);
+			return;
+		}
+		if (isClientMode(args)) {
+			javafx.application.Application.launch(ThinClientApplication.class, args);
+			return;
+		}
 		javafx.application.Application.launch(DesktopApplication.class, args);
 	}
 
-}
+	private static boolean isClientMode(String[] args) {
+		return hasArg(args, "--client") || "client".equalsIgnoreCase(System.getenv("QDC_MODE"));
+	}
+
+	private static boolean isServerMode(String[] args) {
+		return hasArg(args, "--server") || "server".equalsIgnoreCase(System.getenv("QDC_MODE"));
+	}
+
+	/**
+	 * Runs the SQLite-to-PostgreSQL migration headless. Flyway creates the PostgreSQL
+	 * schema on startup; automatic backups are off for the run.
+	 *
+	 * @return process exit code
+	 */
+	private static int migrateSqlite(String source, boolean force, String[] args) {
+		Path sqliteFile = source.isBlank() ? AppPaths.databasePath() : Path.of(source);
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(QdcLimsApplication.class)
+				.web(WebApplicationType.NONE)
+				.headless(true)
+				.properties("qdc.backup.auto-enabled=false")
+				.run(args);
+		try {
+			long started = System.currentTimeMillis();
+			List<SqliteToPostgresMigrator.TableResult> results = context.getBean(SqliteToPostgresMigrator.class)
+					.migrate(sqliteFile, force);
+			long rows = results.stream().mapToLong(SqliteToPostgresMigrator.TableResult::rows).sum();
+			System.out.println("[Migration] Copied " + rows + " rows from " + sqliteFile + " in "
+					+ (System.currentTimeMillis() - started) / 1000 + " s");
+			return SpringApplication.exit(context, () -> 0);
+		} catch (Exception e) {
+			System.err.println("[Migration] " + e.getMessage());
+			return SpringApplication.exit(context, () -> 1);
+		}
+	}
+
+	/**
+	 * Value of {@code name} or {@code name=value}: empty for the bare flag, null if absent.
+	 */
+	private static String argValue(String[] args, String name) {
+		for (String arg : args) {
+			if (arg.equals(name)) {
+				return "";
+			}
+			if (arg.startsWith(name + "=")) {
+				return arg.substring(name.length() + 1);
+			}
+		}
+		return null;
+	}
+
+	private static boolean hasArg(String[] args, String name) {
+		return argValue(args, name) != null;
+	}
 
-// Checking for compilation errors
-// No actual code change, just using this to trigger a thought process about
-// compilation.
+}
@@ -0,0 +1,50 @@
+package com.qdc.lims.api;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Maps service exceptions to JSON error bodies.
+ * <p>
+ * Services signal business rule violations with {@link RuntimeException} and a
+ * user-facing message, so those become 400 responses carrying the same text the
+ * desktop screens show in their alerts. {@link IllegalStateException} marks an action the
+ * record's current state does not allow (a report held back by QC, a withdrawn lot) and
+ * becomes 409.
+ */
+@RestControllerAdvice(basePackages = "com.qdc.lims.api")
+@Profile("server")
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<Map<String, String>> notFound(NoSuchElementException e) {
+        return error(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> conflict(ObjectOptimisticLockingFailureException e) {
+        return error(HttpStatus.CONFLICT, "The record was updated by another user. Please reload and retry.");
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> notAllowedNow(IllegalStateException e) {
+        return error(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<Map<String, String>> badRequest(RuntimeException e) {
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    private ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .body(Map.of("error", message != null ? message : status.getReasonPhrase()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.qdc.lims.api;
+
+import com.qdc.lims.config.ReplicaRead;
+import com.qdc.lims.dto.FinanceSummary;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.Payment;
+import com.qdc.lims.repository.PaymentRepository;
+import com.qdc.lims.service.OrderHistoryService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Finance summary endpoints. Served from the read pool when one is configured.
+ */
+@RestController
+@ReplicaRead
+@Profile("server")
+public class FinanceApiController {
+
+    private final OrderHistoryService orderHistory;
+    private final PaymentRepository paymentRepository;
+
+    public FinanceApiController(OrderHistoryService orderHistory, PaymentRepository paymentRepository) {
+        this.orderHistory = orderHistory;
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * Totals for orders and payments between two days (inclusive). Defaults to today.
+     */
+    @GetMapping("/api/finance/summary")
+    @Transactional(readOnly = true)
+    public FinanceSummary summary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start;
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+
+        LocalDateTime startTime = start.atStartOfDay();
+        LocalDateTime endTime = end.plusDays(1).atStartOfDay().minusNanos(1);
+
+        List<LabOrder> orders = orderHistory.findByOrderDateBetween(startTime, endTime);
+        double billed = 0.0;
+        double collected = 0.0;
+        double outstanding = 0.0;
+        for (LabOrder order : orders) {
+            billed += order.getTotalAmount() != null ? order.getTotalAmount() : 0.0;
+            collected += order.getPaidAmount() != null ? order.getPaidAmount() : 0.0;
+            outstanding += order.getBalanceDue() != null ? order.getBalanceDue() : 0.0;
+        }
+
+        double otherIncome = sum(paymentRepository.findByTypeAndTransactionDateBetween("INCOME", startTime, endTime));
+        double expenses = sum(paymentRepository.findByTypeAndTransactionDateBetween("EXPENSE", startTime, endTime));
+
+        return new FinanceSummary(start, end, orders.size(), billed, collected, otherIncome, expenses, outstanding);
+    }
+
+    private double sum(List<Payment> payments) {
+        double total = 0.0;
+        for (Payment payment : payments) {
+            if (payment.getAmount() != null) {
+                total += payment.getAmount();
+            }
+        }
+        return total;
+    }
+}
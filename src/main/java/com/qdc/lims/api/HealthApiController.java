@@ -0,0 +1,20 @@
+package com.qdc.lims.api;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Unauthenticated liveness check for stations probing the server.
+ */
+@RestController
+@Profile("server")
+public class HealthApiController {
+
+    @GetMapping("/api/health")
+    public Map<String, String> health() {
+        return Map.of("status", "UP");
+    }
+}
@@ -0,0 +1,83 @@
+package com.qdc.lims.api;
+
+import com.qdc.lims.dto.OrderRequest;
+import com.qdc.lims.dto.OrderView;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.service.OrderHistoryService;
+import com.qdc.lims.service.OrderService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Order creation and lookup endpoints.
+ */
+@RestController
+@Profile("server")
+@RequestMapping("/api/orders")
+public class OrderApiController {
+
+    private final LabOrderRepository orderRepository;
+    private final OrderHistoryService orderHistory;
+    private final OrderService orderService;
+
+    public OrderApiController(LabOrderRepository orderRepository, OrderHistoryService orderHistory,
+            OrderService orderService) {
+        this.orderRepository = orderRepository;
+        this.orderHistory = orderHistory;
+        this.orderService = orderService;
+    }
+
+    @GetMapping("/{id}")
+    @Transactional(readOnly = true)
+    public OrderView get(@PathVariable Long id) {
+        return orderHistory.findById(id)
+                .map(OrderView::from)
+                .orElseThrow(() -> new NoSuchElementException("Order not found: " + id));
+    }
+
+    /**
+     * Orders created on the given day (defaults to today), optionally filtered by status.
+     */
+    @GetMapping
+    @Transactional(readOnly = true)
+    public List<OrderView> list(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String status) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        var start = day.atStartOfDay();
+        var end = day.plusDays(1).atStartOfDay().minusNanos(1);
+        var orders = status == null || status.isBlank()
+                ? orderHistory.findByOrderDateBetween(start, end)
+                : orderRepository.findByStatusAndOrderDateBetween(status, start, end);
+        return orders.stream().map(OrderView::from).toList();
+    }
+
+    @GetMapping("/by-patient/{patientId}")
+    @Transactional(readOnly = true)
+    public List<OrderView> byPatient(@PathVariable Long patientId) {
+        return orderHistory.findByPatientIdOrderByIdDesc(patientId).stream()
+                .map(OrderView::from)
+                .toList();
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Transactional
+    public OrderView create(@RequestBody OrderRequest request) {
+        return OrderView.from(orderService.createOrder(request));
+    }
+}
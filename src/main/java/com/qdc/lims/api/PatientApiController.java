@@ -0,0 +1,93 @@
+package com.qdc.lims.api;
+
+import com.qdc.lims.dto.CumulativeReport;
+import com.qdc.lims.dto.PatientRequest;
+import com.qdc.lims.dto.PatientView;
+import com.qdc.lims.repository.PatientRepository;
+import com.qdc.lims.service.CumulativeReportService;
+import com.qdc.lims.service.PatientService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Patient lookup and registration endpoints.
+ */
+@RestController
+@Profile("server")
+@RequestMapping("/api/patients")
+public class PatientApiController {
+
+    private final PatientRepository patientRepository;
+    private final PatientService patientService;
+    private final CumulativeReportService cumulativeReportService;
+
+    public PatientApiController(PatientRepository patientRepository, PatientService patientService,
+            CumulativeReportService cumulativeReportService) {
+        this.patientRepository = patientRepository;
+        this.patientService = patientService;
+        this.cumulativeReportService = cumulativeReportService;
+    }
+
+    @GetMapping("/{id}")
+    public PatientView get(@PathVariable Long id) {
+        return patientRepository.findById(id)
+                .map(PatientView::from)
+                .orElseThrow(() -> new NoSuchElementException("Patient not found: " + id));
+    }
+
+    @GetMapping("/by-mrn/{mrn}")
+    public PatientView getByMrn(@PathVariable String mrn) {
+        return patientRepository.findByMrn(mrn)
+                .map(PatientView::from)
+                .orElseThrow(() -> new NoSuchElementException("Patient not found: " + mrn));
+    }
+
+    @GetMapping
+    public List<PatientView> search(@RequestParam("q") String query) {
+        return patientRepository.searchPatients(query).stream().map(PatientView::from).toList();
+    }
+
+    /**
+     * One page of the patient's cumulative results, newest visits first; pass
+     * {@code olderThanOrderId} of the response as {@code before} for the next page.
+     */
+    @GetMapping("/{id}/cumulative")
+    public CumulativeReport cumulative(@PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "" + CumulativeReportService.DEFAULT_VISITS) int visits,
+            @RequestParam(required = false) List<Long> tests) {
+        return cumulativeReportService.load(id, before, visits, tests);
+    }
+
+    @GetMapping("/{id}/cumulative/report")
+    public ResponseEntity<byte[]> cumulativeReport(@PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "" + CumulativeReportService.DEFAULT_VISITS) int visits,
+            @RequestParam(required = false) List<Long> tests) {
+        byte[] pdf = cumulativeReportService.generatePdf(id, before, visits, tests);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"cumulative-" + id + ".pdf\"")
+                .body(pdf);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public PatientView register(@RequestBody PatientRequest request) {
+        return PatientView.from(patientService.registerPatient(request.toPatient()));
+    }
+}
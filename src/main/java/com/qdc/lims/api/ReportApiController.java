@@ -0,0 +1,33 @@
+package com.qdc.lims.api;
+
+import com.qdc.lims.service.ReportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Report download endpoints.
+ */
+@RestController
+@Profile("server")
+public class ReportApiController {
+
+    private final ReportService reportService;
+
+    public ReportApiController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @GetMapping("/api/orders/{orderId}/report")
+    public ResponseEntity<byte[]> report(@PathVariable Long orderId) {
+        byte[] pdf = reportService.generatePdfReport(orderId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"report-" + orderId + ".pdf\"")
+                .body(pdf);
+    }
+}
@@ -0,0 +1,75 @@
+package com.qdc.lims.api;
+
+import com.qdc.lims.dto.OrderView;
+import com.qdc.lims.dto.ResultEntryRequest;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.service.ResultService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Result entry endpoints. Values go through {@link ResultService} so range flags,
+ * audit stamps and order status follow the same rules as the desktop screens.
+ */
+@RestController
+@Profile("server")
+@RequestMapping("/api/orders/{orderId}/results")
+public class ResultApiController {
+
+    private final ResultService resultService;
+    private final LabOrderRepository orderRepository;
+
+    public ResultApiController(ResultService resultService, LabOrderRepository orderRepository) {
+        this.resultService = resultService;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Saves result values for an order. Pass {@code editReason} to edit a completed order.
+     * Entries carrying the version they were read at get a 409 if someone saved that
+     * result since.
+     */
+    @PutMapping
+    @Transactional
+    public OrderView save(@PathVariable Long orderId,
+            @RequestBody List<ResultEntryRequest> entries,
+            @RequestParam(required = false) String editReason) {
+        LabOrder existing = orderRepository.findById(orderId)
+                .orElseThrow(() -> new NoSuchElementException("Order not found: " + orderId));
+
+        LabOrder form = new LabOrder();
+        form.setId(orderId);
+        for (ResultEntryRequest entry : entries) {
+            boolean belongsToOrder = existing.getResults().stream()
+                    .anyMatch(r -> r.getId().equals(entry.resultId()));
+            if (!belongsToOrder) {
+                throw new IllegalArgumentException(
+                        "Result " + entry.resultId() + " does not belong to order " + orderId);
+            }
+            LabResult row = new LabResult();
+            row.setId(entry.resultId());
+            row.setResultValue(entry.value());
+            row.setVersion(entry.version());
+            form.getResults().add(row);
+        }
+
+        if ("COMPLETED".equals(existing.getStatus())) {
+            resultService.saveEditedResults(form, editReason);
+        } else {
+            resultService.saveResultsFromForm(form);
+        }
+
+        return orderRepository.findById(orderId).map(OrderView::from).orElseThrow();
+    }
+}
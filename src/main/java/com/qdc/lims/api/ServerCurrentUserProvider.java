@@ -0,0 +1,24 @@
+package com.qdc.lims.api;
+
+import com.qdc.lims.ui.CurrentUserProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server implementation backed by the authenticated HTTP request.
+ */
+@Component
+@Profile("server")
+public class ServerCurrentUserProvider implements CurrentUserProvider {
+
+    @Override
+    public String getUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null) {
+            return "UNKNOWN";
+        }
+        return authentication.getName();
+    }
+}
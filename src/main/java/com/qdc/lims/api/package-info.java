@@ -0,0 +1,7 @@
+/**
+ * HTTP API exposed by the headless server mode ({@code server} profile).
+ * <p>
+ * Controllers here are thin adapters over the existing services and repositories;
+ * business rules stay in {@code com.qdc.lims.service}.
+ */
+package com.qdc.lims.api;
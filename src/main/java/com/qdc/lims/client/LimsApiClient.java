@@ -0,0 +1,122 @@
+package com.qdc.lims.client;
+
+import com.qdc.lims.dto.OrderView;
+import com.qdc.lims.dto.ResultEntryRequest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * HTTP client for the server API used by thin stations.
+ * <p>
+ * Authenticates with HTTP Basic against the server's user accounts. Error responses are
+ * turned into exceptions carrying the server's message: a 409 (changed by someone else,
+ * or held back) becomes {@link IllegalStateException}, anything else
+ * {@link RuntimeException}, the same split the desktop screens use.
+ */
+public class LimsApiClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private final RestClient http;
+
+    /**
+     * @param baseUrl  server URL, e.g. {@code http://lab-server:8085}
+     * @param username user name
+     * @param password password
+     */
+    public LimsApiClient(String baseUrl, String username, String password) {
+        String credentials = Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(CONNECT_TIMEOUT);
+        requestFactory.setReadTimeout(READ_TIMEOUT);
+        this.http = RestClient.builder()
+                .requestFactory(requestFactory)
+                .baseUrl(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Basic " + credentials)
+                .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
+                    throw toException(response.getStatusCode(), errorMessage(response.getBody().readAllBytes(),
+                            response.getStatusText()));
+                })
+                .build();
+    }
+
+    /**
+     * Orders placed on a day.
+     *
+     * @param date the day
+     * @return orders with their results
+     */
+    public List<OrderView> ordersOn(LocalDate date) {
+        return http.get()
+                .uri("/api/orders?date={date}", date)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<OrderView>>() {
+                });
+    }
+
+    /**
+     * One order with its results.
+     *
+     * @param orderId order id
+     * @return the order
+     */
+    public OrderView order(Long orderId) {
+        return http.get()
+                .uri("/api/orders/{id}", orderId)
+                .retrieve()
+                .body(OrderView.class);
+    }
+
+    /**
+     * Saves result values; each entry carries the version it was read at.
+     *
+     * @param orderId    order id
+     * @param entries    values to save
+     * @param editReason reason for editing a completed order, null otherwise
+     * @return the order as saved
+     */
+    public OrderView saveResults(Long orderId, List<ResultEntryRequest> entries, String editReason) {
+        return http.put()
+                .uri(uri -> {
+                    uri.path("/api/orders/{id}/results");
+                    if (editReason != null) {
+                        uri.queryParam("editReason", editReason);
+                    }
+                    return uri.build(orderId);
+                })
+                .body(entries)
+                .retrieve()
+                .body(OrderView.class);
+    }
+
+    private static RuntimeException toException(HttpStatusCode status, String message) {
+        if (status.value() == 401) {
+            return new RuntimeException("Invalid username or password");
+        }
+        return status.value() == 409 ? new IllegalStateException(message) : new RuntimeException(message);
+    }
+
+    /**
+     * The {@code error} field of the server's JSON error body, or the status text.
+     */
+    private static String errorMessage(byte[] body, String statusText) {
+        try {
+            String error = JsonMapper.shared().readTree(body).path("error").asString(null);
+            return error != null ? error : statusText;
+        } catch (RuntimeException e) {
+            return statusText;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.qdc.lims.client;
+
+import com.qdc.lims.dto.OrderView;
+import com.qdc.lims.dto.ResultEntryRequest;
+import com.qdc.lims.dto.ResultView;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.PasswordField;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Thin desktop station: result entry against a headless server over its HTTP API.
+ * <p>
+ * Started with {@code --client[=<server url>]} or {@code QDC_MODE=client}. No Spring
+ * context is built, so the station opens no database connection and initializes
+ * neither JPA nor Flyway; the server does that once for every station. Values are sent
+ * with the version they were read at, and the server applies the same range flags,
+ * status and audit rules as the full desktop.
+ */
+public class ThinClientApplication extends Application {
+
+    private static final String DEFAULT_SERVER = "http://localhost:8085";
+
+    private LimsApiClient api;
+    private final ListView<OrderView> orders = new ListView<>();
+    private final DatePicker day = new DatePicker(LocalDate.now());
+    private final Label status = new Label();
+    private final GridPane resultGrid = new GridPane();
+    private final Button save = new Button("Save Results");
+
+    // Fields of the order shown in the grid, by result id
+    private final Map<Long, TextField> valueFields = new LinkedHashMap<>();
+    private OrderView shown;
+
+    @Override
+    public void start(Stage stage) {
+        Optional<LimsApiClient> client = login(serverUrl());
+        if (client.isEmpty()) {
+            Platform.exit();
+            return;
+        }
+        api = client.get();
+
+        orders.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(OrderView order, boolean empty) {
+                super.updateItem(order, empty);
+                setText(empty || order == null ? null
+                        : "#" + order.id() + "  " + order.patientName() + " (" + order.mrn() + ")  " + order.status());
+            }
+        });
+        orders.getSelectionModel().selectedItemProperty().addListener((obs, old, order) -> showOrder(order));
+
+        Button refresh = new Button("Refresh");
+        refresh.setOnAction(e -> loadOrders());
+        day.setOnAction(e -> loadOrders());
+        save.setOnAction(e -> saveResults());
+        save.setDisable(true);
+
+        HBox toolbar = new HBox(10, new Label("Orders of"), day, refresh, status);
+        toolbar.setPadding(new Insets(10));
+        resultGrid.setHgap(12);
+        resultGrid.setVgap(6);
+        resultGrid.setPadding(new Insets(10));
+        HBox actions = new HBox(10, save);
+        actions.setPadding(new Insets(10));
+
+        BorderPane root = new BorderPane();
+        root.setTop(toolbar);
+        root.setLeft(orders);
+        root.setCenter(new ScrollPane(resultGrid));
+        root.setBottom(actions);
+        orders.setPrefWidth(340);
+
+        stage.setTitle("QDC LIMS - Result Entry (" + serverUrl() + ")");
+        stage.setScene(new Scene(root, 1000, 650));
+        stage.show();
+        loadOrders();
+    }
+
+    /**
+     * Server URL from {@code --client=<url>}, else {@code QDC_SERVER_URL}, else the default port on this PC.
+     */
+    private String serverUrl() {
+        for (String arg : getParameters().getRaw()) {
+            if (arg.startsWith("--client=") && arg.length() > "--client=".length()) {
+                return arg.substring("--client=".length());
+            }
+        }
+        String env = System.getenv("QDC_SERVER_URL");
+        return env != null && !env.isBlank() ? env : DEFAULT_SERVER;
+    }
+
+    private Optional<LimsApiClient> login(String server) {
+        String error = null;
+        while (true) {
+            Dialog<ButtonType> dialog = new Dialog<>();
+            dialog.setTitle("QDC LIMS");
+            dialog.setHeaderText(error != null ? "Sign in failed: " + error : "Sign in to " + server);
+            TextField username = new TextField();
+            PasswordField password = new PasswordField();
+            GridPane form = new GridPane();
+            form.setHgap(10);
+            form.setVgap(8);
+            form.addRow(0, new Label("Username"), username);
+            form.addRow(1, new Label("Password"), password);
+            dialog.getDialogPane().setContent(form);
+            dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+            Platform.runLater(username::requestFocus);
+
+            if (dialog.showAndWait().filter(ButtonType.OK::equals).isEmpty()) {
+                return Optional.empty();
+            }
+            LimsApiClient client = new LimsApiClient(server, username.getText().trim(), password.getText());
+            try {
+                // Any authenticated call checks the credentials
+                client.ordersOn(LocalDate.now());
+                return Optional.of(client);
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+        }
+    }
+
+    private void loadOrders() {
+        LocalDate date = day.getValue() != null ? day.getValue() : LocalDate.now();
+        Long selected = shown != null ? shown.id() : null;
+        status.setText("Loading...");
+        inBackground("orders-load", () -> api.ordersOn(date).stream()
+                .filter(o -> !"COMPLETED".equals(o.status()) && !"CANCELLED".equals(o.status()))
+                .toList(), open -> {
+                    orders.getItems().setAll(open);
+                    status.setText(open.size() + " open orders");
+                    open.stream().filter(o -> o.id().equals(selected)).findFirst()
+                            .ifPresentOrElse(o -> orders.getSelectionModel().select(o), () -> showOrder(null));
+                });
+    }
+
+    private void showOrder(OrderView order) {
+        shown = order;
+        valueFields.clear();
+        resultGrid.getChildren().clear();
+        save.setDisable(order == null);
+        if (order == null) {
+            return;
+        }
+        resultGrid.addRow(0, header("Test"), header("Value"), header("Unit"), header("Flag"));
+        int row = 1;
+        for (ResultView result : order.results()) {
+            TextField value = new TextField(result.value() != null ? result.value() : "");
+            value.setPrefColumnCount(10);
+            valueFields.put(result.id(), value);
+            Label flag = new Label(result.remarks() != null ? result.remarks() : "");
+            if (result.abnormal()) {
+                flag.setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
+            }
+            resultGrid.addRow(row++, new Label(result.testName()), value,
+                    new Label(result.unit() != null ? result.unit() : ""), flag);
+        }
+    }
+
+    private void saveResults() {
+        OrderView order = shown;
+        List<ResultEntryRequest> entries = new ArrayList<>();
+        for (ResultView result : order.results()) {
+            String value = valueFields.get(result.id()).getText().trim();
+            // Only changed values are sent, so a save does not conflict on untouched rows
+            if (!value.equals(Objects.requireNonNullElse(result.value(), ""))) {
+                entries.add(new ResultEntryRequest(result.id(), value, result.version()));
+            }
+        }
+        if (entries.isEmpty()) {
+            status.setText("No changes");
+            return;
+        }
+        save.setDisable(true);
+        status.setText("Saving...");
+        inBackground("result-save", () -> api.saveResults(order.id(), entries, null), saved -> {
+            status.setText("Saved " + entries.size() + " results of order #" + saved.id());
+            loadOrders();
+        });
+    }
+
+    /**
+     * Runs a server call off the FX thread and hands the result back on it. A failed call
+     * shows the server's message and reloads the orders.
+     */
+    private <T> void inBackground(String name, Supplier<T> call, Consumer<T> done) {
+        Thread worker = new Thread(() -> {
+            try {
+                T result = call.get();
+                Platform.runLater(() -> done.accept(result));
+            } catch (RuntimeException e) {
+                System.err.println("[ThinClient] " + name + " failed: " + e.getMessage());
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(e instanceof IllegalStateException
+                            ? Alert.AlertType.WARNING : Alert.AlertType.ERROR, e.getMessage());
+                    alert.setHeaderText(null);
+                    alert.showAndWait();
+                    status.setText("");
+                    if (!"orders-load".equals(name)) {
+                        loadOrders();
+                    }
+                });
+            }
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static Label header(String text) {
+        Label label = new Label(text);
+        label.setStyle("-fx-font-weight: bold;");
+        return label;
+    }
+}
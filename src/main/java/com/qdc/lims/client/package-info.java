@@ -0,0 +1,8 @@
+/**
+ * Thin desktop station for the headless server mode.
+ * <p>
+ * Talks to the server only through its HTTP API ({@code com.qdc.lims.api}) and reuses
+ * the API's request and view records from {@code com.qdc.lims.dto}; nothing here is a
+ * Spring bean.
+ */
+package com.qdc.lims.client;
@@ -4,7 +4,6 @@ import com.qdc.lims.entity.Permission;
 import com.qdc.lims.entity.Role;
 import com.qdc.lims.repository.PermissionRepository;
 import com.qdc.lims.repository.RoleRepository;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,16 +14,17 @@ import java.util.List;
 
 /**
  * Initializes default roles, permissions, and users if database is empty.
+ * Runs as a {@link StartupTask}, in parallel with the other startup work.
  */
 @Configuration
 public class AdminUserInitializer {
 
     @Bean
-    public CommandLineRunner initializeData(
+    public StartupTask initializeData(
             RoleRepository roleRepository,
             PermissionRepository permissionRepository) {
 
-        return args -> {
+        return () -> {
             // Only initialize if no roles exist
             if (roleRepository.count() == 0) {
                 System.out.println("🔧 Initializing Roles, Permissions, and Users...");
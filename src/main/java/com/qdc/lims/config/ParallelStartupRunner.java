@@ -0,0 +1,70 @@
+package com.qdc.lims.config;
+
+import com.qdc.lims.ui.diagnostics.StartupTimings;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs all {@link StartupTask} beans in parallel and waits for them.
+ * <p>
+ * Runs ahead of the other runners (the dev seeders rely on roles being present).
+ * A failing task aborts startup, same as a failing {@code CommandLineRunner}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ParallelStartupRunner implements ApplicationRunner {
+
+    private final Map<String, StartupTask> tasks;
+
+    public ParallelStartupRunner(Map<String, StartupTask> tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.min(tasks.size(), Math.max(2, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "startup-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            tasks.forEach((name, task) -> futures.add(executor.submit(() -> {
+                long start = System.currentTimeMillis();
+                task.run();
+                StartupTimings.recordTask(name, System.currentTimeMillis() - start);
+                return null;
+            })));
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Startup task failed: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        StartupTimings.mark("Startup tasks");
+    }
+}
@@ -0,0 +1,151 @@
+package com.qdc.lims.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends report and analytics reads to a separate read pool when {@code qdc.datasource.read.url} is set.
+ * <p>
+ * The pools are defined whether or not a read URL is set, and the URL is only looked at
+ * when the context starts. The AOT context of the fast-start build fixes its bean set at
+ * build time, so a bean condition on the URL would silently ignore one set later.
+ * Without a URL the read pool is never opened and every connection comes from the primary.
+ * <p>
+ * Only read-only transactions started under {@link ReplicaRead} (or {@link ReplicaRouting#call})
+ * get their connection from the read pool, which may point at a streaming replica or a
+ * local copy of the database. Everything else, including plain Spring Data finders and the
+ * screens that read back what they just saved, stays on the primary. When the read
+ * database lags more than {@code qdc.datasource.read.max-staleness-seconds} or is
+ * unreachable, marked reads fall back to the primary too.
+ */
+@Configuration
+@Profile("!sqlite")
+public class ReadReplicaDataSourceConfig {
+
+    // Streaming replicas report replay delay; a caught-up or primary server reports 0
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String primaryUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String primaryPassword;
+
+    @Value("${spring.datasource.driver-class-name:}")
+    private String primaryDriverClassName;
+
+    @Value("${qdc.datasource.read.url:}")
+    private String readUrl;
+
+    @Value("${qdc.datasource.read.username:${spring.datasource.username:}}")
+    private String readUsername;
+
+    @Value("${qdc.datasource.read.password:${spring.datasource.password:}}")
+    private String readPassword;
+
+    @Value("${qdc.datasource.read.max-staleness-seconds:30}")
+    private long maxStalenessSeconds;
+
+    @Value("${qdc.datasource.read.check-interval-seconds:10}")
+    private long checkIntervalSeconds;
+
+    @Value("${qdc.datasource.read.lag-query:}")
+    private String lagQuery;
+
+    /**
+     * The primary pool, configured by the usual {@code spring.datasource.hikari.*} settings.
+     */
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("primary");
+        dataSource.setJdbcUrl(primaryUrl);
+        dataSource.setUsername(primaryUsername);
+        dataSource.setPassword(primaryPassword);
+        if (!primaryDriverClassName.isBlank()) {
+            dataSource.setDriverClassName(primaryDriverClassName);
+        }
+        return dataSource;
+    }
+
+    /**
+     * The read pool, tuned by {@code qdc.datasource.read.hikari.*}. Opened on first use,
+     * so it stays closed while no read URL is set.
+     */
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("qdc.datasource.read.hikari")
+    public HikariDataSource readDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("read");
+        dataSource.setJdbcUrl(readUrl);
+        dataSource.setUsername(readUsername);
+        dataSource.setPassword(readPassword);
+        dataSource.setReadOnly(true);
+        dataSource.setAllowPoolSuspension(true);
+        // Report queries should not wait long for a dead replica before falling back
+        dataSource.setConnectionTimeout(5_000);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaReadDataSource replicaReadDataSource(@Qualifier("readDataSource") HikariDataSource read,
+            @Qualifier("primaryDataSource") HikariDataSource primary) {
+        if (readUrl.isBlank()) {
+            return new ReplicaReadDataSource(null, primary, null, maxStalenessSeconds, checkIntervalSeconds);
+        }
+        System.out.println("[ReplicaRead] Read pool configured for " + readUrl);
+        String query = lagQuery == null || lagQuery.isBlank() ? POSTGRES_LAG_QUERY : lagQuery;
+        return new ReplicaReadDataSource(read, primary, query, maxStalenessSeconds, checkIntervalSeconds);
+    }
+
+    /**
+     * Applies {@link ReplicaRouting} around {@link ReplicaRead} classes and methods. Runs
+     * before the transaction interceptor so the key is set when the connection is taken.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor replicaReadAdvisor() {
+        Pointcut pointcut = new ComposablePointcut(AnnotationMatchingPointcut.forClassAnnotation(ReplicaRead.class))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(ReplicaRead.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, ReplicaRouting.interceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * The application's DataSource: the primary, or the read pool once a connection is
+     * marked read-only by a {@code readOnly} transaction before its first statement and
+     * {@link ReplicaRouting} is active on the thread.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+            ReplicaReadDataSource replicaRead) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(replicaRead);
+        return proxy;
+    }
+}
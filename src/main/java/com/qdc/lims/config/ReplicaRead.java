@@ -0,0 +1,23 @@
+package com.qdc.lims.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks report and analytics work that may read from the read pool.
+ * <p>
+ * Read-only transactions started inside an annotated method (or any method of an
+ * annotated class) get their connection from {@link ReplicaReadDataSource}, which can
+ * be up to {@code qdc.datasource.read.max-staleness-seconds} behind the primary. Only
+ * use it where that does not matter, such as date-range totals; everything else,
+ * including plain Spring Data finders, reads from the primary. Code that is not a
+ * Spring bean (JavaFX controllers) uses {@link ReplicaRouting#call} instead.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaRead {
+}
@@ -0,0 +1,132 @@
+package com.qdc.lims.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only connections from a replica while it is reachable and fresh enough and the
+ * thread is doing {@link ReplicaRead} work, otherwise from the primary.
+ * <p>
+ * Replica lag is measured in the background every few seconds with a query that returns
+ * the lag in seconds; connection requests only read the last result. A replica that
+ * fails to hand out a connection is skipped until the next successful check. Without a
+ * replica every connection comes from the primary and nothing is checked.
+ */
+public class ReplicaReadDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final String lagQuery;
+    private final long maxStalenessSeconds;
+    private final ScheduledExecutorService checker;
+
+    private volatile boolean replicaUsable;
+    private volatile double lastLagSeconds = -1;
+
+    /**
+     * @param replica the read pool, or null when none is configured
+     * @param primary the primary pool
+     * @param lagQuery query returning the replica lag in seconds (unused without a replica)
+     * @param maxStalenessSeconds lag above which reads go to the primary
+     * @param checkIntervalSeconds seconds between lag checks
+     */
+    public ReplicaReadDataSource(DataSource replica, DataSource primary, String lagQuery,
+            long maxStalenessSeconds, long checkIntervalSeconds) {
+        this.replica = replica;
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxStalenessSeconds = maxStalenessSeconds;
+        if (replica == null) {
+            this.checker = null;
+            return;
+        }
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-check");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::checkReplica, 0, Math.max(1, checkIntervalSeconds), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Whether marked read-only work currently goes to the replica.
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Replica lag at the last check in seconds, or -1 if it could not be measured.
+     */
+    public double getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicaUsable && ReplicaRouting.isActive()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markUnusable("replica connection failed: " + e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (replicaUsable && ReplicaRouting.isActive()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markUnusable("replica connection failed: " + e.getMessage());
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    private void checkReplica() {
+        try (Connection conn = replica.getConnection();
+                Statement st = conn.createStatement()) {
+            st.setQueryTimeout(5);
+            try (ResultSet rs = st.executeQuery(lagQuery)) {
+                double lag = rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+                lastLagSeconds = lag;
+                if (lag <= maxStalenessSeconds) {
+                    if (!replicaUsable) {
+                        System.out.println("[ReplicaRead] Read replica in use (lag " + Math.round(lag) + " s)");
+                    }
+                    replicaUsable = true;
+                } else {
+                    markUnusable("lag " + Math.round(lag) + " s exceeds " + maxStalenessSeconds + " s");
+                }
+            }
+        } catch (Exception e) {
+            lastLagSeconds = -1;
+            markUnusable(e.getMessage());
+        }
+    }
+
+    private void markUnusable(String reason) {
+        if (replicaUsable) {
+            System.err.println("[ReplicaRead] Reading from primary: " + reason);
+        }
+        replicaUsable = false;
+    }
+
+    @Override
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+    }
+}
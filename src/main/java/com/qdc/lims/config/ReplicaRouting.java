@@ -0,0 +1,67 @@
+package com.qdc.lims.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+
+import java.util.function.Supplier;
+
+/**
+ * The routing key that lets read-only transactions on the current thread use the read pool.
+ * <p>
+ * Set around {@link ReplicaRead} methods by {@link #interceptor()}, or around a block of
+ * report queries with {@link #call}. It must be set before the transaction starts; once a
+ * transaction holds a connection, that connection is used until it ends.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * Whether read-only work on this thread may go to the read pool.
+     */
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(REPLICA.get());
+    }
+
+    /**
+     * Runs report queries that may read from the read pool.
+     *
+     * @param reads the queries; each read-only transaction they start may use the replica
+     * @param <T>   result type
+     * @return what the queries returned
+     */
+    public static <T> T call(Supplier<T> reads) {
+        Boolean previous = REPLICA.get();
+        REPLICA.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Interceptor applied to {@link ReplicaRead} beans, ahead of their transaction.
+     */
+    static MethodInterceptor interceptor() {
+        return invocation -> {
+            Boolean previous = REPLICA.get();
+            REPLICA.set(Boolean.TRUE);
+            try {
+                return invocation.proceed();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            REPLICA.remove();
+        } else {
+            REPLICA.set(previous);
+        }
+    }
+}
@@ -4,12 +4,14 @@ import com.qdc.lims.ui.SessionManager;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 /**
  * Spring configuration that applies the session timeout to the desktop UI
- * {@link SessionManager} at startup.
+ * {@link SessionManager} at startup. Kept eager because nothing injects it.
  */
 @Configuration
+@Lazy(false)
 public class SessionTimeoutConfig {
 
     @Value("${qdc.session.timeout:30}")
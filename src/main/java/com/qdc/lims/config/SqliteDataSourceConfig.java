@@ -0,0 +1,98 @@
+package com.qdc.lims.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection pools for single-PC branches on SQLite ({@code sqlite} profile).
+ * <p>
+ * SQLite allows one writer at a time, so all write transactions share a single pooled
+ * connection: windows that save at the same moment queue for it in the pool instead of
+ * failing with {@code SQLITE_BUSY}. The database runs in WAL mode, where readers never
+ * block the writer, and {@code @Transactional(readOnly = true)} work is sent to a separate
+ * read-only pool. With {@code synchronous=NORMAL} a commit only appends to the WAL; the
+ * fsync happens once per checkpoint for all commits since the last one.
+ */
+@Configuration
+@Profile("sqlite")
+public class SqliteDataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${qdc.sqlite.read-pool-size:4}")
+    private int readPoolSize;
+
+    @Value("${qdc.sqlite.busy-timeout-ms:10000}")
+    private int busyTimeoutMillis;
+
+    @Value("${qdc.sqlite.cache-size-kb:65536}")
+    private int cacheSizeKb;
+
+    @Value("${qdc.sqlite.mmap-size-mb:256}")
+    private long mmapSizeMb;
+
+    /**
+     * The only connection that writes. Created first so WAL mode is set before any reader opens.
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteWriteDataSource() {
+        HikariConfig config = baseConfig("sqlite-writer");
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(1);
+        config.addDataSourceProperty("journal_mode", "WAL");
+        // Waiting writers hold no locks; give a long save time to finish before failing
+        config.setConnectionTimeout(60_000);
+        return new HikariDataSource(config);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteReadDataSource(
+            @Qualifier("sqliteWriteDataSource") HikariDataSource writer) {
+        // Takes the writer only to be created after it
+        HikariConfig config = baseConfig("sqlite-reader");
+        config.setMaximumPoolSize(Math.max(1, readPoolSize));
+        config.setMinimumIdle(1);
+        config.setReadOnly(true);
+        config.setConnectionInitSql("PRAGMA query_only = 1");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * The application's DataSource: the writer, or the reader pool once a connection is
+     * marked read-only by a {@code readOnly} transaction before its first statement.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("sqliteWriteDataSource") HikariDataSource writer,
+            @Qualifier("sqliteReadDataSource") HikariDataSource reader) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writer);
+        proxy.setReadOnlyDataSource(reader);
+        return proxy;
+    }
+
+    private HikariConfig baseConfig(String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(jdbcUrl);
+        config.setDriverClassName("org.sqlite.JDBC");
+        // Pragmas applied by the SQLite driver when each connection opens
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMillis));
+        config.addDataSourceProperty("cache_size", String.valueOf(-cacheSizeKb));
+        config.addDataSourceProperty("mmap_size", String.valueOf(mmapSizeMb * 1024 * 1024));
+        config.addDataSourceProperty("temp_store", "MEMORY");
+        // Pool suspension is used by the online restore
+        config.setAllowPoolSuspension(true);
+        return config;
+    }
+}
@@ -0,0 +1,19 @@
+package com.qdc.lims.config;
+
+/**
+ * Independent piece of startup work (seeding, one-time migrations).
+ * <p>
+ * Beans of this type are run in parallel by {@link ParallelStartupRunner} before
+ * the first window opens, so a task must not depend on another task's output.
+ * The bean name is used in the startup timing report.
+ */
+@FunctionalInterface
+public interface StartupTask {
+
+    /**
+     * Runs the task.
+     *
+     * @throws Exception if the task fails; startup is aborted
+     */
+    void run() throws Exception;
+}
@@ -4,37 +4,59 @@ import com.qdc.lims.entity.TestConsumption;
 import com.qdc.lims.entity.TestRecipe;
 import com.qdc.lims.repository.TestConsumptionRepository;
 import com.qdc.lims.repository.TestRecipeRepository;
-import org.springframework.boot.CommandLineRunner;
+import com.qdc.lims.service.ConfigService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Migrates legacy test recipe rows into the active test_consumption table.
  * This keeps inventory deduction aligned with the admin UI.
+ * <p>
+ * Nothing writes legacy recipes any more, so the migration runs once and records
+ * completion in {@code system_configurations}; later starts skip it.
  */
 @Configuration
 public class TestRecipeMigrationConfig {
 
+    static final String MIGRATION_DONE_KEY = "MIGRATION_LEGACY_TEST_RECIPES_DONE";
+
     @Bean
-    public CommandLineRunner migrateLegacyTestRecipes(
+    public StartupTask migrateLegacyTestRecipes(
             TestRecipeRepository legacyRecipeRepo,
-            TestConsumptionRepository consumptionRepo) {
-        return args -> {
+            TestConsumptionRepository consumptionRepo,
+            ConfigService configService) {
+        return () -> {
+            if (Boolean.parseBoolean(configService.getTrimmed(MIGRATION_DONE_KEY, "false"))) {
+                return;
+            }
+
             var legacyRecipes = legacyRecipeRepo.findAll();
             if (legacyRecipes.isEmpty()) {
+                configService.set(MIGRATION_DONE_KEY, "true");
                 return;
             }
 
-            int migrated = 0;
+            // One query for the existing (test, item) pairs instead of a lookup per legacy row.
+            Set<String> existing = new HashSet<>();
+            for (TestConsumption tc : consumptionRepo.findAll()) {
+                if (tc.getTest() != null && tc.getItem() != null) {
+                    existing.add(tc.getTest().getId() + ":" + tc.getItem().getId());
+                }
+            }
+
+            List<TestConsumption> toSave = new ArrayList<>();
             for (TestRecipe legacy : legacyRecipes) {
                 if (legacy.getTest() == null || legacy.getInventoryItem() == null) {
                     continue;
                 }
 
-                boolean exists = consumptionRepo
-                        .findByTestAndItem(legacy.getTest(), legacy.getInventoryItem())
-                        .isPresent();
-                if (exists) {
+                String key = legacy.getTest().getId() + ":" + legacy.getInventoryItem().getId();
+                if (!existing.add(key)) {
                     continue;
                 }
 
@@ -42,14 +64,15 @@ public class TestRecipeMigrationConfig {
                 tc.setTest(legacy.getTest());
                 tc.setItem(legacy.getInventoryItem());
                 tc.setQuantity(legacy.getQuantity());
-                consumptionRepo.save(tc);
-                migrated++;
+                toSave.add(tc);
             }
 
-            if (migrated > 0) {
-                System.out.println("Migrated " + migrated + " legacy test recipe entries to test_consumption.");
+            consumptionRepo.saveAll(toSave);
+            configService.set(MIGRATION_DONE_KEY, "true");
+
+            if (!toSave.isEmpty()) {
+                System.out.println("Migrated " + toSave.size() + " legacy test recipe entries to test_consumption.");
             }
         };
     }
 }
-
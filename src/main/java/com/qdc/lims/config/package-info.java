@@ -2,6 +2,7 @@
  * Spring configuration components and startup wiring.
  * <p>
  * This package contains configuration classes that bridge application settings
- * into runtime services (for example, session timeout configuration).
+ * into runtime services (for example, session timeout configuration), and the
+ * startup tasks that seed or migrate data before the first window opens.
  */
 package com.qdc.lims.config;
@@ -0,0 +1,45 @@
+package com.qdc.lims.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a patient's cumulative result history: a test-by-visit matrix.
+ *
+ * @param patientId        patient id
+ * @param patientName      patient name
+ * @param mrn              patient MRN
+ * @param visits           visits on this page, oldest first
+ * @param heldVisits       visits whose values are withheld (QC rejected, not verified or
+ *                         not complete), by order id, with the reason
+ * @param tests            one row per test reported in the visits that are not held
+ * @param olderThanOrderId pass as {@code before} to load the next older page, null if none
+ */
+public record CumulativeReport(
+        Long patientId,
+        String patientName,
+        String mrn,
+        List<PatientVisit> visits,
+        Map<Long, String> heldVisits,
+        List<TestTrend> tests,
+        Long olderThanOrderId) {
+
+    /**
+     * Values of one test across the visits of the page.
+     *
+     * @param testId         test definition id
+     * @param testName       test name
+     * @param department     department name
+     * @param unit           unit of measure
+     * @param referenceRange default reference range, empty if none
+     * @param points         reported values of the visits that are not held, oldest first
+     */
+    public record TestTrend(
+            Long testId,
+            String testName,
+            String department,
+            String unit,
+            String referenceRange,
+            List<ResultPoint> points) {
+    }
+}
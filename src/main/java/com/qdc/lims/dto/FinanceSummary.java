@@ -0,0 +1,26 @@
+package com.qdc.lims.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Income/expense totals for a date range, returned by the server API.
+ *
+ * @param from              first day (inclusive)
+ * @param to                last day (inclusive)
+ * @param orderCount        number of orders created in the range
+ * @param billedAmount      total billed on those orders (before discount)
+ * @param collectedAmount   amount paid on those orders
+ * @param otherIncome       INCOME payments recorded in the range
+ * @param expenses          EXPENSE payments recorded in the range
+ * @param outstandingAmount balance still due on those orders
+ */
+public record FinanceSummary(
+        LocalDate from,
+        LocalDate to,
+        long orderCount,
+        double billedAmount,
+        double collectedAmount,
+        double otherIncome,
+        double expenses,
+        double outstandingAmount) {
+}
@@ -0,0 +1,62 @@
+package com.qdc.lims.dto;
+
+import com.qdc.lims.entity.LabOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read model for a lab order returned by the server API.
+ *
+ * @param id               order id
+ * @param patientId        patient id
+ * @param patientName      patient full name
+ * @param mrn              patient medical record number
+ * @param doctorName       referring doctor name (nullable for walk-in)
+ * @param orderDate        order creation time
+ * @param status           order status
+ * @param reportDelivered  whether the report was handed over
+ * @param totalAmount      billed amount
+ * @param discountAmount   discount applied
+ * @param paidAmount       amount paid
+ * @param balanceDue       remaining balance
+ * @param results          result rows for the order
+ */
+public record OrderView(
+        Long id,
+        Long patientId,
+        String patientName,
+        String mrn,
+        String doctorName,
+        LocalDateTime orderDate,
+        String status,
+        boolean reportDelivered,
+        Double totalAmount,
+        Double discountAmount,
+        Double paidAmount,
+        Double balanceDue,
+        List<ResultView> results) {
+
+    /**
+     * Builds the view from a loaded order (patient, doctor and results are eager).
+     *
+     * @param order the order entity
+     * @return the view
+     */
+    public static OrderView from(LabOrder order) {
+        return new OrderView(
+                order.getId(),
+                order.getPatient() != null ? order.getPatient().getId() : null,
+                order.getPatient() != null ? order.getPatient().getFullName() : null,
+                order.getPatient() != null ? order.getPatient().getMrn() : null,
+                order.getReferringDoctor() != null ? order.getReferringDoctor().getName() : null,
+                order.getOrderDate(),
+                order.getStatus(),
+                order.isReportDelivered(),
+                order.getTotalAmount(),
+                order.getDiscountAmount(),
+                order.getPaidAmount(),
+                order.getBalanceDue(),
+                order.getResults().stream().map(ResultView::from).toList());
+    }
+}
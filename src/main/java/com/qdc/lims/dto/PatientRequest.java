@@ -0,0 +1,43 @@
+package com.qdc.lims.dto;
+
+import com.qdc.lims.entity.Patient;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for registering a patient through the server API. The MRN is generated.
+ *
+ * @param fullName     full name
+ * @param age          age in years
+ * @param gender       gender
+ * @param cnic         national ID card number (optional)
+ * @param city         city or village (optional)
+ * @param mobileNumber mobile number (optional)
+ * @param dateOfBirth  date of birth (optional)
+ */
+public record PatientRequest(
+        String fullName,
+        Integer age,
+        String gender,
+        String cnic,
+        String city,
+        String mobileNumber,
+        LocalDate dateOfBirth) {
+
+    /**
+     * Creates a new, unsaved patient from the request.
+     *
+     * @return the patient entity
+     */
+    public Patient toPatient() {
+        Patient patient = new Patient();
+        patient.setFullName(fullName);
+        patient.setAge(age);
+        patient.setGender(gender);
+        patient.setCnic(cnic);
+        patient.setCity(city);
+        patient.setMobileNumber(mobileNumber);
+        patient.setDateOfBirth(dateOfBirth);
+        return patient;
+    }
+}
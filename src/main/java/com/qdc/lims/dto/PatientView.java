@@ -0,0 +1,52 @@
+package com.qdc.lims.dto;
+
+import com.qdc.lims.entity.Patient;
+
+import java.time.LocalDate;
+
+/**
+ * Read model for a patient returned by the server API.
+ *
+ * @param id               patient id
+ * @param mrn              medical record number
+ * @param cnic             national ID card number (nullable)
+ * @param fullName         full name
+ * @param age              age in years
+ * @param gender           gender
+ * @param city             city or village
+ * @param mobileNumber     mobile number
+ * @param dateOfBirth      date of birth (optional)
+ * @param registrationDate date the patient was registered
+ */
+public record PatientView(
+        Long id,
+        String mrn,
+        String cnic,
+        String fullName,
+        Integer age,
+        String gender,
+        String city,
+        String mobileNumber,
+        LocalDate dateOfBirth,
+        LocalDate registrationDate) {
+
+    /**
+     * Builds the view from a patient entity.
+     *
+     * @param patient the patient entity
+     * @return the view
+     */
+    public static PatientView from(Patient patient) {
+        return new PatientView(
+                patient.getId(),
+                patient.getMrn(),
+                patient.getCnic(),
+                patient.getFullName(),
+                patient.getAge(),
+                patient.getGender(),
+                patient.getCity(),
+                patient.getMobileNumber(),
+                patient.getDateOfBirth(),
+                patient.getRegistrationDate());
+    }
+}
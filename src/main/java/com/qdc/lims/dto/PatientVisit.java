@@ -0,0 +1,20 @@
+package com.qdc.lims.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One visit (order) of a patient, as a column of the cumulative report.
+ *
+ * @param orderId          order id
+ * @param orderDate        time the order was placed
+ * @param status           order status
+ * @param verifiedAt       when the results were verified, null if not yet
+ * @param verificationHold failed auto-verification checks, null if none
+ */
+public record PatientVisit(
+        Long orderId,
+        LocalDateTime orderDate,
+        String status,
+        LocalDateTime verifiedAt,
+        String verificationHold) {
+}
@@ -5,8 +5,12 @@ package com.qdc.lims.dto;
  *
  * @param resultId the ID of the result to update
  * @param value the value to be entered for the result
+ * @param version the result version the value was entered against, as returned in
+ *        {@link ResultView}; when given, a value saved by someone else since is not
+ *        overwritten (optional)
  */
 public record ResultEntryRequest(
         Long resultId,
-        String value) {
+        String value,
+        Long version) {
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.qdc.lims.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A single reported value in a patient's result history.
+ *
+ * @param testId    test definition id
+ * @param orderId   order the value was reported on
+ * @param orderDate time the order was placed
+ * @param value     reported value
+ * @param abnormal  abnormal flag
+ */
+public record ResultPoint(
+        Long testId,
+        Long orderId,
+        LocalDateTime orderDate,
+        String value,
+        boolean abnormal) {
+
+    /**
+     * The value as a number, or null for text results such as "Positive".
+     *
+     * @return numeric value or null
+     */
+    public BigDecimal numericValue() {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.qdc.lims.dto;
+
+import com.qdc.lims.entity.LabResult;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for a single result row returned by the server API.
+ *
+ * @param id          result id
+ * @param testId      test definition id
+ * @param testName    test name
+ * @param shortCode   test short code
+ * @param unit        unit of measure
+ * @param value       entered value (empty while pending)
+ * @param abnormal    abnormal flag
+ * @param remarks     LOW/HIGH/Normal or free text
+ * @param status      result status
+ * @param performedBy username that entered the value
+ * @param performedAt time the value was entered
+ * @param version     row version, sent back with an edit of this result
+ */
+public record ResultView(
+        Long id,
+        Long testId,
+        String testName,
+        String shortCode,
+        String unit,
+        String value,
+        boolean abnormal,
+        String remarks,
+        String status,
+        String performedBy,
+        LocalDateTime performedAt,
+        Long version) {
+
+    /**
+     * Builds the view from a result entity.
+     *
+     * @param result the result entity
+     * @return the view
+     */
+    public static ResultView from(LabResult result) {
+        var test = result.getTestDefinition();
+        return new ResultView(
+                result.getId(),
+                test != null ? test.getId() : null,
+                test != null ? test.getTestName() : null,
+                test != null ? test.getShortCode() : null,
+                test != null ? test.getUnit() : null,
+                result.getResultValue(),
+                result.isAbnormal(),
+                result.getRemarks(),
+                result.getStatus(),
+                result.getPerformedBy(),
+                result.getPerformedAt(),
+                result.getVersion());
+    }
+}
@@ -0,0 +1,60 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * One auto-verification rule: a check every result of a completed order must pass for the
+ * order to be verified without a pathologist. Rules without a test apply to every test.
+ * The counters record how often the rule was evaluated and how often it held an order.
+ */
+@Entity
+@Data
+@Table(name = "auto_verify_rule")
+public class AutoVerifyRule {
+
+    /**
+     * Checks a rule can perform on a result.
+     */
+    public enum Check {
+        /** The result has a value. */
+        RESULT_PRESENT,
+        /** The result is within its reference range. */
+        WITHIN_RANGE,
+        /** The delta check against the patient's previous result passed. */
+        DELTA_PASSED,
+        /** The value is not beyond the test's critical limits. */
+        NO_CRITICAL,
+        /** The analyzer sent no flags (or only N for normal). */
+        INSTRUMENT_FLAGS_CLEAR,
+        /** The value is a number; text results go to review. */
+        NUMERIC_VALUE,
+        /** Always hold: the test is always reviewed by a pathologist. */
+        MANUAL_REVIEW
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "check_type", nullable = false)
+    private Check check;
+
+    @ManyToOne
+    @JoinColumn(name = "test_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TestDefinition test; // Null = every test
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    @Column(nullable = false)
+    private long evaluatedCount; // Results the rule was applied to
+
+    @Column(nullable = false)
+    private long heldCount; // Results that failed the rule
+}
@@ -0,0 +1,38 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * A critical (panic) value found when a result was saved. Open until someone
+ * acknowledges it, normally after phoning the result to the requesting doctor.
+ */
+@Entity
+@Data
+@Table(name = "critical_alert")
+public class CriticalAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long orderId;
+    private Long resultId;
+    private Long patientId;
+
+    private String patientName;
+    private String mrn;
+    private String testName;
+    private String resultValue;
+    private String unit;
+    private String criticalLimit; // The limit that was crossed, e.g. "> 6.5"
+
+    private double severity; // How far beyond the limit, relative to it; higher = more urgent
+
+    private LocalDateTime raisedAt;
+    private String raisedBy; // Who or what saved the value
+
+    private LocalDateTime acknowledgedAt;
+    private String acknowledgedBy;
+}
@@ -0,0 +1,34 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Analyzer result that could not be posted to an order (error queue).
+ * Kept until a technician enters the value by hand and marks the entry resolved.
+ */
+@Entity
+@Data
+@Table(name = "instrument_import_error")
+public class InstrumentImportError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private LocalDateTime receivedAt;
+
+    private String instrument; // Sending analyzer from the file header
+    private String sourceFile;
+    private String sampleId; // Sample/order number as sent by the analyzer
+    private String testCode; // Analyzer test code
+    private String resultValue;
+    private String units;
+
+    @Column(length = 500)
+    private String reason; // Why it was not posted, e.g. "Order not found"
+
+    @Column(nullable = false)
+    private boolean resolved = false;
+}
@@ -57,6 +57,14 @@ public class LabOrder {
     private LocalDateTime lastReprintAt;
     private String lastReprintBy;
 
+    // --- VERIFICATION ---
+    private LocalDateTime verifiedAt; // Null until released by the auto-verification rules or a pathologist
+    private String verifiedBy; // Username, or "AUTO"
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean autoVerified = false;
+    @Column(length = 500)
+    private String verificationHold; // Why auto-verification left the order for review
+
     // ---------- Update: To incorporate accounting ----------//
     private Double discountAmount = 0.0; // e.g. 100
     private Double taxAmount = 0.0; // (Optional, usually 0 in labs)
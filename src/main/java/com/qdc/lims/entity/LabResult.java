@@ -37,6 +37,8 @@ public class LabResult {
     private String resultValue;
     private boolean isAbnormal;
     private String remarks;
+    private String deltaFlag; // Set when the value jumps implausibly from the patient's previous one
+    private String instrumentFlags; // Abnormal/warning flags sent by the analyzer with the value
 
     // --- AUDIT TRAIL ---
     private String performedBy; // The Username (e.g., "labtech1")
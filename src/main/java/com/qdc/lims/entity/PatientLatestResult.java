@@ -0,0 +1,39 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Latest and previous reported value of one test for one patient.
+ * Maintained on result save so the delta check needs one indexed lookup per order
+ * instead of walking the patient's order history.
+ */
+@Entity
+@Data
+@Table(name = "patient_latest_result",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "patient_id", "test_id" }))
+public class PatientLatestResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "test_id", nullable = false)
+    private Long testId;
+
+    // Most recent order with a value for this test
+    private Long resultId;
+    private Long orderId;
+    private String resultValue;
+    private LocalDateTime resultAt;
+
+    // The one before it, used while the latest order itself is being entered or edited
+    private Long previousResultId;
+    private Long previousOrderId;
+    private String previousValue;
+    private LocalDateTime previousAt;
+}
@@ -0,0 +1,72 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * One lot of a QC material as used for one test: the target values, the running
+ * Levey-Jennings statistics of the accepted runs and the Westgard rule state.
+ * <p>
+ * Without a target mean and SD the lot's own statistics are used once it has
+ * {@code QcService.MIN_POINTS} accepted runs; until then runs are only collected.
+ */
+@Entity
+@Data
+@Table(name = "qc_lot")
+public class QcLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    private Long version; // Two stations adding runs to the same lot must not lose one
+
+    @ManyToOne
+    @JoinColumn(name = "material_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private QcMaterial material;
+
+    @Column(nullable = false)
+    private String lotNumber; // As printed on the vial; also the sample ID the analyzer sends
+
+    @ManyToOne
+    @JoinColumn(name = "test_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TestDefinition test;
+
+    private LocalDate expiryDate;
+
+    private Double targetMean; // From the insert or set by the lab; null = use the running mean
+    private Double targetSd;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    // --- Levey-Jennings statistics (Welford) of the accepted runs ---
+    @Column(nullable = false)
+    private long pointCount;
+    @Column(nullable = false)
+    private double runningMean;
+    @Column(nullable = false)
+    private double runningM2; // Sum of squared differences from the running mean
+
+    // --- Westgard rule state ---
+    private Double lastZ;
+    @Column(nullable = false)
+    private int sideRun;
+    @Column(nullable = false)
+    private int oneSdRun;
+    @Column(nullable = false)
+    private int twoSdRun;
+
+    @Column(nullable = false)
+    private boolean blocked; // Latest run rejected: results of the test are not released
+    private String blockedReason;
+}
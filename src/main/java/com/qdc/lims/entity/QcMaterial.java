@@ -0,0 +1,27 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A quality-control material (control serum) at one concentration level.
+ */
+@Entity
+@Data
+@Table(name = "qc_material")
+public class QcMaterial {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name; // e.g. "Lyphochek Assayed Chemistry"
+
+    private String manufacturer;
+
+    private String level; // e.g. "Level 1", "Normal", "High"
+
+    @Column(nullable = false)
+    private boolean active = true;
+}
@@ -0,0 +1,40 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * One measured QC value with the Westgard rules it violated.
+ */
+@Entity
+@Data
+@Table(name = "qc_run")
+public class QcRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "lot_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private QcLot lot;
+
+    @Column(name = "qc_value", nullable = false)
+    private double value;
+
+    private LocalDateTime runAt;
+    private String enteredBy;
+    private String source; // "MANUAL" or the imported file name
+
+    private Double zScore; // Null while the lot has no target and too few runs
+    private String violations; // e.g. "1-2s, 2-2s"; null when in control
+
+    @Column(nullable = false)
+    private boolean rejected; // A rejecting rule fired; not part of the statistics
+}
@@ -27,4 +27,7 @@ public class ReferenceRange {
 
     private java.math.BigDecimal minVal; // The Low Limit
     private java.math.BigDecimal maxVal; // The High Limit
+
+    private java.math.BigDecimal criticalLow; // Panic value below this (null = the test's limit)
+    private java.math.BigDecimal criticalHigh; // Panic value above this (null = the test's limit)
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.qdc.lims.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * One reflex rule: when a result of the trigger test meets the condition, the reflex test
+ * is added to the same order (e.g. abnormal TSH adds FT4). The counter records how often
+ * the rule added its test.
+ */
+@Entity
+@Data
+@Table(name = "reflex_rule")
+public class ReflexRule {
+
+    /**
+     * Conditions a trigger result can meet.
+     */
+    public enum Condition {
+        /** The result is flagged abnormal. */
+        ABNORMAL,
+        /** The result is flagged LOW. */
+        LOW,
+        /** The result is flagged HIGH. */
+        HIGH,
+        /** The value is a number above the threshold. */
+        ABOVE,
+        /** The value is a number below the threshold. */
+        BELOW,
+        /** The value equals the threshold text, ignoring case (e.g. "Positive"). */
+        EQUALS
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "trigger_test_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TestDefinition triggerTest;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "condition_type", nullable = false)
+    private Condition condition;
+
+    @Column(length = 100)
+    private String threshold; // Number for ABOVE/BELOW, text for EQUALS
+
+    @ManyToOne
+    @JoinColumn(name = "reflex_test_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private TestDefinition reflexTest;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    @Column(nullable = false)
+    private long firedCount; // Times the reflex test was added
+}
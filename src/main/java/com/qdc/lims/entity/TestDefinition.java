@@ -60,6 +60,39 @@ public class TestDefinition {
      */
     private BigDecimal maxRange;
 
+    /**
+     * Values below this are critical (panic) values; null = no lower limit.
+     */
+    private BigDecimal criticalLow;
+
+    /**
+     * Values above this are critical (panic) values; null = no upper limit.
+     */
+    private BigDecimal criticalHigh;
+
+    /**
+     * Delta check: largest plausible absolute change from the patient's previous value.
+     */
+    private BigDecimal deltaAbsolute;
+
+    /**
+     * Delta check: largest plausible change in percent of the previous value.
+     */
+    private BigDecimal deltaPercent;
+
+    /**
+     * Delta check: previous values older than this many days are not compared
+     * (null = no limit).
+     */
+    private Integer deltaWindowDays;
+
+    /**
+     * Formula for a calculated test over other tests' short codes, e.g. {@code TC - HDL - TG / 5}
+     * (null = entered or measured).
+     */
+    @Column(length = 500)
+    private String formula;
+
     /**
      * Price charged for the test.
      */
@@ -0,0 +1,100 @@
+package com.qdc.lims.formula;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A compiled test formula.
+ * <p>
+ * Syntax: numbers, test short codes ({@code TC}, or {@code [T-BIL]} for codes with other
+ * characters), {@code + - * / ^}, comparisons ({@code < <= > >= == !=}), {@code && || !},
+ * parentheses and the functions {@code min, max, abs, sqrt, pow, exp, ln, log, round(x[, n])}
+ * and {@code if(condition, then, else)}. {@code AGE}, {@code FEMALE} and {@code MALE} refer
+ * to the patient. Comparisons yield 1 or 0.
+ * <p>
+ * Examples: {@code TC - HDL - TG / 5} (Friedewald LDL), {@code ALB / (TP - ALB)} (A/G ratio),
+ * {@code 142 * min(CREA / if(FEMALE, 0.7, 0.9), 1) ^ if(FEMALE, -0.241, -0.302)
+ * * max(CREA / if(FEMALE, 0.7, 0.9), 1) ^ -1.2 * 0.9938 ^ AGE * if(FEMALE, 1.012, 1)} (eGFR).
+ * <p>
+ * Variables are bound to array slots at compile time and constant sub-expressions are
+ * folded, so evaluation is a walk over a handful of nodes without lookups or allocation.
+ */
+public final class Formula {
+
+    /** Patient variables, resolved from the order rather than from results. */
+    public static final List<String> PATIENT_VARIABLES = List.of("AGE", "FEMALE", "MALE");
+
+    /**
+     * A compiled expression node.
+     */
+    interface Node {
+        double eval(double[] values);
+    }
+
+    private final String expression;
+    private final Node root;
+    private final List<String> variables;
+
+    private Formula(String expression, Node root, List<String> variables) {
+        this.expression = expression;
+        this.root = root;
+        this.variables = variables;
+    }
+
+    /**
+     * Parses and compiles a formula.
+     *
+     * @param expression formula text
+     * @return compiled formula
+     * @throws IllegalArgumentException if the formula is not valid, with the position
+     */
+    public static Formula compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Formula is empty");
+        }
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        Node root = new FormulaParser(expression, name -> slots.computeIfAbsent(name, k -> slots.size())).parse();
+        return new Formula(expression.trim(), root, Collections.unmodifiableList(new ArrayList<>(slots.keySet())));
+    }
+
+    /**
+     * Variables the formula reads, upper case, in slot order.
+     *
+     * @return short codes and patient variables
+     */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /**
+     * Evaluates the formula.
+     *
+     * @param values one value per entry of {@link #variables()}, in the same order
+     * @return the result; NaN or infinite if undefined (e.g. division by zero)
+     */
+    public double evaluate(double[] values) {
+        return root.eval(values);
+    }
+
+    /**
+     * Original formula text.
+     *
+     * @return formula text
+     */
+    public String expression() {
+        return expression;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    static String normalize(String name) {
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+}
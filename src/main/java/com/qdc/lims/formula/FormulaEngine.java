@@ -0,0 +1,328 @@
+package com.qdc.lims.formula;
+
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.Patient;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.repository.TestDefinitionRepository;
+import com.qdc.lims.util.CachedValue;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recomputes calculated tests when their inputs change.
+ * <p>
+ * The tests that have a formula form a dependency graph keyed by short code. The graph
+ * is built once from the test definitions and cached; saving a test definition
+ * invalidates it, and it is rebuilt after {@link #GRAPH_TTL_MILLIS} so that edits made
+ * from another station are picked up. Formulas are compiled once per distinct text.
+ * <p>
+ * {@link #recalculate(Patient, Collection, Collection)} walks the graph from the
+ * results that changed and evaluates only the calculated tests downstream of them, in
+ * dependency order, so a calculated test that reads another calculated test sees its
+ * new value within the same save.
+ */
+@Service
+public class FormulaEngine {
+
+    static final long GRAPH_TTL_MILLIS = 60_000;
+
+    private final TestDefinitionRepository testRepository;
+    private final Map<String, Formula> compiled = new ConcurrentHashMap<>();
+    private final CachedValue<Graph> graph;
+
+    public FormulaEngine(TestDefinitionRepository testRepository) {
+        this.testRepository = testRepository;
+        this.graph = new CachedValue<>(GRAPH_TTL_MILLIS, this::buildGraph);
+    }
+
+    /**
+     * Drops the cached dependency graph; call after test definitions change.
+     */
+    public void invalidate() {
+        graph.invalidate();
+    }
+
+    /**
+     * Checks a test's formula before it is saved: the formula must compile, every code
+     * it uses must belong to a test (or be a patient variable) and the test must not
+     * depend on itself, directly or through other calculated tests.
+     *
+     * @param test test definition about to be saved
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    public void validate(TestDefinition test) {
+        String formula = test.getFormula();
+        if (formula == null || formula.isBlank()) {
+            return;
+        }
+        if (test.getShortCode() == null || test.getShortCode().isBlank()) {
+            throw new IllegalArgumentException("A calculated test needs a short code");
+        }
+        Formula compiledFormula = Formula.compile(formula);
+        String code = Formula.normalize(test.getShortCode());
+
+        Set<String> knownCodes = new HashSet<>();
+        Map<String, Formula> formulas = new HashMap<>();
+        for (TestDefinition other : testRepository.findAll()) {
+            if (other.getShortCode() == null || other.getShortCode().isBlank()
+                    || (test.getId() != null && test.getId().equals(other.getId()))) {
+                continue;
+            }
+            String otherCode = Formula.normalize(other.getShortCode());
+            knownCodes.add(otherCode);
+            if (other.getFormula() != null && !other.getFormula().isBlank()) {
+                try {
+                    formulas.put(otherCode, compile(other.getFormula()));
+                } catch (IllegalArgumentException e) {
+                    // Reported when that test is saved; it is not part of the graph
+                }
+            }
+        }
+        for (String variable : compiledFormula.variables()) {
+            if (variable.equals(code)) {
+                throw new IllegalArgumentException("Formula of " + code + " refers to itself");
+            }
+            if (!Formula.PATIENT_VARIABLES.contains(variable) && !knownCodes.contains(variable)) {
+                throw new IllegalArgumentException("Unknown test code in formula: " + variable);
+            }
+        }
+        formulas.put(code, compiledFormula);
+        List<String> path = cycleFrom(code, formulas);
+        if (path != null) {
+            throw new IllegalArgumentException("Circular formula: " + String.join(" -> ", path));
+        }
+    }
+
+    /**
+     * Recomputes the calculated results of one order that depend on the changed results.
+     * <p>
+     * A calculated result is left alone when one of its inputs is not on the order, has
+     * no value or is not a number, or when the formula is undefined for the inputs.
+     *
+     * @param patient      the order's patient, for AGE / FEMALE / MALE
+     * @param orderResults all results of the order
+     * @param changed      results whose value was just set
+     * @return calculated results whose value changed, in dependency order
+     */
+    public List<LabResult> recalculate(Patient patient, Collection<LabResult> orderResults,
+            Collection<LabResult> changed) {
+        Graph current = graph.get();
+        if (current.byCode.isEmpty() || changed.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Derived> affected = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (LabResult result : changed) {
+            String code = codeOf(result);
+            if (code != null) {
+                queue.add(code);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (Derived dependent : current.dependents.getOrDefault(queue.poll(), List.of())) {
+                if (affected.add(dependent)) {
+                    queue.add(dependent.code);
+                }
+            }
+        }
+        if (affected.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, LabResult> byCode = new HashMap<>();
+        for (LabResult result : orderResults) {
+            String code = codeOf(result);
+            if (code != null) {
+                byCode.putIfAbsent(code, result);
+            }
+        }
+
+        List<Derived> ordered = new ArrayList<>(affected);
+        ordered.sort(Comparator.comparingInt(d -> d.rank));
+        Map<LabResult, Boolean> updated = new IdentityHashMap<>();
+        List<LabResult> updatedInOrder = new ArrayList<>();
+        for (Derived derived : ordered) {
+            LabResult target = byCode.get(derived.code);
+            if (target == null) {
+                continue;
+            }
+            double[] values = inputs(derived.formula, patient, byCode);
+            if (values == null) {
+                continue;
+            }
+            double value = derived.formula.evaluate(values);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+            String text = format(value);
+            if (!text.equals(target.getResultValue()) && updated.put(target, Boolean.TRUE) == null) {
+                target.setResultValue(text);
+                updatedInOrder.add(target);
+            }
+        }
+        return updatedInOrder;
+    }
+
+    private static double[] inputs(Formula formula, Patient patient, Map<String, LabResult> byCode) {
+        List<String> variables = formula.variables();
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            String variable = variables.get(i);
+            switch (variable) {
+                case "AGE" -> {
+                    if (patient == null || patient.getAge() == null) {
+                        return null;
+                    }
+                    values[i] = patient.getAge();
+                }
+                case "FEMALE" -> values[i] = patient != null && "FEMALE".equalsIgnoreCase(patient.getGender()) ? 1 : 0;
+                case "MALE" -> values[i] = patient != null && "MALE".equalsIgnoreCase(patient.getGender()) ? 1 : 0;
+                default -> {
+                    LabResult input = byCode.get(variable);
+                    String text = input != null ? input.getResultValue() : null;
+                    if (text == null || text.isBlank()) {
+                        return null;
+                    }
+                    try {
+                        values[i] = Double.parseDouble(text.trim());
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Two decimals at most, without trailing zeros: 3.333 -> "3.33", 4.10 -> "4.1".
+     */
+    static String format(double value) {
+        BigDecimal rounded = BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).stripTrailingZeros();
+        return rounded.signum() == 0 ? "0" : rounded.toPlainString();
+    }
+
+    private static String codeOf(LabResult result) {
+        TestDefinition test = result.getTestDefinition();
+        if (test == null || test.getShortCode() == null || test.getShortCode().isBlank()) {
+            return null;
+        }
+        return Formula.normalize(test.getShortCode());
+    }
+
+    private Formula compile(String expression) {
+        Formula formula = compiled.get(expression);
+        if (formula == null) {
+            formula = Formula.compile(expression);
+            compiled.put(expression, formula);
+        }
+        return formula;
+    }
+
+    private Graph buildGraph() {
+        Map<String, Formula> formulas = new HashMap<>();
+        for (TestDefinition test : testRepository.findByFormulaIsNotNull()) {
+            if (test.getFormula().isBlank() || test.getShortCode() == null || test.getShortCode().isBlank()
+                    || !Boolean.TRUE.equals(test.getActive())) {
+                continue;
+            }
+            try {
+                formulas.put(Formula.normalize(test.getShortCode()), compile(test.getFormula()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("[FormulaEngine] Skipping " + test.getShortCode() + ": " + e.getMessage());
+            }
+        }
+
+        Map<String, Integer> ranks = new HashMap<>();
+        for (String code : new ArrayList<>(formulas.keySet())) {
+            List<String> cycle = cycleFrom(code, formulas);
+            if (cycle != null) {
+                System.err.println("[FormulaEngine] Skipping circular formula: " + String.join(" -> ", cycle));
+                continue;
+            }
+            rank(code, formulas, ranks);
+        }
+
+        Map<String, Derived> byCode = new HashMap<>();
+        Map<String, List<Derived>> dependents = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : ranks.entrySet()) {
+            Derived derived = new Derived(entry.getKey(), formulas.get(entry.getKey()), entry.getValue());
+            byCode.put(derived.code, derived);
+            for (String input : derived.formula.variables()) {
+                dependents.computeIfAbsent(input, k -> new ArrayList<>()).add(derived);
+            }
+        }
+        return new Graph(Collections.unmodifiableMap(byCode), Collections.unmodifiableMap(dependents));
+    }
+
+    /**
+     * Longest chain of calculated inputs below a test; 0 when it reads measured values only.
+     */
+    private static int rank(String code, Map<String, Formula> formulas, Map<String, Integer> ranks) {
+        Integer known = ranks.get(code);
+        if (known != null) {
+            return known;
+        }
+        int rank = 0;
+        for (String input : formulas.get(code).variables()) {
+            if (formulas.containsKey(input)) {
+                rank = Math.max(rank, rank(input, formulas, ranks) + 1);
+            }
+        }
+        ranks.put(code, rank);
+        return rank;
+    }
+
+    /**
+     * Returns the codes of a cycle reachable from {@code start}, or null if there is none.
+     */
+    private static List<String> cycleFrom(String start, Map<String, Formula> formulas) {
+        return cycleFrom(start, formulas, new ArrayList<>(), new HashSet<>());
+    }
+
+    private static List<String> cycleFrom(String code, Map<String, Formula> formulas, List<String> path,
+            Set<String> done) {
+        int index = path.indexOf(code);
+        if (index >= 0) {
+            List<String> cycle = new ArrayList<>(path.subList(index, path.size()));
+            cycle.add(code);
+            return cycle;
+        }
+        Formula formula = formulas.get(code);
+        if (formula == null || done.contains(code)) {
+            return null;
+        }
+        path.add(code);
+        for (String input : formula.variables()) {
+            List<String> cycle = cycleFrom(input, formulas, path, done);
+            if (cycle != null) {
+                return cycle;
+            }
+        }
+        path.remove(path.size() - 1);
+        done.add(code);
+        return null;
+    }
+
+    private record Derived(String code, Formula formula, int rank) {
+    }
+
+    private record Graph(Map<String, Derived> byCode, Map<String, List<Derived>> dependents) {
+    }
+}
@@ -0,0 +1,339 @@
+package com.qdc.lims.formula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Recursive-descent parser that turns formula text into {@link Formula.Node} trees.
+ * <p>
+ * Precedence, lowest first: {@code ||}, {@code &&}, comparisons, {@code + -},
+ * {@code * /}, unary {@code - + !}, {@code ^} (right-associative).
+ */
+final class FormulaParser {
+
+    private final String text;
+    private final ToIntFunction<String> slotOf;
+    private int pos;
+
+    FormulaParser(String text, ToIntFunction<String> slotOf) {
+        this.text = text;
+        this.slotOf = slotOf;
+    }
+
+    Formula.Node parse() {
+        Formula.Node node = or();
+        skipSpaces();
+        if (pos < text.length()) {
+            throw error("Unexpected '" + text.charAt(pos) + "'");
+        }
+        return node;
+    }
+
+    private Formula.Node or() {
+        Formula.Node left = and();
+        while (accept("||")) {
+            Formula.Node l = left;
+            Formula.Node r = and();
+            left = fold(v -> l.eval(v) != 0 || r.eval(v) != 0 ? 1 : 0, l, r);
+        }
+        return left;
+    }
+
+    private Formula.Node and() {
+        Formula.Node left = comparison();
+        while (accept("&&")) {
+            Formula.Node l = left;
+            Formula.Node r = comparison();
+            left = fold(v -> l.eval(v) != 0 && r.eval(v) != 0 ? 1 : 0, l, r);
+        }
+        return left;
+    }
+
+    private Formula.Node comparison() {
+        Formula.Node l = sum();
+        if (accept("<=")) {
+            Formula.Node r = sum();
+            return fold(v -> l.eval(v) <= r.eval(v) ? 1 : 0, l, r);
+        }
+        if (accept(">=")) {
+            Formula.Node r = sum();
+            return fold(v -> l.eval(v) >= r.eval(v) ? 1 : 0, l, r);
+        }
+        if (accept("==")) {
+            Formula.Node r = sum();
+            return fold(v -> l.eval(v) == r.eval(v) ? 1 : 0, l, r);
+        }
+        if (accept("!=")) {
+            Formula.Node r = sum();
+            return fold(v -> l.eval(v) != r.eval(v) ? 1 : 0, l, r);
+        }
+        if (accept("<")) {
+            Formula.Node r = sum();
+            return fold(v -> l.eval(v) < r.eval(v) ? 1 : 0, l, r);
+        }
+        if (accept(">")) {
+            Formula.Node r = sum();
+            return fold(v -> l.eval(v) > r.eval(v) ? 1 : 0, l, r);
+        }
+        return l;
+    }
+
+    private Formula.Node sum() {
+        Formula.Node left = term();
+        while (true) {
+            Formula.Node l = left;
+            if (accept("+")) {
+                Formula.Node r = term();
+                left = fold(v -> l.eval(v) + r.eval(v), l, r);
+            } else if (accept("-")) {
+                Formula.Node r = term();
+                left = fold(v -> l.eval(v) - r.eval(v), l, r);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Formula.Node term() {
+        Formula.Node left = unary();
+        while (true) {
+            Formula.Node l = left;
+            if (accept("*")) {
+                Formula.Node r = unary();
+                left = fold(v -> l.eval(v) * r.eval(v), l, r);
+            } else if (accept("/")) {
+                Formula.Node r = unary();
+                left = fold(v -> l.eval(v) / r.eval(v), l, r);
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Formula.Node unary() {
+        if (accept("-")) {
+            Formula.Node n = unary();
+            return fold(v -> -n.eval(v), n);
+        }
+        if (accept("+")) {
+            return unary();
+        }
+        if (peek("!") && !peek("!=")) {
+            pos++;
+            Formula.Node n = unary();
+            return fold(v -> n.eval(v) == 0 ? 1 : 0, n);
+        }
+        return power();
+    }
+
+    private Formula.Node power() {
+        Formula.Node base = primary();
+        if (accept("^")) {
+            // Right-associative, and the exponent may carry a sign: 2 ^ -1
+            Formula.Node exponent = unary();
+            return fold(v -> Math.pow(base.eval(v), exponent.eval(v)), base, exponent);
+        }
+        return base;
+    }
+
+    private Formula.Node primary() {
+        skipSpaces();
+        if (pos >= text.length()) {
+            throw error("Unexpected end of formula");
+        }
+        char c = text.charAt(pos);
+        if (c == '(') {
+            pos++;
+            Formula.Node inner = or();
+            expect(")");
+            return inner;
+        }
+        if (c == '[') {
+            int end = text.indexOf(']', pos);
+            if (end < 0) {
+                throw error("Missing ']'");
+            }
+            String code = text.substring(pos + 1, end);
+            if (code.isBlank()) {
+                throw error("Empty test code");
+            }
+            pos = end + 1;
+            return variable(code);
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return number();
+        }
+        if (Character.isLetter(c) || c == '_') {
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos))
+                    || text.charAt(pos) == '_' || text.charAt(pos) == '.')) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            if (accept("(")) {
+                return function(name.toLowerCase(), start);
+            }
+            return variable(name);
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Formula.Node number() {
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            int mark = pos++;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            } else {
+                pos = mark;
+            }
+        }
+        try {
+            return new Constant(Double.parseDouble(text.substring(start, pos)));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Invalid number");
+        }
+    }
+
+    private Formula.Node variable(String name) {
+        int slot = slotOf.applyAsInt(Formula.normalize(name));
+        return v -> v[slot];
+    }
+
+    private Formula.Node function(String name, int start) {
+        List<Formula.Node> args = new ArrayList<>();
+        if (!accept(")")) {
+            do {
+                args.add(or());
+            } while (accept(","));
+            expect(")");
+        }
+        Formula.Node[] a = args.toArray(new Formula.Node[0]);
+        switch (name) {
+            case "min", "max" -> {
+                if (a.length == 0) {
+                    break;
+                }
+                boolean min = name.equals("min");
+                return fold(v -> {
+                    double result = a[0].eval(v);
+                    for (int i = 1; i < a.length; i++) {
+                        double x = a[i].eval(v);
+                        result = min ? Math.min(result, x) : Math.max(result, x);
+                    }
+                    return result;
+                }, a);
+            }
+            case "abs" -> {
+                if (a.length == 1) {
+                    return fold(v -> Math.abs(a[0].eval(v)), a);
+                }
+            }
+            case "sqrt" -> {
+                if (a.length == 1) {
+                    return fold(v -> Math.sqrt(a[0].eval(v)), a);
+                }
+            }
+            case "exp" -> {
+                if (a.length == 1) {
+                    return fold(v -> Math.exp(a[0].eval(v)), a);
+                }
+            }
+            case "ln" -> {
+                if (a.length == 1) {
+                    return fold(v -> Math.log(a[0].eval(v)), a);
+                }
+            }
+            case "log" -> {
+                if (a.length == 1) {
+                    return fold(v -> Math.log10(a[0].eval(v)), a);
+                }
+            }
+            case "pow" -> {
+                if (a.length == 2) {
+                    return fold(v -> Math.pow(a[0].eval(v), a[1].eval(v)), a);
+                }
+            }
+            case "round" -> {
+                if (a.length == 1) {
+                    return fold(v -> (double) Math.round(a[0].eval(v)), a);
+                }
+                if (a.length == 2) {
+                    return fold(v -> {
+                        double scale = Math.pow(10, Math.round(a[1].eval(v)));
+                        return Math.round(a[0].eval(v) * scale) / scale;
+                    }, a);
+                }
+            }
+            case "if" -> {
+                if (a.length == 3) {
+                    return fold(v -> a[0].eval(v) != 0 ? a[1].eval(v) : a[2].eval(v), a);
+                }
+            }
+            default -> {
+                pos = start;
+                throw error("Unknown function '" + name + "'");
+            }
+        }
+        pos = start;
+        throw error("Wrong number of arguments for '" + name + "'");
+    }
+
+    /**
+     * Replaces a node whose inputs are all constants by its value.
+     */
+    private static Formula.Node fold(Formula.Node node, Formula.Node... inputs) {
+        for (Formula.Node input : inputs) {
+            if (!(input instanceof Constant)) {
+                return node;
+            }
+        }
+        return new Constant(node.eval(new double[0]));
+    }
+
+    private boolean accept(String token) {
+        if (peek(token)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean peek(String token) {
+        skipSpaces();
+        return text.startsWith(token, pos);
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("Expected '" + token + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + (pos + 1) + " in formula: " + text);
+    }
+
+    private record Constant(double value) implements Formula.Node {
+        @Override
+        public double eval(double[] values) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * Calculated tests.
+ * <p>
+ * {@link com.qdc.lims.formula.Formula} compiles a test's formula once into a tree of
+ * evaluators over a value array, and {@link com.qdc.lims.formula.FormulaEngine} keeps
+ * the dependency graph between tests so that saving a result recomputes only the
+ * calculated results that depend on it, in dependency order.
+ */
+package com.qdc.lims.formula;
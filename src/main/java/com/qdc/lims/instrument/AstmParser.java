@@ -0,0 +1,150 @@
+package com.qdc.lims.instrument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * ASTM E1394 (LIS2-A2) result file parser.
+ * <p>
+ * Accepts plain record files as well as captured low-level frames
+ * ({@code <STX>n...<ETB|ETX>cc}); frames split with ETB are joined before parsing.
+ * The delimiters are taken from the header record. The sample ID comes from the order
+ * record (O-3, or O-4 when the analyzer only fills in its own specimen ID) and each
+ * result record (R) yields one {@link InstrumentRecord}.
+ */
+public class AstmParser implements InstrumentFileParser {
+
+    static final char STX = 0x02;
+    static final char ETX = 0x03;
+    static final char ETB = 0x17;
+
+    @Override
+    public void parse(BufferedReader in, Consumer<InstrumentRecord> sink) throws IOException {
+        char field = '|';
+        char repeat = '\\';
+        char component = '^';
+        char escape = '&';
+        String instrument = null;
+        String sampleId = null;
+        StringBuilder pending = new StringBuilder();
+
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            String record = unframe(line, pending);
+            if (record == null || record.isEmpty()) {
+                continue;
+            }
+
+            switch (Character.toUpperCase(record.charAt(0))) {
+                case 'H' -> {
+                    if (record.length() >= 5) {
+                        field = record.charAt(1);
+                        repeat = record.charAt(2);
+                        component = record.charAt(3);
+                        escape = record.charAt(4);
+                    }
+                    String[] f = split(record, field);
+                    instrument = first(components(get(f, 4), component));
+                    sampleId = null;
+                }
+                case 'P', 'L' -> sampleId = null;
+                case 'O' -> {
+                    String[] f = split(record, field);
+                    String specimen = first(components(get(f, 2), component));
+                    sampleId = specimen != null ? specimen : first(components(get(f, 3), component));
+                }
+                case 'R' -> {
+                    String[] f = split(record, field);
+                    String[] testId = components(get(f, 2), component);
+                    // Universal test ID: ^^^code^..., some analyzers send the code alone
+                    String code = testId.length > 3 && !testId[3].isBlank() ? testId[3] : first(testId);
+                    String value = first(components(get(f, 3), component));
+                    sink.accept(new InstrumentRecord(
+                            instrument,
+                            sampleId,
+                            code,
+                            unescape(value, field, repeat, component, escape),
+                            unescape(first(components(get(f, 4), component)), field, repeat, component, escape),
+                            trimToNull(get(f, 6)),
+                            trimToNull(get(f, 8)),
+                            lineNo));
+                }
+                default -> {
+                    // C, M, Q and S records carry nothing we import
+                }
+            }
+        }
+    }
+
+    /**
+     * Strips low-level framing from a line. Returns null while an ETB-split record is
+     * still incomplete.
+     */
+    private static String unframe(String line, StringBuilder pending) {
+        int stx = line.indexOf(STX);
+        if (stx < 0) {
+            if (!line.isEmpty() && (line.charAt(0) == ETX || line.charAt(0) == ETB)) {
+                // Trailer of the previous frame on its own line
+                return null;
+            }
+            return pending.isEmpty() ? line.trim() : null;
+        }
+        String body = line.substring(stx + 1);
+        if (!body.isEmpty() && Character.isDigit(body.charAt(0))) {
+            body = body.substring(1);
+        }
+        int etb = body.indexOf(ETB);
+        if (etb >= 0) {
+            pending.append(body, 0, etb);
+            return null;
+        }
+        int etx = body.indexOf(ETX);
+        if (etx >= 0) {
+            body = body.substring(0, etx);
+        }
+        pending.append(body);
+        String record = InstrumentFileParser.stripControl(pending.toString());
+        pending.setLength(0);
+        return record;
+    }
+
+    private static String[] split(String record, char delimiter) {
+        return record.split(Pattern.quote(String.valueOf(delimiter)), -1);
+    }
+
+    private static String[] components(String value, char component) {
+        return value == null ? new String[0] : split(value, component);
+    }
+
+    private static String get(String[] fields, int index) {
+        return index < fields.length ? fields[index] : null;
+    }
+
+    private static String first(String[] components) {
+        for (String c : components) {
+            if (!c.isBlank()) {
+                return c.trim();
+            }
+        }
+        return null;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String unescape(String value, char field, char repeat, char component, char escape) {
+        if (value == null || value.indexOf(escape) < 0) {
+            return value;
+        }
+        String e = String.valueOf(escape);
+        return value.replace(e + "F" + e, String.valueOf(field))
+                .replace(e + "S" + e, String.valueOf(component))
+                .replace(e + "R" + e, String.valueOf(repeat))
+                .replace(e + "E" + e, e);
+    }
+}
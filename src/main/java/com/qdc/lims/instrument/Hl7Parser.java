@@ -0,0 +1,153 @@
+package com.qdc.lims.instrument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * HL7 v2 ORU^R01 result file parser.
+ * <p>
+ * Files may hold several messages and may still carry the MLLP block characters.
+ * Segments are read one per line (CR, LF or CRLF). The sending application (MSH-3) is
+ * taken as the instrument, the sample ID comes from OBR-3 (filler), OBR-2 (placer) or
+ * SPM-2, and each OBX segment yields one {@link InstrumentRecord}.
+ */
+public class Hl7Parser implements InstrumentFileParser {
+
+    @Override
+    public void parse(BufferedReader in, Consumer<InstrumentRecord> sink) throws IOException {
+        char field = '|';
+        char component = '^';
+        char repeat = '~';
+        char escape = '\\';
+        char subcomponent = '&';
+        String instrument = null;
+        String sampleId = null;
+
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            String segment = InstrumentFileParser.stripControl(line);
+            if (segment.length() < 4) {
+                continue;
+            }
+            String type = segment.substring(0, 3);
+
+            if (type.equals("MSH")) {
+                field = segment.charAt(3);
+                String encoding = segment.substring(4, Math.max(4, segment.indexOf(field, 4)));
+                component = encoding.length() > 0 ? encoding.charAt(0) : '^';
+                repeat = encoding.length() > 1 ? encoding.charAt(1) : '~';
+                escape = encoding.length() > 2 ? encoding.charAt(2) : '\\';
+                subcomponent = encoding.length() > 3 ? encoding.charAt(3) : '&';
+                // MSH-1 is the field separator itself, so MSH-n is at index n - 1
+                String[] f = split(segment, field);
+                instrument = first(get(f, 2), component, repeat);
+                sampleId = null;
+                continue;
+            }
+
+            String[] f = split(segment, field);
+            switch (type) {
+                case "OBR" -> {
+                    String filler = first(get(f, 3), component, repeat);
+                    sampleId = filler != null ? filler : first(get(f, 2), component, repeat);
+                }
+                case "SPM" -> {
+                    if (sampleId == null) {
+                        sampleId = first(get(f, 2), component, repeat);
+                    }
+                }
+                case "OBX" -> {
+                    String valueType = trimToNull(get(f, 2));
+                    String code = firstComponent(get(f, 3), component, repeat);
+                    String value = value(valueType, get(f, 5), component, repeat);
+                    sink.accept(new InstrumentRecord(
+                            instrument,
+                            sampleId,
+                            code,
+                            unescape(value, field, component, repeat, escape, subcomponent),
+                            unescape(first(get(f, 6), component, repeat), field, component, repeat, escape,
+                                    subcomponent),
+                            trimToNull(get(f, 8)),
+                            trimToNull(get(f, 11)),
+                            lineNo));
+                }
+                default -> {
+                    // PID, PV1, ORC, NTE and the rest carry nothing we import
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads OBX-5 according to its value type: coded values use their text (or code),
+     * structured numerics join the comparator and number ({@code <^0.1} becomes {@code <0.1}).
+     */
+    private static String value(String valueType, String raw, char component, char repeat) {
+        if (raw == null) {
+            return null;
+        }
+        String firstRepeat = split(raw, repeat)[0];
+        String[] parts = split(firstRepeat, component);
+        if ("CE".equals(valueType) || "CWE".equals(valueType)) {
+            return parts.length > 1 && !parts[1].isBlank() ? parts[1].trim() : trimToNull(parts[0]);
+        }
+        if ("SN".equals(valueType)) {
+            StringBuilder sn = new StringBuilder();
+            for (String part : parts) {
+                sn.append(part.trim());
+            }
+            return trimToNull(sn.toString());
+        }
+        return trimToNull(parts.length > 1 ? firstRepeat : parts[0]);
+    }
+
+    private static String[] split(String value, char delimiter) {
+        return value.split(Pattern.quote(String.valueOf(delimiter)), -1);
+    }
+
+    private static String get(String[] fields, int index) {
+        return index < fields.length ? fields[index] : null;
+    }
+
+    /** First component of the first repetition, whether or not it is empty. */
+    private static String firstComponent(String value, char component, char repeat) {
+        if (value == null) {
+            return null;
+        }
+        return trimToNull(split(split(value, repeat)[0], component)[0]);
+    }
+
+    /** First non-empty component of the first repetition. */
+    private static String first(String value, char component, char repeat) {
+        if (value == null) {
+            return null;
+        }
+        for (String c : split(split(value, repeat)[0], component)) {
+            if (!c.isBlank()) {
+                return c.trim();
+            }
+        }
+        return null;
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static String unescape(String value, char field, char component, char repeat, char escape,
+            char subcomponent) {
+        if (value == null || value.indexOf(escape) < 0) {
+            return value;
+        }
+        String e = String.valueOf(escape);
+        return value.replace(e + "F" + e, String.valueOf(field))
+                .replace(e + "S" + e, String.valueOf(component))
+                .replace(e + "T" + e, String.valueOf(subcomponent))
+                .replace(e + "R" + e, String.valueOf(repeat))
+                .replace(e + "E" + e, e);
+    }
+}
@@ -0,0 +1,190 @@
+package com.qdc.lims.instrument;
+
+import com.qdc.lims.ui.AppPaths;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the analyzer drop folder and imports each result file once it is complete.
+ * <p>
+ * Analyzers and middleware write files in pieces, so a file is only picked up once it
+ * has not changed for {@code qdc.instrument.settle-ms}. Imported files are moved to
+ * {@code processed/}, files that cannot be parsed to {@code failed/}. The folder is also
+ * swept at startup so files dropped while the application was closed are not missed.
+ */
+@Component
+public class InstrumentDropFolderWatcher implements CommandLineRunner {
+
+    private final InstrumentImportService importService;
+
+    @Value("${qdc.instrument.enabled:false}")
+    private boolean enabled;
+
+    @Value("${qdc.instrument.drop-dir:}")
+    private String dropDir;
+
+    @Value("${qdc.instrument.settle-ms:2000}")
+    private long settleMillis;
+
+    private volatile WatchService watchService;
+    private volatile Thread worker;
+
+    public InstrumentDropFolderWatcher(InstrumentImportService importService) {
+        this.importService = importService;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (!enabled) {
+            return;
+        }
+        Path inbox = dropDir == null || dropDir.isBlank() ? AppPaths.instrumentDropDir() : Paths.get(dropDir.trim());
+        Files.createDirectories(inbox.resolve("processed"));
+        Files.createDirectories(inbox.resolve("failed"));
+
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        worker = new Thread(() -> watch(inbox), "instrument-watcher");
+        worker.setDaemon(true);
+        worker.start();
+        System.out.println("[InstrumentImport] Watching " + inbox);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        WatchService ws = watchService;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ignored) {
+                // Shutting down
+            }
+        }
+    }
+
+    private void watch(Path inbox) {
+        // Sweep first for files dropped while the application was not running
+        boolean sweep = true;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (sweep) {
+                    sweep = sweep(inbox);
+                }
+                WatchKey key = watchService.poll(Math.max(250, settleMillis), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    if (!key.reset()) {
+                        System.err.println("[InstrumentImport] Drop folder is no longer accessible: " + inbox);
+                        return;
+                    }
+                    sweep = true;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Imports every settled file in the folder, oldest first.
+     *
+     * @return true if some files were still being written and need another sweep
+     */
+    private boolean sweep(Path inbox) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(inbox, Files::isRegularFile)) {
+            for (Path file : dir) {
+                if (!ignored(file)) {
+                    files.add(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[InstrumentImport] Could not list " + inbox + ": " + e.getMessage());
+            return true;
+        }
+        files.sort(Comparator.comparingLong(InstrumentDropFolderWatcher::lastModified));
+
+        boolean unsettled = false;
+        long settledBefore = System.currentTimeMillis() - settleMillis;
+        for (Path file : files) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (lastModified(file) > settledBefore) {
+                unsettled = true;
+                continue;
+            }
+            importFile(inbox, file);
+        }
+        return unsettled;
+    }
+
+    private void importFile(Path inbox, Path file) {
+        String target = "processed";
+        try {
+            importService.importFile(file);
+        } catch (Exception e) {
+            target = "failed";
+            System.err.println("[InstrumentImport] " + file.getFileName() + " could not be imported: " + e.getMessage());
+        }
+        try {
+            move(file, inbox.resolve(target));
+        } catch (IOException e) {
+            // Leaving it would import the file again on the next sweep
+            System.err.println("[InstrumentImport] Could not move " + file.getFileName() + " to " + target
+                    + ", deleting it: " + e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Nothing more we can do
+            }
+        }
+    }
+
+    private static void move(Path file, Path dir) throws IOException {
+        String name = file.getFileName().toString();
+        Path target = dir.resolve(name);
+        if (Files.exists(target)) {
+            int dot = name.lastIndexOf('.');
+            String stamp = "-" + System.currentTimeMillis();
+            target = dir.resolve(dot > 0 ? name.substring(0, dot) + stamp + name.substring(dot) : name + stamp);
+        }
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean ignored(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.startsWith(".") || name.endsWith(".tmp") || name.endsWith(".part") || name.endsWith(".partial");
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.qdc.lims.instrument;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Reads an analyzer result file record by record.
+ * <p>
+ * Results are handed to the consumer as they are read, in file order, so a file of
+ * any size is parsed with constant memory.
+ */
+public interface InstrumentFileParser {
+
+    /**
+     * Parses the file and passes every result record to {@code sink}.
+     *
+     * @param in   the file contents
+     * @param sink receives the results in file order
+     * @throws IOException if the file cannot be read
+     */
+    void parse(BufferedReader in, Consumer<InstrumentRecord> sink) throws IOException;
+
+    /**
+     * Picks the parser from the first record of the file and rewinds the reader.
+     *
+     * @param in the file contents; must support mark/reset
+     * @return the parser for the file's format
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is neither ASTM nor HL7
+     */
+    static InstrumentFileParser detect(BufferedReader in) throws IOException {
+        in.mark(64 * 1024);
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String record = stripControl(line);
+                if (record.isEmpty()) {
+                    continue;
+                }
+                if (record.startsWith("MSH") && record.length() > 3) {
+                    return new Hl7Parser();
+                }
+                // ASTM header, possibly inside a frame: <STX>1H|\^&
+                String unframed = record.length() > 1 && Character.isDigit(record.charAt(0))
+                        && line.charAt(0) == AstmParser.STX ? record.substring(1) : record;
+                if (unframed.length() > 4 && unframed.charAt(0) == 'H' && !Character.isLetterOrDigit(unframed.charAt(1))) {
+                    return new AstmParser();
+                }
+                throw new IllegalArgumentException("Not an ASTM or HL7 result file");
+            }
+            throw new IllegalArgumentException("Empty file");
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Removes framing and transport control characters (STX, ETX, MLLP block characters).
+     */
+    static String stripControl(String line) {
+        StringBuilder out = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= 0x20 || c == '\t') {
+                out.append(c);
+            }
+        }
+        return out.toString().trim();
+    }
+}
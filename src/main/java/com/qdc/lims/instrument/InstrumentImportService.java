@@ -0,0 +1,248 @@
+package com.qdc.lims.instrument;
+
+import com.qdc.lims.entity.InstrumentImportError;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.repository.InstrumentImportErrorRepository;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.service.ResultService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Posts analyzer result files to the pending results of their orders.
+ * <p>
+ * The file is streamed through the matching parser and results are posted one sample
+ * at a time, so each order is loaded and saved once per file however many tests the
+ * analyzer sent. The order is found from the digits of the sample ID, results are
+ * matched on the test short code (after {@code qdc.instrument.code-aliases}), and only
+ * results that are still empty are filled in. Anything that cannot be posted goes to
+ * the {@link InstrumentImportError} queue with the reason.
+ */
+@Service
+public class InstrumentImportService {
+
+    private static final Pattern ORDER_NUMBER = Pattern.compile("\\d+");
+
+    private final LabOrderRepository orderRepository;
+    private final ResultService resultService;
+    private final InstrumentImportErrorRepository errorRepository;
+
+    /** Analyzer code to LIMS short code, e.g. {@code HGB=HB,WBC=TLC}. */
+    @Value("${qdc.instrument.code-aliases:}")
+    private String codeAliases;
+
+    private volatile Map<String, String> aliases;
+
+    public InstrumentImportService(LabOrderRepository orderRepository, ResultService resultService,
+            InstrumentImportErrorRepository errorRepository) {
+        this.orderRepository = orderRepository;
+        this.resultService = resultService;
+        this.errorRepository = errorRepository;
+    }
+
+    /**
+     * Outcome of one imported file.
+     */
+    public record ImportSummary(String file, int records, int posted, int samples, int errors, long millis) {
+    }
+
+    /**
+     * Imports one ASTM or HL7 result file.
+     *
+     * @param file the result file
+     * @return counts of what was posted and queued
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is neither ASTM nor HL7
+     */
+    public ImportSummary importFile(Path file) throws IOException {
+        long started = System.nanoTime();
+        FileImport run = new FileImport(file.getFileName().toString());
+        // InputStreamReader replaces malformed bytes instead of failing the whole file
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+            InstrumentFileParser parser = InstrumentFileParser.detect(in);
+            parser.parse(in, run::accept);
+        }
+        run.flush();
+
+        ImportSummary summary = new ImportSummary(run.fileName, run.records, run.posted, run.samples,
+                run.errors, (System.nanoTime() - started) / 1_000_000);
+        System.out.println("[InstrumentImport] " + summary.file() + ": " + summary.records() + " results, "
+                + summary.posted() + " posted to " + summary.samples() + " samples, " + summary.errors()
+                + " queued for review (" + summary.millis() + " ms)");
+        return summary;
+    }
+
+    /**
+     * Collects the consecutive results of one sample and posts them together.
+     */
+    private final class FileImport {
+
+        private final String fileName;
+        private final List<InstrumentRecord> batch = new ArrayList<>();
+        private int records;
+        private int posted;
+        private int samples;
+        private int errors;
+
+        private FileImport(String fileName) {
+            this.fileName = fileName;
+        }
+
+        private void accept(InstrumentRecord record) {
+            records++;
+            if (!batch.isEmpty() && !Objects.equals(batch.get(0).sampleId(), record.sampleId())) {
+                flush();
+            }
+            batch.add(record);
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            samples++;
+            List<InstrumentImportError> queued = post(batch);
+            if (!queued.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                queued.forEach(e -> {
+                    e.setReceivedAt(now);
+                    e.setSourceFile(fileName);
+                });
+                errorRepository.saveAll(queued);
+                errors += queued.size();
+            }
+            batch.clear();
+        }
+
+        private List<InstrumentImportError> post(List<InstrumentRecord> sample) {
+            List<InstrumentImportError> queued = new ArrayList<>();
+            String sampleId = sample.get(0).sampleId();
+            Long orderId = orderNumber(sampleId);
+            if (orderId == null) {
+                sample.forEach(r -> queued.add(error(r, "No order number in sample ID")));
+                return queued;
+            }
+            LabOrder order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) {
+                sample.forEach(r -> queued.add(error(r, "Order " + orderId + " not found")));
+                return queued;
+            }
+
+            Map<String, LabResult> byCode = new HashMap<>();
+            for (LabResult result : order.getResults()) {
+                if (result.getTestDefinition() != null && result.getTestDefinition().getShortCode() != null) {
+                    byCode.put(result.getTestDefinition().getShortCode().trim().toUpperCase(Locale.ROOT), result);
+                }
+            }
+
+            // A rerun later in the file replaces the earlier value of the same test
+            Map<Long, InstrumentRecord> matched = new LinkedHashMap<>();
+            for (InstrumentRecord record : sample) {
+                if (record.notPerformed()) {
+                    queued.add(error(record, "Analyzer reported the test as not done"));
+                    continue;
+                }
+                if (record.testCode() == null || record.value() == null) {
+                    queued.add(error(record, "Missing test code or value"));
+                    continue;
+                }
+                LabResult result = byCode.get(shortCode(record.testCode()));
+                if (result == null) {
+                    queued.add(error(record, "Test " + record.testCode() + " is not on order " + orderId));
+                    continue;
+                }
+                matched.put(result.getId(), record);
+            }
+            if (matched.isEmpty()) {
+                return queued;
+            }
+
+            Map<Long, String> values = new LinkedHashMap<>();
+            Map<Long, String> flags = new HashMap<>();
+            matched.forEach((id, record) -> {
+                values.put(id, record.value());
+                if (record.flags() != null && !record.flags().isBlank()) {
+                    flags.put(id, record.flags().trim());
+                }
+            });
+            String instrument = sample.get(0).instrument();
+            Map<Long, String> rejected = resultService.saveInstrumentResults(orderId, values, flags,
+                    "ANALYZER:" + (instrument != null ? instrument : "unknown"));
+            rejected.forEach((id, reason) -> queued.add(error(matched.get(id), reason)));
+            posted += values.size() - rejected.size();
+            return queued;
+        }
+    }
+
+    /**
+     * Order number from a sample ID: the first run of digits, so prefixed ({@code ORD-1234})
+     * and tube-suffixed ({@code 1234-2}) barcodes both resolve to order 1234.
+     */
+    static Long orderNumber(String sampleId) {
+        if (sampleId == null) {
+            return null;
+        }
+        Matcher m = ORDER_NUMBER.matcher(sampleId);
+        if (!m.find()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(m.group());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String shortCode(String testCode) {
+        String code = testCode.trim().toUpperCase(Locale.ROOT);
+        return aliases().getOrDefault(code, code);
+    }
+
+    private Map<String, String> aliases() {
+        Map<String, String> map = aliases;
+        if (map == null) {
+            map = new HashMap<>();
+            if (codeAliases != null) {
+                for (String pair : codeAliases.split(",")) {
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        map.put(pair.substring(0, eq).trim().toUpperCase(Locale.ROOT),
+                                pair.substring(eq + 1).trim().toUpperCase(Locale.ROOT));
+                    }
+                }
+            }
+            aliases = map;
+        }
+        return map;
+    }
+
+    private static InstrumentImportError error(InstrumentRecord record, String reason) {
+        InstrumentImportError error = new InstrumentImportError();
+        error.setInstrument(record.instrument());
+        error.setSampleId(record.sampleId());
+        error.setTestCode(record.testCode());
+        error.setResultValue(record.value());
+        error.setUnits(record.units());
+        error.setReason(reason + (record.line() > 0 ? " (line " + record.line() + ")" : ""));
+        return error;
+    }
+}
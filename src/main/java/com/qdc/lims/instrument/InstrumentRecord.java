@@ -0,0 +1,31 @@
+package com.qdc.lims.instrument;
+
+/**
+ * One result as sent by an analyzer.
+ *
+ * @param instrument sending analyzer from the file or message header
+ * @param sampleId   sample/order number the analyzer read from the tube
+ * @param testCode   analyzer test code
+ * @param value      result value
+ * @param units      units as sent, informational only
+ * @param flags      abnormal/warning flags as sent, kept with the result for auto-verification
+ * @param status     result status code (ASTM R-9, HL7 OBX-11)
+ * @param line       line in the file where the result was read
+ */
+public record InstrumentRecord(
+        String instrument,
+        String sampleId,
+        String testCode,
+        String value,
+        String units,
+        String flags,
+        String status,
+        int line) {
+
+    /**
+     * Whether the analyzer reports that the test could not be done or was withdrawn.
+     */
+    public boolean notPerformed() {
+        return "X".equalsIgnoreCase(status) || "D".equalsIgnoreCase(status);
+    }
+}
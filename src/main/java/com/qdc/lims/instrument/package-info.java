@@ -0,0 +1,10 @@
+/**
+ * Analyzer interface: result files dropped by the instruments.
+ * <p>
+ * {@link com.qdc.lims.instrument.InstrumentDropFolderWatcher} watches the drop folder,
+ * {@link com.qdc.lims.instrument.AstmParser} and {@link com.qdc.lims.instrument.Hl7Parser}
+ * read ASTM E1394 and HL7 v2 ORU files record by record, and
+ * {@link com.qdc.lims.instrument.InstrumentImportService} posts the values to the
+ * pending results of each order, sending anything it cannot match to the error queue.
+ */
+package com.qdc.lims.instrument;
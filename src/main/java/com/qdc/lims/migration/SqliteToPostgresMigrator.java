@@ -0,0 +1,616 @@
+package com.qdc.lims.migration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies a branch's SQLite database into the configured PostgreSQL database.
+ * <p>
+ * The PostgreSQL schema is the one the Flyway migrations created at startup (Hibernate
+ * only validates it); Flyway's own history table is not copied. Tables are copied
+ * parents first (by foreign key). A table with an integer primary key is split into key
+ * ranges that are loaded in parallel, each reading its own SQLite connection and writing
+ * multi-row {@code INSERT}s in large transactions. Values are converted to the PostgreSQL
+ * column types (SQLite keeps booleans as 0/1 and timestamps as epoch millis or text).
+ * Afterwards identity sequences are moved past the copied keys and every table is
+ * checked by row count and an order-independent checksum of the converted values.
+ */
+@Component
+public class SqliteToPostgresMigrator {
+
+    // Tables only real use fills; startup itself seeds roles, users and settings
+    private static final Set<String> GUARD_TABLES = Set.of("patients", "lab_order");
+    private static final Set<String> SKIPPED_TABLES = Set.of("flyway_schema_history");
+
+    private static final int ROWS_PER_RANGE = 50_000;
+    private static final int MAX_ROWS_PER_INSERT = 500;
+    // PostgreSQL accepts at most 65535 bind parameters per statement
+    private static final int MAX_PARAMETERS = 30_000;
+    private static final int ROWS_PER_COMMIT = 20_000;
+
+    private final DataSource dataSource;
+
+    @Value("${qdc.migrate.threads:4}")
+    private int threads;
+
+    /**
+     * Outcome for one table.
+     *
+     * @param table  table name
+     * @param rows   rows copied
+     * @param millis copy time
+     */
+    public record TableResult(String table, long rows, long millis) {
+    }
+
+    private record Column(String name, int targetType) {
+    }
+
+    private record TablePlan(String name, List<Column> columns, String keyColumn, Set<String> parents) {
+
+        boolean selfReferencing() {
+            return parents.contains(name);
+        }
+    }
+
+    public SqliteToPostgresMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Copies every table that exists in both databases.
+     *
+     * @param sqliteFile      source database file
+     * @param replaceExisting allow replacing a target that already holds patients or orders
+     * @return per-table results in copy order
+     * @throws IllegalStateException if the target is not PostgreSQL, is not empty, or a
+     *                               table does not verify after the copy
+     */
+    public List<TableResult> migrate(Path sqliteFile, boolean replaceExisting) throws Exception {
+        if (sqliteFile == null || !Files.isRegularFile(sqliteFile)) {
+            throw new IllegalArgumentException("SQLite database not found: " + sqliteFile);
+        }
+        String sourceUrl = "jdbc:sqlite:" + sqliteFile.toAbsolutePath();
+
+        List<TablePlan> plans;
+        try (Connection source = openSource(sourceUrl);
+                Connection target = dataSource.getConnection()) {
+            String product = target.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                throw new IllegalStateException("Target database must be PostgreSQL, not " + product
+                        + "; run with the prod profile or point spring.datasource.url at PostgreSQL");
+            }
+            plans = plan(source, target);
+            checkTargetEmpty(target, plans, replaceExisting);
+            truncate(target, plans);
+        }
+
+        int workers = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "migrate-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<TableResult> results = new ArrayList<>();
+        Map<String, Long> sourceChecksums = new HashMap<>();
+        try {
+            for (TablePlan plan : plans) {
+                long started = System.currentTimeMillis();
+                AtomicLong checksum = new AtomicLong();
+                long rows = copyTable(plan, sourceUrl, executor, workers, checksum);
+                sourceChecksums.put(plan.name(), checksum.get());
+                TableResult result = new TableResult(plan.name(), rows, System.currentTimeMillis() - started);
+                results.add(result);
+                System.out.println("[Migration] " + plan.name() + ": " + rows + " rows in " + result.millis() + " ms");
+            }
+
+            resetIdentities(plans);
+            verify(plans, results, sourceChecksums, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private static Connection openSource(String url) throws Exception {
+        Connection conn = DriverManager.getConnection(url);
+        conn.setReadOnly(true);
+        return conn;
+    }
+
+    // --- Planning ---
+
+    private List<TablePlan> plan(Connection source, Connection target) throws Exception {
+        DatabaseMetaData meta = target.getMetaData();
+        String schema = target.getSchema();
+
+        Map<String, String> targetTables = new HashMap<>();
+        try (ResultSet rs = meta.getTables(null, schema, "%", new String[] { "TABLE" })) {
+            while (rs.next()) {
+                String name = rs.getString("TABLE_NAME");
+                targetTables.put(name.toLowerCase(Locale.ROOT), name);
+            }
+        }
+
+        List<String> sourceTables = new ArrayList<>();
+        try (Statement st = source.createStatement();
+                ResultSet rs = st.executeQuery(
+                        "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+            while (rs.next()) {
+                sourceTables.add(rs.getString(1));
+            }
+        }
+
+        Map<String, TablePlan> plans = new LinkedHashMap<>();
+        for (String sourceTable : sourceTables) {
+            String table = targetTables.get(sourceTable.toLowerCase(Locale.ROOT));
+            if (SKIPPED_TABLES.contains(sourceTable.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            if (table == null) {
+                System.err.println("[Migration] Skipping " + sourceTable + ": no such table in PostgreSQL");
+                continue;
+            }
+
+            Map<String, Integer> targetColumns = new HashMap<>();
+            try (ResultSet rs = meta.getColumns(null, schema, table, "%")) {
+                while (rs.next()) {
+                    targetColumns.put(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT), rs.getInt("DATA_TYPE"));
+                }
+            }
+
+            List<Column> columns = new ArrayList<>();
+            List<String> keyColumns = new ArrayList<>();
+            boolean integerKey = false;
+            try (Statement st = source.createStatement();
+                    ResultSet rs = st.executeQuery("PRAGMA table_info(" + quote(sourceTable) + ")")) {
+                while (rs.next()) {
+                    String name = rs.getString("name");
+                    Integer type = targetColumns.get(name.toLowerCase(Locale.ROOT));
+                    if (type == null) {
+                        System.err.println("[Migration] " + table + "." + name + " has no PostgreSQL column; not copied");
+                        continue;
+                    }
+                    columns.add(new Column(name.toLowerCase(Locale.ROOT), type));
+                    if (rs.getInt("pk") > 0) {
+                        keyColumns.add(name);
+                        String declared = rs.getString("type");
+                        integerKey = declared != null && declared.toUpperCase(Locale.ROOT).contains("INT");
+                    }
+                }
+            }
+
+            Set<String> parents = new LinkedHashSet<>();
+            try (ResultSet rs = meta.getImportedKeys(null, schema, table)) {
+                while (rs.next()) {
+                    parents.add(rs.getString("PKTABLE_NAME"));
+                }
+            }
+
+            String key = keyColumns.size() == 1 && integerKey ? keyColumns.get(0) : null;
+            plans.put(table, new TablePlan(table, columns, key, parents));
+        }
+        return orderByForeignKeys(plans);
+    }
+
+    private static List<TablePlan> orderByForeignKeys(Map<String, TablePlan> plans) {
+        List<TablePlan> ordered = new ArrayList<>();
+        Set<String> done = new LinkedHashSet<>();
+        boolean progress = true;
+        while (ordered.size() < plans.size() && progress) {
+            progress = false;
+            for (TablePlan plan : plans.values()) {
+                if (done.contains(plan.name())) {
+                    continue;
+                }
+                boolean ready = plan.parents().stream()
+                        .allMatch(p -> p.equals(plan.name()) || done.contains(p) || !plans.containsKey(p));
+                if (ready) {
+                    ordered.add(plan);
+                    done.add(plan.name());
+                    progress = true;
+                }
+            }
+        }
+        for (TablePlan plan : plans.values()) {
+            if (!done.contains(plan.name())) {
+                System.err.println("[Migration] Foreign key cycle at " + plan.name() + "; copying it last");
+                ordered.add(plan);
+            }
+        }
+        return ordered;
+    }
+
+    private static void checkTargetEmpty(Connection target, List<TablePlan> plans, boolean replaceExisting)
+            throws Exception {
+        if (replaceExisting) {
+            return;
+        }
+        for (TablePlan plan : plans) {
+            if (!GUARD_TABLES.contains(plan.name().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            try (Statement st = target.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + quote(plan.name()))) {
+                rs.next();
+                long rows = rs.getLong(1);
+                if (rows > 0) {
+                    throw new IllegalStateException("PostgreSQL table " + plan.name() + " already has " + rows
+                            + " rows; rerun with --force to replace the PostgreSQL data");
+                }
+            }
+        }
+    }
+
+    private static void truncate(Connection target, List<TablePlan> plans) throws Exception {
+        if (plans.isEmpty()) {
+            return;
+        }
+        List<String> names = plans.stream().map(p -> quote(p.name())).toList();
+        try (Statement st = target.createStatement()) {
+            // Drops the rows startup seeded (roles, admin user, settings); the branch's own replace them
+            st.execute("TRUNCATE " + String.join(", ", names) + " RESTART IDENTITY CASCADE");
+        }
+    }
+
+    // --- Copy ---
+
+    private long copyTable(TablePlan plan, String sourceUrl, ExecutorService executor, int workers,
+            AtomicLong checksum) throws Exception {
+        if (plan.columns().isEmpty()) {
+            return 0;
+        }
+        String key = plan.keyColumn();
+        if (key == null || plan.selfReferencing()) {
+            // No range key, or rows may point at earlier rows of the same table: one ordered pass
+            String order = key != null ? " ORDER BY " + quote(key) : "";
+            return copyRange(plan, sourceUrl, "SELECT " + columnList(plan) + " FROM " + quote(plan.name()) + order,
+                    null, null, checksum);
+        }
+
+        long min;
+        long max;
+        long count;
+        try (Connection source = openSource(sourceUrl);
+                Statement st = source.createStatement();
+                ResultSet rs = st.executeQuery("SELECT MIN(" + quote(key) + "), MAX(" + quote(key) + "), COUNT(*) FROM "
+                        + quote(plan.name()))) {
+            rs.next();
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+            count = rs.getLong(3);
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        int ranges = (int) Math.min(workers, Math.max(1, count / ROWS_PER_RANGE));
+        long span = (max - min) / ranges + 1;
+        String select = "SELECT " + columnList(plan) + " FROM " + quote(plan.name())
+                + " WHERE " + quote(key) + " >= ? AND " + quote(key) + " < ? ORDER BY " + quote(key);
+
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < ranges; i++) {
+            long from = min + i * span;
+            long to = i == ranges - 1 ? max + 1 : from + span;
+            futures.add(executor.submit(() -> copyRange(plan, sourceUrl, select, from, to, checksum)));
+        }
+        long rows = 0;
+        for (Future<Long> future : futures) {
+            try {
+                rows += future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Copying " + plan.name() + " failed: " + e.getCause().getMessage(),
+                        e.getCause());
+            }
+        }
+        return rows;
+    }
+
+    private long copyRange(TablePlan plan, String sourceUrl, String select, Long from, Long to, AtomicLong checksum)
+            throws Exception {
+        List<Column> columns = plan.columns();
+        int rowsPerInsert = Math.max(1, Math.min(MAX_ROWS_PER_INSERT, MAX_PARAMETERS / columns.size()));
+        String insertFull = insertSql(plan, rowsPerInsert);
+
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        long rows = 0;
+        long localChecksum = 0;
+        try (Connection source = openSource(sourceUrl);
+                Connection target = dataSource.getConnection();
+                PreparedStatement read = source.prepareStatement(select)) {
+            target.setAutoCommit(false);
+            try (Statement st = target.createStatement()) {
+                // A failed migration is simply rerun, so skipping the WAL flush per commit is safe
+                st.execute("SET synchronous_commit = off");
+            }
+            if (from != null) {
+                read.setLong(1, from);
+                read.setLong(2, to);
+            }
+            read.setFetchSize(1000);
+
+            List<Object[]> buffer = new ArrayList<>(rowsPerInsert);
+            long uncommitted = 0;
+            try (ResultSet rs = read.executeQuery();
+                    PreparedStatement insert = target.prepareStatement(insertFull)) {
+                while (rs.next()) {
+                    Object[] row = new Object[columns.size()];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = convert(rs.getObject(i + 1), columns.get(i).targetType());
+                    }
+                    localChecksum += rowHash(sha, row);
+                    buffer.add(row);
+                    if (buffer.size() == rowsPerInsert) {
+                        bind(insert, buffer, columns);
+                        insert.executeUpdate();
+                        rows += buffer.size();
+                        uncommitted += buffer.size();
+                        buffer.clear();
+                        if (uncommitted >= ROWS_PER_COMMIT) {
+                            target.commit();
+                            uncommitted = 0;
+                        }
+                    }
+                }
+            }
+            if (!buffer.isEmpty()) {
+                try (PreparedStatement insert = target.prepareStatement(insertSql(plan, buffer.size()))) {
+                    bind(insert, buffer, columns);
+                    insert.executeUpdate();
+                }
+                rows += buffer.size();
+            }
+            target.commit();
+        }
+        checksum.addAndGet(localChecksum);
+        return rows;
+    }
+
+    private static String insertSql(TablePlan plan, int rows) {
+        String placeholders = "(" + String.join(", ", Collections.nCopies(plan.columns().size(), "?")) + ")";
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(plan.name()))
+                .append(" (").append(columnList(plan)).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement insert, List<Object[]> rows, List<Column> columns) throws Exception {
+        int index = 1;
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) {
+                    insert.setNull(index++, columns.get(i).targetType());
+                } else {
+                    insert.setObject(index++, row[i]);
+                }
+            }
+        }
+    }
+
+    private static String columnList(TablePlan plan) {
+        return String.join(", ", plan.columns().stream().map(c -> quote(c.name())).toList());
+    }
+
+    /**
+     * Converts a value as SQLite returns it to the Java type of the PostgreSQL column.
+     */
+    static Object convert(Object value, int targetType) {
+        if (value == null) {
+            return null;
+        }
+        switch (targetType) {
+            case Types.BOOLEAN, Types.BIT -> {
+                if (value instanceof Number n) {
+                    return n.longValue() != 0;
+                }
+                String s = value.toString().trim();
+                return "1".equals(s) || "true".equalsIgnoreCase(s) || "t".equalsIgnoreCase(s);
+            }
+            case Types.SMALLINT, Types.TINYINT -> {
+                return value instanceof Number n ? (short) n.intValue() : Short.parseShort(value.toString().trim());
+            }
+            case Types.INTEGER -> {
+                return value instanceof Number n ? n.intValue() : Integer.parseInt(value.toString().trim());
+            }
+            case Types.BIGINT -> {
+                return value instanceof Number n ? n.longValue() : Long.parseLong(value.toString().trim());
+            }
+            case Types.REAL -> {
+                return value instanceof Number n ? n.floatValue() : Float.parseFloat(value.toString().trim());
+            }
+            case Types.FLOAT, Types.DOUBLE -> {
+                return value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString().trim());
+            }
+            case Types.NUMERIC, Types.DECIMAL -> {
+                return new BigDecimal(value.toString().trim());
+            }
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> {
+                return value instanceof Number n ? new Timestamp(n.longValue()) : Timestamp.valueOf(parseDateTime(value.toString()));
+            }
+            case Types.DATE -> {
+                if (value instanceof Number n) {
+                    return new Date(n.longValue());
+                }
+                String s = value.toString().trim();
+                return Date.valueOf(s.length() > 10 ? parseDateTime(s).toLocalDate() : LocalDate.parse(s));
+            }
+            case Types.TIME -> {
+                return value instanceof Number n ? new Time(n.longValue()) : Time.valueOf(LocalTime.parse(value.toString().trim()));
+            }
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> {
+                return value instanceof byte[] ? value : value.toString().getBytes(StandardCharsets.UTF_8);
+            }
+            default -> {
+                return value instanceof byte[] b ? new String(b, StandardCharsets.UTF_8) : value.toString();
+            }
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String text) {
+        String s = text.trim().replace(' ', 'T');
+        if (s.length() == 10) {
+            return LocalDate.parse(s).atStartOfDay();
+        }
+        return LocalDateTime.parse(s);
+    }
+
+    /**
+     * Canonical text of a converted value, also used for what PostgreSQL returns.
+     */
+    private static String canonical(Object value) {
+        if (value == null) {
+            return "\u0000";
+        }
+        if (value instanceof BigDecimal d) {
+            return d.stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return Double.toString(((Number) value).doubleValue());
+        }
+        if (value instanceof Number n) {
+            return Long.toString(n.longValue());
+        }
+        if (value instanceof byte[] b) {
+            return HexFormat.of().formatHex(b);
+        }
+        return value.toString();
+    }
+
+    private static long rowHash(MessageDigest sha, Object[] row) {
+        for (Object value : row) {
+            sha.update(canonical(value).getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0x1F);
+        }
+        byte[] digest = sha.digest();
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    // --- Fix-up and verification ---
+
+    private void resetIdentities(List<TablePlan> plans) throws Exception {
+        try (Connection target = dataSource.getConnection();
+                Statement st = target.createStatement()) {
+            for (TablePlan plan : plans) {
+                if (plan.keyColumn() == null) {
+                    continue;
+                }
+                String table = quote(plan.name());
+                String key = plan.keyColumn().toLowerCase(Locale.ROOT);
+                // Identity and serial columns both report their sequence; other keys return NULL
+                st.execute("SELECT setval(seq, COALESCE((SELECT MAX(" + quote(key) + ") FROM " + table + "), 0) + 1, false)"
+                        + " FROM (SELECT pg_get_serial_sequence('" + table.replace("'", "''") + "', '"
+                        + key.replace("'", "''") + "') AS seq) s WHERE seq IS NOT NULL");
+            }
+        }
+    }
+
+    private void verify(List<TablePlan> plans, List<TableResult> results, Map<String, Long> sourceChecksums,
+            ExecutorService executor) throws Exception {
+        Map<String, Future<long[]>> futures = new LinkedHashMap<>();
+        for (TablePlan plan : plans) {
+            futures.put(plan.name(), executor.submit(() -> targetStats(plan)));
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (TableResult result : results) {
+            long[] stats;
+            try {
+                stats = futures.get(result.table()).get();
+            } catch (ExecutionException e) {
+                failures.add(result.table() + ": " + e.getCause().getMessage());
+                continue;
+            }
+            if (stats[0] != result.rows()) {
+                failures.add(result.table() + ": " + stats[0] + " rows in PostgreSQL, " + result.rows() + " copied");
+            } else if (stats[1] != sourceChecksums.get(result.table())) {
+                failures.add(result.table() + ": content checksum differs");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Migration verification failed: " + String.join("; ", failures));
+        }
+        System.out.println("[Migration] Verified row counts and checksums of " + results.size() + " tables");
+    }
+
+    private long[] targetStats(TablePlan plan) throws Exception {
+        if (plan.columns().isEmpty()) {
+            return new long[] { 0, 0 };
+        }
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        long rows = 0;
+        long checksum = 0;
+        try (Connection target = dataSource.getConnection()) {
+            // Cursor-based fetch needs a transaction in PostgreSQL
+            target.setAutoCommit(false);
+            target.setReadOnly(true);
+            try (Statement st = target.createStatement()) {
+                st.setFetchSize(1000);
+                try (ResultSet rs = st.executeQuery("SELECT " + columnList(plan) + " FROM " + quote(plan.name()))) {
+                    Object[] row = new Object[plan.columns().size()];
+                    while (rs.next()) {
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        checksum += rowHash(sha, row);
+                        rows++;
+                    }
+                }
+            } finally {
+                target.rollback();
+            }
+        }
+        return new long[] { rows, checksum };
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
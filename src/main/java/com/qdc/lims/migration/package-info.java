@@ -0,0 +1,7 @@
+/**
+ * One-off data migration tools.
+ * <p>
+ * Holds the SQLite-to-PostgreSQL copy started with {@code --migrate-sqlite}, used to
+ * move a branch that outgrew its embedded database onto a PostgreSQL server.
+ */
+package com.qdc.lims.migration;
@@ -0,0 +1,401 @@
+package com.qdc.lims.qc;
+
+import com.qdc.lims.entity.QcLot;
+import com.qdc.lims.entity.QcRun;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.instrument.InstrumentFileParser;
+import com.qdc.lims.repository.QcLotRepository;
+import com.qdc.lims.repository.QcRunRepository;
+import com.qdc.lims.util.CachedValue;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Records QC runs and keeps each lot's Levey-Jennings statistics and Westgard state.
+ * <p>
+ * A run is evaluated against the lot's target mean and SD, or against its own running
+ * statistics once it has {@link #MIN_POINTS} accepted runs. Each run updates the lot in
+ * constant time: the Westgard counters always, the Welford statistics only when the run
+ * is accepted, so rejected runs do not widen the limits.
+ * <p>
+ * A rejected run blocks result release for the lot's test until a later run of the lot
+ * passes or the lot is withdrawn. The blocked tests are cached and reloaded after a run
+ * is recorded and otherwise every {@link #BLOCKS_TTL_MILLIS}, so runs recorded on
+ * another station are picked up.
+ */
+@Service
+public class QcService {
+
+    /** Accepted runs needed before a lot without targets is evaluated on its own statistics. */
+    public static final int MIN_POINTS = 20;
+
+    static final long BLOCKS_TTL_MILLIS = 30_000;
+
+    private static final DateTimeFormatter CSV_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd[ HH:mm[:ss]]");
+
+    private final QcLotRepository lotRepository;
+    private final QcRunRepository runRepository;
+    private final CachedValue<Map<Long, String>> blocks;
+
+    public QcService(QcLotRepository lotRepository, QcRunRepository runRepository) {
+        this.lotRepository = lotRepository;
+        this.runRepository = runRepository;
+        this.blocks = new CachedValue<>(BLOCKS_TTL_MILLIS, this::loadBlocks);
+    }
+
+    /**
+     * Mean and SD a lot's runs are evaluated against.
+     *
+     * @param mean   mean
+     * @param sd     standard deviation
+     * @param target whether they are the lot's targets rather than its running statistics
+     */
+    public record Limits(double mean, double sd, boolean target) {
+    }
+
+    /**
+     * Outcome of a QC file import.
+     *
+     * @param file     file name
+     * @param records  values read
+     * @param recorded runs recorded
+     * @param rejected runs rejected by the Westgard rules
+     * @param errors   values that could not be recorded, with the reason
+     */
+    public record ImportSummary(String file, int records, int recorded, int rejected, List<String> errors) {
+    }
+
+    /**
+     * Drops the cached blocked tests.
+     */
+    public void invalidate() {
+        blocks.invalidate();
+    }
+
+    /**
+     * The limits a lot is evaluated against.
+     *
+     * @param lot the lot
+     * @return limits, or null while the lot has no targets and too few runs
+     */
+    public static Limits limits(QcLot lot) {
+        if (lot.getTargetMean() != null && lot.getTargetSd() != null && lot.getTargetSd() > 0) {
+            return new Limits(lot.getTargetMean(), lot.getTargetSd(), true);
+        }
+        RunningStats stats = stats(lot);
+        if (stats.count() >= MIN_POINTS && stats.sd() > 0) {
+            return new Limits(stats.mean(), stats.sd(), false);
+        }
+        return null;
+    }
+
+    /**
+     * The running statistics of a lot's accepted runs.
+     *
+     * @param lot the lot
+     * @return count, mean and SD
+     */
+    public static RunningStats stats(QcLot lot) {
+        return new RunningStats(lot.getPointCount(), lot.getRunningMean(), lot.getRunningM2());
+    }
+
+    /**
+     * Records one QC value and evaluates it.
+     *
+     * @param lotId     lot the value was measured on
+     * @param value     measured value
+     * @param runAt     when it was measured
+     * @param enteredBy who entered or imported it
+     * @param source    "MANUAL" or the file name
+     * @return the saved run with its z-score and violations
+     */
+    @Transactional
+    public QcRun recordRun(Long lotId, double value, LocalDateTime runAt, String enteredBy, String source) {
+        QcLot lot = lotRepository.findById(lotId)
+                .orElseThrow(() -> new RuntimeException("QC lot not found: " + lotId));
+        if (!lot.isActive()) {
+            throw new IllegalStateException("QC lot " + lot.getLotNumber() + " is withdrawn.");
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("QC value must be a number.");
+        }
+        QcRun run = evaluate(lot, value, runAt, enteredBy, source);
+        lotRepository.save(lot);
+        QcRun saved = runRepository.save(run);
+        invalidate();
+        if (run.isRejected()) {
+            System.out.println("[QC] Rejected " + displayName(lot.getTest()) + " lot " + lot.getLotNumber() + ": "
+                    + run.getViolations());
+        }
+        return saved;
+    }
+
+    /**
+     * Saves a lot's settings. Changing the targets restarts the Westgard counters, since
+     * the earlier z-scores no longer apply.
+     *
+     * @param lot lot to save
+     * @return the saved lot
+     * @throws IllegalArgumentException if only one target is given or the SD is not positive
+     */
+    @Transactional
+    public QcLot saveLot(QcLot lot) {
+        if ((lot.getTargetMean() == null) != (lot.getTargetSd() == null)) {
+            throw new IllegalArgumentException("Give both the target mean and SD, or neither.");
+        }
+        if (lot.getTargetSd() != null && lot.getTargetSd() <= 0) {
+            throw new IllegalArgumentException("The target SD must be greater than zero.");
+        }
+        if (lot.getId() != null) {
+            QcLot stored = lotRepository.findById(lot.getId()).orElse(null);
+            if (stored != null && (!Objects.equals(stored.getTargetMean(), lot.getTargetMean())
+                    || !Objects.equals(stored.getTargetSd(), lot.getTargetSd()))) {
+                lot.setLastZ(null);
+                lot.setSideRun(0);
+                lot.setOneSdRun(0);
+                lot.setTwoSdRun(0);
+            }
+        }
+        QcLot saved = lotRepository.save(lot);
+        invalidate();
+        return saved;
+    }
+
+    /**
+     * Withdraws a lot; it no longer takes runs or blocks its test.
+     *
+     * @param lotId lot to withdraw
+     */
+    @Transactional
+    public void withdrawLot(Long lotId) {
+        QcLot lot = lotRepository.findById(lotId)
+                .orElseThrow(() -> new RuntimeException("QC lot not found: " + lotId));
+        lot.setActive(false);
+        lot.setBlocked(false);
+        lot.setBlockedReason(null);
+        lotRepository.save(lot);
+        invalidate();
+    }
+
+    /**
+     * A lot's latest runs in time order, for the Levey-Jennings chart.
+     *
+     * @param lotId lot
+     * @param limit how many runs
+     * @return runs, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<QcRun> recentRuns(Long lotId, int limit) {
+        List<QcRun> runs = new ArrayList<>(
+                runRepository.findByLotIdOrderByRunAtDescIdDesc(lotId, PageRequest.of(0, limit)));
+        Collections.reverse(runs);
+        return runs;
+    }
+
+    /**
+     * Why a test's results may not be released.
+     *
+     * @param testId test
+     * @return the reason, e.g. {@code "QC lot 4471 rejected (1-3s)"}, or null if QC is in control
+     */
+    public String blockReason(Long testId) {
+        return testId != null ? blockedTests().get(testId) : null;
+    }
+
+    /**
+     * Tests whose results may not be released, with the reason.
+     *
+     * @return blocked test IDs mapped to the reason
+     */
+    public Map<Long, String> blockedTests() {
+        return blocks.get();
+    }
+
+    private Map<Long, String> loadBlocks() {
+        Map<Long, String> byTest = new HashMap<>();
+        for (QcLot lot : lotRepository.findByBlockedTrueAndActiveTrue()) {
+            byTest.merge(lot.getTest().getId(), lot.getBlockedReason(), (a, b) -> a + "; " + b);
+        }
+        return Collections.unmodifiableMap(byTest);
+    }
+
+    /**
+     * Records the QC values of a file: an analyzer ASTM or HL7 file with the lot number as
+     * sample ID, or a CSV file with lines {@code lot,test code,value[,yyyy-MM-dd HH:mm]}.
+     * Values are recorded in file order; those that cannot be matched to an active lot of
+     * the test are reported and skipped.
+     *
+     * @param file      file to read
+     * @param enteredBy who imported it
+     * @return what was recorded
+     * @throws IOException if the file cannot be read
+     */
+    @Transactional
+    public ImportSummary importFile(Path file, String enteredBy) throws IOException {
+        String name = file.getFileName().toString();
+        List<String> errors = new ArrayList<>();
+        int[] counts = new int[3]; // records, recorded, rejected
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            InstrumentFileParser parser = null;
+            try {
+                parser = InstrumentFileParser.detect(in);
+            } catch (IllegalArgumentException e) {
+                // Neither ASTM nor HL7 (detect has rewound the reader): read it as CSV
+            }
+            if (parser != null) {
+                LocalDateTime now = LocalDateTime.now();
+                parser.parse(in, record -> importValue(record.sampleId(), record.testCode(), record.value(), now,
+                        "line " + record.line(), name, enteredBy, counts, errors));
+            } else {
+                String line;
+                int lineNo = 0;
+                while ((line = in.readLine()) != null) {
+                    lineNo++;
+                    String[] fields = line.split("[,;\\t]");
+                    if (line.isBlank() || (lineNo == 1 && fields.length >= 3 && number(fields[2]) == null)) {
+                        continue; // Header
+                    }
+                    if (fields.length < 3) {
+                        errors.add("line " + lineNo + ": expected lot, test code, value");
+                        continue;
+                    }
+                    LocalDateTime runAt = fields.length > 3 ? time(fields[3]) : LocalDateTime.now();
+                    if (runAt == null) {
+                        errors.add("line " + lineNo + ": unreadable date " + fields[3].trim());
+                        continue;
+                    }
+                    importValue(fields[0], fields[1], fields[2], runAt, "line " + lineNo, name, enteredBy, counts,
+                            errors);
+                }
+            }
+        }
+        invalidate();
+        System.out.println("[QC] Imported " + name + ": " + counts[1] + " of " + counts[0] + " values recorded, "
+                + counts[2] + " rejected, " + errors.size() + " errors");
+        return new ImportSummary(name, counts[0], counts[1], counts[2], errors);
+    }
+
+    private void importValue(String lotNumber, String testCode, String text, LocalDateTime runAt, String where,
+            String file, String enteredBy, int[] counts, List<String> errors) {
+        counts[0]++;
+        Double value = number(text);
+        if (lotNumber == null || lotNumber.isBlank() || testCode == null || testCode.isBlank()) {
+            errors.add(where + ": missing lot number or test code");
+            return;
+        }
+        if (value == null) {
+            errors.add(where + ": value is not a number: " + text);
+            return;
+        }
+        QcLot lot = null;
+        for (QcLot candidate : lotRepository.findByLotNumberIgnoreCaseAndActiveTrue(lotNumber.trim())) {
+            TestDefinition test = candidate.getTest();
+            if (test.getShortCode() != null && test.getShortCode().trim().equalsIgnoreCase(testCode.trim())) {
+                lot = candidate;
+                break;
+            }
+        }
+        if (lot == null) {
+            errors.add(where + ": no active lot " + lotNumber.trim() + " for test " + testCode.trim());
+            return;
+        }
+        QcRun run = evaluate(lot, value, runAt, enteredBy, file);
+        lotRepository.save(lot);
+        runRepository.save(run);
+        counts[1]++;
+        if (run.isRejected()) {
+            counts[2]++;
+        }
+    }
+
+    /**
+     * Evaluates a value on a lot and updates the lot's state; the caller saves both.
+     */
+    private static QcRun evaluate(QcLot lot, double value, LocalDateTime runAt, String enteredBy, String source) {
+        QcRun run = new QcRun();
+        run.setLot(lot);
+        run.setValue(value);
+        run.setRunAt(runAt != null ? runAt : LocalDateTime.now());
+        run.setEnteredBy(enteredBy);
+        run.setSource(source);
+
+        Limits limits = limits(lot);
+        if (limits != null) {
+            double z = (value - limits.mean()) / limits.sd();
+            Westgard rules = new Westgard(lot.getLastZ(), lot.getSideRun(), lot.getOneSdRun(), lot.getTwoSdRun());
+            List<Westgard.Rule> violated = rules.add(z);
+            lot.setLastZ(rules.lastZ());
+            lot.setSideRun(rules.sideRun());
+            lot.setOneSdRun(rules.oneSdRun());
+            lot.setTwoSdRun(rules.twoSdRun());
+
+            run.setZScore(z);
+            run.setViolations(violated.isEmpty() ? null : Westgard.labels(violated));
+            run.setRejected(Westgard.rejects(violated));
+        }
+
+        if (run.isRejected()) {
+            lot.setBlocked(true);
+            lot.setBlockedReason("QC lot " + lot.getLotNumber() + " rejected (" + run.getViolations() + ")");
+        } else {
+            RunningStats stats = stats(lot);
+            stats.add(value);
+            lot.setPointCount(stats.count());
+            lot.setRunningMean(stats.mean());
+            lot.setRunningM2(stats.m2());
+            lot.setBlocked(false);
+            lot.setBlockedReason(null);
+        }
+        return run;
+    }
+
+    private static Double number(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime time(String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return LocalDateTime.now();
+        }
+        try {
+            TemporalAccessor parsed = CSV_TIME.parse(trimmed.replace('T', ' '));
+            LocalDate date = LocalDate.from(parsed);
+            return parsed.isSupported(ChronoField.HOUR_OF_DAY) ? date.atTime(LocalTime.from(parsed))
+                    : date.atStartOfDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String displayName(TestDefinition test) {
+        return test.getShortCode() != null && !test.getShortCode().isBlank() ? test.getShortCode() : test.getTestName();
+    }
+}
@@ -0,0 +1,59 @@
+package com.qdc.lims.qc;
+
+/**
+ * Mean and standard deviation of a stream of values, updated one value at a time with
+ * Welford's method: no values are kept, and the result does not lose precision the way
+ * a running sum of squares does.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    /**
+     * Resumes from stored state.
+     *
+     * @param count values seen
+     * @param mean  their mean
+     * @param m2    sum of squared differences from the mean
+     */
+    public RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double m2() {
+        return m2;
+    }
+
+    /**
+     * Sample standard deviation.
+     *
+     * @return the SD, or NaN with fewer than two values
+     */
+    public double sd() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : Double.NaN;
+    }
+}
@@ -0,0 +1,155 @@
+package com.qdc.lims.qc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Westgard multi-rule evaluation of the control values of one lot, one point at a time.
+ * <p>
+ * Instead of re-reading the last ten points for every new value, the evaluator keeps the
+ * previous z-score and three signed run lengths (points in a row on the same side of the
+ * mean, beyond 1 SD and beyond 2 SD), so a point is evaluated in constant time and the
+ * state fits in four columns of the lot.
+ */
+public final class Westgard {
+
+    /**
+     * The rules. 1-2s is a warning; the others reject the run.
+     */
+    public enum Rule {
+        /** One point beyond 2 SD. */
+        R_1_2S("1-2s", false),
+        /** One point beyond 3 SD. */
+        R_1_3S("1-3s", true),
+        /** Two points in a row beyond 2 SD on the same side. */
+        R_2_2S("2-2s", true),
+        /** Two points in a row more than 4 SD apart, one above +2 SD and one below -2 SD. */
+        R_R_4S("R-4s", true),
+        /** Four points in a row beyond 1 SD on the same side. */
+        R_4_1S("4-1s", true),
+        /** Ten points in a row on the same side of the mean. */
+        R_10X("10x", true);
+
+        private final String label;
+        private final boolean rejects;
+
+        Rule(String label, boolean rejects) {
+            this.label = label;
+            this.rejects = rejects;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public boolean rejects() {
+            return rejects;
+        }
+    }
+
+    private Double lastZ;
+    private int sideRun;
+    private int oneSdRun;
+    private int twoSdRun;
+
+    /**
+     * Resumes from stored state; pass null and zeros for a new lot.
+     *
+     * @param lastZ    z-score of the previous point
+     * @param sideRun  points in a row above (positive) or below (negative) the mean
+     * @param oneSdRun points in a row beyond +1 SD (positive) or -1 SD (negative)
+     * @param twoSdRun points in a row beyond +2 SD (positive) or -2 SD (negative)
+     */
+    public Westgard(Double lastZ, int sideRun, int oneSdRun, int twoSdRun) {
+        this.lastZ = lastZ;
+        this.sideRun = sideRun;
+        this.oneSdRun = oneSdRun;
+        this.twoSdRun = twoSdRun;
+    }
+
+    /**
+     * Adds a point and returns the rules it violates.
+     *
+     * @param z the point's distance from the mean in SDs
+     * @return violated rules, empty when the point is in control
+     */
+    public List<Rule> add(double z) {
+        sideRun = extend(sideRun, z > 0, z < 0);
+        oneSdRun = extend(oneSdRun, z > 1, z < -1);
+        twoSdRun = extend(twoSdRun, z > 2, z < -2);
+
+        List<Rule> violated = new ArrayList<>(2);
+        if (Math.abs(z) > 2) {
+            violated.add(Rule.R_1_2S);
+        }
+        if (Math.abs(z) > 3) {
+            violated.add(Rule.R_1_3S);
+        }
+        if (Math.abs(twoSdRun) >= 2) {
+            violated.add(Rule.R_2_2S);
+        }
+        if (lastZ != null && ((lastZ > 2 && z < -2) || (lastZ < -2 && z > 2))) {
+            violated.add(Rule.R_R_4S);
+        }
+        if (Math.abs(oneSdRun) >= 4) {
+            violated.add(Rule.R_4_1S);
+        }
+        if (Math.abs(sideRun) >= 10) {
+            violated.add(Rule.R_10X);
+        }
+        lastZ = z;
+        return violated;
+    }
+
+    /**
+     * Whether any of the rules rejects the run.
+     *
+     * @param violated rules from {@link #add(double)}
+     * @return true if the run is rejected
+     */
+    public static boolean rejects(List<Rule> violated) {
+        for (Rule rule : violated) {
+            if (rule.rejects()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rule labels joined for display, e.g. {@code "1-2s, 2-2s"}.
+     */
+    public static String labels(List<Rule> violated) {
+        List<String> labels = new ArrayList<>(violated.size());
+        for (Rule rule : violated) {
+            labels.add(rule.label());
+        }
+        return String.join(", ", labels);
+    }
+
+    private static int extend(int run, boolean above, boolean below) {
+        if (above) {
+            return run > 0 ? run + 1 : 1;
+        }
+        if (below) {
+            return run < 0 ? run - 1 : -1;
+        }
+        return 0;
+    }
+
+    public Double lastZ() {
+        return lastZ;
+    }
+
+    public int sideRun() {
+        return sideRun;
+    }
+
+    public int oneSdRun() {
+        return oneSdRun;
+    }
+
+    public int twoSdRun() {
+        return twoSdRun;
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * Quality control.
+ * <p>
+ * {@link com.qdc.lims.qc.RunningStats} keeps the Levey-Jennings mean and SD of a control
+ * lot with Welford updates, {@link com.qdc.lims.qc.Westgard} evaluates the Westgard
+ * multi-rules one point at a time from a few counters, and
+ * {@link com.qdc.lims.qc.QcService} records runs, typed in or read from CSV, ASTM or HL7
+ * files, and blocks result release for a test while its latest QC run is rejected.
+ */
+package com.qdc.lims.qc;
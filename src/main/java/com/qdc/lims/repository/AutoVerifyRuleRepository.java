@@ -0,0 +1,35 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.AutoVerifyRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for auto-verification rules and their hit counters.
+ */
+public interface AutoVerifyRuleRepository extends JpaRepository<AutoVerifyRule, Long> {
+
+    /**
+     * Finds the rules that are switched on.
+     *
+     * @return enabled rules
+     */
+    List<AutoVerifyRule> findByEnabledTrue();
+
+    /**
+     * Adds to a rule's counters without loading it.
+     *
+     * @param id        rule ID
+     * @param evaluated results the rule was applied to
+     * @param held      results that failed it
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE AutoVerifyRule r SET r.evaluatedCount = r.evaluatedCount + :evaluated,"
+            + " r.heldCount = r.heldCount + :held WHERE r.id = :id")
+    int addCounts(@Param("id") Long id, @Param("evaluated") long evaluated, @Param("held") long held);
+}
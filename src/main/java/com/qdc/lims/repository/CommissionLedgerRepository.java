@@ -5,6 +5,7 @@ import com.qdc.lims.entity.Doctor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -49,6 +50,14 @@ public interface CommissionLedgerRepository extends JpaRepository<CommissionLedg
      */
     List<CommissionLedger> findByDoctor(Doctor doctor);
 
+    /**
+     * Finds the commission record of an order.
+     *
+     * @param orderId the ID of the order
+     * @return the order's CommissionLedger entry, if its doctor earns commission
+     */
+    Optional<CommissionLedger> findByLabOrderId(Long orderId);
+
     /**
      * Finds commission records between two dates.
      *
@@ -0,0 +1,38 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.CriticalAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for critical value alerts.
+ */
+public interface CriticalAlertRepository extends JpaRepository<CriticalAlert, Long> {
+
+    /**
+     * Finds the alerts nobody has acknowledged yet.
+     *
+     * @return open alerts
+     */
+    List<CriticalAlert> findByAcknowledgedAtIsNull();
+
+    /**
+     * Finds the open alerts of the given results (to avoid raising the same value twice).
+     *
+     * @param resultIds result IDs
+     * @return open alerts of those results
+     */
+    List<CriticalAlert> findByResultIdInAndAcknowledgedAtIsNull(Collection<Long> resultIds);
+
+    /**
+     * Finds the alerts raised in a period (acknowledgement metrics).
+     *
+     * @param start start of the period
+     * @param end   end of the period
+     * @return alerts raised in the period
+     */
+    List<CriticalAlert> findByRaisedAtBetween(LocalDateTime start, LocalDateTime end);
+}
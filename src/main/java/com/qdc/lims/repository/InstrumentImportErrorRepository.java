@@ -0,0 +1,26 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.InstrumentImportError;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository for the analyzer import error queue.
+ */
+public interface InstrumentImportErrorRepository extends JpaRepository<InstrumentImportError, Long> {
+
+    /**
+     * Finds the entries still waiting for a technician, newest first.
+     *
+     * @return unresolved entries
+     */
+    List<InstrumentImportError> findByResolvedFalseOrderByReceivedAtDesc();
+
+    /**
+     * Counts the entries still waiting for a technician.
+     *
+     * @return number of unresolved entries
+     */
+    long countByResolvedFalse();
+}
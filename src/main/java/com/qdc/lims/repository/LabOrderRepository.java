@@ -1,13 +1,17 @@
 package com.qdc.lims.repository;
 
+import com.qdc.lims.dto.PatientVisit;
 import com.qdc.lims.entity.LabOrder;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -37,6 +41,58 @@ public interface LabOrderRepository extends JpaRepository<LabOrder, Long> {
             """)
     long countCompletedWithResults();
 
+    @Query("""
+            SELECT COUNT(DISTINCT o)
+            FROM LabOrder o
+            JOIN o.results r
+            """)
+    long countWithResults();
+
+    /**
+     * Finds the orders still in the lab that include any of the given tests, with their
+     * patients and results, for the batch entry grid.
+     *
+     * @param testIds test definition IDs
+     * @return open orders, oldest first
+     */
+    @EntityGraph(attributePaths = { "patient", "results", "results.testDefinition" })
+    @Query("""
+            SELECT DISTINCT o
+            FROM LabOrder o
+            JOIN o.results r
+            WHERE o.status NOT IN ('COMPLETED', 'CANCELLED')
+              AND o.isReportDelivered = false
+              AND r.testDefinition.id IN :testIds
+            ORDER BY o.id
+            """)
+    List<LabOrder> findOpenWithTests(@Param("testIds") Collection<Long> testIds);
+
+    /**
+     * Finds completed orders that are waiting for verification (the pathologist's
+     * review queue), oldest first.
+     *
+     * @return completed, unverified orders
+     */
+    @Query("""
+            SELECT o
+            FROM LabOrder o
+            WHERE o.verifiedAt IS NULL AND o.status = 'COMPLETED'
+            ORDER BY o.orderDate
+            """)
+    List<LabOrder> findAwaitingVerification();
+
+    /**
+     * Counts completed orders that are waiting for verification.
+     *
+     * @return size of the review queue
+     */
+    @Query("""
+            SELECT COUNT(o)
+            FROM LabOrder o
+            WHERE o.verifiedAt IS NULL AND o.status = 'COMPLETED'
+            """)
+    long countAwaitingVerification();
+
     /**
      * Finds all orders for a specific patient, sorted by order ID in descending
      * order.
@@ -46,6 +102,24 @@ public interface LabOrderRepository extends JpaRepository<LabOrder, Long> {
      */
     List<LabOrder> findByPatientIdOrderByIdDesc(Long patientId);
 
+    /**
+     * Finds a patient's visits older than the given order, newest first, without
+     * loading the orders themselves (cumulative report paging).
+     *
+     * @param patientId the ID of the patient
+     * @param beforeId  only orders with a lower ID are returned
+     * @param page      page size (use the first page)
+     * @return visits, newest first
+     */
+    @Query("""
+            SELECT new com.qdc.lims.dto.PatientVisit(o.id, o.orderDate, o.status, o.verifiedAt, o.verificationHold)
+            FROM LabOrder o
+            WHERE o.patient.id = :patientId AND o.id < :beforeId
+            ORDER BY o.id DESC
+            """)
+    List<PatientVisit> findVisits(@Param("patientId") Long patientId, @Param("beforeId") Long beforeId,
+            Pageable page);
+
     /**
      * Finds orders with a specific status within a date range (for dashboard
      * processing counts).
@@ -1,10 +1,48 @@
 package com.qdc.lims.repository;
 
+import com.qdc.lims.dto.ResultPoint;
 import com.qdc.lims.entity.LabResult;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository interface for LabResult entities, providing CRUD operations for lab test results.
  */
 public interface LabResultRepository extends JpaRepository<LabResult, Long> {
+
+    /**
+     * Finds the reported values of the given orders as compact points, without
+     * loading orders or results.
+     *
+     * @param orderIds order IDs
+     * @return values with their test and order date
+     */
+    @Query("""
+            SELECT new com.qdc.lims.dto.ResultPoint(r.testDefinition.id, o.id, o.orderDate, r.resultValue, r.isAbnormal)
+            FROM LabResult r
+            JOIN r.labOrder o
+            WHERE o.id IN :orderIds AND r.resultValue IS NOT NULL AND r.resultValue <> ''
+            """)
+    List<ResultPoint> findResultPoints(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Finds the reported values of the given tests in the given orders.
+     *
+     * @param orderIds order IDs
+     * @param testIds  test definition IDs
+     * @return values with their test and order date
+     */
+    @Query("""
+            SELECT new com.qdc.lims.dto.ResultPoint(r.testDefinition.id, o.id, o.orderDate, r.resultValue, r.isAbnormal)
+            FROM LabResult r
+            JOIN r.labOrder o
+            WHERE o.id IN :orderIds AND r.testDefinition.id IN :testIds
+              AND r.resultValue IS NOT NULL AND r.resultValue <> ''
+            """)
+    List<ResultPoint> findResultPointsForTests(@Param("orderIds") Collection<Long> orderIds,
+            @Param("testIds") Collection<Long> testIds);
 }
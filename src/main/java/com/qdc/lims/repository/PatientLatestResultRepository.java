@@ -0,0 +1,22 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.PatientLatestResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the latest result per patient and test.
+ */
+public interface PatientLatestResultRepository extends JpaRepository<PatientLatestResult, Long> {
+
+    /**
+     * Finds the latest results of a patient for the given tests.
+     *
+     * @param patientId patient ID
+     * @param testIds   test definition IDs
+     * @return one entry per test the patient has a result for
+     */
+    List<PatientLatestResult> findByPatientIdAndTestIdIn(Long patientId, Collection<Long> testIds);
+}
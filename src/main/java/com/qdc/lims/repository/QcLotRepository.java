@@ -0,0 +1,34 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.QcLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository for QC lots and their running statistics.
+ */
+public interface QcLotRepository extends JpaRepository<QcLot, Long> {
+
+    /**
+     * Finds the lots in use.
+     *
+     * @return active lots
+     */
+    List<QcLot> findByActiveTrue();
+
+    /**
+     * Finds the active lots with a lot number (one per test run on it).
+     *
+     * @param lotNumber lot number as sent by the analyzer or typed in a file
+     * @return matching active lots
+     */
+    List<QcLot> findByLotNumberIgnoreCaseAndActiveTrue(String lotNumber);
+
+    /**
+     * Finds the active lots whose latest run was rejected.
+     *
+     * @return lots blocking their test
+     */
+    List<QcLot> findByBlockedTrueAndActiveTrue();
+}
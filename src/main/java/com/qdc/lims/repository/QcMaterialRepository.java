@@ -0,0 +1,19 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.QcMaterial;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository for QC materials.
+ */
+public interface QcMaterialRepository extends JpaRepository<QcMaterial, Long> {
+
+    /**
+     * Finds the materials in use.
+     *
+     * @return active materials
+     */
+    List<QcMaterial> findByActiveTrue();
+}
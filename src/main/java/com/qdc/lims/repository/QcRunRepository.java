@@ -0,0 +1,22 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.QcRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository for QC runs.
+ */
+public interface QcRunRepository extends JpaRepository<QcRun, Long> {
+
+    /**
+     * Finds a lot's latest runs, newest first (Levey-Jennings chart).
+     *
+     * @param lotId    lot ID
+     * @param pageable how many runs
+     * @return runs, newest first
+     */
+    List<QcRun> findByLotIdOrderByRunAtDescIdDesc(Long lotId, Pageable pageable);
+}
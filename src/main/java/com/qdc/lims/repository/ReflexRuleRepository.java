@@ -0,0 +1,32 @@
+package com.qdc.lims.repository;
+
+import com.qdc.lims.entity.ReflexRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Repository for reflex testing rules.
+ */
+public interface ReflexRuleRepository extends JpaRepository<ReflexRule, Long> {
+
+    /**
+     * Finds the rules that are switched on.
+     *
+     * @return enabled rules
+     */
+    List<ReflexRule> findByEnabledTrue();
+
+    /**
+     * Counts one firing of a rule without loading it.
+     *
+     * @param id rule ID
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE ReflexRule r SET r.firedCount = r.firedCount + 1 WHERE r.id = :id")
+    int incrementFired(@Param("id") Long id);
+}
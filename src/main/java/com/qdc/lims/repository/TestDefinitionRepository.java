@@ -46,4 +46,11 @@ public interface TestDefinitionRepository extends JpaRepository<TestDefinition,
      * @return list of matching tests
      */
     List<TestDefinition> findByTestNameContainingIgnoreCase(String testName);
+
+    /**
+     * Finds the calculated tests.
+     *
+     * @return tests that have a formula
+     */
+    List<TestDefinition> findByFormulaIsNotNull();
 }
@@ -1,13 +1,14 @@
 package com.qdc.lims.service;
 
+import com.qdc.lims.config.ReplicaRead;
 import com.qdc.lims.entity.LabOrder;
 import com.qdc.lims.entity.Payment;
 import com.qdc.lims.repository.DoctorRepository;
-import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.repository.PaymentRepository;
 import com.qdc.lims.repository.TestDefinitionRepository;
 import com.qdc.lims.repository.UserRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -15,27 +16,30 @@ import java.util.List;
 
 /**
  * Service for admin dashboard statistics.
+ * Totals that may lag a few seconds, so they use the read pool when one is configured.
  */
 @Service
+@ReplicaRead
+@Transactional(readOnly = true)
 public class AdminDashboardStatsService {
 
     private final UserRepository userRepository;
     private final DoctorRepository doctorRepository;
     private final TestDefinitionRepository testDefinitionRepository;
-    private final LabOrderRepository labOrderRepository;
+    private final OrderHistoryService orderHistory;
     private final PaymentRepository paymentRepository;
     private final LocaleFormatService localeFormatService;
 
     public AdminDashboardStatsService(UserRepository userRepository,
             DoctorRepository doctorRepository,
             TestDefinitionRepository testDefinitionRepository,
-            LabOrderRepository labOrderRepository,
+            OrderHistoryService orderHistory,
             PaymentRepository paymentRepository,
             LocaleFormatService localeFormatService) {
         this.userRepository = userRepository;
         this.doctorRepository = doctorRepository;
         this.testDefinitionRepository = testDefinitionRepository;
-        this.labOrderRepository = labOrderRepository;
+        this.orderHistory = orderHistory;
         this.paymentRepository = paymentRepository;
         this.localeFormatService = localeFormatService;
     }
@@ -58,7 +62,7 @@ public class AdminDashboardStatsService {
         LocalDateTime end = today.atTime(23, 59, 59);
 
         double orderIncome = 0.0;
-        List<LabOrder> orders = labOrderRepository.findByOrderDateBetween(start, end);
+        List<LabOrder> orders = orderHistory.findByOrderDateBetween(start, end);
         for (LabOrder order : orders) {
             if (order.getPaidAmount() != null && order.getPaidAmount() > 0) {
                 orderIncome += order.getPaidAmount();
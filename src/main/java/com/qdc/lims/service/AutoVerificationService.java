@@ -0,0 +1,395 @@
+package com.qdc.lims.service;
+
+import com.qdc.lims.dto.PatientVisit;
+import com.qdc.lims.entity.AutoVerifyRule;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.qc.QcService;
+import com.qdc.lims.repository.AutoVerifyRuleRepository;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.util.CachedValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Verifies completed orders whose results pass every enabled auto-verification rule, so
+ * that only the exceptions reach the pathologist's review queue.
+ * <p>
+ * The enabled rules are compiled into a decision table once per rule-set version: for
+ * each test that has rules of its own, the array of checks that apply to it (its rules
+ * plus the rules for every test), and one shared array for all other tests. Evaluating
+ * an order is then one array walk per result. The rule set is rebuilt after
+ * {@link #invalidate()} and otherwise every {@link #RULES_TTL_MILLIS}, so rule changes
+ * made from another station are picked up.
+ * <p>
+ * Every check is evaluated, not just up to the first failure, so the rule counters give
+ * true hit rates. Orders that fail keep the failed checks in {@code verificationHold}.
+ * <p>
+ * Results of a test whose latest QC run was rejected are not released, neither by the
+ * rules nor by a pathologist, until the QC passes again. Reports are printed and
+ * delivered, and shown in the cumulative report, only when {@link #releaseHolds(LabOrder)}
+ * is empty.
+ */
+@Service
+public class AutoVerificationService {
+
+    /** {@code verifiedBy} of orders released by the rules. */
+    public static final String AUTO_VERIFIER = "AUTO";
+
+    static final long RULES_TTL_MILLIS = 60_000;
+    private static final int HOLD_LENGTH = 500;
+
+    private final AutoVerifyRuleRepository ruleRepository;
+    private final LabOrderRepository orderRepository;
+    private final CriticalAlertService criticalAlertService;
+    private final QcService qcService;
+    private final AtomicLong versions = new AtomicLong();
+    private final CachedValue<RuleSet> ruleSet;
+
+    @Value("${qdc.autoverify.enabled:false}")
+    private boolean enabled;
+
+    public AutoVerificationService(AutoVerifyRuleRepository ruleRepository, LabOrderRepository orderRepository,
+            CriticalAlertService criticalAlertService, QcService qcService) {
+        this.ruleRepository = ruleRepository;
+        this.orderRepository = orderRepository;
+        this.criticalAlertService = criticalAlertService;
+        this.qcService = qcService;
+        this.ruleSet = new CachedValue<>(RULES_TTL_MILLIS, () -> compile(ruleRepository.findByEnabledTrue()));
+    }
+
+    /**
+     * Result of evaluating an order.
+     *
+     * @param passed whether every check passed
+     * @param holds  failed checks, e.g. {@code "K: critical value"}
+     */
+    public record Outcome(boolean passed, List<String> holds) {
+    }
+
+    /**
+     * Drops the compiled rule set; call after rules change.
+     */
+    public void invalidate() {
+        ruleSet.invalidate();
+    }
+
+    /**
+     * Version of the compiled rule set, increased on every rebuild.
+     *
+     * @return rule-set version
+     */
+    public long getRuleSetVersion() {
+        return rules().version;
+    }
+
+    /**
+     * All rules with their counters, for the hit-rate statistics.
+     *
+     * @return every rule, enabled or not
+     */
+    public List<AutoVerifyRule> getRules() {
+        return ruleRepository.findAll();
+    }
+
+    /**
+     * Evaluates an order against the enabled rules without changing it or the counters.
+     *
+     * @param order order with its results
+     * @return outcome; never passes when no rule is enabled
+     */
+    public Outcome evaluate(LabOrder order) {
+        RuleSet rules = rules();
+        List<String> holds = apply(rules, order, new long[rules.ruleIds.length], new long[rules.ruleIds.length]);
+        return new Outcome(rules.ruleIds.length > 0 && holds.isEmpty(), holds);
+    }
+
+    /**
+     * Clears any earlier verification of an order whose results changed and verifies it
+     * again if it is completed and passes the rules. The caller saves the order.
+     *
+     * @param order managed order with its results
+     * @return whether the order was auto-verified
+     */
+    @Transactional
+    public boolean reverify(LabOrder order) {
+        order.setVerifiedAt(null);
+        order.setVerifiedBy(null);
+        order.setAutoVerified(false);
+        order.setVerificationHold(null);
+        if (!enabled || !"COMPLETED".equals(order.getStatus())) {
+            return false;
+        }
+        RuleSet rules = rules();
+        if (rules.ruleIds.length == 0) {
+            return false;
+        }
+        long[] evaluated = new long[rules.ruleIds.length];
+        long[] held = new long[rules.ruleIds.length];
+        boolean passed = decide(rules, order, evaluated, held);
+        flushCounts(rules, evaluated, held);
+        return passed;
+    }
+
+    /**
+     * Runs the rules over the whole review queue, e.g. after the rules were changed or
+     * auto-verification was switched on. Counters are written once for the batch.
+     *
+     * @return number of orders auto-verified
+     */
+    @Transactional
+    public int autoVerifyPending() {
+        if (!enabled) {
+            return 0;
+        }
+        RuleSet rules = rules();
+        if (rules.ruleIds.length == 0) {
+            return 0;
+        }
+        long[] evaluated = new long[rules.ruleIds.length];
+        long[] held = new long[rules.ruleIds.length];
+        int verified = 0;
+        for (LabOrder order : orderRepository.findAwaitingVerification()) {
+            if (order.isReportDelivered()) {
+                continue;
+            }
+            if (decide(rules, order, evaluated, held)) {
+                verified++;
+            }
+            orderRepository.save(order);
+        }
+        flushCounts(rules, evaluated, held);
+        if (verified > 0) {
+            System.out.println("[AutoVerification] Verified " + verified + " orders from the review queue (rule set v"
+                    + rules.version + ")");
+        }
+        return verified;
+    }
+
+    /**
+     * Verifies an order after review.
+     *
+     * @param orderId  order to verify
+     * @param username reviewing pathologist
+     */
+    @Transactional
+    public void verify(Long orderId, String username) {
+        LabOrder order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("The Order not found"));
+        if (!"COMPLETED".equals(order.getStatus())) {
+            throw new IllegalStateException("Only completed orders can be verified.");
+        }
+        List<String> qcHolds = qcHolds(order);
+        if (!qcHolds.isEmpty()) {
+            throw new IllegalStateException("Results cannot be released while QC is out of control: "
+                    + String.join("; ", qcHolds));
+        }
+        order.setVerifiedAt(LocalDateTime.now());
+        order.setVerifiedBy(username);
+        order.setAutoVerified(false);
+        orderRepository.save(order);
+    }
+
+    /**
+     * Why an order's report may not be printed or delivered yet: tests whose QC is
+     * rejected and, while auto-verification is on, a missing verification.
+     *
+     * @param order order with its results
+     * @return reasons; empty if the report may be released
+     */
+    public List<String> releaseHolds(LabOrder order) {
+        List<String> holds = qcHolds(order);
+        addVerificationHold(holds, order.getVerifiedAt(), order.getVerificationHold());
+        return holds;
+    }
+
+    /**
+     * {@link #releaseHolds(LabOrder)} for a visit of the cumulative report, which does not
+     * load the order: QC is checked for the tests the visit reported. Orders that are not
+     * completed are held as well.
+     *
+     * @param visit   the visit
+     * @param testIds tests with a reported value in the visit
+     * @return reasons; empty if the visit's values may be shown
+     */
+    public List<String> releaseHolds(PatientVisit visit, Collection<Long> testIds) {
+        List<String> holds = new ArrayList<>();
+        if (!"COMPLETED".equals(visit.status())) {
+            holds.add("results not complete");
+        }
+        Map<Long, String> blocked = qcService.blockedTests();
+        for (Long testId : testIds) {
+            String reason = blocked.get(testId);
+            if (reason != null) {
+                holds.add(reason);
+            }
+        }
+        addVerificationHold(holds, visit.verifiedAt(), visit.verificationHold());
+        return holds;
+    }
+
+    private void addVerificationHold(List<String> holds, LocalDateTime verifiedAt, String verificationHold) {
+        if (enabled && verifiedAt == null) {
+            holds.add(verificationHold != null ? "not verified (" + verificationHold + ")" : "not verified");
+        }
+    }
+
+    private boolean decide(RuleSet rules, LabOrder order, long[] evaluated, long[] held) {
+        List<String> holds = apply(rules, order, evaluated, held);
+        if (holds.isEmpty()) {
+            order.setVerifiedAt(LocalDateTime.now());
+            order.setVerifiedBy(AUTO_VERIFIER);
+            order.setAutoVerified(true);
+            order.setVerificationHold(null);
+            return true;
+        }
+        String hold = String.join("; ", holds);
+        order.setVerificationHold(hold.length() > HOLD_LENGTH ? hold.substring(0, HOLD_LENGTH - 3) + "..." : hold);
+        return false;
+    }
+
+    private List<String> apply(RuleSet rules, LabOrder order, long[] evaluated, long[] held) {
+        List<String> holds = new ArrayList<>();
+        if (order.getResults() == null || order.getResults().isEmpty()) {
+            holds.add("no results");
+            return holds;
+        }
+        holds.addAll(qcHolds(order));
+        for (LabResult result : order.getResults()) {
+            TestDefinition test = result.getTestDefinition();
+            CompiledRule[] checks = test != null && test.getId() != null
+                    ? rules.byTest.getOrDefault(test.getId(), rules.common)
+                    : rules.common;
+            for (CompiledRule rule : checks) {
+                evaluated[rule.slot]++;
+                if (!rule.passes.test(result)) {
+                    held[rule.slot]++;
+                    holds.add((test != null ? displayName(test) : "Result " + result.getId()) + ": " + rule.label);
+                }
+            }
+        }
+        return holds;
+    }
+
+    /**
+     * One hold per test of the order whose QC is rejected.
+     */
+    private List<String> qcHolds(LabOrder order) {
+        Map<Long, String> blocked = qcService.blockedTests();
+        List<String> holds = new ArrayList<>();
+        if (blocked.isEmpty() || order.getResults() == null) {
+            return holds;
+        }
+        for (LabResult result : order.getResults()) {
+            TestDefinition test = result.getTestDefinition();
+            String reason = test != null ? blocked.get(test.getId()) : null;
+            if (reason != null) {
+                holds.add(displayName(test) + ": " + reason);
+            }
+        }
+        return holds;
+    }
+
+    private void flushCounts(RuleSet rules, long[] evaluated, long[] held) {
+        for (int i = 0; i < rules.ruleIds.length; i++) {
+            if (evaluated[i] > 0) {
+                ruleRepository.addCounts(rules.ruleIds[i], evaluated[i], held[i]);
+            }
+        }
+    }
+
+    private RuleSet rules() {
+        return ruleSet.get();
+    }
+
+    private RuleSet compile(List<AutoVerifyRule> rules) {
+        List<CompiledRule> common = new ArrayList<>();
+        Map<Long, List<CompiledRule>> specific = new HashMap<>();
+        Long[] ruleIds = new Long[rules.size()];
+        for (int slot = 0; slot < rules.size(); slot++) {
+            AutoVerifyRule rule = rules.get(slot);
+            ruleIds[slot] = rule.getId();
+            CompiledRule compiled = new CompiledRule(slot, label(rule.getCheck()), predicate(rule.getCheck()));
+            if (rule.getTest() == null) {
+                common.add(compiled);
+            } else {
+                specific.computeIfAbsent(rule.getTest().getId(), k -> new ArrayList<>()).add(compiled);
+            }
+        }
+
+        CompiledRule[] commonArray = common.toArray(new CompiledRule[0]);
+        Map<Long, CompiledRule[]> byTest = new HashMap<>();
+        specific.forEach((testId, own) -> {
+            List<CompiledRule> all = new ArrayList<>(common);
+            all.addAll(own);
+            byTest.put(testId, all.toArray(new CompiledRule[0]));
+        });
+
+        long version = versions.incrementAndGet();
+        System.out.println("[AutoVerification] Compiled rule set v" + version + ": " + rules.size() + " rules, "
+                + byTest.size() + " with test-specific checks");
+        return new RuleSet(version, byTest, commonArray, ruleIds);
+    }
+
+    private Predicate<LabResult> predicate(AutoVerifyRule.Check check) {
+        return switch (check) {
+            case RESULT_PRESENT -> r -> !isBlank(r.getResultValue());
+            case WITHIN_RANGE -> r -> !r.isAbnormal();
+            case DELTA_PASSED -> r -> isBlank(r.getDeltaFlag());
+            case NO_CRITICAL -> r -> criticalAlertService.breach(r) == null;
+            case INSTRUMENT_FLAGS_CLEAR -> r -> isBlank(r.getInstrumentFlags())
+                    || "N".equalsIgnoreCase(r.getInstrumentFlags().trim());
+            case NUMERIC_VALUE -> r -> number(r.getResultValue()) != null;
+            case MANUAL_REVIEW -> r -> false;
+        };
+    }
+
+    private static String label(AutoVerifyRule.Check check) {
+        return switch (check) {
+            case RESULT_PRESENT -> "no value";
+            case WITHIN_RANGE -> "out of range";
+            case DELTA_PASSED -> "delta check";
+            case NO_CRITICAL -> "critical value";
+            case INSTRUMENT_FLAGS_CLEAR -> "analyzer flags";
+            case NUMERIC_VALUE -> "text result";
+            case MANUAL_REVIEW -> "always reviewed";
+        };
+    }
+
+    private static BigDecimal number(String value) {
+        if (isBlank(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String displayName(TestDefinition test) {
+        return test.getShortCode() != null && !test.getShortCode().isBlank() ? test.getShortCode() : test.getTestName();
+    }
+
+    private record CompiledRule(int slot, String label, Predicate<LabResult> passes) {
+    }
+
+    private record RuleSet(long version, Map<Long, CompiledRule[]> byTest, CompiledRule[] common, Long[] ruleIds) {
+    }
+}
@@ -6,14 +6,16 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service to manage system configuration settings.
- * Caches settings in memory for performance.
+ * Caches settings in memory for performance. The cache is shared by the FX thread
+ * and the parallel startup tasks, so it is a concurrent map.
  */
 @Service
 public class ConfigService {
@@ -21,7 +23,7 @@ public class ConfigService {
     @Autowired
     private SystemConfigurationRepository configRepository;
 
-    private Map<String, String> cache = new HashMap<>();
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
@@ -34,42 +36,51 @@ public class ConfigService {
         List<SystemConfiguration> configs = configRepository.findAll();
         cache.clear();
         for (SystemConfiguration config : configs) {
-            cache.put(config.getKey(), config.getValue());
+            cache.put(config.getKey(), config.getValue() != null ? config.getValue() : "");
         }
     }
 
     private void ensureDefaults() {
-        createIfNotExists("APP_NAME", "QDC LIMS", "General");
+        List<SystemConfiguration> missing = new ArrayList<>();
+
+        createIfNotExists(missing, "APP_NAME", "QDC LIMS", "General");
 
         // Whitelabel clinic profile fields intentionally default to blank so the
         // first-run experience prompts for real lab details.
-        createIfNotExists("CLINIC_NAME", "", "General");
-        createIfNotExists("CLINIC_ADDRESS", "", "General");
-        createIfNotExists("CLINIC_PHONE", "", "General");
-        createIfNotExists("CLINIC_EMAIL", "", "General");
+        createIfNotExists(missing, "CLINIC_NAME", "", "General");
+        createIfNotExists(missing, "CLINIC_ADDRESS", "", "General");
+        createIfNotExists(missing, "CLINIC_PHONE", "", "General");
+        createIfNotExists(missing, "CLINIC_EMAIL", "", "General");
 
-        createIfNotExists("LAB_PROFILE_COMPLETED", "false", "General");
+        createIfNotExists(missing, "LAB_PROFILE_COMPLETED", "false", "General");
 
-        createIfNotExists("CURRENCY_SYMBOL", "AUTO", "Billing");
-        createIfNotExists("TAX_RATE_PERCENT", "0.0", "Billing");
+        createIfNotExists(missing, "CURRENCY_SYMBOL", "AUTO", "Billing");
+        createIfNotExists(missing, "TAX_RATE_PERCENT", "0.0", "Billing");
 
-        createIfNotExists("REPORT_HEADER_TEXT", "", "Reports");
-        createIfNotExists("REPORT_FOOTER_TEXT",
+        createIfNotExists(missing, "REPORT_HEADER_TEXT", "", "Reports");
+        createIfNotExists(missing, "REPORT_FOOTER_TEXT",
                 "This is a computer generated report and does not require a signature.",
                 "Reports");
-        createIfNotExists("REPORT_LOGO_PATH", "", "Reports");
-
-        refreshCache();
+        createIfNotExists(missing, "REPORT_LOGO_PATH", "", "Reports");
+
+        // Usually empty after the first run: the cache was just loaded, so no per-key queries.
+        if (!missing.isEmpty()) {
+            configRepository.saveAll(missing);
+            for (SystemConfiguration config : missing) {
+                cache.put(config.getKey(), config.getValue());
+            }
+        }
     }
 
-    private void createIfNotExists(String key, String defaultValue, String category) {
-        if (!configRepository.existsById(key)) {
+    private void createIfNotExists(List<SystemConfiguration> missing, String key, String defaultValue,
+            String category) {
+        if (!cache.containsKey(key)) {
             SystemConfiguration config = new SystemConfiguration();
             config.setKey(key);
             config.setValue(defaultValue);
             config.setDescription("System Setting: " + key);
             config.setCategory(category);
-            configRepository.save(config);
+            missing.add(config);
         }
     }
 
@@ -145,7 +156,7 @@ public class ConfigService {
 
         config.setValue(value);
         configRepository.save(config);
-        cache.put(key, value);
+        cache.put(key, value != null ? value : "");
 
         if (updateProfileFlag && isProfileField(key)) {
             updateLabProfileCompletionFlag();
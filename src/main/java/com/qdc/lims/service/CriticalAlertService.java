@@ -0,0 +1,338 @@
+package com.qdc.lims.service;
+
+import com.qdc.lims.entity.CriticalAlert;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.Patient;
+import com.qdc.lims.entity.ReferenceRange;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.repository.CriticalAlertRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Raises, queues and acknowledges critical (panic) value alerts.
+ * <p>
+ * Critical limits come from the reference range that matches the patient (same
+ * gender/age matching as the LOW/HIGH flags) and fall back to the test's own limits.
+ * Breaches found when results are saved are written to {@code critical_alert} and, once
+ * the transaction commits, put on an in-memory priority queue (most severe first, then
+ * oldest) and pushed to the registered listeners, i.e. the open lab and reception
+ * dashboards. Acknowledging removes the alert from the queue and pushes again.
+ * <p>
+ * The queue is reloaded from the table when it is older than {@link #RELOAD_MILLIS}, so
+ * alerts survive a restart and alerts raised or acknowledged on another station show up
+ * within that time. Pushes reach the dashboards of this application instance at once.
+ */
+@Service
+public class CriticalAlertService {
+
+    /** Most severe first, then oldest. */
+    static final Comparator<CriticalAlert> PRIORITY = Comparator
+            .comparingDouble(CriticalAlert::getSeverity).reversed()
+            .thenComparing(CriticalAlert::getRaisedAt, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    static final long RELOAD_MILLIS = 30_000;
+
+    private final CriticalAlertRepository alertRepository;
+    private final PriorityBlockingQueue<CriticalAlert> open = new PriorityBlockingQueue<>(16, PRIORITY);
+    private final List<Consumer<CriticalAlert>> listeners = new CopyOnWriteArrayList<>();
+    private volatile long loadedAt;
+
+    public CriticalAlertService(CriticalAlertRepository alertRepository) {
+        this.alertRepository = alertRepository;
+    }
+
+    /**
+     * A critical limit crossed by a value.
+     *
+     * @param limit    the limit, e.g. {@code "> 6.5"}
+     * @param severity distance beyond the limit relative to it
+     */
+    public record Breach(String limit, double severity) {
+    }
+
+    /**
+     * Acknowledgement times of the alerts raised in a period.
+     *
+     * @param raised       alerts raised
+     * @param acknowledged alerts acknowledged so far
+     * @param median       median time to acknowledge (null if none acknowledged)
+     * @param p90          90th percentile time to acknowledge
+     * @param longest      longest time to acknowledge
+     */
+    public record AckMetrics(int raised, int acknowledged, Duration median, Duration p90, Duration longest) {
+    }
+
+    /**
+     * Registers a listener called with every alert raised or acknowledged. Listeners run
+     * on the saving thread; UI listeners hand over to their UI thread.
+     *
+     * @param listener listener to add
+     */
+    public void addListener(Consumer<CriticalAlert> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(Consumer)}.
+     *
+     * @param listener listener to remove
+     */
+    public void removeListener(Consumer<CriticalAlert> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Open alerts, most urgent first.
+     *
+     * @return snapshot of the queue
+     */
+    public List<CriticalAlert> openAlerts() {
+        reloadIfStale();
+        List<CriticalAlert> snapshot = new ArrayList<>(open);
+        snapshot.sort(PRIORITY);
+        return snapshot;
+    }
+
+    /**
+     * Checks a result against its critical limits.
+     *
+     * @param result result with a value, test and order
+     * @return the crossed limit, or null if the value is not critical or not numeric
+     */
+    public Breach breach(LabResult result) {
+        TestDefinition test = result.getTestDefinition();
+        BigDecimal value = number(result.getResultValue());
+        if (test == null || value == null) {
+            return null;
+        }
+        BigDecimal low = test.getCriticalLow();
+        BigDecimal high = test.getCriticalHigh();
+        ReferenceRange range = matchingRange(test,
+                result.getLabOrder() != null ? result.getLabOrder().getPatient() : null);
+        if (range != null) {
+            low = range.getCriticalLow() != null ? range.getCriticalLow() : low;
+            high = range.getCriticalHigh() != null ? range.getCriticalHigh() : high;
+        }
+        if (low != null && value.compareTo(low) < 0) {
+            return new Breach("< " + low.toPlainString(), severity(value, low));
+        }
+        if (high != null && value.compareTo(high) > 0) {
+            return new Breach("> " + high.toPlainString(), severity(value, high));
+        }
+        return null;
+    }
+
+    /**
+     * Raises alerts for the saved results whose values are critical. A value that
+     * already has an open alert is not raised again.
+     *
+     * @param order   the results' order
+     * @param results results just saved
+     * @return alerts raised
+     */
+    @Transactional
+    public List<CriticalAlert> raise(LabOrder order, Collection<LabResult> results) {
+        List<CriticalAlert> raised = new ArrayList<>();
+        List<LabResult> critical = new ArrayList<>();
+        List<Breach> breaches = new ArrayList<>();
+        for (LabResult result : results) {
+            Breach breach = breach(result);
+            if (breach != null && result.getId() != null) {
+                critical.add(result);
+                breaches.add(breach);
+            }
+        }
+        if (critical.isEmpty()) {
+            return raised;
+        }
+
+        Set<String> alreadyOpen = new HashSet<>();
+        for (CriticalAlert existing : alertRepository.findByResultIdInAndAcknowledgedAtIsNull(
+                critical.stream().map(LabResult::getId).toList())) {
+            alreadyOpen.add(existing.getResultId() + "|" + existing.getResultValue());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Patient patient = order.getPatient();
+        for (int i = 0; i < critical.size(); i++) {
+            LabResult result = critical.get(i);
+            String value = result.getResultValue().trim();
+            if (alreadyOpen.contains(result.getId() + "|" + value)) {
+                continue;
+            }
+            TestDefinition test = result.getTestDefinition();
+            CriticalAlert alert = new CriticalAlert();
+            alert.setOrderId(order.getId());
+            alert.setResultId(result.getId());
+            if (patient != null) {
+                alert.setPatientId(patient.getId());
+                alert.setPatientName(patient.getFullName());
+                alert.setMrn(patient.getMrn());
+            }
+            alert.setTestName(test.getTestName());
+            alert.setResultValue(value);
+            alert.setUnit(test.getUnit());
+            alert.setCriticalLimit(breaches.get(i).limit());
+            alert.setSeverity(breaches.get(i).severity());
+            alert.setRaisedAt(now);
+            alert.setRaisedBy(result.getPerformedBy());
+            raised.add(alertRepository.save(alert));
+        }
+        if (!raised.isEmpty()) {
+            System.out.println("[CriticalAlert] " + raised.size() + " critical value(s) on order " + order.getId());
+            afterCommit(() -> {
+                for (CriticalAlert alert : raised) {
+                    // A reload after the commit already holds it
+                    open.removeIf(a -> Objects.equals(a.getId(), alert.getId()));
+                    open.add(alert);
+                    notifyListeners(alert);
+                }
+            });
+        }
+        return raised;
+    }
+
+    /**
+     * Acknowledges an alert.
+     *
+     * @param alertId  alert to acknowledge
+     * @param username who acknowledged it
+     * @return the acknowledged alert
+     */
+    @Transactional
+    public CriticalAlert acknowledge(Long alertId, String username) {
+        CriticalAlert alert = alertRepository.findById(alertId)
+                .orElseThrow(() -> new RuntimeException("Alert not found: " + alertId));
+        if (alert.getAcknowledgedAt() == null) {
+            alert.setAcknowledgedAt(LocalDateTime.now());
+            alert.setAcknowledgedBy(username);
+            alertRepository.save(alert);
+        }
+        afterCommit(() -> {
+            open.removeIf(a -> Objects.equals(a.getId(), alertId));
+            notifyListeners(alert);
+        });
+        return alert;
+    }
+
+    /**
+     * Time-to-acknowledge figures for the alerts raised in a period.
+     *
+     * @param start start of the period
+     * @param end   end of the period
+     * @return metrics; durations are null when nothing was acknowledged
+     */
+    @Transactional(readOnly = true)
+    public AckMetrics metrics(LocalDateTime start, LocalDateTime end) {
+        List<CriticalAlert> alerts = alertRepository.findByRaisedAtBetween(start, end);
+        List<Duration> times = new ArrayList<>();
+        for (CriticalAlert alert : alerts) {
+            if (alert.getAcknowledgedAt() != null && alert.getRaisedAt() != null) {
+                times.add(Duration.between(alert.getRaisedAt(), alert.getAcknowledgedAt()));
+            }
+        }
+        if (times.isEmpty()) {
+            return new AckMetrics(alerts.size(), 0, null, null, null);
+        }
+        times.sort(Comparator.naturalOrder());
+        return new AckMetrics(alerts.size(), times.size(), percentile(times, 50), percentile(times, 90),
+                times.get(times.size() - 1));
+    }
+
+    private static Duration percentile(List<Duration> sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private void reloadIfStale() {
+        if (System.currentTimeMillis() - loadedAt <= RELOAD_MILLIS) {
+            return;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - loadedAt > RELOAD_MILLIS) {
+                List<CriticalAlert> current = alertRepository.findByAcknowledgedAtIsNull();
+                open.clear();
+                open.addAll(current);
+                loadedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private void notifyListeners(CriticalAlert alert) {
+        for (Consumer<CriticalAlert> listener : listeners) {
+            try {
+                listener.accept(alert);
+            } catch (Exception e) {
+                System.err.println("[CriticalAlert] Listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or now without one, so that
+     * nothing is queued or pushed for a save that rolls back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static ReferenceRange matchingRange(TestDefinition test, Patient patient) {
+        if (test.getRanges() == null || patient == null) {
+            return null;
+        }
+        for (ReferenceRange rule : test.getRanges()) {
+            boolean genderMatch = rule.getGender() == null || rule.getGender().equalsIgnoreCase("Both")
+                    || rule.getGender().equalsIgnoreCase(patient.getGender());
+            boolean ageMatch = patient.getAge() != null && rule.getMinAge() != null && rule.getMaxAge() != null
+                    && patient.getAge() >= rule.getMinAge() && patient.getAge() <= rule.getMaxAge();
+            if (genderMatch && ageMatch) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static double severity(BigDecimal value, BigDecimal limit) {
+        double distance = Math.abs(value.doubleValue() - limit.doubleValue());
+        double scale = Math.abs(limit.doubleValue());
+        return scale > 0 ? distance / scale : distance;
+    }
+
+    private static BigDecimal number(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.qdc.lims.service;
+
+import com.lowagie.text.*;
+import com.lowagie.text.pdf.*;
+import com.qdc.lims.dto.CumulativeReport;
+import com.qdc.lims.dto.PatientVisit;
+import com.qdc.lims.dto.ResultPoint;
+import com.qdc.lims.entity.Patient;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.repository.PatientRepository;
+import com.qdc.lims.repository.TestDefinitionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cumulative result history of a patient: every test across the patient's visits.
+ * <p>
+ * Visits are paged newest first by order ID, and each page costs two narrow queries
+ * (visit IDs and dates, then the values of those visits) no matter how many visits the
+ * patient has; no order or result entities are loaded. Archived visits are included
+ * through {@link OrderHistoryService}. Visits held by
+ * {@link AutoVerificationService#releaseHolds(PatientVisit, Collection)} stay in the
+ * matrix as columns, but their values are left out.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CumulativeReportService {
+
+    /** Visits per page when the caller does not say. */
+    public static final int DEFAULT_VISITS = 10;
+
+    private static final int MAX_VISITS = 50;
+    private static final int VISITS_PER_TABLE = 10;
+
+    private final PatientRepository patientRepository;
+    private final TestDefinitionRepository testRepository;
+    private final OrderHistoryService orderHistory;
+    private final BrandingService brandingService;
+    private final LocaleFormatService localeFormatService;
+    private final AutoVerificationService autoVerificationService;
+
+    public CumulativeReportService(PatientRepository patientRepository,
+            TestDefinitionRepository testRepository,
+            OrderHistoryService orderHistory,
+            BrandingService brandingService,
+            LocaleFormatService localeFormatService,
+            AutoVerificationService autoVerificationService) {
+        this.patientRepository = patientRepository;
+        this.testRepository = testRepository;
+        this.orderHistory = orderHistory;
+        this.brandingService = brandingService;
+        this.localeFormatService = localeFormatService;
+        this.autoVerificationService = autoVerificationService;
+    }
+
+    /**
+     * Loads one page of the patient's history.
+     *
+     * @param patientId     patient id
+     * @param beforeOrderId only visits older than this order (null = newest visits)
+     * @param visits        number of visits on the page
+     * @param testIds       tests to include (null or empty = all tests)
+     * @return the test-by-visit matrix, visits oldest first
+     */
+    public CumulativeReport load(Long patientId, Long beforeOrderId, int visits, Collection<Long> testIds) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new NoSuchElementException("Patient not found: " + patientId));
+        int pageSize = Math.max(1, Math.min(visits, MAX_VISITS));
+
+        // One extra row tells whether an older page exists
+        List<PatientVisit> page = new ArrayList<>(orderHistory.findVisits(patientId, beforeOrderId, pageSize + 1));
+        Long olderThan = null;
+        if (page.size() > pageSize) {
+            page = new ArrayList<>(page.subList(0, pageSize));
+            olderThan = page.get(page.size() - 1).orderId();
+        }
+        page.sort(Comparator.comparing(PatientVisit::orderId));
+
+        List<Long> orderIds = page.stream().map(PatientVisit::orderId).toList();
+        List<ResultPoint> points = orderHistory.findResultPoints(orderIds, testIds);
+        Map<Long, String> held = holds(page,
+                testIds == null || testIds.isEmpty() ? points : orderHistory.findResultPoints(orderIds, null));
+        Map<Long, List<ResultPoint>> byTest = points.stream()
+                .filter(p -> !held.containsKey(p.orderId()))
+                .sorted(Comparator.comparing(ResultPoint::orderId))
+                .collect(Collectors.groupingBy(ResultPoint::testId, LinkedHashMap::new, Collectors.toList()));
+
+        Map<Long, TestDefinition> tests = new HashMap<>();
+        testRepository.findAllById(byTest.keySet()).forEach(t -> tests.put(t.getId(), t));
+
+        List<CumulativeReport.TestTrend> rows = new ArrayList<>();
+        for (Map.Entry<Long, List<ResultPoint>> entry : byTest.entrySet()) {
+            TestDefinition test = tests.get(entry.getKey());
+            if (test == null) {
+                continue;
+            }
+            rows.add(new CumulativeReport.TestTrend(
+                    test.getId(),
+                    test.getTestName(),
+                    test.getDepartment() != null ? test.getDepartment().getName() : "Other",
+                    test.getUnit() != null ? test.getUnit() : "",
+                    formatRange(test),
+                    entry.getValue()));
+        }
+        rows.sort(Comparator.comparing(CumulativeReport.TestTrend::department, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(CumulativeReport.TestTrend::testName, String.CASE_INSENSITIVE_ORDER));
+
+        return new CumulativeReport(patient.getId(), patient.getFullName(), patient.getMrn(), page, held, rows,
+                olderThan);
+    }
+
+    /**
+     * Visits whose values may not be shown, with the reasons: the same holds that keep
+     * their reports from being printed. QC is checked for every test the visit reported.
+     */
+    private Map<Long, String> holds(List<PatientVisit> visits, List<ResultPoint> allPoints) {
+        Map<Long, Set<Long>> testsByOrder = allPoints.stream().collect(Collectors.groupingBy(
+                ResultPoint::orderId, Collectors.mapping(ResultPoint::testId, Collectors.toSet())));
+        Map<Long, String> held = new HashMap<>();
+        for (PatientVisit visit : visits) {
+            List<String> holds = autoVerificationService.releaseHolds(visit,
+                    testsByOrder.getOrDefault(visit.orderId(), Set.of()));
+            if (!holds.isEmpty()) {
+                held.put(visit.orderId(), String.join("; ", holds));
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Builds the cumulative report PDF for one page of visits.
+     *
+     * @param patientId     patient id
+     * @param beforeOrderId only visits older than this order (null = newest visits)
+     * @param visits        number of visits to include
+     * @param testIds       tests to include (null or empty = all tests)
+     * @return PDF document bytes
+     */
+    public byte[] generatePdf(Long patientId, Long beforeOrderId, int visits, Collection<Long> testIds) {
+        CumulativeReport report = load(patientId, beforeOrderId, visits, testIds);
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Document document = new Document(PageSize.A4.rotate(), 24, 24, 24, 24);
+            PdfWriter.getInstance(document, out);
+            document.open();
+
+            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, Color.BLUE);
+            Paragraph title = new Paragraph(brandingService.getReportHeaderText(), titleFont);
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+
+            Font normalFont = FontFactory.getFont(FontFactory.HELVETICA, 10);
+            document.add(new Paragraph("Cumulative Report", FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12)));
+            document.add(new Paragraph("Patient Name: " + report.patientName() + "    MRN: " + report.mrn(),
+                    normalFont));
+            document.add(new Paragraph(" "));
+
+            if (report.visits().isEmpty() || report.tests().isEmpty()) {
+                document.add(new Paragraph("No reported results.", normalFont));
+            }
+            List<PatientVisit> visitList = report.visits();
+            for (int from = 0; from < visitList.size() && !report.tests().isEmpty(); from += VISITS_PER_TABLE) {
+                List<PatientVisit> chunk = visitList.subList(from, Math.min(from + VISITS_PER_TABLE, visitList.size()));
+                addMatrix(document, report.tests(), chunk, report.heldVisits());
+                document.add(new Paragraph(" "));
+            }
+
+            Paragraph footer = new Paragraph(brandingService.getReportFooterText(),
+                    FontFactory.getFont(FontFactory.HELVETICA_OBLIQUE, 9));
+            footer.setAlignment(Element.ALIGN_CENTER);
+            document.add(footer);
+
+            document.close();
+            return out.toByteArray();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Error generating PDF", e);
+        }
+    }
+
+    private void addMatrix(Document document, List<CumulativeReport.TestTrend> tests, List<PatientVisit> visits,
+            Map<Long, String> held) throws DocumentException {
+        PdfPTable table = new PdfPTable(4 + visits.size());
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        float[] widths = new float[4 + visits.size()];
+        widths[0] = 5;
+        widths[1] = 2;
+        widths[2] = 3;
+        for (int i = 0; i < visits.size(); i++) {
+            widths[3 + i] = 2.2f;
+        }
+        widths[widths.length - 1] = 3;
+        table.setWidths(widths);
+
+        Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, Color.WHITE);
+        addHeader(table, "Test", headerFont);
+        addHeader(table, "Unit", headerFont);
+        addHeader(table, "Reference Range", headerFont);
+        for (PatientVisit visit : visits) {
+            addHeader(table, localeFormatService.formatDate(visit.orderDate().toLocalDate())
+                    + "\n#" + visit.orderId() + (held.containsKey(visit.orderId()) ? "\nHeld" : ""), headerFont);
+        }
+        addHeader(table, "Trend", headerFont);
+
+        Font cellFont = FontFactory.getFont(FontFactory.HELVETICA, 8);
+        Font abnormalFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, Color.RED);
+        Font departmentFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8, Color.DARK_GRAY);
+        String department = null;
+        for (CumulativeReport.TestTrend test : tests) {
+            Map<Long, ResultPoint> byOrder = new HashMap<>();
+            test.points().forEach(p -> byOrder.put(p.orderId(), p));
+            if (visits.stream().noneMatch(v -> byOrder.containsKey(v.orderId()))) {
+                continue;
+            }
+            if (!test.department().equals(department)) {
+                department = test.department();
+                PdfPCell section = new PdfPCell(new Phrase(department, departmentFont));
+                section.setColspan(4 + visits.size());
+                section.setBackgroundColor(new Color(235, 235, 235));
+                section.setPadding(3);
+                table.addCell(section);
+            }
+
+            addCell(table, test.testName(), cellFont);
+            addCell(table, test.unit(), cellFont);
+            addCell(table, test.referenceRange(), cellFont);
+            List<BigDecimal> series = new ArrayList<>();
+            for (PatientVisit visit : visits) {
+                ResultPoint point = byOrder.get(visit.orderId());
+                addCell(table, point != null ? point.value() : "",
+                        point != null && point.abnormal() ? abnormalFont : cellFont);
+                if (point != null && point.numericValue() != null) {
+                    series.add(point.numericValue());
+                }
+            }
+
+            PdfPCell trend = new PdfPCell(new Phrase(""));
+            trend.setMinimumHeight(14);
+            if (series.size() > 1) {
+                trend.setCellEvent(new Sparkline(series));
+            }
+            table.addCell(trend);
+        }
+        document.add(table);
+    }
+
+    private static void addHeader(PdfPTable table, String text, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, font));
+        cell.setBackgroundColor(Color.DARK_GRAY);
+        cell.setPadding(3);
+        table.addCell(cell);
+    }
+
+    private static void addCell(PdfPTable table, String text, Font font) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", font));
+        cell.setPadding(3);
+        table.addCell(cell);
+    }
+
+    private static String formatRange(TestDefinition testDefinition) {
+        BigDecimal min = testDefinition.getMinRange();
+        BigDecimal max = testDefinition.getMaxRange();
+        if (min != null && max != null) {
+            return min + " - " + max;
+        }
+        return "";
+    }
+
+    /**
+     * Draws the numeric values of a row as a small line chart inside the cell.
+     */
+    private static final class Sparkline implements PdfPCellEvent {
+
+        private final List<BigDecimal> values;
+
+        private Sparkline(List<BigDecimal> values) {
+            this.values = values;
+        }
+
+        @Override
+        public void cellLayout(PdfPCell cell, Rectangle position, PdfContentByte[] canvases) {
+            BigDecimal min = values.stream().min(BigDecimal::compareTo).orElseThrow();
+            BigDecimal max = values.stream().max(BigDecimal::compareTo).orElseThrow();
+            double span = max.subtract(min).doubleValue();
+
+            float pad = 3;
+            float left = position.getLeft() + pad;
+            float bottom = position.getBottom() + pad;
+            float width = position.getWidth() - 2 * pad;
+            float height = position.getHeight() - 2 * pad;
+
+            PdfContentByte canvas = canvases[PdfPTable.LINECANVAS];
+            canvas.saveState();
+            canvas.setLineWidth(0.8f);
+            canvas.setColorStroke(Color.DARK_GRAY);
+            float x = left;
+            float y = bottom;
+            for (int i = 0; i < values.size(); i++) {
+                double share = span == 0 ? 0.5 : values.get(i).subtract(min).doubleValue() / span;
+                x = left + width * i / (values.size() - 1);
+                y = bottom + (float) (height * share);
+                if (i == 0) {
+                    canvas.moveTo(x, y);
+                } else {
+                    canvas.lineTo(x, y);
+                }
+            }
+            canvas.stroke();
+            canvas.setColorFill(Color.DARK_GRAY);
+            canvas.circle(x, y, 1.3f);
+            canvas.fill();
+            canvas.restoreState();
+        }
+    }
+}
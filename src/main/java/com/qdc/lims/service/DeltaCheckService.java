@@ -0,0 +1,234 @@
+package com.qdc.lims.service;
+
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.PatientLatestResult;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.repository.PatientLatestResultRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compares new values with the patient's previous value of the same test.
+ * <p>
+ * The previous values come from {@code patient_latest_result}, which keeps the latest
+ * and second latest value per patient and test and is updated whenever results are
+ * saved. All tests of an order are therefore checked with a single indexed query. A
+ * value is flagged when its change exceeds every limit configured on the test
+ * ({@code deltaAbsolute}, {@code deltaPercent}); with both set the absolute limit
+ * keeps small values from tripping the percentage.
+ */
+@Service
+public class DeltaCheckService {
+
+    private final PatientLatestResultRepository latestRepository;
+
+    public DeltaCheckService(PatientLatestResultRepository latestRepository) {
+        this.latestRepository = latestRepository;
+    }
+
+    /**
+     * A previous value to compare against.
+     */
+    public record Baseline(String value, LocalDateTime at) {
+    }
+
+    /**
+     * Previous values for the tests of an order, keyed by test ID. Only tests with a
+     * delta limit are looked up, and values from the order itself are skipped.
+     *
+     * @param order the order being entered or edited
+     * @return baselines keyed by test definition ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Baseline> baselines(LabOrder order) {
+        if (order == null || order.getId() == null || order.getPatient() == null) {
+            return Map.of();
+        }
+        Set<Long> testIds = order.getResults().stream()
+                .map(LabResult::getTestDefinition)
+                .filter(DeltaCheckService::hasLimits)
+                .map(TestDefinition::getId)
+                .collect(Collectors.toSet());
+        if (testIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Baseline> baselines = new HashMap<>();
+        for (PatientLatestResult latest : latestRepository.findByPatientIdAndTestIdIn(order.getPatient().getId(),
+                testIds)) {
+            Baseline baseline = baselineFor(latest, order.getId());
+            if (baseline != null) {
+                baselines.put(latest.getTestId(), baseline);
+            }
+        }
+        return baselines;
+    }
+
+    private static Baseline baselineFor(PatientLatestResult latest, Long orderId) {
+        if (latest.getOrderId() != null && latest.getOrderId() < orderId) {
+            return new Baseline(latest.getResultValue(), latest.getResultAt());
+        }
+        // The latest value belongs to this order (or a later one): fall back to the one before
+        if (latest.getPreviousOrderId() != null && latest.getPreviousOrderId() < orderId) {
+            return new Baseline(latest.getPreviousValue(), latest.getPreviousAt());
+        }
+        return null;
+    }
+
+    /**
+     * Delta flag text for a value, or null if it is within the test's limits, not
+     * numeric, or there is nothing recent to compare with.
+     *
+     * @param test     the test definition with its delta limits
+     * @param value    the new value
+     * @param baseline the patient's previous value, may be null
+     * @return flag text, e.g. {@code "DELTA +4.1 (+38%) since 10.8 on 2025-03-01"}
+     */
+    public String deltaFlag(TestDefinition test, String value, Baseline baseline) {
+        if (!hasLimits(test) || baseline == null || value == null || baseline.value() == null) {
+            return null;
+        }
+        if (test.getDeltaWindowDays() != null && baseline.at() != null
+                && baseline.at().isBefore(LocalDateTime.now().minusDays(test.getDeltaWindowDays()))) {
+            return null;
+        }
+
+        BigDecimal current;
+        BigDecimal previous;
+        try {
+            current = new BigDecimal(value.trim());
+            previous = new BigDecimal(baseline.value().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        BigDecimal change = current.subtract(previous);
+        BigDecimal percent = previous.signum() == 0 ? null
+                : change.multiply(BigDecimal.valueOf(100)).divide(previous.abs(), MathContext.DECIMAL64);
+
+        if (test.getDeltaAbsolute() != null && change.abs().compareTo(test.getDeltaAbsolute()) <= 0) {
+            return null;
+        }
+        if (test.getDeltaPercent() != null
+                && (percent == null || percent.abs().compareTo(test.getDeltaPercent()) <= 0)) {
+            return null;
+        }
+
+        StringBuilder flag = new StringBuilder("DELTA ")
+                .append(change.signum() > 0 ? "+" : "").append(change.stripTrailingZeros().toPlainString());
+        if (percent != null) {
+            flag.append(" (").append(percent.signum() > 0 ? "+" : "")
+                    .append(percent.setScale(0, RoundingMode.HALF_UP).toPlainString()).append("%)");
+        }
+        flag.append(" since ").append(baseline.value().trim());
+        if (baseline.at() != null) {
+            flag.append(" on ").append(baseline.at().toLocalDate());
+        }
+        return flag.toString();
+    }
+
+    /**
+     * Sets the delta flag on the given results of an order.
+     *
+     * @param order   the order the results belong to
+     * @param results results whose values were just entered
+     */
+    @Transactional(readOnly = true)
+    public void applyFlags(LabOrder order, Collection<LabResult> results) {
+        Map<Long, Baseline> baselines = baselines(order);
+        for (LabResult result : results) {
+            TestDefinition test = result.getTestDefinition();
+            Baseline baseline = test != null ? baselines.get(test.getId()) : null;
+            result.setDeltaFlag(deltaFlag(test, result.getResultValue(), baseline));
+        }
+    }
+
+    /**
+     * Records saved values as the patient's latest results.
+     * <p>
+     * A value from a newer order moves the stored latest value to "previous"; a value
+     * from the same order replaces it (corrections); values from older orders only
+     * update "previous" where they are newer than it.
+     *
+     * @param order   the order the results belong to
+     * @param results saved results; empty values are ignored
+     */
+    @Transactional
+    public void recordLatest(LabOrder order, Collection<LabResult> results) {
+        if (order == null || order.getId() == null || order.getPatient() == null) {
+            return;
+        }
+        Map<Long, LabResult> byTest = new HashMap<>();
+        for (LabResult result : results) {
+            if (result.getTestDefinition() != null && result.getResultValue() != null
+                    && !result.getResultValue().trim().isEmpty()) {
+                byTest.put(result.getTestDefinition().getId(), result);
+            }
+        }
+        if (byTest.isEmpty()) {
+            return;
+        }
+
+        Long patientId = order.getPatient().getId();
+        Map<Long, PatientLatestResult> existing = latestRepository
+                .findByPatientIdAndTestIdIn(patientId, byTest.keySet()).stream()
+                .collect(Collectors.toMap(PatientLatestResult::getTestId, l -> l));
+
+        List<PatientLatestResult> changed = new ArrayList<>();
+        Long orderId = order.getId();
+        for (Map.Entry<Long, LabResult> entry : byTest.entrySet()) {
+            LabResult result = entry.getValue();
+            LocalDateTime at = result.getPerformedAt() != null ? result.getPerformedAt() : order.getOrderDate();
+            PatientLatestResult latest = existing.get(entry.getKey());
+            if (latest == null) {
+                latest = new PatientLatestResult();
+                latest.setPatientId(patientId);
+                latest.setTestId(entry.getKey());
+            }
+
+            if (latest.getOrderId() == null || orderId > latest.getOrderId()) {
+                latest.setPreviousResultId(latest.getResultId());
+                latest.setPreviousOrderId(latest.getOrderId());
+                latest.setPreviousValue(latest.getResultValue());
+                latest.setPreviousAt(latest.getResultAt());
+                setLatest(latest, result, orderId, at);
+            } else if (orderId.equals(latest.getOrderId())) {
+                setLatest(latest, result, orderId, at);
+            } else if (latest.getPreviousOrderId() == null || orderId >= latest.getPreviousOrderId()) {
+                latest.setPreviousResultId(result.getId());
+                latest.setPreviousOrderId(orderId);
+                latest.setPreviousValue(result.getResultValue().trim());
+                latest.setPreviousAt(at);
+            } else {
+                continue;
+            }
+            changed.add(latest);
+        }
+        latestRepository.saveAll(changed);
+    }
+
+    private static void setLatest(PatientLatestResult latest, LabResult result, Long orderId, LocalDateTime at) {
+        latest.setResultId(result.getId());
+        latest.setOrderId(orderId);
+        latest.setResultValue(result.getResultValue().trim());
+        latest.setResultAt(at);
+    }
+
+    private static boolean hasLimits(TestDefinition test) {
+        return test != null && test.getId() != null
+                && (test.getDeltaAbsolute() != null || test.getDeltaPercent() != null);
+    }
+}
@@ -0,0 +1,184 @@
+package com.qdc.lims.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves finished orders out of the live order tables.
+ * <p>
+ * Orders that were delivered, are fully paid, completed or cancelled, not waiting for a
+ * reprint, have no unpaid commission and are older than {@code qdc.archive.after-months}
+ * are moved with their results and commission entries into {@code lab_order_archive},
+ * {@code lab_result_archive} and {@code commission_ledger_archive}. The live tables then
+ * only hold the working set that the reception, lab and dashboard screens query, on
+ * SQLite and PostgreSQL alike. {@link OrderHistoryService} reads both when a date
+ * window reaches back into archived months.
+ * <p>
+ * The archive tables are created by the {@code V11__order_archive} migration. A migration
+ * that adds a column to one of the live tables adds it to the archive table as well.
+ */
+@Service
+public class OrderArchiveService {
+
+    static final String ORDER_ARCHIVE = "lab_order_archive";
+    static final String RESULT_ARCHIVE = "lab_result_archive";
+    static final String COMMISSION_ARCHIVE = "commission_ledger_archive";
+
+    private static final String DUE_ORDERS = """
+            SELECT o.id FROM lab_order o
+            WHERE o.order_date < ?
+              AND o.is_report_delivered
+              AND NOT o.reprint_required
+              AND o.status IN ('COMPLETED', 'CANCELLED')
+              AND COALESCE(o.balance_due, 0) <= 0
+              AND NOT EXISTS (SELECT 1 FROM commission_ledger c
+                              WHERE c.order_id = o.id AND COALESCE(c.status, '') <> 'PAID')
+            ORDER BY o.id
+            """;
+
+    private final DataSource dataSource;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile LocalDateTime archivedThrough;
+    private volatile boolean archivedThroughLoaded;
+
+    @Value("${qdc.archive.after-months:0}")
+    private int afterMonths;
+
+    @Value("${qdc.archive.batch-size:500}")
+    private int batchSize;
+
+    public OrderArchiveService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Newest order date in the archive, or null if nothing has been archived.
+     */
+    public LocalDateTime getArchivedThrough() {
+        if (!archivedThroughLoaded) {
+            archivedThrough = loadArchivedThrough();
+            archivedThroughLoaded = true;
+        }
+        return archivedThrough;
+    }
+
+    private LocalDateTime loadArchivedThrough() {
+        try (Connection conn = dataSource.getConnection();
+                Statement st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT MAX(order_date) FROM " + ORDER_ARCHIVE)) {
+            Timestamp max = rs.next() ? rs.getTimestamp(1) : null;
+            return max != null ? max.toLocalDateTime() : null;
+        } catch (Exception e) {
+            System.err.println("[OrderArchive] Could not read archive: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Archives every due order when {@code qdc.archive.after-months} is set.
+     *
+     * @return number of orders archived
+     */
+    public int archiveDueOrders() throws Exception {
+        if (afterMonths <= 0) {
+            return 0;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMonths(afterMonths);
+            int total = 0;
+            while (true) {
+                int moved = archiveBatch(cutoff);
+                total += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                archivedThroughLoaded = false;
+                System.out.println("[OrderArchive] Archived " + total + " orders placed before " + cutoff.toLocalDate());
+            }
+            return total;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Long> ids = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(DUE_ORDERS + " LIMIT " + Math.max(1, batchSize))) {
+                    ps.setTimestamp(1, Timestamp.valueOf(cutoff));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                String in = "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+                copy(conn, "lab_order", ORDER_ARCHIVE, "id IN " + in, ids);
+                copy(conn, "lab_result", RESULT_ARCHIVE, "order_id IN " + in, ids);
+                copy(conn, "commission_ledger", COMMISSION_ARCHIVE, "order_id IN " + in, ids);
+                execute(conn, "DELETE FROM commission_ledger WHERE order_id IN " + in, ids);
+                execute(conn, "DELETE FROM lab_result WHERE order_id IN " + in, ids);
+                execute(conn, "DELETE FROM lab_order WHERE id IN " + in, ids);
+                conn.commit();
+                return ids.size();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void copy(Connection conn, String live, String archive, String where, List<Long> ids)
+            throws Exception {
+        // Explicit columns: the archive may have columns the live table has since dropped
+        String columns = String.join(", ", columns(conn, live));
+        execute(conn, "INSERT INTO " + archive + " (" + columns + ") SELECT " + columns + " FROM " + live
+                + " WHERE " + where, ids);
+    }
+
+    private static List<String> columns(Connection conn, String table) throws Exception {
+        List<String> columns = new ArrayList<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(null, conn.getSchema(), table, "%")) {
+            while (rs.next()) {
+                columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        return columns;
+    }
+
+    private static void execute(Connection conn, String sql, List<Long> ids) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setLong(i + 1, ids.get(i));
+            }
+            ps.executeUpdate();
+        }
+    }
+}
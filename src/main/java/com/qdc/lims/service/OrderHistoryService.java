@@ -0,0 +1,268 @@
+package com.qdc.lims.service;
+
+import com.qdc.lims.dto.PatientVisit;
+import com.qdc.lims.dto.ResultPoint;
+import com.qdc.lims.entity.CommissionLedger;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.repository.CommissionLedgerRepository;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.repository.LabResultRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Order lookups for reports that may reach back past the live tables.
+ * <p>
+ * Queries run against the live tables only, unless the requested window starts on or
+ * before the newest archived order, in which case the matching archived rows are added.
+ * Archived orders come back detached and read-only, with their results filled in.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderHistoryService {
+
+    private final LabOrderRepository orderRepository;
+    private final LabResultRepository resultRepository;
+    private final CommissionLedgerRepository commissionRepository;
+    private final OrderArchiveService archiveService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderHistoryService(LabOrderRepository orderRepository,
+            LabResultRepository resultRepository,
+            CommissionLedgerRepository commissionRepository,
+            OrderArchiveService archiveService) {
+        this.orderRepository = orderRepository;
+        this.resultRepository = resultRepository;
+        this.commissionRepository = commissionRepository;
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * Orders created within the window, live and archived.
+     */
+    public List<LabOrder> findByOrderDateBetween(LocalDateTime start, LocalDateTime end) {
+        List<LabOrder> orders = orderRepository.findByOrderDateBetween(start, end);
+        if (!reachesArchive(start)) {
+            return orders;
+        }
+        List<LabOrder> archived = loadArchivedOrders(
+                "SELECT * FROM " + OrderArchiveService.ORDER_ARCHIVE + " WHERE order_date BETWEEN ?1 AND ?2",
+                start, end);
+        return merge(archived, orders, Comparator.comparing(LabOrder::getId));
+    }
+
+    /**
+     * All orders of a patient, newest first, including archived ones.
+     */
+    public List<LabOrder> findByPatientIdOrderByIdDesc(Long patientId) {
+        List<LabOrder> orders = orderRepository.findByPatientIdOrderByIdDesc(patientId);
+        if (archiveService.getArchivedThrough() == null) {
+            return orders;
+        }
+        List<LabOrder> archived = loadArchivedOrders(
+                "SELECT * FROM " + OrderArchiveService.ORDER_ARCHIVE + " WHERE patient_id = ?1", patientId);
+        return merge(archived, orders, Comparator.comparing(LabOrder::getId).reversed());
+    }
+
+    /**
+     * Up to {@code limit} visits of a patient older than {@code beforeOrderId}, newest
+     * first, live and archived. Only IDs, dates and the release state are read.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PatientVisit> findVisits(Long patientId, Long beforeOrderId, int limit) {
+        long before = beforeOrderId != null ? beforeOrderId : Long.MAX_VALUE;
+        List<PatientVisit> visits = orderRepository.findVisits(patientId, before, PageRequest.of(0, limit));
+        if (archiveService.getArchivedThrough() == null) {
+            return visits;
+        }
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT id, order_date, status, verified_at,"
+                + " verification_hold FROM "
+                + OrderArchiveService.ORDER_ARCHIVE + " WHERE patient_id = ?1 AND id < ?2 ORDER BY id DESC")
+                .setParameter(1, patientId)
+                .setParameter(2, before)
+                .setMaxResults(limit)
+                .getResultList();
+        List<PatientVisit> archived = rows.stream()
+                .map(row -> new PatientVisit(((Number) row[0]).longValue(), toDateTime(row[1]), (String) row[2],
+                        toDateTime(row[3]), (String) row[4]))
+                .toList();
+        List<PatientVisit> merged = merge(archived, visits, Comparator.comparing(PatientVisit::orderId).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Reported values of the given orders, live and archived, optionally limited to
+     * some tests. Only the value columns are read.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ResultPoint> findResultPoints(Collection<Long> orderIds, Collection<Long> testIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        boolean allTests = testIds == null || testIds.isEmpty();
+        List<ResultPoint> points = allTests
+                ? resultRepository.findResultPoints(orderIds)
+                : resultRepository.findResultPointsForTests(orderIds, testIds);
+        if (archiveService.getArchivedThrough() == null) {
+            return points;
+        }
+        var query = entityManager.createNativeQuery("SELECT r.test_id, o.id, o.order_date, r.result_value,"
+                + " r.is_abnormal FROM " + OrderArchiveService.RESULT_ARCHIVE + " r JOIN "
+                + OrderArchiveService.ORDER_ARCHIVE + " o ON o.id = r.order_id"
+                + " WHERE o.id IN (:orderIds) AND r.result_value IS NOT NULL AND r.result_value <> ''"
+                + (allTests ? "" : " AND r.test_id IN (:testIds)"))
+                .setParameter("orderIds", orderIds);
+        if (!allTests) {
+            query.setParameter("testIds", testIds);
+        }
+        List<Object[]> rows = query.getResultList();
+        List<ResultPoint> archived = rows.stream()
+                .map(row -> new ResultPoint(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        toDateTime(row[2]), (String) row[3], toBoolean(row[4])))
+                .toList();
+        return merge(archived, points, Comparator.comparing(ResultPoint::orderId));
+    }
+
+    /**
+     * A single order, looked up in the archive if it is no longer live.
+     */
+    public Optional<LabOrder> findById(Long id) {
+        Optional<LabOrder> order = orderRepository.findById(id);
+        if (order.isPresent() || archiveService.getArchivedThrough() == null) {
+            return order;
+        }
+        return loadArchivedOrders("SELECT * FROM " + OrderArchiveService.ORDER_ARCHIVE + " WHERE id = ?1", id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Number of orders with at least one test, live and archived.
+     */
+    public long countOrdersWithResults() {
+        long live = orderRepository.countWithResults();
+        if (archiveService.getArchivedThrough() == null) {
+            return live;
+        }
+        Number archived = (Number) entityManager.createNativeQuery("SELECT COUNT(DISTINCT order_id) FROM "
+                + OrderArchiveService.RESULT_ARCHIVE).getSingleResult();
+        return live + archived.longValue();
+    }
+
+    /**
+     * Commission entries dated within the window, live and archived.
+     */
+    public List<CommissionLedger> findCommissionsBetween(LocalDate start, LocalDate end) {
+        List<CommissionLedger> commissions = commissionRepository.findByTransactionDateBetween(start, end);
+        if (!reachesArchive(start.atStartOfDay())) {
+            return commissions;
+        }
+        // The orders must be in the persistence context before their ledger rows are mapped
+        List<LabOrder> orders = queryArchivedOrders("SELECT * FROM " + OrderArchiveService.ORDER_ARCHIVE
+                + " WHERE id IN (SELECT order_id FROM " + OrderArchiveService.COMMISSION_ARCHIVE
+                + " WHERE transaction_date BETWEEN ?1 AND ?2)", start, end);
+        @SuppressWarnings("unchecked")
+        List<CommissionLedger> archived = entityManager.createNativeQuery("SELECT * FROM "
+                + OrderArchiveService.COMMISSION_ARCHIVE + " WHERE transaction_date BETWEEN ?1 AND ?2",
+                CommissionLedger.class)
+                .setParameter(1, start)
+                .setParameter(2, end)
+                .getResultList();
+        archived.forEach(entityManager::detach);
+        attachResults(orders);
+        return merge(archived, commissions, Comparator.comparing(CommissionLedger::getId));
+    }
+
+    private boolean reachesArchive(LocalDateTime start) {
+        LocalDateTime archivedThrough = archiveService.getArchivedThrough();
+        return archivedThrough != null && (start == null || !start.isAfter(archivedThrough));
+    }
+
+    private List<LabOrder> loadArchivedOrders(String sql, Object... params) {
+        List<LabOrder> orders = queryArchivedOrders(sql, params);
+        attachResults(orders);
+        return orders;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LabOrder> queryArchivedOrders(String sql, Object... params) {
+        var query = entityManager.createNativeQuery(sql, LabOrder.class);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Fills in the archived results of managed archived orders, then detaches both so
+     * nothing is ever flushed back to the live tables.
+     */
+    @SuppressWarnings("unchecked")
+    private void attachResults(List<LabOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        // Results resolve their order from the persistence context, which holds the archived orders
+        List<LabResult> results = entityManager.createNativeQuery("SELECT * FROM "
+                + OrderArchiveService.RESULT_ARCHIVE + " WHERE order_id IN (:ids)", LabResult.class)
+                .setParameter("ids", orders.stream().map(LabOrder::getId).toList())
+                .getResultList();
+        Map<Long, List<LabResult>> byOrder = results.stream()
+                .collect(Collectors.groupingBy(r -> r.getLabOrder().getId()));
+
+        results.forEach(entityManager::detach);
+        for (LabOrder order : orders) {
+            entityManager.detach(order);
+            order.setResults(new ArrayList<>(byOrder.getOrDefault(order.getId(), List.of())));
+        }
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime dt) {
+            return dt;
+        }
+        // SQLite returns timestamps as text or epoch millis
+        if (value instanceof Number millis) {
+            return new Timestamp(millis.longValue()).toLocalDateTime();
+        }
+        return value != null ? LocalDateTime.parse(value.toString().replace(' ', 'T')) : null;
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        return value instanceof Number n && n.intValue() != 0;
+    }
+
+    private static <T> List<T> merge(List<T> archived, List<T> live, Comparator<T> order) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<T> merged = new ArrayList<>(archived.size() + live.size());
+        merged.addAll(archived);
+        merged.addAll(live);
+        merged.sort(order);
+        return merged;
+    }
+}
@@ -6,7 +6,11 @@ import com.qdc.lims.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service for handling lab order creation and related business logic.
@@ -101,48 +105,7 @@ public class OrderService {
         }
 
         for (TestDefinition test : allTests) {
-            // A. Create Empty Result Slot
-            LabResult result = new LabResult();
-            result.setLabOrder(order);
-            result.setTestDefinition(test);
-            result.setResultValue(""); // Waiting for Lab Tech
-            result.setStatus("PENDING");
-            order.getResults().add(result);
-
-            // B. Add Price to Bill
-            if (test.getPrice() != null) {
-                totalAmount = totalAmount.add(test.getPrice());
-            }
-
-            // C. INVENTORY LOGIC (Automatic Deduction)
-            List<TestConsumption> recipe = consumptionRepo.findByTest(test);
-            for (TestConsumption ingredient : recipe) {
-                InventoryItem item = ingredient.getItem();
-
-                double needed = ingredient.getQuantity();
-                double available = item.getCurrentStock();
-
-                // --- THE GUARD CHECK ---
-                if (available < needed) {
-                    throw new RuntimeException(
-                            "❌ OUT OF STOCK: Test '" + test.getTestName() + "' requires "
-                                    + needed + " " + item.getUnit() + " of '" + item.getItemName() + "', "
-                                    + "but only " + available + " is available.");
-                }
-                // -----------------------
-
-                // Subtract Stock
-                double newStock = item.getCurrentStock() - ingredient.getQuantity();
-                if (newStock < 0) {
-                    throw new RuntimeException(
-                            "❌ OUT OF STOCK: Not enough " + item.getItemName() + " to book this test.");
-                }
-
-                item.setCurrentStock(newStock);
-
-                // Save updated stock
-                inventoryRepo.save(item);
-            }
+            totalAmount = totalAmount.add(addTest(order, test));
         }
 
         // --- NEW FINANCE LOGIC ---
@@ -166,4 +129,135 @@ public class OrderService {
 
         return savedOrder;
     }
+
+    /**
+     * Adds tests to an existing order, e.g. reflex tests: creates the result slots,
+     * deducts the reagents, adds the prices to the bill and, while the doctor's
+     * commission is unpaid, to the commission base. Tests already on the order are
+     * skipped.
+     *
+     * @param orderId the order to extend
+     * @param tests   tests to add
+     * @return the new result slots
+     */
+    @Transactional
+    public List<LabResult> addTests(Long orderId, Collection<TestDefinition> tests) {
+        LabOrder order = orderRepo.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (order.isReportDelivered() || "CANCELLED".equals(order.getStatus())) {
+            throw new IllegalStateException("Tests cannot be added to a delivered or cancelled order.");
+        }
+
+        Set<Long> onOrder = new HashSet<>();
+        for (LabResult result : order.getResults()) {
+            onOrder.add(result.getTestDefinition().getId());
+        }
+        Set<Long> addedIds = new HashSet<>();
+        java.math.BigDecimal added = java.math.BigDecimal.ZERO;
+        for (TestDefinition test : tests) {
+            if (onOrder.add(test.getId())) {
+                added = added.add(addTest(order, test));
+                addedIds.add(test.getId());
+            }
+        }
+        if (addedIds.isEmpty()) {
+            return List.of();
+        }
+
+        double total = order.getTotalAmount() != null ? order.getTotalAmount() : 0.0;
+        order.setTotalAmount(total + added.doubleValue());
+        order.calculateBalance();
+        // The new tests reopen a completed order
+        if ("COMPLETED".equals(order.getStatus())) {
+            order.setStatus("IN_PROGRESS");
+            order.setVerifiedAt(null);
+            order.setVerifiedBy(null);
+            order.setAutoVerified(false);
+        }
+        LabOrder savedOrder = orderRepo.save(order);
+        List<LabResult> slots = new ArrayList<>();
+        for (LabResult result : savedOrder.getResults()) {
+            if (addedIds.contains(result.getTestDefinition().getId())) {
+                slots.add(result);
+            }
+        }
+
+        if (added.signum() > 0) {
+            commissionRepo.findByLabOrderId(orderId)
+                    .filter(ledger -> "UNPAID".equals(ledger.getStatus()))
+                    .ifPresent(ledger -> {
+                        ledger.setTotalBillAmount(savedOrder.getTotalAmount());
+                        if (ledger.getCommissionPercentage() != null) {
+                            ledger.setCalculatedAmount(
+                                    savedOrder.getTotalAmount() * ledger.getCommissionPercentage() / 100.0);
+                        }
+                        commissionRepo.save(ledger);
+                    });
+        }
+        return slots;
+    }
+
+    /**
+     * Whether the stock covers one run of a test's recipe.
+     *
+     * @param test the test to check
+     * @return false if any reagent is short
+     */
+    public boolean inStock(TestDefinition test) {
+        for (TestConsumption ingredient : consumptionRepo.findByTest(test)) {
+            if (ingredient.getItem().getCurrentStock() < ingredient.getQuantity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds one test to an order: empty result slot and inventory deduction.
+     *
+     * @return the test's price, to add to the bill
+     */
+    private java.math.BigDecimal addTest(LabOrder order, TestDefinition test) {
+        // A. Create Empty Result Slot
+        LabResult result = new LabResult();
+        result.setLabOrder(order);
+        result.setTestDefinition(test);
+        result.setResultValue(""); // Waiting for Lab Tech
+        result.setStatus("PENDING");
+        order.getResults().add(result);
+
+        // B. Price for the Bill
+        java.math.BigDecimal price = test.getPrice() != null ? test.getPrice() : java.math.BigDecimal.ZERO;
+
+        // C. INVENTORY LOGIC (Automatic Deduction)
+        List<TestConsumption> recipe = consumptionRepo.findByTest(test);
+        for (TestConsumption ingredient : recipe) {
+            InventoryItem item = ingredient.getItem();
+
+            double needed = ingredient.getQuantity();
+            double available = item.getCurrentStock();
+
+            // --- THE GUARD CHECK ---
+            if (available < needed) {
+                throw new RuntimeException(
+                        "❌ OUT OF STOCK: Test '" + test.getTestName() + "' requires "
+                                + needed + " " + item.getUnit() + " of '" + item.getItemName() + "', "
+                                + "but only " + available + " is available.");
+            }
+            // -----------------------
+
+            // Subtract Stock
+            double newStock = item.getCurrentStock() - ingredient.getQuantity();
+            if (newStock < 0) {
+                throw new RuntimeException(
+                        "❌ OUT OF STOCK: Not enough " + item.getItemName() + " to book this test.");
+            }
+
+            item.setCurrentStock(newStock);
+
+            // Save updated stock
+            inventoryRepo.save(item);
+        }
+        return price;
+    }
 }
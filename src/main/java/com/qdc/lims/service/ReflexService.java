@@ -0,0 +1,202 @@
+package com.qdc.lims.service;
+
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.ReflexRule;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.repository.ReflexRuleRepository;
+import com.qdc.lims.repository.TestDefinitionRepository;
+import com.qdc.lims.util.CachedValue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Adds reflex tests to an order when a saved result meets a reflex rule, e.g. FT4 when
+ * TSH is abnormal, so the follow-up test goes on the same order, bill and barcode.
+ * <p>
+ * The enabled rules are indexed by trigger test, so a saved result costs one map lookup
+ * plus the rules of its own test. The index is rebuilt after {@link #invalidate()} and
+ * otherwise every {@link #RULES_TTL_MILLIS}, so rule changes made from another station
+ * are picked up. Reflex tests are added through {@link OrderService#addTests}, the same
+ * path as booking: result slot, reagent deduction, bill and commission.
+ * <p>
+ * Only orders still being worked on get reflex tests; edits to completed or delivered
+ * orders do not add tests. A reflex test whose reagents are out of stock is skipped
+ * rather than failing the result save.
+ */
+@Service
+public class ReflexService {
+
+    static final long RULES_TTL_MILLIS = 60_000;
+
+    private final ReflexRuleRepository ruleRepository;
+    private final LabOrderRepository orderRepository;
+    private final TestDefinitionRepository testRepository;
+    private final OrderService orderService;
+    private final CachedValue<RuleIndex> index;
+
+    public ReflexService(ReflexRuleRepository ruleRepository, LabOrderRepository orderRepository,
+            TestDefinitionRepository testRepository, OrderService orderService) {
+        this.ruleRepository = ruleRepository;
+        this.orderRepository = orderRepository;
+        this.testRepository = testRepository;
+        this.orderService = orderService;
+        this.index = new CachedValue<>(RULES_TTL_MILLIS, () -> compile(ruleRepository.findByEnabledTrue()));
+    }
+
+    /**
+     * Drops the rule index; call after rules change.
+     */
+    public void invalidate() {
+        index.invalidate();
+    }
+
+    /**
+     * Adds the reflex tests triggered by just-saved results to their order.
+     *
+     * @param orderId the results' order
+     * @param results results just saved (with their flags set)
+     * @return the result slots added, empty if no rule fired
+     */
+    @Transactional
+    public List<LabResult> apply(Long orderId, Collection<LabResult> results) {
+        RuleIndex current = index.get();
+        if (current.byTrigger.isEmpty() || results.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, CompiledRule> fired = new LinkedHashMap<>();
+        for (LabResult result : results) {
+            TestDefinition test = result.getTestDefinition();
+            if (test == null || isBlank(result.getResultValue())) {
+                continue;
+            }
+            CompiledRule[] rules = current.byTrigger.get(test.getId());
+            if (rules == null) {
+                continue;
+            }
+            for (CompiledRule rule : rules) {
+                if (rule.matches.test(result)) {
+                    fired.putIfAbsent(rule.reflexTestId, rule);
+                }
+            }
+        }
+        if (fired.isEmpty()) {
+            return List.of();
+        }
+
+        LabOrder order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || order.isReportDelivered() || "COMPLETED".equals(order.getStatus())
+                || "CANCELLED".equals(order.getStatus())) {
+            return List.of();
+        }
+        Set<Long> onOrder = new HashSet<>();
+        for (LabResult result : order.getResults()) {
+            onOrder.add(result.getTestDefinition().getId());
+        }
+
+        List<TestDefinition> toAdd = new ArrayList<>();
+        List<CompiledRule> counted = new ArrayList<>();
+        for (TestDefinition test : testRepository.findAllById(fired.keySet())) {
+            if (onOrder.contains(test.getId()) || !Boolean.TRUE.equals(test.getActive())) {
+                continue;
+            }
+            if (!orderService.inStock(test)) {
+                System.err.println("[Reflex] Skipped " + test.getTestName() + " on order " + orderId
+                        + ": reagents out of stock");
+                continue;
+            }
+            toAdd.add(test);
+            counted.add(fired.get(test.getId()));
+        }
+        if (toAdd.isEmpty()) {
+            return List.of();
+        }
+
+        List<LabResult> added = orderService.addTests(orderId, toAdd);
+        for (CompiledRule rule : counted) {
+            ruleRepository.incrementFired(rule.id);
+        }
+        System.out.println("[Reflex] Added " + toAdd.stream().map(TestDefinition::getTestName).toList()
+                + " to order " + orderId);
+        return added;
+    }
+
+    private static RuleIndex compile(List<ReflexRule> rules) {
+        Map<Long, List<CompiledRule>> grouped = new HashMap<>();
+        for (ReflexRule rule : rules) {
+            Predicate<LabResult> matches = condition(rule);
+            if (matches == null) {
+                System.err.println("[Reflex] Skipping rule " + rule.getId() + ": " + rule.getCondition()
+                        + " needs a threshold");
+                continue;
+            }
+            grouped.computeIfAbsent(rule.getTriggerTest().getId(), k -> new ArrayList<>())
+                    .add(new CompiledRule(rule.getId(), rule.getReflexTest().getId(), matches));
+        }
+        Map<Long, CompiledRule[]> byTrigger = new HashMap<>();
+        grouped.forEach((testId, list) -> byTrigger.put(testId, list.toArray(new CompiledRule[0])));
+        return new RuleIndex(byTrigger);
+    }
+
+    /**
+     * The rule's condition as a predicate, or null when its threshold is missing or not a
+     * number where one is needed.
+     */
+    private static Predicate<LabResult> condition(ReflexRule rule) {
+        String threshold = rule.getThreshold() != null ? rule.getThreshold().trim() : "";
+        return switch (rule.getCondition()) {
+            case ABNORMAL -> LabResult::isAbnormal;
+            case LOW -> r -> "LOW".equalsIgnoreCase(r.getRemarks());
+            case HIGH -> r -> "HIGH".equalsIgnoreCase(r.getRemarks());
+            case ABOVE -> {
+                BigDecimal limit = number(threshold);
+                yield limit == null ? null : r -> {
+                    BigDecimal value = number(r.getResultValue());
+                    return value != null && value.compareTo(limit) > 0;
+                };
+            }
+            case BELOW -> {
+                BigDecimal limit = number(threshold);
+                yield limit == null ? null : r -> {
+                    BigDecimal value = number(r.getResultValue());
+                    return value != null && value.compareTo(limit) < 0;
+                };
+            }
+            case EQUALS -> threshold.isEmpty() ? null : r -> threshold.equalsIgnoreCase(r.getResultValue().trim());
+        };
+    }
+
+    private static BigDecimal number(String value) {
+        if (isBlank(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private record CompiledRule(Long id, Long reflexTestId, Predicate<LabResult> matches) {
+    }
+
+    private record RuleIndex(Map<Long, CompiledRule[]> byTrigger) {
+    }
+}
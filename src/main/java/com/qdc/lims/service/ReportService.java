@@ -24,19 +24,23 @@ public class ReportService {
     private final LabOrderRepository orderRepo;
     private final BrandingService brandingService;
     private final LocaleFormatService localeFormatService;
+    private final AutoVerificationService autoVerificationService;
 
     /**
      * Creates the report service.
      *
      * @param orderRepo       lab order repository
      * @param brandingService branding and lab profile service
+     * @param autoVerificationService QC blocks and verification that hold a report back
      */
     public ReportService(LabOrderRepository orderRepo,
             BrandingService brandingService,
-            LocaleFormatService localeFormatService) {
+            LocaleFormatService localeFormatService,
+            AutoVerificationService autoVerificationService) {
         this.orderRepo = orderRepo;
         this.brandingService = brandingService;
         this.localeFormatService = localeFormatService;
+        this.autoVerificationService = autoVerificationService;
     }
 
     /**
@@ -44,10 +48,16 @@ public class ReportService {
      *
      * @param orderId lab order id
      * @return PDF document bytes
+     * @throws IllegalStateException if QC is rejected for one of its tests or the order
+     *                               still awaits verification
      */
     public byte[] generatePdfReport(Long orderId) {
         LabOrder order = orderRepo.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        List<String> holds = autoVerificationService.releaseHolds(order);
+        if (!holds.isEmpty()) {
+            throw new IllegalStateException("Report cannot be released: " + String.join("; ", holds));
+        }
         Patient patient = order.getPatient();
 
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
@@ -0,0 +1,75 @@
+package com.qdc.lims.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Saves result edits that ran into another technician's save on the same order.
+ * <p>
+ * Each attempt is one {@link ResultService#mergeResults} transaction against the order
+ * as it is now. When the order changes again between that read and the commit, the
+ * attempt is retried after a short, growing and jittered pause, at most
+ * {@link #MAX_ATTEMPTS} times, so two technicians saving the same busy order settle
+ * within a fraction of a second instead of one of them losing their typing.
+ * <p>
+ * The pauses block the calling thread, so screens call this off the FX thread.
+ */
+@Service
+public class ResultMergeService {
+
+    static final int MAX_ATTEMPTS = 4;
+    static final long BASE_BACKOFF_MILLIS = 25;
+
+    private final ResultService resultService;
+
+    public ResultMergeService(ResultService resultService) {
+        this.resultService = resultService;
+    }
+
+    /**
+     * Merges edits into the current state of an order, retrying on a concurrent save.
+     *
+     * @param orderId     the order
+     * @param edits       edits keyed by result ID
+     * @param performedBy audit name
+     * @param editReason  reason for correcting a delivered report, otherwise may be null
+     * @return what was saved and the conflicts left to the technician
+     */
+    public ResultService.MergeOutcome merge(Long orderId, Map<Long, ResultService.ResultEdit> edits,
+            String performedBy, String editReason) {
+        return withRetry(() -> resultService.mergeResults(orderId, edits, performedBy, editReason));
+    }
+
+    /**
+     * Runs a save, retrying it with backoff while it fails on an optimistic lock. The
+     * save must re-read what it changes, or retrying cannot succeed.
+     *
+     * @param save the save; each call runs in its own transaction
+     * @param <T>  result type
+     * @return the save's result
+     * @throws ObjectOptimisticLockingFailureException if the last attempt still conflicts
+     */
+    public <T> T withRetry(Supplier<T> save) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return save.get();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                long backoff = BASE_BACKOFF_MILLIS << (attempt - 1);
+                System.out.println("[ResultMerge] Concurrent save, retry " + attempt + " in ~" + backoff + " ms");
+                try {
+                    Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+}
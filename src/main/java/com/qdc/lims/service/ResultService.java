@@ -4,15 +4,25 @@ import com.qdc.lims.dto.ResultEntryRequest;
 import com.qdc.lims.entity.LabOrder;
 import com.qdc.lims.entity.LabResult;
 import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.formula.FormulaEngine;
 import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.repository.LabResultRepository;
 
 import com.qdc.lims.ui.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for handling lab result entry, validation, and saving logic.
@@ -22,6 +32,11 @@ public class ResultService {
 
     private final LabResultRepository repository;
     private final CurrentUserProvider currentUserProvider;
+    private final DeltaCheckService deltaCheckService;
+    private final FormulaEngine formulaEngine;
+    private final AutoVerificationService autoVerificationService;
+    private final CriticalAlertService criticalAlertService;
+    private final ReflexService reflexService;
 
     @Autowired
     private LabOrderRepository orderRepo;
@@ -29,11 +44,68 @@ public class ResultService {
     /**
      * Constructs a ResultService with the specified LabResultRepository.
      *
-     * @param repository repository for lab results
+     * @param repository        repository for lab results
+     * @param deltaCheckService delta check against the patient's previous results
+     * @param formulaEngine     recomputes calculated tests from their inputs
+     * @param autoVerificationService verifies completed orders that pass the rules
+     * @param criticalAlertService    raises alerts for critical values
+     * @param reflexService           adds reflex tests triggered by saved results
      */
-    public ResultService(LabResultRepository repository, CurrentUserProvider currentUserProvider) {
+    public ResultService(LabResultRepository repository, CurrentUserProvider currentUserProvider,
+            DeltaCheckService deltaCheckService, FormulaEngine formulaEngine,
+            AutoVerificationService autoVerificationService, CriticalAlertService criticalAlertService,
+            ReflexService reflexService) {
         this.repository = repository;
         this.currentUserProvider = currentUserProvider;
+        this.deltaCheckService = deltaCheckService;
+        this.formulaEngine = formulaEngine;
+        this.autoVerificationService = autoVerificationService;
+        this.criticalAlertService = criticalAlertService;
+        this.reflexService = reflexService;
+    }
+
+    /**
+     * Flags of an unsaved value.
+     *
+     * @param flag     "LOW" or "HIGH", empty when in range or not numeric
+     * @param delta    delta check message, or null
+     * @param critical crossed critical limit such as {@code "> 6.5"}, or null
+     */
+    public record ValueCheck(String flag, String delta, String critical) {
+    }
+
+    /**
+     * A value as the technician loaded it and as they want it saved.
+     *
+     * @param base  value when the order was loaded (null if empty)
+     * @param value value typed
+     */
+    public record ResultEdit(String base, String value) {
+    }
+
+    /**
+     * A result both technicians changed to different values.
+     *
+     * @param resultId  the result
+     * @param testName  its test
+     * @param base      value both started from
+     * @param mine      value typed here
+     * @param theirs    value saved by the other technician
+     * @param theirsBy  who saved it
+     */
+    public record ResultConflict(Long resultId, String testName, String base, String mine, String theirs,
+            String theirsBy) {
+    }
+
+    /**
+     * Outcome of {@link #mergeResults}.
+     *
+     * @param applied   values saved from this technician's edits
+     * @param adopted   results where the other technician's value was kept because this
+     *                  one did not change it
+     * @param conflicts results changed on both sides; nothing was saved for them
+     */
+    public record MergeOutcome(int applied, int adopted, List<ResultConflict> conflicts) {
     }
 
     /**
@@ -49,6 +121,13 @@ public class ResultService {
                 .orElseThrow(() -> new RuntimeException("Result ID not found"));
 
         TestDefinition test = result.getTestDefinition();
+        if (normalize(request.value()).equals(normalize(result.getResultValue()))) {
+            // Unchanged: saving again would re-raise an acknowledged critical alert
+            return result;
+        }
+        if (request.version() != null && !request.version().equals(result.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(LabResult.class, request.resultId());
+        }
 
         // 2. Save the value
         result.setResultValue(request.value());
@@ -74,12 +153,16 @@ public class ResultService {
             result.setAbnormal(false);
         }
 
-        return repository.save(result);
+        saveWithDeltaCheck(result.getLabOrder(), new ArrayList<>(List.of(result)), currentUserProvider.getUsername());
+        return result;
     }
 
     /**
      * Saves all lab results from a form, applies validation and audit logic, and
-     * updates order status.
+     * updates order status. Only values that differ from the saved ones are saved, so
+     * alerts and reflex tests are not raised again for unchanged results. Rows that carry
+     * the version they were read at are refused with
+     * {@code ObjectOptimisticLockingFailureException} if someone saved them since.
      *
      * @param orderForm the LabOrder containing results to save
      */
@@ -95,18 +178,19 @@ public class ResultService {
 
         // 1. Get Current User
         String currentUser = currentUserProvider.getUsername();
+        List<LabResult> entered = new ArrayList<>();
 
         // Loop through the results submitted from the screen
         for (LabResult resultFromForm : orderForm.getResults()) {
 
             // Fetch the real result from DB
-            LabResult dbResult = repository.findById(resultFromForm.getId()).orElseThrow();
+            LabResult dbResult = currentRow(resultFromForm);
             String val = resultFromForm.getResultValue();
 
             // =========================================================
             // FIX START: Only update if the new value is NOT Empty/Null
             // =========================================================
-            if (val != null && !val.trim().isEmpty()) {
+            if (val != null && !val.trim().isEmpty() && !val.trim().equals(normalize(dbResult.getResultValue()))) {
 
                 dbResult.setResultValue(val);
 
@@ -115,66 +199,271 @@ public class ResultService {
                 dbResult.setPerformedAt(LocalDateTime.now());
 
                 // --- Apply High/Low Logic (Moved inside the check) ---
-                TestDefinition test = dbResult.getTestDefinition();
+                applyReferenceFlags(dbResult, val);
 
-                try {
-                    // 2. Parse Number
-                    java.math.BigDecimal numVal = new java.math.BigDecimal(val);
+                // Save only the modified results
+                entered.add(dbResult);
+            }
+            // =========================================================
+            // FIX END
+            // =========================================================
+        }
 
-                    // 3. Get Patient
-                    com.qdc.lims.entity.Patient patient = dbResult.getLabOrder().getPatient();
+        saveWithDeltaCheck(labOrder, entered, currentUser);
+        updateOrderStatus(orderForm.getId());
+    }
 
-                    // 4. Find Matching Rule
-                    com.qdc.lims.entity.ReferenceRange matchingRule = null;
+    /**
+     * Posts analyzer values for one order in a single transaction.
+     * <p>
+     * Only results of this order that are still empty are filled in; a value typed in
+     * by a technician in the meantime is never overwritten. Range flags, audit stamps and
+     * the order status follow the same rules as {@link #saveResultsFromForm(LabOrder)}.
+     *
+     * @param orderId          the order the values belong to
+     * @param valuesByResultId values keyed by result ID
+     * @param flagsByResultId  analyzer flags keyed by result ID (may be empty)
+     * @param performedBy      audit name, e.g. the analyzer name
+     * @return reasons keyed by result ID for the values that were not saved
+     */
+    @Transactional
+    public Map<Long, String> saveInstrumentResults(Long orderId, Map<Long, String> valuesByResultId,
+            Map<Long, String> flagsByResultId, String performedBy) {
+        return fillEmptyResults(orderId, valuesByResultId, flagsByResultId, performedBy);
+    }
 
-                    if (test.getRanges() != null) {
-                        for (com.qdc.lims.entity.ReferenceRange rule : test.getRanges()) {
-                            boolean genderMatch = rule.getGender().equalsIgnoreCase("Both")
-                                    || rule.getGender().equalsIgnoreCase(patient.getGender());
+    /**
+     * Saves values typed into the batch entry grid for several orders in one
+     * transaction. Each order is handled as in
+     * {@link #saveInstrumentResults(Long, Map, Map, String)}: only empty results are
+     * filled in, so a value entered elsewhere since the grid was loaded is kept.
+     *
+     * @param valuesByOrder values keyed by order ID, then by result ID
+     * @param performedBy   audit name of the technician
+     * @return reasons keyed by result ID for the values that were not saved
+     */
+    @Transactional
+    public Map<Long, String> saveBatch(Map<Long, Map<Long, String>> valuesByOrder, String performedBy) {
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        for (Map.Entry<Long, Map<Long, String>> entry : valuesByOrder.entrySet()) {
+            rejected.putAll(fillEmptyResults(entry.getKey(), entry.getValue(), Map.of(), performedBy));
+        }
+        return rejected;
+    }
 
-                            boolean ageMatch = patient.getAge() >= rule.getMinAge()
-                                    && patient.getAge() <= rule.getMaxAge();
+    /**
+     * Flags values the way saving them would, without saving anything: range flag,
+     * delta flag against the patient's previous value and crossed critical limit.
+     *
+     * @param orderId          the order the values belong to
+     * @param valuesByResultId values keyed by result ID
+     * @return checks keyed by result ID; results not on the order are left out
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ValueCheck> checkValues(Long orderId, Map<Long, String> valuesByResultId) {
+        Map<Long, ValueCheck> checks = new HashMap<>();
+        LabOrder labOrder = orderRepo.findById(orderId).orElse(null);
+        if (labOrder == null) {
+            return checks;
+        }
+        Map<Long, DeltaCheckService.Baseline> baselines = deltaCheckService.baselines(labOrder);
+        for (LabResult result : labOrder.getResults()) {
+            String val = valuesByResultId.get(result.getId());
+            if (val == null || val.trim().isEmpty()) {
+                continue;
+            }
+            // Detached copy: the order's own result must not pick up the value
+            LabResult probe = new LabResult();
+            probe.setLabOrder(labOrder);
+            probe.setTestDefinition(result.getTestDefinition());
+            probe.setResultValue(val.trim());
+            applyReferenceFlags(probe, val.trim());
+            CriticalAlertService.Breach breach = criticalAlertService.breach(probe);
+            TestDefinition test = result.getTestDefinition();
+            checks.put(result.getId(), new ValueCheck(
+                    probe.isAbnormal() ? probe.getRemarks() : "",
+                    deltaCheckService.deltaFlag(test, val.trim(), baselines.get(test.getId())),
+                    breach != null ? breach.limit() : null));
+        }
+        return checks;
+    }
 
-                            if (genderMatch && ageMatch) {
-                                matchingRule = rule;
-                                break;
-                            }
-                        }
-                    }
+    private Map<Long, String> fillEmptyResults(Long orderId, Map<Long, String> valuesByResultId,
+            Map<Long, String> flagsByResultId, String performedBy) {
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        LabOrder labOrder = orderRepo.findById(orderId).orElse(null);
+        if (labOrder == null || labOrder.isReportDelivered()) {
+            String reason = labOrder == null ? "Order not found" : "Report already delivered";
+            valuesByResultId.keySet().forEach(id -> rejected.put(id, reason));
+            return rejected;
+        }
 
-                    // 5. Apply High/Low Logic
-                    if (matchingRule != null) {
-                        if (numVal.compareTo(matchingRule.getMinVal()) < 0) {
-                            dbResult.setAbnormal(true);
-                            dbResult.setRemarks("LOW");
-                        } else if (numVal.compareTo(matchingRule.getMaxVal()) > 0) {
-                            dbResult.setAbnormal(true);
-                            dbResult.setRemarks("HIGH");
-                        } else {
-                            dbResult.setAbnormal(false);
-                            dbResult.setRemarks("Normal");
-                        }
-                    } else {
-                        dbResult.setAbnormal(false);
-                        dbResult.setRemarks("");
-                    }
-                } catch (NumberFormatException e) {
-                    // Handle Non-Numeric Results (Text like "Positive")
-                    dbResult.setAbnormal(false);
-                    dbResult.setRemarks("");
+        Map<Long, LabResult> results = new HashMap<>();
+        for (LabResult result : labOrder.getResults()) {
+            results.put(result.getId(), result);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LabResult> changed = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : valuesByResultId.entrySet()) {
+            LabResult dbResult = results.get(entry.getKey());
+            String val = entry.getValue();
+            if (dbResult == null) {
+                rejected.put(entry.getKey(), "Result does not belong to order " + orderId);
+            } else if (dbResult.getResultValue() != null && !dbResult.getResultValue().trim().isEmpty()) {
+                rejected.put(entry.getKey(), "Result already entered");
+            } else if (val == null || val.trim().isEmpty()) {
+                rejected.put(entry.getKey(), "Empty value");
+            } else {
+                dbResult.setResultValue(val.trim());
+                dbResult.setInstrumentFlags(flagsByResultId.get(entry.getKey()));
+                dbResult.setPerformedBy(performedBy);
+                dbResult.setPerformedAt(now);
+                applyReferenceFlags(dbResult, val.trim());
+                changed.add(dbResult);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            saveWithDeltaCheck(labOrder, changed, performedBy);
+            updateOrderStatus(orderId);
+        }
+        return rejected;
+    }
+
+    /**
+     * Sets the order status from its results as a save does (COMPLETED once every result
+     * has a value) and runs auto-verification, for a technician completing the order
+     * after saving it.
+     *
+     * @param orderId the order
+     */
+    @Transactional
+    public void updateStatus(Long orderId) {
+        updateOrderStatus(orderId);
+    }
+
+    /**
+     * Saves a technician's edits on top of whatever was saved on the order since they
+     * loaded it, one result at a time (three-way merge against the loaded value):
+     * a value only they changed is saved, a value only the other side changed is kept,
+     * and a value both changed differently is returned as a conflict and left alone.
+     * <p>
+     * Saved values get the same flags, audit stamps, delta check, critical alerts and
+     * reflex tests as a normal save. Edits to a completed order are recorded as a
+     * correction as in {@link #saveEditedResults(LabOrder, String)}. Throws
+     * {@code ObjectOptimisticLockingFailureException} if the order changes again while
+     * merging; the caller retries.
+     *
+     * @param orderId     the order
+     * @param edits       edits keyed by result ID
+     * @param performedBy audit name
+     * @param editReason  reason for correcting a delivered report, otherwise may be null
+     * @return what was saved and the conflicts
+     */
+    @Transactional
+    public MergeOutcome mergeResults(Long orderId, Map<Long, ResultEdit> edits, String performedBy,
+            String editReason) {
+        LabOrder labOrder = orderRepo.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("The Order not found"));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<LabResult> changed = new ArrayList<>();
+        List<ResultConflict> conflicts = new ArrayList<>();
+        int adopted = 0;
+        for (LabResult dbResult : labOrder.getResults()) {
+            ResultEdit edit = edits.get(dbResult.getId());
+            if (edit == null) {
+                continue;
+            }
+            String base = normalize(edit.base());
+            String mine = normalize(edit.value());
+            String theirs = normalize(dbResult.getResultValue());
+            if (mine.equals(base) || mine.isEmpty()) {
+                // Not changed here (clearing a value is not a result entry)
+                if (!theirs.equals(base)) {
+                    adopted++;
                 }
+            } else if (theirs.equals(base)) {
+                dbResult.setResultValue(mine);
+                dbResult.setPerformedBy(performedBy);
+                dbResult.setPerformedAt(now);
+                applyReferenceFlags(dbResult, mine);
+                changed.add(dbResult);
+            } else if (!theirs.equals(mine)) {
+                conflicts.add(new ResultConflict(dbResult.getId(), dbResult.getTestDefinition().getTestName(),
+                        base, mine, theirs, dbResult.getPerformedBy()));
+            }
+        }
+        if (changed.isEmpty()) {
+            return new MergeOutcome(0, adopted, conflicts);
+        }
 
-                // Save only the modified result
-                repository.save(dbResult);
+        boolean correction = "COMPLETED".equals(labOrder.getStatus());
+        if (labOrder.isReportDelivered() && (editReason == null || editReason.trim().isEmpty())) {
+            throw new RuntimeException("Edit reason is required after report delivery.");
+        }
+        int applied = changed.size();
+        saveWithDeltaCheck(labOrder, changed, performedBy);
+        if (correction) {
+            markCorrected(labOrder, performedBy, editReason);
+        }
+        orderRepo.save(labOrder);
+        System.out.println("[ResultService] Merged order " + orderId + ": " + applied + " saved, " + adopted
+                + " kept from another user, " + conflicts.size() + " conflict(s)");
+        return new MergeOutcome(applied, adopted, conflicts);
+    }
+
+    /**
+     * Adds the calculated results that depend on the given results, sets the delta flags,
+     * saves everything, records the values as the patient's latest, raises alerts for
+     * critical values and adds the reflex tests they trigger.
+     */
+    private void saveWithDeltaCheck(LabOrder labOrder, List<LabResult> results, String performedBy) {
+        saveWithDeltaCheck(labOrder, results, applyFormulas(labOrder, results, performedBy));
+    }
+
+    private void saveWithDeltaCheck(LabOrder labOrder, List<LabResult> results, List<LabResult> derived) {
+        Set<LabResult> saving = Collections.newSetFromMap(new IdentityHashMap<>());
+        saving.addAll(results);
+        for (LabResult result : derived) {
+            if (saving.add(result)) {
+                results.add(result);
             }
-            // =========================================================
-            // FIX END
-            // =========================================================
         }
+        if (results.isEmpty()) {
+            return;
+        }
+        deltaCheckService.applyFlags(labOrder, results);
+        repository.saveAll(results);
+        deltaCheckService.recordLatest(labOrder, results);
+        criticalAlertService.raise(labOrder, results);
+        reflexService.apply(labOrder.getId(), results);
+    }
+
+    /**
+     * Recomputes the calculated results downstream of {@code changed} and stamps and
+     * range-flags the ones whose value changed.
+     */
+    private List<LabResult> applyFormulas(LabOrder labOrder, List<LabResult> changed, String performedBy) {
+        List<LabResult> derived = formulaEngine.recalculate(labOrder.getPatient(), labOrder.getResults(), changed);
+        LocalDateTime now = LocalDateTime.now();
+        for (LabResult result : derived) {
+            result.setPerformedBy(performedBy);
+            result.setPerformedAt(now);
+            applyReferenceFlags(result, result.getResultValue());
+        }
+        return derived;
+    }
 
+    /**
+     * Marks the order COMPLETED once every result has a value, IN_PROGRESS otherwise,
+     * and runs auto-verification on it.
+     */
+    private void updateOrderStatus(Long orderId) {
         // --- LOGIC UPDATE: Only Mark "COMPLETED" if ALL tests are done ---
         // (Optional improvement: Prevent partial orders being marked complete)
-        LabOrder dbOrder = orderRepo.findById(orderForm.getId()).orElseThrow();
+        LabOrder dbOrder = orderRepo.findById(orderId).orElseThrow();
 
         boolean allTestsDone = dbOrder.getResults().stream()
                 .allMatch(r -> r.getResultValue() != null && !r.getResultValue().trim().isEmpty());
@@ -184,11 +473,69 @@ public class ResultService {
         } else {
             dbOrder.setStatus("IN_PROGRESS");
         }
+        autoVerificationService.reverify(dbOrder);
         orderRepo.save(dbOrder);
     }
 
     /**
-     * Saves edits to results for a completed order and records audit metadata.
+     * Sets the abnormal flag and LOW/HIGH/Normal remark from the reference range that
+     * matches the patient's gender and age. Text values are never flagged.
+     */
+    private void applyReferenceFlags(LabResult dbResult, String val) {
+        TestDefinition test = dbResult.getTestDefinition();
+
+        try {
+            // Parse Number
+            java.math.BigDecimal numVal = new java.math.BigDecimal(val);
+
+            // Get Patient
+            com.qdc.lims.entity.Patient patient = dbResult.getLabOrder().getPatient();
+
+            // Find Matching Rule
+            com.qdc.lims.entity.ReferenceRange matchingRule = null;
+
+            if (test.getRanges() != null) {
+                for (com.qdc.lims.entity.ReferenceRange rule : test.getRanges()) {
+                    boolean genderMatch = rule.getGender().equalsIgnoreCase("Both")
+                            || rule.getGender().equalsIgnoreCase(patient.getGender());
+
+                    boolean ageMatch = patient.getAge() >= rule.getMinAge()
+                            && patient.getAge() <= rule.getMaxAge();
+
+                    if (genderMatch && ageMatch) {
+                        matchingRule = rule;
+                        break;
+                    }
+                }
+            }
+
+            // Apply High/Low Logic
+            if (matchingRule != null) {
+                if (numVal.compareTo(matchingRule.getMinVal()) < 0) {
+                    dbResult.setAbnormal(true);
+                    dbResult.setRemarks("LOW");
+                } else if (numVal.compareTo(matchingRule.getMaxVal()) > 0) {
+                    dbResult.setAbnormal(true);
+                    dbResult.setRemarks("HIGH");
+                } else {
+                    dbResult.setAbnormal(false);
+                    dbResult.setRemarks("Normal");
+                }
+            } else {
+                dbResult.setAbnormal(false);
+                dbResult.setRemarks("");
+            }
+        } catch (NumberFormatException e) {
+            // Handle Non-Numeric Results (Text like "Positive")
+            dbResult.setAbnormal(false);
+            dbResult.setRemarks("");
+        }
+    }
+
+    /**
+     * Saves edits to results for a completed order and records audit metadata. Values
+     * equal to the saved ones are not edits; if nothing changed, nothing is recorded.
+     * Versions are checked as in {@link #saveResultsFromForm(LabOrder)}.
      *
      * @param orderForm   the LabOrder containing edited results
      * @param editReason  reason for editing (required if already delivered)
@@ -209,59 +556,35 @@ public class ResultService {
         }
 
         String currentUser = currentUserProvider.getUsername();
+        List<LabResult> edited = new ArrayList<>();
 
         for (LabResult resultFromForm : orderForm.getResults()) {
-            LabResult dbResult = repository.findById(resultFromForm.getId()).orElseThrow();
+            LabResult dbResult = currentRow(resultFromForm);
             String val = resultFromForm.getResultValue();
 
-            if (val != null && !val.trim().isEmpty()) {
+            if (val != null && !val.trim().isEmpty() && !val.trim().equals(normalize(dbResult.getResultValue()))) {
                 dbResult.setResultValue(val);
                 dbResult.setPerformedBy(currentUser);
                 dbResult.setPerformedAt(LocalDateTime.now());
 
-                TestDefinition test = dbResult.getTestDefinition();
-                try {
-                    java.math.BigDecimal numVal = new java.math.BigDecimal(val);
-                    com.qdc.lims.entity.Patient patient = dbResult.getLabOrder().getPatient();
-
-                    com.qdc.lims.entity.ReferenceRange matchingRule = null;
-                    if (test.getRanges() != null) {
-                        for (com.qdc.lims.entity.ReferenceRange rule : test.getRanges()) {
-                            boolean genderMatch = rule.getGender().equalsIgnoreCase("Both")
-                                    || rule.getGender().equalsIgnoreCase(patient.getGender());
-                            boolean ageMatch = patient.getAge() >= rule.getMinAge()
-                                    && patient.getAge() <= rule.getMaxAge();
-                            if (genderMatch && ageMatch) {
-                                matchingRule = rule;
-                                break;
-                            }
-                        }
-                    }
+                applyReferenceFlags(dbResult, val);
 
-                    if (matchingRule != null) {
-                        if (numVal.compareTo(matchingRule.getMinVal()) < 0) {
-                            dbResult.setAbnormal(true);
-                            dbResult.setRemarks("LOW");
-                        } else if (numVal.compareTo(matchingRule.getMaxVal()) > 0) {
-                            dbResult.setAbnormal(true);
-                            dbResult.setRemarks("HIGH");
-                        } else {
-                            dbResult.setAbnormal(false);
-                            dbResult.setRemarks("Normal");
-                        }
-                    } else {
-                        dbResult.setAbnormal(false);
-                        dbResult.setRemarks("");
-                    }
-                } catch (NumberFormatException e) {
-                    dbResult.setAbnormal(false);
-                    dbResult.setRemarks("");
-                }
-
-                repository.save(dbResult);
+                edited.add(dbResult);
             }
         }
+        if (edited.isEmpty()) {
+            return;
+        }
+        saveWithDeltaCheck(labOrder, edited, currentUser);
+        markCorrected(labOrder, currentUser, editReason);
+        orderRepo.save(labOrder);
+    }
 
+    /**
+     * Records a correction of a completed order: audit fields, reprint for a delivered
+     * report and a new verification.
+     */
+    private void markCorrected(LabOrder labOrder, String currentUser, String editReason) {
         labOrder.setResultsEdited(true);
         labOrder.setResultsEditedAt(LocalDateTime.now());
         labOrder.setResultsEditedBy(currentUser);
@@ -271,7 +594,27 @@ public class ResultService {
             labOrder.setReprintRequired(true);
         }
 
-        orderRepo.save(labOrder);
+        // Edited values are verified again (by the rules or a pathologist)
+        autoVerificationService.reverify(labOrder);
+    }
+
+    /**
+     * The saved row of a submitted result. A submitted version that no longer matches
+     * means someone saved the row after the form was loaded; its value is then refused
+     * rather than written over theirs, unless it is empty or already the saved value.
+     */
+    private LabResult currentRow(LabResult submitted) {
+        LabResult dbResult = repository.findById(submitted.getId()).orElseThrow();
+        String value = normalize(submitted.getResultValue());
+        if (submitted.getVersion() != null && !submitted.getVersion().equals(dbResult.getVersion())
+                && !value.isEmpty() && !value.equals(normalize(dbResult.getResultValue()))) {
+            throw new ObjectOptimisticLockingFailureException(LabResult.class, submitted.getId());
+        }
+        return dbResult;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
     }
 
 }
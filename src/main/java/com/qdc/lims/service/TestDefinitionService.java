@@ -2,6 +2,7 @@ package com.qdc.lims.service;
 
 import com.qdc.lims.entity.Department;
 import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.formula.FormulaEngine;
 import com.qdc.lims.repository.DepartmentRepository;
 import com.qdc.lims.repository.TestDefinitionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +24,9 @@ public class TestDefinitionService {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private FormulaEngine formulaEngine;
+
     /**
      * @return all test definitions
      */
@@ -45,9 +49,16 @@ public class TestDefinitionService {
      *
      * @param test test to save
      * @return saved entity
+     * @throws IllegalArgumentException if the formula is invalid or circular
      */
     public TestDefinition save(TestDefinition test) {
-        return testDefinitionRepository.save(test);
+        if (test.getFormula() != null && test.getFormula().isBlank()) {
+            test.setFormula(null);
+        }
+        formulaEngine.validate(test);
+        TestDefinition saved = testDefinitionRepository.save(test);
+        formulaEngine.invalidate();
+        return saved;
     }
 
     /**
@@ -57,6 +68,7 @@ public class TestDefinitionService {
      */
     public void deleteById(Long id) {
         testDefinitionRepository.deleteById(id);
+        formulaEngine.invalidate();
     }
 
     /**
@@ -44,5 +44,13 @@ public final class AppPaths {
         return appDataDir().resolve("Backups");
     }
 
+    public static Path logsDir() {
+        return appDataDir().resolve("Logs");
+    }
+
+    public static Path instrumentDropDir() {
+        return appDataDir().resolve("Instrument");
+    }
+
     // Checking available methods in AppPaths
 }
@@ -2,6 +2,7 @@ package com.qdc.lims.ui;
 
 import com.qdc.lims.ui.navigation.DashboardSwitchService;
 import com.qdc.lims.ui.navigation.DashboardType;
+import com.qdc.lims.ui.navigation.ViewFactory;
 import com.qdc.lims.entity.User;
 import com.qdc.lims.service.BrandingService;
 import javafx.fxml.FXMLLoader;
@@ -23,13 +24,16 @@ public class DashboardNavigator {
     private final ApplicationContext applicationContext;
     private final DashboardSwitchService dashboardSwitchService;
     private final BrandingService brandingService;
+    private final ViewFactory viewFactory;
 
     public DashboardNavigator(ApplicationContext applicationContext,
             DashboardSwitchService dashboardSwitchService,
-            BrandingService brandingService) {
+            BrandingService brandingService,
+            ViewFactory viewFactory) {
         this.applicationContext = applicationContext;
         this.dashboardSwitchService = dashboardSwitchService;
         this.brandingService = brandingService;
+        this.viewFactory = viewFactory;
     }
 
     /**
@@ -52,7 +56,9 @@ public class DashboardNavigator {
 
         // Go directly to the default dashboard - no dialog needed
         // User can switch dashboards using the switcher in the dashboard header
-        dashboardSwitchService.switchToDashboard(defaultDashboard, stage);
+        if (dashboardSwitchService.switchToDashboard(defaultDashboard, stage)) {
+            dashboardSwitchService.prewarmDashboards(user, defaultDashboard);
+        }
     }
 
     /**
@@ -86,6 +92,7 @@ public class DashboardNavigator {
     public void logout(Stage currentStage) {
         // Logout from this specific window's session
         SessionManager.logout(currentStage);
+        viewFactory.release(currentStage);
 
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main_window.fxml"));
@@ -1,12 +1,14 @@
 package com.qdc.lims.ui;
 
 import com.qdc.lims.entity.User;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 /**
  * Desktop implementation backed by SessionManager.
  */
 @Component
+@Profile("!server")
 public class DesktopCurrentUserProvider implements CurrentUserProvider {
 
     @Override
@@ -0,0 +1,136 @@
+package com.qdc.lims.ui.backup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Describes one incremental backup: the database file it restores to, the chunks
+ * that make it up (in order) and the {@link DatabaseFingerprint} of the snapshot.
+ * <p>
+ * On disk the manifest starts with a small plain header naming its chunk store, followed
+ * by the deflated, encrypted body, so it can only be read with the backup password.
+ */
+record BackupManifest(String fileName, LocalDateTime createdAt, long size, String sha256, List<String> chunkIds,
+        String fingerprint) {
+
+    static final String EXTENSION = ".manifest";
+
+    private static final byte[] MAGIC = {'Q', 'D', 'C', 'M'};
+    private static final int FORMAT = 1;
+    private static final byte[] AAD = "qdc-lims-manifest".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Writes the manifest atomically.
+     */
+    void write(Path file, ChunkStore store) throws Exception {
+        StringBuilder text = new StringBuilder();
+        text.append("format=").append(FORMAT).append('\n');
+        text.append("file=").append(fileName).append('\n');
+        text.append("created=").append(createdAt).append('\n');
+        text.append("size=").append(size).append('\n');
+        text.append("sha256=").append(sha256).append('\n');
+        if (fingerprint != null) {
+            for (String line : fingerprint.split("\n")) {
+                if (!line.isBlank()) {
+                    text.append("table=").append(line).append('\n');
+                }
+            }
+        }
+        for (String id : chunkIds) {
+            text.append("chunk=").append(id).append('\n');
+        }
+        byte[] plain = text.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] sealed = store.seal(ChunkStore.deflate(plain, plain.length), AAD);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(sealed.length + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(FORMAT);
+            out.writeUTF(store.id());
+            out.write(sealed);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, bytes.toByteArray());
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the id of the chunk store a manifest belongs to. Does not need the password.
+     */
+    static String readStoreId(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return readHeader(in);
+        }
+    }
+
+    /**
+     * Reads and decrypts a manifest.
+     *
+     * @param store the store named in the manifest header
+     */
+    static BackupManifest read(Path file, ChunkStore store) throws Exception {
+        byte[] sealed;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            String storeId = readHeader(in);
+            if (!storeId.equals(store.id())) {
+                throw new IllegalStateException("Manifest belongs to a different chunk store");
+            }
+            sealed = in.readAllBytes();
+        }
+
+        String text = new String(ChunkStore.inflate(store.unseal(sealed, AAD)), StandardCharsets.UTF_8);
+        String fileName = null;
+        LocalDateTime createdAt = null;
+        long size = -1;
+        String sha256 = null;
+        List<String> chunkIds = new ArrayList<>();
+        StringBuilder fingerprint = new StringBuilder();
+        for (String line : text.split("\n")) {
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String value = line.substring(eq + 1);
+            switch (line.substring(0, eq)) {
+                case "file" -> fileName = value;
+                case "created" -> createdAt = LocalDateTime.parse(value);
+                case "size" -> size = Long.parseLong(value);
+                case "sha256" -> sha256 = value;
+                case "chunk" -> chunkIds.add(value);
+                case "table" -> fingerprint.append(value).append('\n');
+                default -> {
+                    // format and unknown keys from newer versions
+                }
+            }
+        }
+        if (fileName == null || sha256 == null || size < 0) {
+            throw new IllegalStateException("Backup manifest is incomplete: " + file.getFileName());
+        }
+        return new BackupManifest(fileName, createdAt, size, sha256, chunkIds,
+                fingerprint.length() > 0 ? fingerprint.toString() : null);
+    }
+
+    private static String readHeader(DataInputStream in) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a backup manifest");
+        }
+        int format = in.readUnsignedByte();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported backup manifest format: " + format);
+        }
+        return in.readUTF();
+    }
+}
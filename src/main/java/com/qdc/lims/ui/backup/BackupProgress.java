@@ -0,0 +1,41 @@
+package com.qdc.lims.ui.backup;
+
+/**
+ * Progress of a running backup, published to listeners registered with
+ * {@link BackupService#addProgressListener(java.util.function.Consumer)}.
+ *
+ * @param phase       what the backup is doing
+ * @param bytesDone   bytes of the database image processed so far
+ * @param bytesTotal  expected size of the image, or -1 if unknown
+ * @param etaSeconds  estimated seconds remaining, or -1 if unknown
+ * @param message     text for the status line
+ */
+public record BackupProgress(Phase phase, long bytesDone, long bytesTotal, long etaSeconds, String message) {
+
+    /**
+     * Backup run phases.
+     */
+    public enum Phase {
+        SNAPSHOT,
+        WRITING,
+        CLEANUP,
+        VERIFYING,
+        POSTPONED,
+        DONE,
+        FAILED
+    }
+
+    /**
+     * @return completion between 0 and 1, or -1 when the total is unknown
+     */
+    public double fraction() {
+        if (bytesTotal <= 0) {
+            return -1;
+        }
+        return Math.min(1.0, (double) bytesDone / bytesTotal);
+    }
+
+    static BackupProgress of(Phase phase, String message) {
+        return new BackupProgress(phase, 0, -1, -1, message);
+    }
+}
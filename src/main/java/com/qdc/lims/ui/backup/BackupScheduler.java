@@ -1,29 +1,196 @@
 package com.qdc.lims.ui.backup;
 
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.service.OrderArchiveService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 /**
- * Runs an automatic daily backup on startup.
+ * Runs automatic backups on the {@code qdc.backup.schedule} cron.
+ * <p>
+ * A run that was missed while the PC was off, or cut short by a crash, is caught up a few
+ * minutes after startup instead of during login. While order entry is busy a run is
+ * postponed, up to a limit so a day never goes without a backup. Scheduled runs use the
+ * throttled backup mode, and each new backup is verified with a trial restore. Once a
+ * backup has passed verification, old finished orders are moved to the archive tables.
  */
 @Component
 public class BackupScheduler implements CommandLineRunner {
 
+    private static final String DEFAULT_SCHEDULE = "0 0 2 * * *";
+
     private final BackupService backupService;
+    private final BackupVerificationService verificationService;
+    private final BackupSettingsService settings;
+    private final LabOrderRepository labOrderRepository;
+    private final OrderArchiveService archiveService;
+
+    @Value("${qdc.backup.auto-enabled:true}")
+    private boolean autoEnabled;
+
+    @Value("${qdc.backup.schedule:" + DEFAULT_SCHEDULE + "}")
+    private String schedule;
+
+    @Value("${qdc.backup.startup-delay-minutes:5}")
+    private long startupDelayMinutes;
+
+    @Value("${qdc.backup.busy.window-minutes:15}")
+    private long busyWindowMinutes;
+
+    @Value("${qdc.backup.busy.max-orders:10}")
+    private long busyMaxOrders;
+
+    @Value("${qdc.backup.busy.retry-minutes:20}")
+    private long busyRetryMinutes;
+
+    @Value("${qdc.backup.busy.max-postpone-minutes:240}")
+    private long maxPostponeMinutes;
 
-    public BackupScheduler(BackupService backupService) {
+    @Value("${qdc.backup.verify.enabled:true}")
+    private boolean verifyEnabled;
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    public BackupScheduler(BackupService backupService, BackupVerificationService verificationService,
+            BackupSettingsService settings, LabOrderRepository labOrderRepository,
+            OrderArchiveService archiveService) {
         this.backupService = backupService;
+        this.verificationService = verificationService;
+        this.settings = settings;
+        this.labOrderRepository = labOrderRepository;
+        this.archiveService = archiveService;
     }
 
     @Override
     public void run(String... args) {
-        // Run in a background thread so startup isn't delayed.
-        new Thread(() -> {
-            try {
-                backupService.runDailyBackupIfNeeded();
-            } catch (Exception ignored) {
-                // Avoid failing the app because of backup issues.
+        if (!autoEnabled) {
+            System.out.println("[BackupScheduler] Automatic backups are disabled");
+            return;
+        }
+
+        boolean interrupted = backupService.recoverInterruptedBackup();
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("backup-scheduler-");
+        scheduler.setDaemon(true);
+        scheduler.setThreadPriority(Thread.MIN_PRIORITY);
+        scheduler.initialize();
+
+        CronExpression cron = parseSchedule();
+        scheduler.schedule(() -> runScheduledBackup(LocalDateTime.now()), new CronTrigger(cron.toString()));
+
+        Instant startupRun = Instant.now().plus(Duration.ofMinutes(startupDelayMinutes));
+        if (interrupted || missedScheduledRun(cron)) {
+            scheduler.schedule(() -> runScheduledBackup(LocalDateTime.now()), startupRun);
+        } else if (verifyEnabled) {
+            scheduler.schedule(this::verifyIfUnverified, startupRun);
+        }
+        System.out.println("[BackupScheduler] Next backup: " + cron.next(LocalDateTime.now()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private CronExpression parseSchedule() {
+        String expression = schedule == null ? "" : schedule.trim();
+        try {
+            return CronExpression.parse(expression);
+        } catch (IllegalArgumentException e) {
+            System.err.println("[BackupScheduler] Invalid qdc.backup.schedule '" + expression
+                    + "', using " + DEFAULT_SCHEDULE + ": " + e.getMessage());
+            return CronExpression.parse(DEFAULT_SCHEDULE);
+        }
+    }
+
+    /**
+     * Whether the most recent scheduled time passed without a backup that day.
+     */
+    private boolean missedScheduledRun(CronExpression cron) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastDue = null;
+        LocalDateTime next = cron.next(now.minusDays(8));
+        while (next != null && !next.isAfter(now)) {
+            lastDue = next;
+            next = cron.next(next);
+        }
+        if (lastDue == null) {
+            return false;
+        }
+        LocalDate lastBackup = settings.getLastBackupDate().orElse(null);
+        return lastBackup == null || lastBackup.isBefore(lastDue.toLocalDate());
+    }
+
+    private void runScheduledBackup(LocalDateTime firstAttempt) {
+        try {
+            if (settings.getBackupPassword().isEmpty()) {
+                System.out.println("[BackupScheduler] Skipping backup: no backup password configured");
+                return;
+            }
+            if (backupService.isBackupRunning()) {
+                return;
+            }
+
+            long recentOrders = labOrderRepository.countByOrderDateBetween(
+                    LocalDateTime.now().minusMinutes(busyWindowMinutes), LocalDateTime.now());
+            long postponedFor = Duration.between(firstAttempt, LocalDateTime.now()).toMinutes();
+            if (recentOrders > busyMaxOrders && postponedFor < maxPostponeMinutes) {
+                String message = "Backup postponed " + busyRetryMinutes + " min: " + recentOrders
+                        + " orders in the last " + busyWindowMinutes + " min";
+                System.out.println("[BackupScheduler] " + message);
+                backupService.publish(BackupProgress.of(BackupProgress.Phase.POSTPONED, message));
+                scheduler.schedule(() -> runScheduledBackup(firstAttempt),
+                        Instant.now().plus(Duration.ofMinutes(busyRetryMinutes)));
+                return;
+            }
+
+            backupService.backupNow(true);
+            boolean verified = true;
+            if (verifyEnabled) {
+                backupService.publish(BackupProgress.of(BackupProgress.Phase.VERIFYING, "Verifying backup..."));
+                BackupVerificationResult result = verificationService.verifyLatestBackup();
+                verified = result.passed();
+                backupService.publish(BackupProgress.of(BackupProgress.Phase.DONE,
+                        (result.passed() ? "Backup verified: " : "Backup verification FAILED: ") + result.message()));
+            }
+            // Archived orders leave the live tables, so only archive behind a good backup
+            if (verified) {
+                archiveService.archiveDueOrders();
+            }
+        } catch (Exception e) {
+            // Avoid failing the app because of backup issues; the next trigger tries again.
+            System.err.println("[BackupScheduler] Scheduled backup failed: " + e.getMessage());
+        }
+    }
+
+    private void verifyIfUnverified() {
+        try {
+            if (settings.getBackupPassword().isEmpty()) {
+                return;
+            }
+            String latest = backupService.findLatestBackup().map(p -> p.getFileName().toString()).orElse(null);
+            boolean unverified = latest != null && settings.getLastVerification()
+                    .map(result -> !result.backupName().equals(latest))
+                    .orElse(true);
+            if (unverified) {
+                verificationService.verifyLatestBackup();
             }
-        }, "daily-backup").start();
+        } catch (Exception e) {
+            System.err.println("[BackupScheduler] Backup verification failed: " + e.getMessage());
+        }
     }
 }
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.Optional;
 import java.util.prefs.Preferences;
@@ -26,6 +27,15 @@ public class BackupSettingsService {
     private static final String PREF_NODE = "com.qdc.lims.ui";
     private static final String KEY_BACKUP_PASSWORD = "backup.password";
     private static final String KEY_LAST_BACKUP_DATE = "backup.lastDate";
+    private static final String KEY_IN_PROGRESS = "backup.inProgressSince";
+    private static final String KEY_LAST_IMAGE_SIZE = "backup.lastImageBytes";
+    private static final String KEY_VERIFY_FILE = "backup.verify.file";
+    private static final String KEY_VERIFY_PASSED = "backup.verify.passed";
+    private static final String KEY_VERIFY_MESSAGE = "backup.verify.message";
+    private static final String KEY_VERIFY_TIME = "backup.verify.time";
+    private static final String KEY_VERIFY_TABLES = "backup.verify.tables";
+    private static final String KEY_VERIFY_ROWS = "backup.verify.rows";
+    private static final String KEY_VERIFY_MILLIS = "backup.verify.millis";
 
     private final Preferences prefs = Preferences.userRoot().node(PREF_NODE);
 
@@ -74,6 +84,70 @@ public class BackupSettingsService {
         prefs.put(KEY_LAST_BACKUP_DATE, date.toString());
     }
 
+    /**
+     * Start time of a backup that has not finished; still set after a crash.
+     */
+    public Optional<LocalDateTime> getBackupInProgress() {
+        String val = prefs.get(KEY_IN_PROGRESS, null);
+        if (val == null || val.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(LocalDateTime.parse(val));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public void setBackupInProgress(LocalDateTime startedAt) {
+        prefs.put(KEY_IN_PROGRESS, startedAt.toString());
+    }
+
+    public void clearBackupInProgress() {
+        prefs.remove(KEY_IN_PROGRESS);
+    }
+
+    /**
+     * Size of the last database image, used to estimate progress; -1 if unknown.
+     */
+    public long getLastImageSize() {
+        return prefs.getLong(KEY_LAST_IMAGE_SIZE, -1);
+    }
+
+    public void setLastImageSize(long bytes) {
+        prefs.putLong(KEY_LAST_IMAGE_SIZE, bytes);
+    }
+
+    public Optional<BackupVerificationResult> getLastVerification() {
+        String file = prefs.get(KEY_VERIFY_FILE, null);
+        String time = prefs.get(KEY_VERIFY_TIME, null);
+        if (file == null || time == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new BackupVerificationResult(
+                    file,
+                    prefs.getBoolean(KEY_VERIFY_PASSED, false),
+                    prefs.get(KEY_VERIFY_MESSAGE, ""),
+                    LocalDateTime.parse(time),
+                    prefs.getInt(KEY_VERIFY_TABLES, 0),
+                    prefs.getLong(KEY_VERIFY_ROWS, 0),
+                    prefs.getLong(KEY_VERIFY_MILLIS, 0)));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public void setLastVerification(BackupVerificationResult result) {
+        prefs.put(KEY_VERIFY_FILE, result.backupName());
+        prefs.putBoolean(KEY_VERIFY_PASSED, result.passed());
+        prefs.put(KEY_VERIFY_MESSAGE, result.message() != null ? result.message() : "");
+        prefs.put(KEY_VERIFY_TIME, result.verifiedAt().toString());
+        prefs.putInt(KEY_VERIFY_TABLES, result.tableCount());
+        prefs.putLong(KEY_VERIFY_ROWS, result.rowCount());
+        prefs.putLong(KEY_VERIFY_MILLIS, result.durationMillis());
+    }
+
     private static SecretKey deriveKey() throws Exception {
         // Machine-bound-ish key derivation to avoid storing a raw encryption key.
         // This is not equivalent to OS keychain security.
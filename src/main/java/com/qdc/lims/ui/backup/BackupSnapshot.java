@@ -0,0 +1,153 @@
+package com.qdc.lims.ui.backup;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A consistent point-in-time view of the database for one backup run.
+ * <p>
+ * PostgreSQL: a repeatable-read transaction exports its snapshot, pg_dump is started with
+ * {@code --snapshot} so it dumps exactly that state, and the fingerprint is read from the
+ * same transaction. SQLite: a {@code VACUUM INTO} copy that is both dumped and fingerprinted.
+ * The fingerprint is computed on a background thread while the dump streams.
+ */
+final class BackupSnapshot implements AutoCloseable {
+
+    private final Connection connection;
+    private final String snapshotId;
+    private final Path sqliteCopy;
+    private final CompletableFuture<DatabaseFingerprint> fingerprint;
+
+    private BackupSnapshot(Connection connection, String snapshotId, Path sqliteCopy,
+            CompletableFuture<DatabaseFingerprint> fingerprint) {
+        this.connection = connection;
+        this.snapshotId = snapshotId;
+        this.sqliteCopy = sqliteCopy;
+        this.fingerprint = fingerprint;
+    }
+
+    static BackupSnapshot postgres(DataSource dataSource, boolean withFingerprint) throws Exception {
+        Connection conn = dataSource.getConnection();
+        try {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            String id;
+            try (Statement st = conn.createStatement()) {
+                // Not Connection.setReadOnly: that would route to the read pool, and pg_dump
+                // needs a snapshot exported by the primary
+                st.execute("SET TRANSACTION READ ONLY");
+                try (ResultSet rs = st.executeQuery("SELECT pg_export_snapshot()")) {
+                    rs.next();
+                    id = rs.getString(1);
+                }
+            }
+            return new BackupSnapshot(conn, id, null, withFingerprint ? fingerprintAsync(conn) : null);
+        } catch (Exception e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    static BackupSnapshot sqlite(DataSource dataSource, boolean withFingerprint) throws Exception {
+        Path copy = Files.createTempFile("qdc-lims-backup-", ".db");
+        copy.toFile().deleteOnExit();
+        try {
+            // Safe SQLite copy using VACUUM INTO (requires SQLite 3.27+).
+            try (var conn = dataSource.getConnection()) {
+                // Pooled connections are proxies; ask the driver what is behind them
+                String product = conn.getMetaData().getDatabaseProductName();
+                if (!"SQLite".equalsIgnoreCase(product)) {
+                    throw new IllegalStateException("Unsupported DB connection for SQLite backup: " + product);
+                }
+                try (var st = conn.createStatement()) {
+                    String outPath = copy.toAbsolutePath().toString().replace("\\", "/");
+                    st.execute("VACUUM INTO '" + outPath.replace("'", "''") + "'");
+                }
+            }
+
+            CompletableFuture<DatabaseFingerprint> fingerprint = null;
+            if (withFingerprint) {
+                Connection copyConn = DriverManager.getConnection("jdbc:sqlite:" + copy.toAbsolutePath());
+                fingerprint = fingerprintAsync(copyConn).whenComplete((fp, error) -> {
+                    try {
+                        copyConn.close();
+                    } catch (Exception ignored) {
+                    }
+                });
+            }
+            return new BackupSnapshot(null, null, copy, fingerprint);
+        } catch (Exception e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+    }
+
+    private static CompletableFuture<DatabaseFingerprint> fingerprintAsync(Connection conn) {
+        CompletableFuture<DatabaseFingerprint> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(DatabaseFingerprint.of(conn));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, "backup-fingerprint");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return future;
+    }
+
+    /**
+     * Snapshot id to pass to {@code pg_dump --snapshot}; null for SQLite.
+     */
+    String snapshotId() {
+        return snapshotId;
+    }
+
+    /**
+     * The SQLite copy to back up; null for PostgreSQL.
+     */
+    Path sqliteCopy() {
+        return sqliteCopy;
+    }
+
+    /**
+     * Waits for the fingerprint of this snapshot, or returns null if none was requested.
+     */
+    DatabaseFingerprint fingerprint() throws Exception {
+        if (fingerprint == null) {
+            return null;
+        }
+        try {
+            return fingerprint.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not fingerprint the backup snapshot: "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connection != null) {
+            try {
+                connection.rollback();
+                connection.close();
+            } catch (Exception ignored) {
+            }
+        }
+        if (sqliteCopy != null) {
+            try {
+                Files.deleteIfExists(sqliteCopy);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
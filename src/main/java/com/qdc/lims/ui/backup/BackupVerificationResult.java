@@ -0,0 +1,18 @@
+package com.qdc.lims.ui.backup;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a trial restore of a backup.
+ *
+ * @param backupName     file name of the backup that was checked
+ * @param passed         whether the restore matched the snapshot it was taken from
+ * @param message        short summary for the dashboard
+ * @param verifiedAt     when the check finished
+ * @param tableCount     tables compared
+ * @param rowCount       rows in the restored copy
+ * @param durationMillis how long the check took
+ */
+public record BackupVerificationResult(String backupName, boolean passed, String message,
+        LocalDateTime verifiedAt, int tableCount, long rowCount, long durationMillis) {
+}
@@ -0,0 +1,199 @@
+package com.qdc.lims.ui.backup;
+
+import com.qdc.lims.ui.AppPaths;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Proves that the newest backup restores.
+ * <p>
+ * The backup is decrypted with the same extraction path as a real restore, then loaded
+ * into a scratch copy: the extracted SQLite file itself, or a scratch PostgreSQL database
+ * ({@code <db>_verify} by default) filled by pg_restore. Per-table row counts and content
+ * checksums of the scratch copy are compared with the fingerprint stored in the backup,
+ * which was taken from the exact snapshot that was dumped. The live database is never
+ * written to. Runs at low thread and process priority; the result is kept in
+ * {@link BackupSettingsService} for the admin dashboard.
+ */
+@Service
+public class BackupVerificationService {
+
+    private final BackupService backupService;
+    private final BackupSettingsService settings;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${spring.datasource.url:}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String jdbcUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String jdbcPassword;
+
+    @Value("${qdc.backup.verify.scratch-database:}")
+    private String scratchDatabase;
+
+    public BackupVerificationService(BackupService backupService, BackupSettingsService settings) {
+        this.backupService = backupService;
+        this.settings = settings;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Verifies the newest backup on a low-priority background thread.
+     */
+    public void verifyLatestBackupInBackground() {
+        Thread thread = new Thread(() -> {
+            try {
+                verifyLatestBackup();
+            } catch (Exception e) {
+                System.err.println("[BackupVerification] " + e.getMessage());
+            }
+        }, "backup-verify");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Verifies the newest backup and records the result.
+     *
+     * @return the result, also stored as the last verification
+     * @throws IllegalStateException if a verification is already running
+     */
+    public BackupVerificationResult verifyLatestBackup() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Backup verification is already running");
+        }
+        try {
+            BackupVerificationResult result = verify();
+            settings.setLastVerification(result);
+            System.out.println("[BackupVerification] " + result.backupName() + ": "
+                    + (result.passed() ? "OK" : "FAILED") + " - " + result.message());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BackupVerificationResult verify() {
+        long started = System.currentTimeMillis();
+        Path backup;
+        try {
+            backup = backupService.findLatestBackup().orElse(null);
+        } catch (Exception e) {
+            backup = null;
+        }
+        if (backup == null) {
+            return failed("(none)", "No backup found in " + AppPaths.backupsDir(), started);
+        }
+        String backupName = backup.getFileName().toString();
+
+        char[] password = settings.getBackupPassword().orElse(null);
+        if (password == null) {
+            return failed(backupName, "Backup password is not configured", started);
+        }
+
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("qdc-lims-verify-");
+            Path extracted = backupService.extractBackup(backup, password, workDir);
+
+            // The extracted SQLite file is already a private scratch copy
+            DatabaseFingerprint restored = backupService.isPostgres()
+                    ? fingerprintScratchPostgres(extracted)
+                    : DatabaseFingerprint.ofSqliteFile(extracted);
+
+            DatabaseFingerprint expected = DatabaseFingerprint.readStored(workDir);
+            if (expected == null) {
+                return new BackupVerificationResult(backupName, true,
+                        "Restored and readable (backup has no snapshot checksums)",
+                        LocalDateTime.now(), restored.tables().size(), restored.totalRows(),
+                        System.currentTimeMillis() - started);
+            }
+
+            List<String> differences = expected.differences(restored);
+            if (!differences.isEmpty()) {
+                String summary = String.join("; ", differences.subList(0, Math.min(5, differences.size())));
+                return failed(backupName, differences.size() + " table(s) differ: " + summary, started);
+            }
+            return new BackupVerificationResult(backupName, true,
+                    "All " + expected.tables().size() + " tables match",
+                    LocalDateTime.now(), expected.tables().size(), restored.totalRows(),
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            return failed(backupName, e.getMessage() != null ? e.getMessage() : e.toString(), started);
+        } finally {
+            if (workDir != null) {
+                try {
+                    BackupService.deleteRecursively(workDir);
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
+
+    private DatabaseFingerprint fingerprintScratchPostgres(Path dump) throws Exception {
+        String liveUri = backupService.postgresUri();
+        String liveDb = liveUri.substring(liveUri.lastIndexOf('/') + 1);
+        String scratchDb = scratchDatabase != null && !scratchDatabase.isBlank()
+                ? scratchDatabase.trim()
+                : liveDb + "_verify";
+        if (scratchDb.equals(liveDb)) {
+            throw new IllegalStateException("Scratch database must not be the live database");
+        }
+        String scratchUri = liveUri.substring(0, liveUri.lastIndexOf('/') + 1) + scratchDb;
+
+        Properties credentials = new Properties();
+        if (jdbcUsername != null && !jdbcUsername.isBlank()) {
+            credentials.setProperty("user", jdbcUsername);
+        }
+        if (jdbcPassword != null && !jdbcPassword.isBlank()) {
+            credentials.setProperty("password", jdbcPassword);
+        }
+
+        String quoted = "\"" + scratchDb.replace("\"", "\"\"") + "\"";
+        try (Connection admin = DriverManager.getConnection(jdbcUrl, credentials);
+                Statement st = admin.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + quoted);
+            st.execute("CREATE DATABASE " + quoted);
+        }
+
+        try {
+            backupService.runPostgresRestore(dump, scratchUri, true);
+            try (Connection conn = DriverManager.getConnection("jdbc:" + scratchUri, credentials)) {
+                conn.setAutoCommit(false);
+                conn.setReadOnly(true);
+                return DatabaseFingerprint.of(conn);
+            }
+        } finally {
+            try (Connection admin = DriverManager.getConnection(jdbcUrl, credentials);
+                    Statement st = admin.createStatement()) {
+                st.execute("DROP DATABASE IF EXISTS " + quoted);
+            } catch (Exception e) {
+                System.err.println("[BackupVerification] Could not drop scratch database " + scratchDb
+                        + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private BackupVerificationResult failed(String backupName, String message, long started) {
+        String trimmed = message.length() > 500 ? message.substring(0, 500) + "..." : message;
+        return new BackupVerificationResult(backupName, false, trimmed, LocalDateTime.now(), 0, 0,
+                System.currentTimeMillis() - started);
+    }
+}
@@ -0,0 +1,271 @@
+package com.qdc.lims.ui.backup;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encrypted, content-addressed store for backup chunks.
+ * <p>
+ * Each store is a directory under {@code Backups/chunks} named after the random salt used
+ * to derive its keys from the backup password (PBKDF2). Chunks are named by an HMAC of
+ * their content, so identical data is written once and file names reveal nothing about
+ * it. A chunk file holds the deflated data sealed with AES-GCM.
+ * <p>
+ * Changing the backup password starts a new store; manifests written before keep
+ * pointing at the old one. Not thread-safe: one backup uses one instance.
+ */
+final class ChunkStore {
+
+    static final String ROOT_DIR = "chunks";
+
+    private static final String KEY_CHECK_FILE = "store.key";
+    private static final byte[] KEY_CHECK_LABEL = "qdc-lims-chunk-store".getBytes(StandardCharsets.UTF_8);
+    private static final int SALT_BYTES = 16;
+    private static final int IV_BYTES = 12;
+    private static final int PBKDF2_ITERATIONS = 210_000;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Path dir;
+    private final SecretKeySpec encryptionKey;
+    private final Mac mac;
+
+    private long newChunks;
+    private long newBytes;
+    private long reusedChunks;
+
+    private ChunkStore(Path dir, byte[] salt, char[] password) throws Exception {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, PBKDF2_ITERATIONS, 512);
+        byte[] keys = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        spec.clearPassword();
+
+        this.dir = dir;
+        this.encryptionKey = new SecretKeySpec(keys, 0, 32, "AES");
+        this.mac = Mac.getInstance("HmacSHA256");
+        this.mac.init(new SecretKeySpec(keys, 32, 32, "HmacSHA256"));
+        Arrays.fill(keys, (byte) 0);
+    }
+
+    /**
+     * Opens the store that matches the password, creating a new one if none does.
+     *
+     * @param root     the {@code chunks} directory
+     * @param password backup password
+     */
+    static ChunkStore openOrCreate(Path root, char[] password) throws Exception {
+        Files.createDirectories(root);
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path candidate : dirs) {
+                ChunkStore store = tryOpen(candidate, password);
+                if (store != null) {
+                    return store;
+                }
+            }
+        }
+
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Path dir = root.resolve(HEX.formatHex(salt));
+        Files.createDirectories(dir);
+        ChunkStore store = new ChunkStore(dir, salt, password);
+        Files.write(dir.resolve(KEY_CHECK_FILE), store.mac(KEY_CHECK_LABEL, KEY_CHECK_LABEL.length));
+        return store;
+    }
+
+    /**
+     * Opens an existing store.
+     *
+     * @param root     the {@code chunks} directory
+     * @param storeId  store directory name, as recorded in the manifest
+     * @param password backup password
+     * @throws IllegalArgumentException if the password does not match
+     */
+    static ChunkStore open(Path root, String storeId, char[] password) throws Exception {
+        Path dir = root.resolve(storeId);
+        if (!Files.isRegularFile(dir.resolve(KEY_CHECK_FILE))) {
+            throw new IllegalStateException("Backup chunk store not found: " + dir);
+        }
+        ChunkStore store = tryOpen(dir, password);
+        if (store == null) {
+            throw new IllegalArgumentException("Incorrect backup password");
+        }
+        return store;
+    }
+
+    private static ChunkStore tryOpen(Path dir, char[] password) throws Exception {
+        Path keyCheck = dir.resolve(KEY_CHECK_FILE);
+        if (!Files.isRegularFile(keyCheck)) {
+            return null;
+        }
+        byte[] salt;
+        try {
+            salt = HEX.parseHex(dir.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        ChunkStore store = new ChunkStore(dir, salt, password);
+        byte[] expected = store.mac(KEY_CHECK_LABEL, KEY_CHECK_LABEL.length);
+        return MessageDigest.isEqual(Files.readAllBytes(keyCheck), expected) ? store : null;
+    }
+
+    String id() {
+        return dir.getFileName().toString();
+    }
+
+    /**
+     * Stores a chunk unless an identical one is already present.
+     *
+     * @return the chunk id
+     */
+    String put(byte[] data, int length) throws Exception {
+        String chunkId = HEX.formatHex(mac(data, length));
+        Path file = chunkPath(chunkId);
+        if (Files.exists(file)) {
+            reusedChunks++;
+            return chunkId;
+        }
+
+        byte[] sealed = seal(deflate(data, length), chunkId.getBytes(StandardCharsets.US_ASCII));
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(chunkId + ".tmp");
+        Files.write(tmp, sealed);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        newChunks++;
+        newBytes += sealed.length;
+        return chunkId;
+    }
+
+    /**
+     * Reads and decrypts a chunk.
+     */
+    byte[] get(String chunkId) throws Exception {
+        Path file = chunkPath(chunkId);
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("Backup chunk missing: " + chunkId);
+        }
+        return inflate(unseal(Files.readAllBytes(file), chunkId.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Deletes chunks no manifest refers to, along with leftovers from interrupted writes.
+     *
+     * @param liveIds ids referenced by the remaining manifests
+     * @return number of files deleted
+     */
+    int retainOnly(Set<String> liveIds) throws IOException {
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean chunk = name.length() == 64 && !file.getParent().equals(dir);
+                boolean leftover = name.endsWith(".tmp");
+                if ((chunk && !liveIds.contains(name)) || leftover) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    long getNewChunks() {
+        return newChunks;
+    }
+
+    long getNewBytes() {
+        return newBytes;
+    }
+
+    long getReusedChunks() {
+        return reusedChunks;
+    }
+
+    byte[] seal(byte[] plain, byte[] aad) throws Exception {
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(128, iv));
+        cipher.updateAAD(aad);
+        byte[] ct = cipher.doFinal(plain);
+
+        byte[] out = new byte[iv.length + ct.length];
+        System.arraycopy(iv, 0, out, 0, iv.length);
+        System.arraycopy(ct, 0, out, iv.length, ct.length);
+        return out;
+    }
+
+    byte[] unseal(byte[] sealed, byte[] aad) throws Exception {
+        if (sealed.length < IV_BYTES + 16) {
+            throw new IllegalStateException("Invalid encrypted backup data");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(128, sealed, 0, IV_BYTES));
+        cipher.updateAAD(aad);
+        return cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+    }
+
+    static byte[] deflate(byte[] data, int length) {
+        // Fastest level: most of the backup time goes into reading and hashing anyway.
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[16 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] data) throws Exception {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+            byte[] buffer = new byte[16 * 1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated backup data");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private byte[] mac(byte[] data, int length) {
+        mac.update(data, 0, length);
+        return mac.doFinal();
+    }
+
+    private Path chunkPath(String chunkId) {
+        return dir.resolve(chunkId.substring(0, 2)).resolve(chunkId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.qdc.lims.ui.backup;
+
+import java.io.InputStream;
+
+/**
+ * Splits a stream into content-defined chunks using a Gear rolling hash.
+ * <p>
+ * A boundary is cut where the hash of the last 64 bytes matches a bit mask, so an
+ * insert or delete in the database image only changes the chunks around it; the rest
+ * line up with the previous backup and are deduplicated by the {@link ChunkStore}.
+ * Chunks are between {@link #MIN_CHUNK} and {@link #MAX_CHUNK} bytes, about 80 KB on average.
+ * <p>
+ * The gear table is generated from a fixed seed. Changing the seed, mask or size limits
+ * would shift every boundary and defeat deduplication against existing backups.
+ */
+final class ContentDefinedChunker {
+
+    static final int MIN_CHUNK = 16 * 1024;
+    static final int MAX_CHUNK = 256 * 1024;
+
+    // 16 high bits: a boundary roughly every 64 KB after the minimum size
+    private static final long BOUNDARY_MASK = 0xFFFFL << 48;
+    private static final long GEAR_SEED = 0x5144_434C_494D_5331L;
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // SplitMix64, spelled out so the table never depends on JDK internals
+        long x = GEAR_SEED;
+        for (int i = 0; i < GEAR.length; i++) {
+            x += 0x9E3779B97F4A7C15L;
+            long z = x;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * Receives each chunk. The buffer is reused after the call returns.
+     */
+    @FunctionalInterface
+    interface ChunkConsumer {
+        void accept(byte[] buffer, int length) throws Exception;
+    }
+
+    private ContentDefinedChunker() {
+    }
+
+    /**
+     * Reads the stream to the end and passes each chunk to the consumer.
+     *
+     * @param in       data to split
+     * @param consumer called once per chunk, in order
+     * @return total number of bytes read
+     */
+    static long split(InputStream in, ChunkConsumer consumer) throws Exception {
+        byte[] chunk = new byte[MAX_CHUNK];
+        byte[] block = new byte[128 * 1024];
+        int length = 0;
+        long hash = 0;
+        long total = 0;
+
+        int read;
+        while ((read = in.read(block)) > 0) {
+            total += read;
+            for (int i = 0; i < read; i++) {
+                byte b = block[i];
+                chunk[length++] = b;
+                hash = (hash << 1) + GEAR[b & 0xFF];
+                if (length == MAX_CHUNK || (length >= MIN_CHUNK && (hash & BOUNDARY_MASK) == 0)) {
+                    consumer.accept(chunk, length);
+                    length = 0;
+                    hash = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            consumer.accept(chunk, length);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,168 @@
+package com.qdc.lims.ui.backup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-table row counts and content checksums of a database.
+ * <p>
+ * Taken from the exact snapshot a backup was made from and stored inside the backup,
+ * so a trial restore can prove it reproduces the same data. The checksum is the sum of
+ * a hash of every row, which does not depend on row order and needs no sort.
+ */
+final class DatabaseFingerprint {
+
+    static final String FILE_NAME = "fingerprint.txt";
+
+    /**
+     * Row count and checksum of one table.
+     */
+    record TableStats(long rows, long checksum) {
+    }
+
+    private final Map<String, TableStats> tables;
+
+    private DatabaseFingerprint(Map<String, TableStats> tables) {
+        this.tables = tables;
+    }
+
+    Map<String, TableStats> tables() {
+        return tables;
+    }
+
+    /**
+     * Reads every table visible on the connection. Run it inside the transaction that
+     * holds the snapshot being backed up.
+     */
+    static DatabaseFingerprint of(Connection connection) throws Exception {
+        List<String> names = new ArrayList<>();
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getTables(connection.getCatalog(), connection.getSchema(), "%",
+                new String[] { "TABLE" })) {
+            while (rs.next()) {
+                names.add(rs.getString("TABLE_NAME"));
+            }
+        }
+
+        Map<String, TableStats> tables = new TreeMap<>();
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        for (String table : names) {
+            if (table.startsWith("sqlite_")) {
+                continue;
+            }
+            long rows = 0;
+            long checksum = 0;
+            try (Statement st = connection.createStatement()) {
+                st.setFetchSize(1000);
+                try (ResultSet rs = st.executeQuery("SELECT * FROM \"" + table.replace("\"", "\"\"") + "\"")) {
+                    int columns = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            String value = rs.getString(i);
+                            sha.update(value == null ? new byte[] { 0 } : value.getBytes(StandardCharsets.UTF_8));
+                            sha.update((byte) 0x1F);
+                        }
+                        byte[] digest = sha.digest();
+                        long rowHash = 0;
+                        for (int i = 0; i < 8; i++) {
+                            rowHash = (rowHash << 8) | (digest[i] & 0xFF);
+                        }
+                        checksum += rowHash;
+                        rows++;
+                    }
+                }
+            }
+            tables.put(table, new TableStats(rows, checksum));
+        }
+        return new DatabaseFingerprint(tables);
+    }
+
+    /**
+     * Checks the integrity of a SQLite file and fingerprints it.
+     *
+     * @throws IllegalStateException if {@code PRAGMA quick_check} reports damage
+     */
+    static DatabaseFingerprint ofSqliteFile(Path dbFile) throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbFile.toAbsolutePath())) {
+            try (Statement st = conn.createStatement();
+                    ResultSet rs = st.executeQuery("PRAGMA quick_check")) {
+                String check = rs.next() ? rs.getString(1) : "no result";
+                if (!"ok".equalsIgnoreCase(check)) {
+                    throw new IllegalStateException("SQLite integrity check failed: " + check);
+                }
+            }
+            return of(conn);
+        }
+    }
+
+    /**
+     * Reads the fingerprint stored with an extracted backup.
+     *
+     * @param extractDir directory the backup was extracted into
+     * @return the fingerprint, or null for backups made before fingerprints were added
+     */
+    static DatabaseFingerprint readStored(Path extractDir) throws IOException {
+        Path file = extractDir.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lists the tables whose counts or checksums differ. Empty means identical.
+     */
+    List<String> differences(DatabaseFingerprint restored) {
+        List<String> differences = new ArrayList<>();
+        for (Map.Entry<String, TableStats> entry : tables.entrySet()) {
+            TableStats expected = entry.getValue();
+            TableStats actual = restored.tables.get(entry.getKey());
+            if (actual == null) {
+                differences.add(entry.getKey() + ": missing");
+            } else if (actual.rows() != expected.rows()) {
+                differences.add(entry.getKey() + ": " + actual.rows() + " rows, expected " + expected.rows());
+            } else if (actual.checksum() != expected.checksum()) {
+                differences.add(entry.getKey() + ": content checksum differs");
+            }
+        }
+        return differences;
+    }
+
+    long totalRows() {
+        return tables.values().stream().mapToLong(TableStats::rows).sum();
+    }
+
+    String toText() {
+        StringBuilder text = new StringBuilder();
+        tables.forEach((table, stats) -> text.append(table).append(':').append(stats.rows()).append(':')
+                .append(Long.toHexString(stats.checksum())).append('\n'));
+        return text.toString();
+    }
+
+    static DatabaseFingerprint parse(String text) {
+        Map<String, TableStats> tables = new TreeMap<>();
+        for (String line : text.split("\n")) {
+            int last = line.lastIndexOf(':');
+            int middle = last > 0 ? line.lastIndexOf(':', last - 1) : -1;
+            if (middle <= 0) {
+                continue;
+            }
+            tables.put(line.substring(0, middle), new TableStats(
+                    Long.parseLong(line.substring(middle + 1, last)),
+                    Long.parseUnsignedLong(line.substring(last + 1), 16)));
+        }
+        return new DatabaseFingerprint(tables);
+    }
+}
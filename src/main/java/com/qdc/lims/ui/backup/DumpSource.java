@@ -0,0 +1,130 @@
+package com.qdc.lims.ui.backup;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A database image being read by a backup: either the stdout of a running dump tool or
+ * a snapshot file.
+ * <p>
+ * Read {@link #stream()} to the end, then call {@link #finish()} before committing the
+ * backup: for a process it waits for the exit code and fails with the tool's stderr, so a
+ * truncated dump is never kept. {@link #close()} kills a process that is still running.
+ */
+final class DumpSource implements AutoCloseable {
+
+    private static final int STDERR_LIMIT = 16 * 1024;
+
+    private final InputStream stream;
+    private final Process process;
+    private final Thread stderrReader;
+    private final StringBuilder stderr;
+    private final String tool;
+
+    private DumpSource(InputStream stream, Process process, Thread stderrReader, StringBuilder stderr,
+            String tool) {
+        this.stream = stream;
+        this.process = process;
+        this.stderrReader = stderrReader;
+        this.stderr = stderr;
+        this.tool = tool;
+    }
+
+    /**
+     * Starts a dump tool that writes the image to stdout. Stderr is drained on its own
+     * thread so a chatty tool can never block on a full pipe.
+     */
+    static DumpSource fromProcess(List<String> command, Map<String, String> env) {
+        ProcessBuilder pb = new ProcessBuilder(command);
+        if (env != null && !env.isEmpty()) {
+            pb.environment().putAll(env);
+        }
+
+        String tool = command.isEmpty() ? "command" : command.get(0);
+        Process process;
+        try {
+            process = pb.start();
+        } catch (IOException e) {
+            throw new IllegalStateException(tool + " is not available on this system.", e);
+        }
+        try {
+            // The dump tools never read stdin
+            process.getOutputStream().close();
+        } catch (IOException ignored) {
+        }
+
+        StringBuilder stderr = new StringBuilder();
+        Thread reader = new Thread(() -> {
+            try (InputStream err = process.getErrorStream()) {
+                byte[] buffer = new byte[4096];
+                int n;
+                while ((n = err.read(buffer)) > 0) {
+                    synchronized (stderr) {
+                        if (stderr.length() < STDERR_LIMIT) {
+                            stderr.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+                // Process was killed; the exit code tells the rest.
+            }
+        }, tool + "-stderr");
+        reader.setDaemon(true);
+        reader.start();
+
+        InputStream stdout = new BufferedInputStream(process.getInputStream(), 256 * 1024);
+        return new DumpSource(stdout, process, reader, stderr, tool);
+    }
+
+    /**
+     * Reads an image that already exists as a file (the SQLite snapshot copy).
+     */
+    static DumpSource fromFile(Path file) throws IOException {
+        return new DumpSource(new BufferedInputStream(Files.newInputStream(file), 256 * 1024),
+                null, null, null, null);
+    }
+
+    InputStream stream() {
+        return stream;
+    }
+
+    /**
+     * Confirms the image was produced completely.
+     *
+     * @throws IllegalStateException if the dump tool failed
+     */
+    void finish() throws Exception {
+        if (process == null) {
+            return;
+        }
+        int exit = process.waitFor();
+        stderrReader.join(TimeUnit.SECONDS.toMillis(5));
+        if (exit != 0) {
+            String message;
+            synchronized (stderr) {
+                message = stderr.toString().trim();
+            }
+            throw new IllegalStateException(message.isEmpty()
+                    ? tool + " failed with exit code " + exit
+                    : message);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+        }
+        if (process != null && process.isAlive()) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.qdc.lims.ui.backup;
+
+import com.qdc.lims.service.ConfigService;
+import com.qdc.lims.ui.AppPaths;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Restores a backup while the application keeps running.
+ * <p>
+ * The backup is first restored into a side copy next to the live database (a file in the
+ * data folder for SQLite, a {@code <db>_restore} database for PostgreSQL) and checked
+ * against the fingerprint stored in the backup. Only then is the connection pool suspended
+ * and drained, the side copy swapped in by an atomic rename, and the pool resumed. The
+ * previous database is kept as {@code *.pre-restore} / {@code <db>_pre_restore} until the
+ * next restore. Screens only see the pool pause for the length of the swap.
+ */
+@Service
+public class OnlineRestoreService {
+
+    private static final String PRE_RESTORE_SUFFIX = ".pre-restore";
+
+    private final DataSource dataSource;
+    private final List<HikariDataSource> pools;
+    private final BackupService backupService;
+    private final ConfigService configService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${spring.datasource.username:}")
+    private String jdbcUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String jdbcPassword;
+
+    @Value("${qdc.restore.quiesce-timeout-seconds:30}")
+    private long quiesceTimeoutSeconds;
+
+    /**
+     * Timings of a completed restore.
+     *
+     * @param totalMillis    extraction, validation and swap
+     * @param offlineMillis  how long the connection pool was suspended
+     * @param previousCopy   where the replaced database was kept
+     */
+    public record RestoreResult(long totalMillis, long offlineMillis, String previousCopy) {
+    }
+
+    public OnlineRestoreService(DataSource dataSource, List<HikariDataSource> pools, BackupService backupService,
+            ConfigService configService) {
+        this.dataSource = dataSource;
+        this.pools = pools;
+        this.backupService = backupService;
+        this.configService = configService;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Restores a full backup ({@code .zip}) or an incremental one ({@code .manifest}).
+     *
+     * @throws IllegalArgumentException for a wrong password or an unreadable backup
+     * @throws IllegalStateException    if the backup fails validation or the database
+     *                                  stays busy; the live database is left untouched
+     */
+    public RestoreResult restore(Path backupFile, char[] password) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A restore is already running");
+        }
+        if (backupService.isBackupRunning()) {
+            running.set(false);
+            throw new IllegalStateException("A backup is running; try again when it has finished");
+        }
+        long started = System.currentTimeMillis();
+        Path workDir = null;
+        try {
+            // Same volume as the database so the final move is a rename
+            Path dataDir = AppPaths.databasePath().getParent();
+            Files.createDirectories(dataDir);
+            workDir = Files.createTempDirectory(dataDir, ".restore-");
+
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.WRITING, "Extracting backup..."));
+            Path extracted = backupService.extractBackup(backupFile, password, workDir);
+            DatabaseFingerprint expected = DatabaseFingerprint.readStored(workDir);
+
+            RestoreResult result = backupService.isPostgres()
+                    ? restorePostgres(extracted, expected, started)
+                    : restoreSqlite(extracted, expected, started);
+
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.DONE,
+                    "Restore completed in " + (result.totalMillis() / 1000) + " s"));
+            System.out.println("[OnlineRestore] Restored " + backupFile.getFileName() + " in "
+                    + result.totalMillis() + " ms (database paused " + result.offlineMillis() + " ms)");
+            return result;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.FAILED, "Restore failed: " + e.getMessage()));
+            throw e;
+        } catch (Exception e) {
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.FAILED, "Restore failed: " + e.getMessage()));
+            throw new RuntimeException("Restore failed: " + e.getMessage(), e);
+        } finally {
+            if (workDir != null) {
+                try {
+                    BackupService.deleteRecursively(workDir);
+                } catch (Exception ignored) {
+                }
+            }
+            running.set(false);
+        }
+    }
+
+    private RestoreResult restoreSqlite(Path extracted, DatabaseFingerprint expected, long started) throws Exception {
+        backupService.publish(BackupProgress.of(BackupProgress.Phase.VERIFYING, "Checking restored copy..."));
+        validate(expected, DatabaseFingerprint.ofSqliteFile(extracted));
+
+        Path live = AppPaths.databasePath();
+        Path previous = live.resolveSibling(live.getFileName() + PRE_RESTORE_SUFFIX);
+
+        backupService.publish(BackupProgress.of(BackupProgress.Phase.CLEANUP, "Switching databases..."));
+        long offlineStarted = System.currentTimeMillis();
+        List<HikariPoolMXBean> pools = quiesce();
+        try {
+            // The WAL and shared-memory files belong to the old file; keep them with it
+            moveSqliteFiles(live, previous);
+            try {
+                Files.move(extracted, live, StandardCopyOption.ATOMIC_MOVE);
+            } catch (Exception e) {
+                moveSqliteFiles(previous, live);
+                throw e;
+            }
+        } finally {
+            resume(pools);
+        }
+        long offlineMillis = System.currentTimeMillis() - offlineStarted;
+
+        rewarm();
+        return new RestoreResult(System.currentTimeMillis() - started, offlineMillis, previous.toString());
+    }
+
+    private static void moveSqliteFiles(Path from, Path to) throws Exception {
+        for (String suffix : new String[] { "-wal", "-shm" }) {
+            Path target = to.resolveSibling(to.getFileName() + suffix);
+            Files.deleteIfExists(target);
+            Path source = from.resolveSibling(from.getFileName() + suffix);
+            if (Files.exists(source)) {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        if (Files.exists(from)) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private RestoreResult restorePostgres(Path dump, DatabaseFingerprint expected, long started) throws Exception {
+        String liveUri = backupService.postgresUri();
+        String base = liveUri.substring(0, liveUri.lastIndexOf('/') + 1);
+        String liveDb = liveUri.substring(liveUri.lastIndexOf('/') + 1);
+        String sideDb = liveDb + "_restore";
+        String previousDb = liveDb + "_pre_restore";
+        Properties credentials = credentials();
+
+        // Maintenance database: the live one cannot be renamed while we are connected to it
+        String adminUrl = "jdbc:" + base + "postgres";
+        try (Connection admin = DriverManager.getConnection(adminUrl, credentials);
+                Statement st = admin.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + quote(sideDb));
+            st.execute("CREATE DATABASE " + quote(sideDb));
+        }
+
+        boolean swapped = false;
+        try {
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.WRITING, "Restoring into " + sideDb + "..."));
+            backupService.runPostgresRestore(dump, base + sideDb, false);
+
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.VERIFYING, "Checking restored copy..."));
+            try (Connection conn = DriverManager.getConnection("jdbc:" + base + sideDb, credentials)) {
+                conn.setAutoCommit(false);
+                conn.setReadOnly(true);
+                validate(expected, DatabaseFingerprint.of(conn));
+            }
+
+            backupService.publish(BackupProgress.of(BackupProgress.Phase.CLEANUP, "Switching databases..."));
+            long offlineStarted = System.currentTimeMillis();
+            List<HikariPoolMXBean> pools = quiesce();
+            try (Connection admin = DriverManager.getConnection(adminUrl, credentials);
+                    Statement st = admin.createStatement()) {
+                // Other workstations' sessions; their pools reconnect to the renamed database
+                terminateSessions(admin, liveDb);
+                terminateSessions(admin, sideDb);
+                st.execute("DROP DATABASE IF EXISTS " + quote(previousDb));
+                st.execute("ALTER DATABASE " + quote(liveDb) + " RENAME TO " + quote(previousDb));
+                try {
+                    st.execute("ALTER DATABASE " + quote(sideDb) + " RENAME TO " + quote(liveDb));
+                } catch (Exception e) {
+                    st.execute("ALTER DATABASE " + quote(previousDb) + " RENAME TO " + quote(liveDb));
+                    throw e;
+                }
+                swapped = true;
+            } finally {
+                resume(pools);
+            }
+            long offlineMillis = System.currentTimeMillis() - offlineStarted;
+
+            rewarm();
+            return new RestoreResult(System.currentTimeMillis() - started, offlineMillis, previousDb);
+        } finally {
+            if (!swapped) {
+                try (Connection admin = DriverManager.getConnection(adminUrl, credentials);
+                        Statement st = admin.createStatement()) {
+                    st.execute("DROP DATABASE IF EXISTS " + quote(sideDb));
+                } catch (Exception e) {
+                    System.err.println("[OnlineRestore] Could not drop " + sideDb + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void terminateSessions(Connection admin, String database) throws Exception {
+        try (PreparedStatement ps = admin.prepareStatement(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE datname = ? AND pid <> pg_backend_pid()")) {
+            ps.setString(1, database);
+            ps.executeQuery().close();
+        }
+    }
+
+    private static void validate(DatabaseFingerprint expected, DatabaseFingerprint restored) {
+        if (expected == null) {
+            // Backups made before fingerprints: the copy opened and was readable
+            return;
+        }
+        List<String> differences = expected.differences(restored);
+        if (!differences.isEmpty()) {
+            throw new IllegalStateException("Restored copy does not match the backup: "
+                    + String.join("; ", differences.subList(0, Math.min(5, differences.size()))));
+        }
+    }
+
+    /**
+     * Suspends every connection pool (writer and reader pools alike) and waits until all
+     * of their connections have been returned and closed.
+     */
+    private List<HikariPoolMXBean> quiesce() throws Exception {
+        List<HikariPoolMXBean> suspended = new ArrayList<>();
+        for (HikariDataSource hikari : this.pools) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                pool.suspendPool();
+                suspended.add(pool);
+            }
+        }
+        long deadline = System.currentTimeMillis() + quiesceTimeoutSeconds * 1000;
+        for (HikariPoolMXBean pool : suspended) {
+            pool.softEvictConnections();
+            while (pool.getTotalConnections() > 0) {
+                if (System.currentTimeMillis() > deadline) {
+                    resume(suspended);
+                    throw new IllegalStateException("Database is still in use after " + quiesceTimeoutSeconds
+                            + " s; close other screens and try again");
+                }
+                Thread.sleep(100);
+                // Connections in use are closed as soon as they are returned
+                pool.softEvictConnections();
+            }
+        }
+        return suspended;
+    }
+
+    private static void resume(List<HikariPoolMXBean> pools) {
+        for (HikariPoolMXBean pool : pools) {
+            try {
+                pool.resumePool();
+            } catch (Exception e) {
+                System.err.println("[OnlineRestore] Could not resume connection pool: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens a fresh connection to the restored database and reloads cached settings.
+     */
+    private void rewarm() throws Exception {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!conn.isValid(5)) {
+                throw new IllegalStateException("Restored database is not reachable");
+            }
+        }
+        configService.refreshCache();
+    }
+
+    private Properties credentials() {
+        Properties credentials = new Properties();
+        if (jdbcUsername != null && !jdbcUsername.isBlank()) {
+            credentials.setProperty("user", jdbcUsername);
+        }
+        if (jdbcPassword != null && !jdbcPassword.isBlank()) {
+            credentials.setProperty("password", jdbcPassword);
+        }
+        return credentials;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,80 @@
+package com.qdc.lims.ui.backup;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Counts the bytes read from a backup image, reports them at most every
+ * {@link #REPORT_INTERVAL_MILLIS}, and optionally caps the read rate so a scheduled
+ * backup leaves disk bandwidth for the people using the app.
+ */
+final class ProgressInputStream extends FilterInputStream {
+
+    static final long REPORT_INTERVAL_MILLIS = 500;
+
+    private final long maxBytesPerSecond;
+    private final LongConsumer progress;
+    private final long startNanos = System.nanoTime();
+
+    private long bytesRead;
+    private long lastReportMillis;
+
+    /**
+     * @param in                stream to wrap
+     * @param maxBytesPerSecond read limit, or 0 for none
+     * @param progress          receives the running byte count
+     */
+    ProgressInputStream(InputStream in, long maxBytesPerSecond, LongConsumer progress) {
+        super(in);
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    private void advance(int n) throws IOException {
+        bytesRead += n;
+
+        long now = System.currentTimeMillis();
+        if (now - lastReportMillis >= REPORT_INTERVAL_MILLIS) {
+            lastReportMillis = now;
+            progress.accept(bytesRead);
+        }
+
+        if (maxBytesPerSecond > 0) {
+            // Sleep until the average rate since the start is back under the limit
+            long expectedNanos = (long) (bytesRead * 1e9 / maxBytesPerSecond);
+            long aheadMillis = (expectedNanos - (System.nanoTime() - startNanos)) / 1_000_000L;
+            if (aheadMillis > 0) {
+                try {
+                    Thread.sleep(aheadMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Backup interrupted", e);
+                }
+            }
+        }
+    }
+}
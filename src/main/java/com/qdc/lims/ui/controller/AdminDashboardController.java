@@ -2,8 +2,11 @@ package com.qdc.lims.ui.controller;
 
 import com.qdc.lims.ui.DashboardNavigator;
 import com.qdc.lims.ui.SessionManager;
+import com.qdc.lims.ui.backup.BackupSettingsService;
+import com.qdc.lims.ui.diagnostics.FxThreadWatchdog;
 import com.qdc.lims.ui.navigation.DashboardSwitchService;
 import com.qdc.lims.ui.navigation.DashboardType;
+import com.qdc.lims.ui.navigation.ReusableView;
 import com.qdc.lims.ui.util.LogoutUtil;
 import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.service.AdminDashboardStatsService;
@@ -35,7 +38,7 @@ import java.time.LocalDateTime;
  * switch to Lab or Reception dashboards using the dashboard switcher.
  */
 @Controller
-public class AdminDashboardController {
+public class AdminDashboardController implements ReusableView {
 
     private final ApplicationContext applicationContext;
     private final LabOrderRepository labOrderRepository;
@@ -44,6 +47,8 @@ public class AdminDashboardController {
     private final AdminDashboardStatsService statsService;
     private final BrandingService brandingService;
     private final LocaleFormatService localeFormatService;
+    private final FxThreadWatchdog fxThreadWatchdog;
+    private final BackupSettingsService backupSettingsService;
 
     @FXML
     private Label welcomeLabel;
@@ -70,6 +75,10 @@ public class AdminDashboardController {
     private Label activeDoctorsLabel;
     @FXML
     private Label totalTestsLabel;
+    @FXML
+    private Label uiStallsLabel;
+    @FXML
+    private Label backupCheckLabel;
 
     public AdminDashboardController(ApplicationContext applicationContext,
             LabOrderRepository labOrderRepository,
@@ -77,7 +86,9 @@ public class AdminDashboardController {
             DashboardSwitchService dashboardSwitchService,
             AdminDashboardStatsService statsService,
             BrandingService brandingService,
-            LocaleFormatService localeFormatService) {
+            LocaleFormatService localeFormatService,
+            FxThreadWatchdog fxThreadWatchdog,
+            BackupSettingsService backupSettingsService) {
         this.applicationContext = applicationContext;
         this.labOrderRepository = labOrderRepository;
         this.navigator = navigator;
@@ -85,6 +96,8 @@ public class AdminDashboardController {
         this.statsService = statsService;
         this.brandingService = brandingService;
         this.localeFormatService = localeFormatService;
+        this.fxThreadWatchdog = fxThreadWatchdog;
+        this.backupSettingsService = backupSettingsService;
     }
 
     @FXML
@@ -117,6 +130,27 @@ public class AdminDashboardController {
         // but for text labels in initialize, it's usually acceptable.
         // ideally, you would update these labels inside the listener above using
         // SessionManager.getUser(stage)
+        updateUserLabels();
+
+        if (statusLabel != null) {
+            statusLabel.setText("System Ready");
+        }
+
+        loadDashboardStats();
+        applyBranding();
+    }
+
+    /**
+     * Cached view shown again (dashboard switch or another admin's tab).
+     */
+    @Override
+    public void onReattach() {
+        updateUserLabels();
+        loadDashboardStats();
+        applyBranding();
+    }
+
+    private void updateUserLabels() {
         if (SessionManager.getCurrentUser() != null) {
             String fullName = SessionManager.getCurrentUser().getFullName();
             welcomeLabel.setText("Welcome: " + fullName);
@@ -131,13 +165,6 @@ public class AdminDashboardController {
         } else {
             welcomeLabel.setText("Welcome: Admin");
         }
-
-        if (statusLabel != null) {
-            statusLabel.setText("System Ready");
-        }
-
-        loadDashboardStats();
-        applyBranding();
     }
 
     private void loadDashboardStats() {
@@ -158,6 +185,21 @@ public class AdminDashboardController {
                 todayRevenueLabel.setText(statsService.getTodayRevenueLabel());
             }
 
+            if (uiStallsLabel != null) {
+                uiStallsLabel.setText(String.valueOf(fxThreadWatchdog.getStallCount()));
+            }
+
+            if (backupCheckLabel != null) {
+                backupSettingsService.getLastVerification().ifPresent(result -> {
+                    backupCheckLabel.setText("Backup check: " + (result.passed() ? "OK" : "FAILED") + " - "
+                            + result.backupName() + " at "
+                            + localeFormatService.formatDateTime(result.verifiedAt()));
+                    backupCheckLabel.setStyle(result.passed()
+                            ? "-fx-text-fill: #27ae60; -fx-font-size: 11;"
+                            : "-fx-text-fill: #e74c3c; -fx-font-size: 11; -fx-font-weight: bold;");
+                });
+            }
+
         } catch (Exception e) {
             System.err.println("Error loading stats: " + e.getMessage());
         }
@@ -1,7 +1,12 @@
 package com.qdc.lims.ui.controller;
 
+import com.qdc.lims.ui.AppPaths;
+import com.qdc.lims.ui.backup.BackupProgress;
 import com.qdc.lims.ui.backup.BackupService;
+import com.qdc.lims.ui.backup.BackupVerificationResult;
+import com.qdc.lims.ui.backup.BackupVerificationService;
 import com.qdc.lims.ui.backup.BackupSettingsService;
+import com.qdc.lims.ui.backup.OnlineRestoreService;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -10,7 +15,9 @@ import javafx.stage.Stage;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 
 /**
@@ -28,12 +35,35 @@ public class BackupSettingsController {
     @FXML
     private Label statusLabel;
 
+    @FXML
+    private Label verificationLabel;
+
+    @FXML
+    private Button backupNowButton;
+
+    @FXML
+    private ProgressBar backupProgressBar;
+
+    @FXML
+    private Label backupProgressLabel;
+
+    @FXML
+    private Button verifyButton;
+
     private final BackupSettingsService settings;
     private final BackupService backupService;
+    private final BackupVerificationService verificationService;
+    private final OnlineRestoreService restoreService;
 
-    public BackupSettingsController(BackupSettingsService settings, BackupService backupService) {
+    public BackupSettingsController(BackupSettingsService settings, BackupService backupService,
+            BackupVerificationService verificationService, OnlineRestoreService restoreService) {
         this.settings = settings;
         this.backupService = backupService;
+        this.verificationService = verificationService;
+        this.restoreService = restoreService;
+        // Singleton controller: one listener for the app's lifetime, rendering into the
+        // window that is open (if any).
+        backupService.addProgressListener(progress -> Platform.runLater(() -> showProgress(progress)));
     }
 
     @FXML
@@ -44,6 +74,11 @@ public class BackupSettingsController {
         if (settings.getBackupPassword().isPresent()) {
             statusLabel.setText("Backup password is configured.");
         }
+
+        settings.getLastVerification().ifPresent(this::showVerification);
+        verifyButton.setDisable(verificationService.isRunning());
+        backupNowButton.setDisable(backupService.isBackupRunning());
+        backupProgressLabel.setText(backupService.isBackupRunning() ? "A backup is running..." : "");
     }
 
     @FXML
@@ -72,19 +107,86 @@ public class BackupSettingsController {
 
     @FXML
     private void handleBackupNow() {
-        try {
-            Path zip = backupService.backupNow();
-            showSuccess("Backup created: " + zip.getFileName());
-        } catch (Exception e) {
-            showError(e.getMessage());
+        backupNowButton.setDisable(true);
+        Thread thread = new Thread(() -> {
+            try {
+                Path zip = backupService.backupNow();
+                Platform.runLater(() -> showSuccess("Backup created: " + zip.getFileName()));
+            } catch (Exception e) {
+                Platform.runLater(() -> showError(e.getMessage()));
+            } finally {
+                Platform.runLater(() -> backupNowButton.setDisable(false));
+            }
+        }, "manual-backup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void showProgress(BackupProgress progress) {
+        if (backupProgressBar == null || backupProgressLabel == null) {
+            return;
+        }
+        boolean active = progress.phase() == BackupProgress.Phase.SNAPSHOT
+                || progress.phase() == BackupProgress.Phase.WRITING
+                || progress.phase() == BackupProgress.Phase.CLEANUP
+                || progress.phase() == BackupProgress.Phase.VERIFYING;
+        backupProgressBar.setVisible(active);
+        backupProgressBar.setManaged(active);
+        double fraction = progress.fraction();
+        backupProgressBar.setProgress(fraction >= 0 ? fraction : ProgressBar.INDETERMINATE_PROGRESS);
+        backupNowButton.setDisable(active);
+
+        String text = progress.message();
+        if (progress.etaSeconds() >= 0) {
+            text += String.format(" - about %d:%02d left", progress.etaSeconds() / 60, progress.etaSeconds() % 60);
         }
+        backupProgressLabel.setText(text);
+    }
+
+    @FXML
+    private void handleVerifyLatest() {
+        verifyButton.setDisable(true);
+        verificationLabel.setStyle("-fx-text-fill: #7f8c8d;");
+        verificationLabel.setText("Restoring latest backup into a scratch copy...");
+
+        Thread thread = new Thread(() -> {
+            try {
+                BackupVerificationResult result = verificationService.verifyLatestBackup();
+                Platform.runLater(() -> showVerification(result));
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    verificationLabel.setStyle("-fx-text-fill: #e74c3c;");
+                    verificationLabel.setText(e.getMessage());
+                });
+            } finally {
+                Platform.runLater(() -> verifyButton.setDisable(false));
+            }
+        }, "backup-verify");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void showVerification(BackupVerificationResult result) {
+        String when = result.verifiedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+        verificationLabel.setStyle(result.passed()
+                ? "-fx-text-fill: #27ae60; -fx-font-weight: bold;"
+                : "-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
+        verificationLabel.setText((result.passed() ? "Verified: " : "FAILED: ") + result.backupName()
+                + " (" + when + ", " + (result.durationMillis() / 1000) + " s) - " + result.message());
     }
 
     @FXML
     private void handleRestore() {
         FileChooser chooser = new FileChooser();
         chooser.setTitle("Select Backup File");
-        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Backup ZIP", "*.zip"));
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("All Backups", "*.zip", "*.manifest"),
+                new FileChooser.ExtensionFilter("Full Backup ZIP", "*.zip"),
+                new FileChooser.ExtensionFilter("Incremental Backup", "*.manifest"));
+        if (Files.isDirectory(AppPaths.backupsDir())) {
+            chooser.setInitialDirectory(AppPaths.backupsDir().toFile());
+        }
 
         File file = chooser.showOpenDialog(statusLabel.getScene().getWindow());
         if (file == null) {
@@ -94,7 +196,7 @@ public class BackupSettingsController {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
         confirm.setTitle("Confirm Restore");
         confirm.setHeaderText("Restore will replace current database data.");
-        confirm.setContentText("This action cannot be undone. Continue?");
+        confirm.setContentText("The current database is kept as a pre-restore copy. Continue?");
         Optional<ButtonType> proceed = confirm.showAndWait();
         if (proceed.isEmpty() || proceed.get() != ButtonType.OK) {
             showError("Restore cancelled.");
@@ -112,19 +214,34 @@ public class BackupSettingsController {
             return;
         }
 
-        try {
-            backupService.restoreBackup(file.toPath(), opt.get().toCharArray());
-
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Restore Complete");
-            alert.setHeaderText(null);
-            alert.setContentText("Restore completed. The application will now close. Please reopen the app.");
-            alert.showAndWait();
+        char[] password = opt.get().toCharArray();
+        backupNowButton.setDisable(true);
+        showSuccess("Restoring " + file.getName() + "...");
+        Thread thread = new Thread(() -> {
+            try {
+                OnlineRestoreService.RestoreResult result = restoreService.restore(file.toPath(), password);
+                Platform.runLater(() -> {
+                    backupNowButton.setDisable(false);
+                    showSuccess("Restore completed in " + (result.totalMillis() / 1000) + " s.");
 
-            Platform.exit();
-        } catch (Exception e) {
-            showError(e.getMessage() != null ? e.getMessage() : "Restore failed.");
-        }
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.setTitle("Restore Complete");
+                    alert.setHeaderText(null);
+                    alert.setContentText("The backup was restored without restarting (database paused for "
+                            + Math.max(1, result.offlineMillis() / 1000) + " s). Reopen any screens that were "
+                            + "open to see the restored data. The previous database was kept as "
+                            + result.previousCopy() + ".");
+                    alert.showAndWait();
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    backupNowButton.setDisable(false);
+                    showError(e.getMessage() != null ? e.getMessage() : "Restore failed.");
+                });
+            }
+        }, "online-restore");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     @FXML
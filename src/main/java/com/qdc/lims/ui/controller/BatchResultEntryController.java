@@ -0,0 +1,798 @@
+package com.qdc.lims.ui.controller;
+
+import com.qdc.lims.entity.Department;
+import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.Panel;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.entity.User;
+import com.qdc.lims.repository.DepartmentRepository;
+import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.repository.PanelRepository;
+import com.qdc.lims.repository.TestDefinitionRepository;
+import com.qdc.lims.service.ResultService;
+import com.qdc.lims.ui.SessionManager;
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Batch result entry: one row per open order and one column per test of a department
+ * or panel, so a run of samples on one analyzer is typed in without opening an order
+ * at a time.
+ * <p>
+ * Enter moves down the column and Tab along the row (Shift goes back); typing on a
+ * cell starts editing it. Each value is checked in the background (range, delta and
+ * critical flags) while the next one is typed. Save writes all orders in transactions
+ * of {@link #SAVE_BATCH_ORDERS} orders off the UI thread; only empty results are
+ * filled in, and values that could not be saved stay in the grid with the reason.
+ */
+@Component
+public class BatchResultEntryController {
+
+    /** Orders written per transaction. */
+    static final int SAVE_BATCH_ORDERS = 20;
+
+    private static final int FIXED_COLUMNS = 3;
+
+    @FXML
+    private ComboBox<TestSet> testSetCombo;
+    @FXML
+    private TableView<Row> gridTable;
+    @FXML
+    private Label pendingLabel;
+    @FXML
+    private Label statusLabel;
+    @FXML
+    private Button saveButton;
+
+    private final LabOrderRepository orderRepository;
+    private final TestDefinitionRepository testRepository;
+    private final DepartmentRepository departmentRepository;
+    private final PanelRepository panelRepository;
+    private final ResultService resultService;
+
+    private final ExecutorService checker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "batch-entry-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ObservableList<Row> rows = FXCollections.observableArrayList();
+    private List<TestDefinition> tests = List.of();
+    private String typedStart;
+    private boolean saving;
+
+    public BatchResultEntryController(LabOrderRepository orderRepository, TestDefinitionRepository testRepository,
+            DepartmentRepository departmentRepository, PanelRepository panelRepository,
+            ResultService resultService) {
+        this.orderRepository = orderRepository;
+        this.testRepository = testRepository;
+        this.departmentRepository = departmentRepository;
+        this.panelRepository = panelRepository;
+        this.resultService = resultService;
+    }
+
+    /**
+     * A department or panel and its tests that take typed values.
+     */
+    record TestSet(String label, List<TestDefinition> tests) {
+    }
+
+    /**
+     * What a grid cell shows.
+     */
+    enum State {
+        /** The order does not have this test. */
+        NONE,
+        /** Saved before the grid was loaded; corrections go through the order. */
+        SAVED,
+        EMPTY,
+        /** Typed, check still running. */
+        ENTERED,
+        OK,
+        FLAGGED,
+        CRITICAL,
+        /** Could not be saved. */
+        FAILED
+    }
+
+    record Cell(String value, State state, String note) {
+    }
+
+    /**
+     * One order in the grid with its slots for the shown tests.
+     */
+    static final class Row {
+        final LabOrder order;
+        final Map<Long, LabResult> results = new HashMap<>();
+        final Map<Long, String> entered = new HashMap<>();
+        final Map<Long, ResultService.ValueCheck> checks = new ConcurrentHashMap<>();
+        final Map<Long, String> failures = new HashMap<>();
+        final SimpleIntegerProperty revision = new SimpleIntegerProperty();
+
+        Row(LabOrder order) {
+            this.order = order;
+        }
+
+        Cell cell(Long testId) {
+            LabResult result = results.get(testId);
+            if (result == null) {
+                return new Cell("", State.NONE, null);
+            }
+            if (!isBlank(result.getResultValue())) {
+                return new Cell(result.getResultValue(), State.SAVED, "Saved by " + result.getPerformedBy());
+            }
+            String value = entered.get(testId);
+            if (value == null) {
+                return new Cell("", State.EMPTY, null);
+            }
+            if (failures.containsKey(testId)) {
+                return new Cell(value, State.FAILED, failures.get(testId));
+            }
+            ResultService.ValueCheck check = checks.get(testId);
+            if (check == null) {
+                return new Cell(value, State.ENTERED, null);
+            }
+            if (check.critical() != null) {
+                return new Cell(value, State.CRITICAL, "CRITICAL " + check.critical()
+                        + (check.delta() != null ? "\n" + check.delta() : ""));
+            }
+            if (!check.flag().isEmpty() || check.delta() != null) {
+                String note = String.join("\n", check.flag(), Objects.toString(check.delta(), "")).strip();
+                return new Cell(value, State.FLAGGED, note);
+            }
+            return new Cell(value, State.OK, null);
+        }
+
+        boolean editable(Long testId) {
+            LabResult result = results.get(testId);
+            return result != null && isBlank(result.getResultValue());
+        }
+
+        void changed() {
+            revision.set(revision.get() + 1);
+        }
+    }
+
+    @FXML
+    private void initialize() {
+        rows.clear();
+        tests = List.of();
+        saving = false;
+        gridTable.setItems(rows);
+        gridTable.setEditable(true);
+        gridTable.getSelectionModel().setCellSelectionEnabled(true);
+        gridTable.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+        gridTable.setPlaceholder(new Label("Choose a department or panel to list its open orders."));
+        gridTable.addEventFilter(KeyEvent.KEY_TYPED, this::startEditOnTyping);
+        gridTable.addEventFilter(KeyEvent.KEY_PRESSED, this::handleGridKey);
+
+        testSetCombo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(TestSet set) {
+                return set == null ? "" : set.label();
+            }
+
+            @Override
+            public TestSet fromString(String s) {
+                return null;
+            }
+        });
+        testSetCombo.setItems(FXCollections.observableArrayList(testSets()));
+
+        // Unsaved values are not dropped silently when the window is closed
+        gridTable.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((o, oldWindow, window) -> {
+                    if (window != null) {
+                        window.setOnCloseRequest(e -> {
+                            if (!confirmDiscard()) {
+                                e.consume();
+                            }
+                        });
+                    }
+                });
+            }
+        });
+        updatePending();
+        statusLabel.setText("");
+    }
+
+    /**
+     * Active departments and panels with the tests that take typed values (calculated
+     * tests fill themselves in).
+     */
+    private List<TestSet> testSets() {
+        List<TestDefinition> active = testRepository.findByActiveTrue().stream()
+                .filter(t -> isBlank(t.getFormula()))
+                .sorted(Comparator.comparing(TestDefinition::getTestName, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        List<TestSet> sets = new ArrayList<>();
+        List<Department> departments = new ArrayList<>(departmentRepository.findAll());
+        departments.sort(Comparator.comparing(Department::getName, String.CASE_INSENSITIVE_ORDER));
+        for (Department department : departments) {
+            if (Boolean.FALSE.equals(department.getActive())) {
+                continue;
+            }
+            List<TestDefinition> inDepartment = active.stream()
+                    .filter(t -> t.getDepartment() != null && department.getId().equals(t.getDepartment().getId()))
+                    .toList();
+            if (!inDepartment.isEmpty()) {
+                sets.add(new TestSet("Department: " + department.getName(), inDepartment));
+            }
+        }
+        List<Panel> panels = new ArrayList<>(panelRepository.findAllWithTests());
+        panels.sort(Comparator.comparing(Panel::getPanelName, String.CASE_INSENSITIVE_ORDER));
+        for (Panel panel : panels) {
+            List<TestDefinition> inPanel = panel.getTests() == null ? List.of()
+                    : panel.getTests().stream()
+                            .filter(t -> !Boolean.FALSE.equals(t.getActive()) && isBlank(t.getFormula()))
+                            .toList();
+            if (!inPanel.isEmpty()) {
+                sets.add(new TestSet("Panel: " + panel.getPanelName(), inPanel));
+            }
+        }
+        return sets;
+    }
+
+    @FXML
+    private void handleLoad() {
+        TestSet set = testSetCombo.getValue();
+        if (set == null || saving) {
+            return;
+        }
+        if (!confirmDiscard()) {
+            return;
+        }
+        tests = set.tests();
+        buildColumns();
+        loadRows(Map.of(), Map.of());
+        statusLabel.setText("");
+        Platform.runLater(this::focusFirstEmpty);
+    }
+
+    @FXML
+    private void handleReload() {
+        if (tests.isEmpty() || saving || !confirmDiscard()) {
+            return;
+        }
+        loadRows(Map.of(), Map.of());
+    }
+
+    private void buildColumns() {
+        gridTable.getColumns().clear();
+
+        TableColumn<Row, Cell> orderColumn = fixedColumn("Order #", 70,
+                row -> String.valueOf(row.order.getId()));
+        TableColumn<Row, Cell> patientColumn = fixedColumn("Patient", 170,
+                row -> row.order.getPatient() != null ? row.order.getPatient().getFullName() : "");
+        TableColumn<Row, Cell> ageColumn = fixedColumn("Age/Sex", 70,
+                row -> row.order.getPatient() != null
+                        ? row.order.getPatient().getAge() + " / " + row.order.getPatient().getGender()
+                        : "");
+        gridTable.getColumns().add(orderColumn);
+        gridTable.getColumns().add(patientColumn);
+        gridTable.getColumns().add(ageColumn);
+
+        for (TestDefinition test : tests) {
+            TableColumn<Row, Cell> column = new TableColumn<>();
+            Label header = new Label(!isBlank(test.getShortCode()) ? test.getShortCode() : test.getTestName());
+            header.setTooltip(new Tooltip(test.getTestName()
+                    + (test.getUnit() != null ? " (" + test.getUnit() + ")" : "")
+                    + (test.getMinRange() != null && test.getMaxRange() != null
+                            ? "\nRange " + test.getMinRange() + " - " + test.getMaxRange()
+                            : "")));
+            column.setGraphic(header);
+            column.setPrefWidth(90);
+            column.setSortable(false);
+            column.setUserData(test.getId());
+            column.setCellValueFactory(data -> {
+                Row row = data.getValue();
+                return Bindings.createObjectBinding(() -> row.cell(test.getId()), row.revision);
+            });
+            column.setCellFactory(col -> new GridCell(test.getId()));
+            column.setOnEditCommit(event -> valueEntered(event.getRowValue(), test.getId(),
+                    event.getNewValue() != null ? event.getNewValue().value() : ""));
+            gridTable.getColumns().add(column);
+        }
+    }
+
+    private TableColumn<Row, Cell> fixedColumn(String title, double width,
+            java.util.function.Function<Row, String> text) {
+        TableColumn<Row, Cell> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setEditable(false);
+        column.setSortable(false);
+        column.setCellValueFactory(data -> new SimpleObjectProperty<>(
+                new Cell(text.apply(data.getValue()), State.SAVED, null)));
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Cell item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.value());
+            }
+        });
+        return column;
+    }
+
+    /**
+     * Loads the open orders that still have an empty result for one of the shown tests.
+     * Values that could not be saved are put back with their reason.
+     *
+     * @param keepValues   unsaved values by result ID
+     * @param keepFailures reasons by result ID
+     */
+    private void loadRows(Map<Long, String> keepValues, Map<Long, String> keepFailures) {
+        List<Long> testIds = tests.stream().map(TestDefinition::getId).toList();
+        List<Row> loaded = new ArrayList<>();
+        for (LabOrder order : orderRepository.findOpenWithTests(testIds)) {
+            Row row = new Row(order);
+            boolean open = false;
+            for (LabResult result : order.getResults()) {
+                Long testId = result.getTestDefinition() != null ? result.getTestDefinition().getId() : null;
+                if (testId == null || !testIds.contains(testId)) {
+                    continue;
+                }
+                row.results.put(testId, result);
+                if (isBlank(result.getResultValue())) {
+                    open = true;
+                    String kept = keepValues.get(result.getId());
+                    if (kept != null) {
+                        row.entered.put(testId, kept);
+                        row.failures.put(testId, keepFailures.get(result.getId()));
+                    }
+                }
+            }
+            if (open) {
+                loaded.add(row);
+            }
+        }
+        rows.setAll(loaded);
+        updatePending();
+    }
+
+    private void valueEntered(Row row, Long testId, String value) {
+        String trimmed = value == null ? "" : value.trim();
+        if (!row.editable(testId) || trimmed.equals(Objects.toString(row.entered.get(testId), ""))) {
+            row.changed();
+            return;
+        }
+        row.failures.remove(testId);
+        row.checks.remove(testId);
+        if (trimmed.isEmpty()) {
+            row.entered.remove(testId);
+        } else {
+            row.entered.put(testId, trimmed);
+            check(row);
+        }
+        row.changed();
+        updatePending();
+    }
+
+    /**
+     * Checks the row's typed values on the background thread; a check is dropped if the
+     * value was changed again in the meantime.
+     */
+    private void check(Row row) {
+        Map<Long, String> byResultId = new HashMap<>();
+        Map<Long, Long> testByResultId = new HashMap<>();
+        for (Map.Entry<Long, String> entry : row.entered.entrySet()) {
+            LabResult result = row.results.get(entry.getKey());
+            byResultId.put(result.getId(), entry.getValue());
+            testByResultId.put(result.getId(), entry.getKey());
+        }
+        checker.execute(() -> {
+            Map<Long, ResultService.ValueCheck> checks;
+            try {
+                checks = resultService.checkValues(row.order.getId(), byResultId);
+            } catch (Exception e) {
+                System.err.println("[BatchEntry] Check failed for order " + row.order.getId() + ": " + e.getMessage());
+                return;
+            }
+            Platform.runLater(() -> {
+                for (Map.Entry<Long, ResultService.ValueCheck> entry : checks.entrySet()) {
+                    Long testId = testByResultId.get(entry.getKey());
+                    if (Objects.equals(row.entered.get(testId), byResultId.get(entry.getKey()))) {
+                        row.checks.put(testId, entry.getValue());
+                    }
+                }
+                row.changed();
+            });
+        });
+    }
+
+    @FXML
+    private void handleSave() {
+        if (saving) {
+            return;
+        }
+        Map<Long, Map<Long, String>> valuesByOrder = new LinkedHashMap<>();
+        for (Row row : rows) {
+            for (Map.Entry<Long, String> entry : row.entered.entrySet()) {
+                valuesByOrder.computeIfAbsent(row.order.getId(), id -> new LinkedHashMap<>())
+                        .put(row.results.get(entry.getKey()).getId(), entry.getValue());
+            }
+        }
+        if (valuesByOrder.isEmpty()) {
+            showStatus("Nothing to save.", true);
+            return;
+        }
+
+        User user = SessionManager.getCurrentUser();
+        String username = user != null ? user.getUsername() : "UNKNOWN";
+        setSaving(true);
+        Thread thread = new Thread(() -> save(valuesByOrder, username), "batch-entry-save");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Saves chunk by chunk. A chunk that fails is retried one order at a time, so one
+     * bad order does not hold back the others.
+     */
+    private void save(Map<Long, Map<Long, String>> valuesByOrder, String username) {
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<Long> orderIds = new ArrayList<>(valuesByOrder.keySet());
+        int values = valuesByOrder.values().stream().mapToInt(Map::size).sum();
+        for (int from = 0; from < orderIds.size(); from += SAVE_BATCH_ORDERS) {
+            Map<Long, Map<Long, String>> chunk = new LinkedHashMap<>();
+            for (Long orderId : orderIds.subList(from, Math.min(from + SAVE_BATCH_ORDERS, orderIds.size()))) {
+                chunk.put(orderId, valuesByOrder.get(orderId));
+            }
+            try {
+                failures.putAll(resultService.saveBatch(chunk, username));
+            } catch (Exception e) {
+                System.err.println("[BatchEntry] Batch of " + chunk.size() + " orders failed, saving one by one: "
+                        + e.getMessage());
+                for (Map.Entry<Long, Map<Long, String>> order : chunk.entrySet()) {
+                    try {
+                        failures.putAll(resultService.saveBatch(Map.of(order.getKey(), order.getValue()), username));
+                    } catch (Exception single) {
+                        String reason = single instanceof ObjectOptimisticLockingFailureException
+                                ? "Order was updated by another user"
+                                : "Not saved: " + single.getMessage();
+                        order.getValue().keySet().forEach(resultId -> failures.put(resultId, reason));
+                    }
+                }
+            }
+            int done = Math.min(from + SAVE_BATCH_ORDERS, orderIds.size());
+            Platform.runLater(() -> showStatus("Saving... " + done + " of " + orderIds.size() + " orders", false));
+        }
+
+        Map<Long, String> unsaved = new HashMap<>();
+        for (Map<Long, String> orderValues : valuesByOrder.values()) {
+            for (Map.Entry<Long, String> entry : orderValues.entrySet()) {
+                if (failures.containsKey(entry.getKey())) {
+                    unsaved.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        System.out.println("[BatchEntry] Saved " + (values - failures.size()) + " of " + values + " values on "
+                + orderIds.size() + " orders");
+        Platform.runLater(() -> {
+            setSaving(false);
+            loadRows(unsaved, failures);
+            if (failures.isEmpty()) {
+                showStatus("Saved " + values + " result(s) on " + orderIds.size() + " order(s).", false);
+            } else {
+                showStatus("Saved " + (values - failures.size()) + " of " + values + " result(s). "
+                        + failures.size() + " not saved: see the red cells.", true);
+            }
+            focusFirstEmpty();
+        });
+    }
+
+    private void setSaving(boolean saving) {
+        this.saving = saving;
+        saveButton.setDisable(saving);
+        testSetCombo.setDisable(saving);
+        gridTable.setEditable(!saving);
+        if (saving) {
+            showStatus("Saving...", false);
+        }
+    }
+
+    @FXML
+    private void handleClose() {
+        if (!confirmDiscard()) {
+            return;
+        }
+        Stage stage = (Stage) gridTable.getScene().getWindow();
+        stage.close();
+    }
+
+    private boolean confirmDiscard() {
+        int unsaved = unsavedCount();
+        if (saving) {
+            showStatus("Please wait until the results are saved.", true);
+            return false;
+        }
+        if (unsaved == 0) {
+            return true;
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION,
+                unsaved + " value(s) have not been saved. Discard them?");
+        alert.setHeaderText(null);
+        return alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK;
+    }
+
+    private int unsavedCount() {
+        return rows.stream().mapToInt(row -> row.entered.size()).sum();
+    }
+
+    private void updatePending() {
+        int unsaved = unsavedCount();
+        pendingLabel.setText(rows.size() + " order(s)" + (unsaved > 0 ? ", " + unsaved + " value(s) to save" : ""));
+    }
+
+    private void showStatus(String message, boolean error) {
+        statusLabel.setText(message);
+        statusLabel.setStyle(error ? "-fx-text-fill: #e74c3c; -fx-font-weight: bold;"
+                : "-fx-text-fill: #27ae60; -fx-font-weight: bold;");
+    }
+
+    // --- Keyboard navigation ---
+
+    private void startEditOnTyping(KeyEvent event) {
+        String ch = event.getCharacter();
+        if (gridTable.getEditingCell() != null || ch.isEmpty() || Character.isISOControl(ch.charAt(0))
+                || event.isShortcutDown()) {
+            return;
+        }
+        TablePosition<?, ?> focused = gridTable.getFocusModel().getFocusedCell();
+        TableColumn<Row, ?> column = focusedColumn(focused);
+        if (column == null || focused.getRow() < 0 || !isEditable(focused.getRow(), column)) {
+            return;
+        }
+        typedStart = ch;
+        gridTable.edit(focused.getRow(), column);
+        event.consume();
+    }
+
+    /**
+     * Column of the focused cell, taken from the table by index: the focus model hands
+     * out a raw {@link TablePosition}, whose own column is untyped.
+     */
+    private TableColumn<Row, ?> focusedColumn(TablePosition<?, ?> focused) {
+        return focused != null ? gridTable.getVisibleLeafColumn(focused.getColumn()) : null;
+    }
+
+    private void handleGridKey(KeyEvent event) {
+        if (event.isShortcutDown() && event.getCode() == KeyCode.S) {
+            event.consume();
+            // Leaving the text field commits the value being typed
+            saveButton.requestFocus();
+            Platform.runLater(this::handleSave);
+            return;
+        }
+        if (gridTable.getEditingCell() != null) {
+            return;
+        }
+        TablePosition<?, ?> focused = gridTable.getFocusModel().getFocusedCell();
+        TableColumn<Row, ?> column = focusedColumn(focused);
+        if (column == null || focused.getRow() < 0) {
+            return;
+        }
+        switch (event.getCode()) {
+            case ENTER, F2 -> {
+                if (isEditable(focused.getRow(), column)) {
+                    gridTable.edit(focused.getRow(), column);
+                } else {
+                    moveFrom(focused.getRow(), column, event.isShiftDown() ? -1 : 1, 0);
+                }
+                event.consume();
+            }
+            case TAB -> {
+                moveFrom(focused.getRow(), column, 0, event.isShiftDown() ? -1 : 1);
+                event.consume();
+            }
+            case DELETE, BACK_SPACE -> {
+                Object testId = column.getUserData();
+                if (testId instanceof Long id) {
+                    valueEntered(rows.get(focused.getRow()), id, "");
+                }
+                event.consume();
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Moves to the next cell that takes a value, down the column or along the row
+     * (wrapping to the next row), and starts editing it.
+     */
+    private void moveFrom(int rowIndex, TableColumn<Row, ?> column, int rowStep, int columnStep) {
+        int columnIndex = gridTable.getVisibleLeafIndex(column);
+        int columns = gridTable.getVisibleLeafColumns().size();
+        int r = rowIndex;
+        int c = Math.max(columnIndex, FIXED_COLUMNS);
+        for (int guard = rows.size() * columns; guard > 0; guard--) {
+            if (rowStep != 0) {
+                r += rowStep;
+            } else {
+                c += columnStep;
+                if (c >= columns) {
+                    c = FIXED_COLUMNS;
+                    r++;
+                } else if (c < FIXED_COLUMNS) {
+                    c = columns - 1;
+                    r--;
+                }
+            }
+            if (r < 0 || r >= rows.size()) {
+                return;
+            }
+            TableColumn<Row, ?> target = gridTable.getVisibleLeafColumn(c);
+            if (isEditable(r, target)) {
+                select(r, target, true);
+                return;
+            }
+        }
+    }
+
+    private void focusFirstEmpty() {
+        for (int r = 0; r < rows.size(); r++) {
+            for (int c = FIXED_COLUMNS; c < gridTable.getVisibleLeafColumns().size(); c++) {
+                TableColumn<Row, ?> column = gridTable.getVisibleLeafColumn(c);
+                if (isEditable(r, column) && !rows.get(r).entered.containsKey((Long) column.getUserData())) {
+                    select(r, column, false);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void select(int rowIndex, TableColumn<Row, ?> column, boolean edit) {
+        gridTable.requestFocus();
+        gridTable.getSelectionModel().clearAndSelect(rowIndex, column);
+        gridTable.getFocusModel().focus(rowIndex, column);
+        gridTable.scrollTo(rowIndex);
+        gridTable.scrollToColumn(column);
+        if (edit) {
+            Platform.runLater(() -> gridTable.edit(rowIndex, column));
+        }
+    }
+
+    private boolean isEditable(int rowIndex, TableColumn<Row, ?> column) {
+        return !saving && column != null && column.getUserData() instanceof Long testId
+                && rowIndex >= 0 && rowIndex < rows.size() && rows.get(rowIndex).editable(testId);
+    }
+
+    /**
+     * Result cell: shows the value coloured by its check and edits in a text field.
+     */
+    private final class GridCell extends TableCell<Row, Cell> {
+
+        private final Long testId;
+        private TextField textField;
+
+        GridCell(Long testId) {
+            this.testId = testId;
+        }
+
+        @Override
+        public void startEdit() {
+            Row row = getTableRow() != null ? getTableRow().getItem() : null;
+            if (isEmpty() || row == null || !row.editable(testId)) {
+                return;
+            }
+            super.startEdit();
+            if (textField == null) {
+                createTextField();
+            }
+            String start = typedStart;
+            typedStart = null;
+            textField.setText(start != null ? start : getItem() != null ? getItem().value() : "");
+            setText(null);
+            setGraphic(textField);
+            textField.requestFocus();
+            if (start != null) {
+                textField.end();
+            } else {
+                textField.selectAll();
+            }
+        }
+
+        @Override
+        public void cancelEdit() {
+            super.cancelEdit();
+            show(getItem());
+        }
+
+        @Override
+        protected void updateItem(Cell item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setText(null);
+                setGraphic(null);
+                setStyle("");
+                setTooltip(null);
+            } else if (isEditing()) {
+                setText(null);
+                setGraphic(textField);
+            } else {
+                show(item);
+            }
+        }
+
+        private void show(Cell item) {
+            setGraphic(null);
+            if (item == null) {
+                return;
+            }
+            setText(item.value());
+            setTooltip(item.note() != null && !item.note().isBlank() ? new Tooltip(item.note()) : null);
+            setStyle(switch (item.state()) {
+                case NONE -> "-fx-background-color: #ecf0f1;";
+                case SAVED -> "-fx-text-fill: #95a5a6;";
+                case EMPTY -> "";
+                case ENTERED -> "-fx-font-style: italic;";
+                case OK -> "-fx-text-fill: #27ae60; -fx-font-weight: bold;";
+                case FLAGGED -> "-fx-background-color: #f39c12; -fx-text-fill: white; -fx-font-weight: bold;";
+                case CRITICAL -> "-fx-background-color: #c0392b; -fx-text-fill: white; -fx-font-weight: bold;";
+                case FAILED -> "-fx-border-color: #e74c3c; -fx-border-width: 2; -fx-text-fill: #e74c3c;";
+            });
+        }
+
+        private void createTextField() {
+            textField = new TextField();
+            textField.setOnKeyPressed(event -> {
+                if (event.getCode() == KeyCode.ENTER || event.getCode() == KeyCode.TAB) {
+                    int rowIndex = getIndex();
+                    TableColumn<Row, Cell> column = getTableColumn();
+                    commit();
+                    event.consume();
+                    int step = event.isShiftDown() ? -1 : 1;
+                    Platform.runLater(() -> {
+                        if (event.getCode() == KeyCode.ENTER) {
+                            moveFrom(rowIndex, column, step, 0);
+                        } else {
+                            moveFrom(rowIndex, column, 0, step);
+                        }
+                    });
+                } else if (event.getCode() == KeyCode.ESCAPE) {
+                    cancelEdit();
+                    event.consume();
+                }
+            });
+            // Clicking elsewhere keeps what was typed
+            textField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+                if (!focused && isEditing()) {
+                    commit();
+                }
+            });
+        }
+
+        private void commit() {
+            commitEdit(new Cell(textField.getText(), State.ENTERED, null));
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
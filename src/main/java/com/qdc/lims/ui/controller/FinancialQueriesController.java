@@ -1,15 +1,15 @@
 package com.qdc.lims.ui.controller;
 
+import com.qdc.lims.config.ReplicaRouting;
 import com.qdc.lims.dto.FinancialCategorySummary;
 import com.qdc.lims.entity.CommissionLedger;
 import com.qdc.lims.entity.LabOrder;
 import com.qdc.lims.entity.Payment;
 import com.qdc.lims.entity.SupplierLedger;
-import com.qdc.lims.repository.CommissionLedgerRepository;
-import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.repository.PaymentRepository;
 import com.qdc.lims.repository.SupplierLedgerRepository;
 import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.service.OrderHistoryService;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -35,12 +35,10 @@ import java.util.Map;
 public class FinancialQueriesController {
 
     @Autowired
-    private LabOrderRepository orderRepository;
+    private OrderHistoryService orderHistory;
     @Autowired
     private PaymentRepository paymentRepository;
     @Autowired
-    private CommissionLedgerRepository commissionRepository;
-    @Autowired
     private SupplierLedgerRepository supplierRepository;
     @Autowired
     private LocaleFormatService localeFormatService;
@@ -136,7 +134,8 @@ public class FinancialQueriesController {
         Map<String, FinancialCategorySummary> summaryMap = new HashMap<>();
 
         // 1. Patient Income (Lab Orders)
-        List<LabOrder> orders = orderRepository.findByOrderDateBetween(start.atStartOfDay(), end.atTime(23, 59, 59));
+        List<LabOrder> orders = ReplicaRouting.call(
+                () -> orderHistory.findByOrderDateBetween(start.atStartOfDay(), end.atTime(23, 59, 59)));
         double patientIncome = 0;
         int patientCount = 0;
         for (LabOrder o : orders) {
@@ -151,8 +150,9 @@ public class FinancialQueriesController {
         }
 
         // 2. Misc Payments
-        List<Payment> payments = paymentRepository.findByTransactionDateBetween(start.atStartOfDay(),
-                end.atTime(23, 59, 59));
+        List<Payment> payments = ReplicaRouting.call(
+                () -> paymentRepository.findByTransactionDateBetween(start.atStartOfDay(),
+                        end.atTime(23, 59, 59)));
         for (Payment p : payments) {
             String cat = p.getCategory() != null ? p.getCategory() : "Misc";
             summaryMap.putIfAbsent(cat, new FinancialCategorySummary(cat, p.getType(), 0, 0.0));
@@ -162,7 +162,8 @@ public class FinancialQueriesController {
         }
 
         // 3. Doctor Commissions (Paid)
-        List<CommissionLedger> commissions = commissionRepository.findByTransactionDateBetween(start, end);
+        List<CommissionLedger> commissions = ReplicaRouting.call(
+                () -> orderHistory.findCommissionsBetween(start, end));
         double commTotal = 0;
         int commCount = 0;
         for (CommissionLedger c : commissions) {
@@ -177,7 +178,8 @@ public class FinancialQueriesController {
         }
 
         // 4. Supplier Payments
-        List<SupplierLedger> supplierTxs = supplierRepository.findByTransactionDateBetween(start, end);
+        List<SupplierLedger> supplierTxs = ReplicaRouting.call(
+                () -> supplierRepository.findByTransactionDateBetween(start, end));
         double supTotal = 0;
         int supCount = 0;
         for (SupplierLedger s : supplierTxs) {
@@ -1,10 +1,14 @@
 package com.qdc.lims.ui.controller;
 
 import com.qdc.lims.service.BrandingService;
+import com.qdc.lims.service.CriticalAlertService;
+import com.qdc.lims.service.LocaleFormatService;
 import com.qdc.lims.ui.DashboardNavigator;
 import com.qdc.lims.ui.SessionManager;
 import com.qdc.lims.ui.navigation.DashboardSwitchService;
 import com.qdc.lims.ui.navigation.DashboardType;
+import com.qdc.lims.ui.navigation.ReusableView;
+import com.qdc.lims.ui.util.CriticalAlertPanel;
 import com.qdc.lims.ui.util.LogoutUtil;
 import com.qdc.lims.repository.LabOrderRepository;
 import javafx.animation.Animation;
@@ -16,6 +20,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import org.springframework.context.ApplicationContext;
@@ -25,7 +30,7 @@ import org.springframework.stereotype.Component;
  * JavaFX controller for the lab technician dashboard window.
  */
 @Component("labDashboardController")
-public class LabDashboardController {
+public class LabDashboardController implements ReusableView {
 
     @FXML
     private Label userLabel;
@@ -50,6 +55,9 @@ public class LabDashboardController {
     @FXML
     private Button switchRoleButton;
 
+    @FXML
+    private VBox criticalAlertBox;
+
     // Auto-refresh timer for real-time count updates (every 10 seconds)
     private Timeline autoRefreshTimeline;
 
@@ -58,17 +66,23 @@ public class LabDashboardController {
     private final LabOrderRepository labOrderRepository;
     private final DashboardSwitchService dashboardSwitchService;
     private final BrandingService brandingService;
+    private final CriticalAlertService criticalAlertService;
+    private final LocaleFormatService localeFormatService;
 
     public LabDashboardController(ApplicationContext springContext,
             DashboardNavigator navigator,
             LabOrderRepository labOrderRepository,
             DashboardSwitchService dashboardSwitchService,
-            BrandingService brandingService) {
+            BrandingService brandingService,
+            CriticalAlertService criticalAlertService,
+            LocaleFormatService localeFormatService) {
         this.springContext = springContext;
         this.navigator = navigator;
         this.labOrderRepository = labOrderRepository;
         this.dashboardSwitchService = dashboardSwitchService;
         this.brandingService = brandingService;
+        this.criticalAlertService = criticalAlertService;
+        this.localeFormatService = localeFormatService;
     }
 
     @FXML
@@ -83,6 +97,10 @@ public class LabDashboardController {
         // Load stats even if user isn't available yet
         loadDashboardStats();
 
+        if (criticalAlertBox != null) {
+            criticalAlertBox.getChildren().add(new CriticalAlertPanel(criticalAlertService, localeFormatService));
+        }
+
         // Start auto-refresh for real-time count updates
         startAutoRefresh();
 
@@ -120,6 +138,17 @@ public class LabDashboardController {
         applyBranding();
     }
 
+    /**
+     * Cached view shown again; refresh the user labels and counts.
+     */
+    @Override
+    public void onReattach() {
+        updateUserLabels();
+        loadDashboardStats();
+        startAutoRefresh();
+        applyBranding();
+    }
+
     /**
      * Starts automatic refresh of order counts every 10 seconds.
      * This ensures the "Pending" and "Completed" counts update in real-time
@@ -327,6 +356,38 @@ public class LabDashboardController {
         }
     }
 
+    @FXML
+    private void handleBatchEntry() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/batch_result_entry.fxml"));
+            loader.setControllerFactory(springContext::getBean);
+            Parent root = loader.load();
+
+            Stage stage = createBrandedStage("Batch Result Entry");
+            stage.setScene(new Scene(root));
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showAlert("Error", "Failed to open batch result entry: " + e.getMessage());
+        }
+    }
+
+    @FXML
+    private void handleQualityControl() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/quality_control.fxml"));
+            loader.setControllerFactory(springContext::getBean);
+            Parent root = loader.load();
+
+            Stage stage = createBrandedStage("Quality Control");
+            stage.setScene(new Scene(root));
+            stage.show();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showAlert("Error", "Failed to open quality control: " + e.getMessage());
+        }
+    }
+
     @FXML
     private void handleViewStock() {
         try {
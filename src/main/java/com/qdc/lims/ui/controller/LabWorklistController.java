@@ -1,8 +1,13 @@
 package com.qdc.lims.ui.controller;
 
+import com.qdc.lims.entity.AutoVerifyRule;
 import com.qdc.lims.entity.LabOrder;
+import com.qdc.lims.entity.User;
 import com.qdc.lims.repository.LabOrderRepository;
+import com.qdc.lims.service.AutoVerificationService;
 import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.service.OrderHistoryService;
+import com.qdc.lims.ui.SessionManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -11,6 +16,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -31,6 +37,9 @@ public class LabWorklistController {
     @FXML
     private RadioButton completedRadio;
 
+    @FXML
+    private RadioButton reviewRadio;
+
     @FXML
     private RadioButton allRadio;
 
@@ -46,6 +55,9 @@ public class LabWorklistController {
     @FXML
     private Label completedTodayLabel;
 
+    @FXML
+    private Label reviewCountLabel;
+
     @FXML
     private Label totalOrdersLabel;
 
@@ -77,19 +89,25 @@ public class LabWorklistController {
     private TableColumn<LabOrder, Void> actionColumn;
 
     private final LabOrderRepository orderRepository;
+    private final OrderHistoryService orderHistory;
     private final ApplicationContext springContext;
     private final LocaleFormatService localeFormatService;
+    private final AutoVerificationService autoVerificationService;
     private List<LabOrder> allOrders;
 
     // Flag to show completed tests on initialization
     private boolean showCompletedOnInit = false;
 
     public LabWorklistController(LabOrderRepository orderRepository,
+            OrderHistoryService orderHistory,
             ApplicationContext springContext,
-            LocaleFormatService localeFormatService) {
+            LocaleFormatService localeFormatService,
+            AutoVerificationService autoVerificationService) {
         this.orderRepository = orderRepository;
+        this.orderHistory = orderHistory;
         this.springContext = springContext;
         this.localeFormatService = localeFormatService;
+        this.autoVerificationService = autoVerificationService;
     }
 
     /**
@@ -107,6 +125,7 @@ public class LabWorklistController {
         }
         pendingRadio.setToggleGroup(filterGroup);
         completedRadio.setToggleGroup(filterGroup);
+        reviewRadio.setToggleGroup(filterGroup);
         allRadio.setToggleGroup(filterGroup);
 
         setupTableColumns();
@@ -155,13 +174,16 @@ public class LabWorklistController {
                     localeFormatService.formatDateTime(cellData.getValue().getOrderDate()));
         });
 
-        statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
+        // Completed orders show their verification state
+        statusColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
+                displayStatus(cellData.getValue())));
 
         // Color-code status
         statusColumn.setCellFactory(column -> new TableCell<LabOrder, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
+                setTooltip(null);
                 if (empty || item == null) {
                     setText(null);
                     setStyle("");
@@ -169,8 +191,16 @@ public class LabWorklistController {
                     setText(item);
                     if (item.equals("PENDING")) {
                         setStyle("-fx-background-color: #e67e22; -fx-text-fill: white; -fx-font-weight: bold;");
-                    } else if (item.equals("COMPLETED")) {
+                    } else if (item.equals("REVIEW")) {
+                        setStyle("-fx-background-color: #f39c12; -fx-text-fill: white; -fx-font-weight: bold;");
+                        LabOrder order = getTableRow() != null ? getTableRow().getItem() : null;
+                        if (order != null && order.getVerificationHold() != null) {
+                            setTooltip(new Tooltip(order.getVerificationHold()));
+                        }
+                    } else if (item.equals("COMPLETED") || item.endsWith("VERIFIED")) {
                         setStyle("-fx-background-color: #27ae60; -fx-text-fill: white; -fx-font-weight: bold;");
+                    } else {
+                        setStyle("");
                     }
                 }
             }
@@ -180,6 +210,9 @@ public class LabWorklistController {
         actionColumn.setCellFactory(param -> new TableCell<>() {
             private final Button enterResultsBtn = new Button("Enter Results");
             private final Button editResultsBtn = new Button("Edit Results");
+            private final Button reviewEditBtn = new Button("Edit Results");
+            private final Button verifyBtn = new Button("Verify");
+            private final HBox reviewButtons = new HBox(5, reviewEditBtn, verifyBtn);
 
             {
                 enterResultsBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-padding: 5 10;");
@@ -193,6 +226,14 @@ public class LabWorklistController {
                     LabOrder order = getTableView().getItems().get(getIndex());
                     openResultEntryForm(order);
                 });
+
+                reviewEditBtn.setStyle(editResultsBtn.getStyle());
+                reviewEditBtn.setOnAction(editResultsBtn.getOnAction());
+                verifyBtn.setStyle("-fx-background-color: #27ae60; -fx-text-fill: white; -fx-padding: 5 10;");
+                verifyBtn.setOnAction(event -> {
+                    LabOrder order = getTableView().getItems().get(getIndex());
+                    verifyOrder(order);
+                });
             }
 
             @Override
@@ -204,6 +245,8 @@ public class LabWorklistController {
                     LabOrder order = getTableView().getItems().get(getIndex());
                     if (order.getStatus().equals("PENDING")) {
                         setGraphic(enterResultsBtn);
+                    } else if ("REVIEW".equals(displayStatus(order)) && canVerify()) {
+                        setGraphic(reviewButtons);
                     } else {
                         // Allow editing completed orders to fix mistakes
                         setGraphic(editResultsBtn);
@@ -235,6 +278,10 @@ public class LabWorklistController {
             filteredOrders = filteredOrders.stream()
                     .filter(order -> "COMPLETED".equals(order.getStatus()))
                     .collect(Collectors.toList());
+        } else if (reviewRadio.isSelected()) {
+            filteredOrders = filteredOrders.stream()
+                    .filter(order -> "REVIEW".equals(displayStatus(order)))
+                    .collect(Collectors.toList());
         }
 
         if (!searchTerm.isEmpty()) {
@@ -250,18 +297,17 @@ public class LabWorklistController {
     private void updateStats() {
         long pending = orderRepository.countPendingWithResults();
         LocalDate today = LocalDate.now();
-        long completedToday = orderRepository.findByStatusAndOrderDateBetween(
-                "COMPLETED",
+        long completedToday = orderHistory.findByOrderDateBetween(
                 today.atStartOfDay(),
                 today.atTime(23, 59, 59)).stream()
+                .filter(order -> "COMPLETED".equals(order.getStatus()))
                 .filter(order -> order.getResults() != null && !order.getResults().isEmpty())
                 .count();
-        long total = orderRepository.findAll().stream()
-                .filter(order -> order.getResults() != null && !order.getResults().isEmpty())
-                .count();
+        long total = orderHistory.countOrdersWithResults();
 
         pendingCountLabel.setText(String.valueOf(pending));
         completedTodayLabel.setText(String.valueOf(completedToday));
+        reviewCountLabel.setText(String.valueOf(orderRepository.countAwaitingVerification()));
         totalOrdersLabel.setText(String.valueOf(total));
     }
 
@@ -297,6 +343,76 @@ public class LabWorklistController {
         applyFilter();
     }
 
+    public void showReviewQueue() {
+        if (reviewRadio != null) {
+            reviewRadio.setSelected(true);
+        }
+        applyFilter();
+    }
+
+    /**
+     * Order status, with completed orders split into REVIEW, VERIFIED and AUTO-VERIFIED.
+     */
+    private static String displayStatus(LabOrder order) {
+        if (!"COMPLETED".equals(order.getStatus())) {
+            return order.getStatus();
+        }
+        if (order.getVerifiedAt() == null) {
+            return "REVIEW";
+        }
+        return order.isAutoVerified() ? "AUTO-VERIFIED" : "VERIFIED";
+    }
+
+    private static boolean canVerify() {
+        User user = SessionManager.getCurrentUser();
+        return user != null && (user.hasRole("ROLE_PATHOLOGIST") || user.hasRole("ROLE_ADMIN"));
+    }
+
+    private void verifyOrder(LabOrder order) {
+        User user = SessionManager.getCurrentUser();
+        if (user == null || !canVerify()) {
+            showAlert("Only a pathologist can verify results.");
+            return;
+        }
+        try {
+            autoVerificationService.verify(order.getId(), user.getUsername());
+            loadOrders();
+            updateStats();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showAlert("Failed to verify order: " + e.getMessage());
+        }
+    }
+
+    @FXML
+    private void handleAutoVerificationStats() {
+        StringBuilder text = new StringBuilder();
+        for (AutoVerifyRule rule : autoVerificationService.getRules()) {
+            long evaluated = rule.getEvaluatedCount();
+            text.append(rule.isEnabled() ? "" : "(off) ")
+                    .append(rule.getCheck())
+                    .append(rule.getTest() != null ? " [" + rule.getTest().getTestName() + "]" : "")
+                    .append(": held ").append(rule.getHeldCount()).append(" of ").append(evaluated)
+                    .append(evaluated > 0 ? String.format(" (%.1f%%)", 100.0 * rule.getHeldCount() / evaluated) : "")
+                    .append('\n');
+        }
+        text.append("\nOrders waiting for review: ").append(orderRepository.countAwaitingVerification());
+
+        ButtonType runButton = new ButtonType("Run on Review Queue", ButtonBar.ButtonData.OTHER);
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, text.toString(), ButtonType.CLOSE);
+        alert.setTitle("Auto-Verification");
+        alert.setHeaderText("Rule hit rates (results held / results checked)");
+        if (canVerify()) {
+            alert.getButtonTypes().add(0, runButton);
+        }
+        if (alert.showAndWait().orElse(ButtonType.CLOSE) == runButton) {
+            int verified = autoVerificationService.autoVerifyPending();
+            loadOrders();
+            updateStats();
+            showAlert(verified + " order(s) auto-verified.");
+        }
+    }
+
     private boolean matchesSearch(LabOrder order, String searchTerm) {
         if (order.getPatient() != null) {
             if (order.getPatient().getMrn() != null
@@ -1,7 +1,9 @@
 package com.qdc.lims.ui.controller;
 
 import com.qdc.lims.ui.SessionManager;
+import com.qdc.lims.ui.navigation.DashboardSwitchService;
 import com.qdc.lims.ui.navigation.DashboardType;
+import com.qdc.lims.ui.navigation.ViewFactory;
 import com.qdc.lims.entity.Role;
 import com.qdc.lims.entity.User;
 import com.qdc.lims.service.AuthService;
@@ -62,6 +64,8 @@ public class MainWindowController {
     private final UserService userService;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ViewFactory viewFactory;
+    private final DashboardSwitchService dashboardSwitchService;
 
     @FXML
     private BorderPane mainContainer;
@@ -131,7 +135,9 @@ public class MainWindowController {
             PasswordPolicyService passwordPolicyService,
             UserService userService,
             UserRepository userRepository,
-            RoleRepository roleRepository) {
+            RoleRepository roleRepository,
+            ViewFactory viewFactory,
+            DashboardSwitchService dashboardSwitchService) {
         this.applicationContext = applicationContext;
         this.authService = authService;
         this.brandingService = brandingService;
@@ -140,6 +146,8 @@ public class MainWindowController {
         this.userService = userService;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.viewFactory = viewFactory;
+        this.dashboardSwitchService = dashboardSwitchService;
     }
 
     @FXML
@@ -482,6 +490,7 @@ public class MainWindowController {
      */
     private void handleTabClosed(Tab tab) {
         SessionInfo session = tabSessions.remove(tab);
+        viewFactory.release(tab);
         if (session != null) {
             setStatus("Logged out: " + session.user.getUsername());
         }
@@ -617,9 +626,7 @@ public class MainWindowController {
             SessionManager.login(stage, user);
             SessionManager.setActiveStage(stage);
 
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(newDashboard.getFxmlPath()));
-            loader.setControllerFactory(applicationContext::getBean);
-            Parent dashboardContent = loader.load();
+            Parent dashboardContent = viewFactory.getView(tab, newDashboard.getFxmlPath()).root();
 
             tab.setContent(dashboardContent);
 
@@ -688,10 +695,8 @@ public class MainWindowController {
             SessionManager.login(stage, adminUser);
             SessionManager.setActiveStage(stage);
 
-            // Load the new dashboard content
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(newDashboard.getFxmlPath()));
-            loader.setControllerFactory(applicationContext::getBean);
-            Parent dashboardContent = loader.load();
+            // Load the new dashboard content (re-used if this tab showed it before)
+            Parent dashboardContent = viewFactory.getView(adminTab, newDashboard.getFxmlPath()).root();
 
             // Update tab content
             adminTab.setContent(dashboardContent);
@@ -939,14 +944,17 @@ public class MainWindowController {
      */
     private void createSessionTab(User user, DashboardType dashboardType) {
         try {
-            // Load the dashboard content
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(dashboardType.getFxmlPath()));
-            loader.setControllerFactory(applicationContext::getBean);
-            Parent dashboardContent = loader.load();
-
-            // Create the tab
+            // Create the tab; it owns the cached dashboard views for this session
             Tab tab = new Tab();
 
+            // Update SessionManager first so the dashboard controller sees this user
+            Stage stage = (Stage) mainContainer.getScene().getWindow();
+            SessionManager.login(stage, user);
+            SessionManager.setActiveStage(stage);
+
+            // Load the dashboard content
+            Parent dashboardContent = viewFactory.getView(tab, dashboardType.getFxmlPath()).root();
+
             // Create custom tab header with user info
             String roleIcon = switch (dashboardType) {
                 case ADMIN -> "⚙️";
@@ -995,10 +1003,12 @@ public class MainWindowController {
             sessionTabs.getSelectionModel().select(tab);
 
             // Update SessionManager for backward compatibility with dashboard controllers
-            Stage stage = (Stage) mainContainer.getScene().getWindow();
             SessionManager.login(stage, user);
             SessionManager.setActiveStage(stage);
 
+            // Build the other dashboards this user may switch to in the background
+            dashboardSwitchService.prewarmDashboards(user, dashboardType);
+
             setStatus("Logged in: " + user.getUsername() + " ("
                     + dashboardType.getDisplayName().replace(" Dashboard", "") + ")");
             updateUI();
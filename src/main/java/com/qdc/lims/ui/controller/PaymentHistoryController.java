@@ -1,15 +1,15 @@
 package com.qdc.lims.ui.controller;
 
+import com.qdc.lims.config.ReplicaRouting;
 import com.qdc.lims.dto.FinanceTransaction;
 import com.qdc.lims.entity.CommissionLedger;
 import com.qdc.lims.entity.LabOrder;
 import com.qdc.lims.entity.Payment;
 import com.qdc.lims.entity.SupplierLedger;
-import com.qdc.lims.repository.CommissionLedgerRepository;
-import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.repository.PaymentRepository;
 import com.qdc.lims.repository.SupplierLedgerRepository;
 import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.service.OrderHistoryService;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -38,12 +38,10 @@ import java.util.stream.Collectors;
 public class PaymentHistoryController {
 
     @Autowired
-    private LabOrderRepository orderRepository;
+    private OrderHistoryService orderHistory;
     @Autowired
     private PaymentRepository paymentRepository;
     @Autowired
-    private CommissionLedgerRepository commissionRepository;
-    @Autowired
     private SupplierLedgerRepository supplierRepository;
     @Autowired
     private LocaleFormatService localeFormatService;
@@ -160,7 +158,8 @@ public class PaymentHistoryController {
         // Currently LabOrder only has orderDate. We will use orderDate as proxy for
         // transaction date for now.
         // Ideally we would have a separate PaymentReceipt entity linked to order.
-        List<LabOrder> orders = orderRepository.findByOrderDateBetween(start.atStartOfDay(), end.atTime(23, 59, 59));
+        List<LabOrder> orders = ReplicaRouting.call(
+                () -> orderHistory.findByOrderDateBetween(start.atStartOfDay(), end.atTime(23, 59, 59)));
         for (LabOrder order : orders) {
             if (order.getPaidAmount() > 0) {
                 transactions.add(new FinanceTransaction(
@@ -175,8 +174,9 @@ public class PaymentHistoryController {
         }
 
         // 2. Load General Payments (Expenses & Misc Income)
-        List<Payment> generalPayments = paymentRepository.findByTransactionDateBetween(start.atStartOfDay(),
-                end.atTime(23, 59, 59));
+        List<Payment> generalPayments = ReplicaRouting.call(
+                () -> paymentRepository.findByTransactionDateBetween(start.atStartOfDay(),
+                        end.atTime(23, 59, 59)));
         for (Payment p : generalPayments) {
             transactions.add(new FinanceTransaction(
                     "GP-" + p.getId(),
@@ -190,7 +190,8 @@ public class PaymentHistoryController {
 
         // 3. Paid Doctor Commissions
         // Only include PAID status
-        List<CommissionLedger> paidCommissions = commissionRepository.findByTransactionDateBetween(start, end)
+        List<CommissionLedger> paidCommissions = ReplicaRouting.call(
+                () -> orderHistory.findCommissionsBetween(start, end))
                 .stream()
                 .filter(c -> "PAID".equals(c.getStatus()))
                 .collect(Collectors.toList());
@@ -215,7 +216,8 @@ public class PaymentHistoryController {
         }
 
         // 4. Supplier Payments
-        List<SupplierLedger> supplierTxs = supplierRepository.findByTransactionDateBetween(start, end);
+        List<SupplierLedger> supplierTxs = ReplicaRouting.call(
+                () -> supplierRepository.findByTransactionDateBetween(start, end));
         for (SupplierLedger s : supplierTxs) {
             if (s.getPaidAmount() > 0) {
                 transactions.add(new FinanceTransaction(
@@ -0,0 +1,507 @@
+package com.qdc.lims.ui.controller;
+
+import com.qdc.lims.entity.QcLot;
+import com.qdc.lims.entity.QcMaterial;
+import com.qdc.lims.entity.QcRun;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.entity.User;
+import com.qdc.lims.qc.QcService;
+import com.qdc.lims.qc.RunningStats;
+import com.qdc.lims.repository.QcLotRepository;
+import com.qdc.lims.repository.QcMaterialRepository;
+import com.qdc.lims.repository.TestDefinitionRepository;
+import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.ui.SessionManager;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.geometry.Insets;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Quality-control screen: control lots with their Levey-Jennings statistics, QC run
+ * entry and file import, and the Levey-Jennings chart of the selected lot with the
+ * Westgard violations of each run.
+ */
+@Component
+public class QualityControlController {
+
+    private static final int CHART_RUNS = 40;
+
+    @FXML
+    private TableView<QcLot> lotTable;
+    @FXML
+    private TableColumn<QcLot, String> lotTestColumn;
+    @FXML
+    private TableColumn<QcLot, String> lotMaterialColumn;
+    @FXML
+    private TableColumn<QcLot, String> lotNumberColumn;
+    @FXML
+    private TableColumn<QcLot, String> lotTargetColumn;
+    @FXML
+    private TableColumn<QcLot, String> lotStatsColumn;
+    @FXML
+    private TableColumn<QcLot, String> lotStatusColumn;
+
+    @FXML
+    private TextField valueField;
+    @FXML
+    private Label statusLabel;
+    @FXML
+    private LineChart<Number, Number> ljChart;
+
+    @FXML
+    private TableView<QcRun> runTable;
+    @FXML
+    private TableColumn<QcRun, String> runTimeColumn;
+    @FXML
+    private TableColumn<QcRun, String> runValueColumn;
+    @FXML
+    private TableColumn<QcRun, String> runZColumn;
+    @FXML
+    private TableColumn<QcRun, String> runRulesColumn;
+    @FXML
+    private TableColumn<QcRun, String> runByColumn;
+
+    private final QcService qcService;
+    private final QcLotRepository lotRepository;
+    private final QcMaterialRepository materialRepository;
+    private final TestDefinitionRepository testRepository;
+    private final LocaleFormatService localeFormatService;
+
+    private final ObservableList<QcLot> lots = FXCollections.observableArrayList();
+    private final ObservableList<QcRun> runs = FXCollections.observableArrayList();
+
+    public QualityControlController(QcService qcService, QcLotRepository lotRepository,
+            QcMaterialRepository materialRepository, TestDefinitionRepository testRepository,
+            LocaleFormatService localeFormatService) {
+        this.qcService = qcService;
+        this.lotRepository = lotRepository;
+        this.materialRepository = materialRepository;
+        this.testRepository = testRepository;
+        this.localeFormatService = localeFormatService;
+    }
+
+    @FXML
+    private void initialize() {
+        lotTestColumn.setCellValueFactory(c -> new SimpleStringProperty(testName(c.getValue().getTest())));
+        lotMaterialColumn.setCellValueFactory(c -> {
+            QcMaterial material = c.getValue().getMaterial();
+            return new SimpleStringProperty(material.getName()
+                    + (material.getLevel() != null && !material.getLevel().isBlank() ? " (" + material.getLevel() + ")" : ""));
+        });
+        lotNumberColumn.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getLotNumber()));
+        lotTargetColumn.setCellValueFactory(c -> {
+            QcLot lot = c.getValue();
+            return new SimpleStringProperty(lot.getTargetMean() != null
+                    ? format(lot.getTargetMean()) + " ± " + format(lot.getTargetSd())
+                    : "-");
+        });
+        lotStatsColumn.setCellValueFactory(c -> new SimpleStringProperty(statsText(c.getValue())));
+        lotStatusColumn.setCellValueFactory(c -> new SimpleStringProperty(statusText(c.getValue())));
+        lotStatusColumn.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : item);
+                setStyle(!empty && "REJECTED".equals(item) ? "-fx-text-fill: #c0392b; -fx-font-weight: bold;" : "");
+                QcLot lot = empty ? null : getTableRow().getItem();
+                setTooltip(lot != null && lot.getBlockedReason() != null ? new Tooltip(lot.getBlockedReason()) : null);
+            }
+        });
+        lotTable.setItems(lots);
+        lotTable.getSelectionModel().selectedItemProperty().addListener((obs, oldLot, newLot) -> loadRuns());
+
+        runTimeColumn.setCellValueFactory(c -> new SimpleStringProperty(
+                localeFormatService.formatDateTime(c.getValue().getRunAt())));
+        runValueColumn.setCellValueFactory(c -> new SimpleStringProperty(format(c.getValue().getValue())));
+        runZColumn.setCellValueFactory(c -> new SimpleStringProperty(
+                c.getValue().getZScore() != null ? String.format("%+.2f", c.getValue().getZScore()) : "-"));
+        runRulesColumn.setCellValueFactory(c -> new SimpleStringProperty(
+                c.getValue().getViolations() == null ? "" : c.getValue().getViolations()
+                        + (c.getValue().isRejected() ? " - REJECTED" : " - warning")));
+        runByColumn.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getEnteredBy()));
+        runTable.setItems(runs);
+
+        ljChart.setAnimated(false);
+        loadLots();
+    }
+
+    private void loadLots() {
+        Long selectedId = selectedLot() != null ? selectedLot().getId() : null;
+        List<QcLot> active = lotRepository.findByActiveTrue();
+        active.sort(Comparator.comparing((QcLot lot) -> testName(lot.getTest()), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(lot -> lot.getMaterial().getName(), String.CASE_INSENSITIVE_ORDER));
+        lots.setAll(active);
+        for (QcLot lot : lots) {
+            if (lot.getId().equals(selectedId)) {
+                lotTable.getSelectionModel().select(lot);
+                return;
+            }
+        }
+        if (!lots.isEmpty()) {
+            lotTable.getSelectionModel().selectFirst();
+        } else {
+            loadRuns();
+        }
+    }
+
+    private void loadRuns() {
+        QcLot lot = selectedLot();
+        ljChart.getData().clear();
+        if (lot == null) {
+            runs.clear();
+            return;
+        }
+        List<QcRun> recent = qcService.recentRuns(lot.getId(), CHART_RUNS);
+        runs.setAll(recent.reversed());
+        drawChart(lot, recent);
+    }
+
+    /**
+     * Values against run number, with the mean and the 1, 2 and 3 SD limits.
+     */
+    private void drawChart(QcLot lot, List<QcRun> recent) {
+        ljChart.setTitle(testName(lot.getTest()) + " - " + lot.getMaterial().getName() + " lot " + lot.getLotNumber());
+        if (recent.isEmpty()) {
+            return;
+        }
+        XYChart.Series<Number, Number> values = new XYChart.Series<>();
+        values.setName("Value");
+        for (int i = 0; i < recent.size(); i++) {
+            values.getData().add(new XYChart.Data<>(i + 1, recent.get(i).getValue()));
+        }
+        ljChart.getData().add(values);
+
+        QcService.Limits limits = QcService.limits(lot);
+        if (limits != null) {
+            addLimit("Mean", limits.mean(), recent.size());
+            for (int k = 1; k <= 3; k++) {
+                addLimit("+" + k + "SD", limits.mean() + k * limits.sd(), recent.size());
+                addLimit("-" + k + "SD", limits.mean() - k * limits.sd(), recent.size());
+            }
+        }
+
+        // Mark the points after they have nodes
+        for (int i = 0; i < recent.size(); i++) {
+            QcRun run = recent.get(i);
+            javafx.scene.Node node = values.getData().get(i).getNode();
+            if (node != null && run.getViolations() != null) {
+                node.setStyle(run.isRejected()
+                        ? "-fx-background-color: #e74c3c, white; -fx-background-radius: 6;"
+                        : "-fx-background-color: #f39c12, white; -fx-background-radius: 6;");
+                Tooltip.install(node, new Tooltip(format(run.getValue()) + ": " + run.getViolations()));
+            }
+        }
+    }
+
+    private void addLimit(String name, double y, int runs) {
+        XYChart.Series<Number, Number> line = new XYChart.Series<>();
+        line.setName(name);
+        line.getData().add(new XYChart.Data<>(1, y));
+        line.getData().add(new XYChart.Data<>(Math.max(runs, 2), y));
+        ljChart.getData().add(line);
+        for (XYChart.Data<Number, Number> point : line.getData()) {
+            if (point.getNode() != null) {
+                point.getNode().setVisible(false);
+            }
+        }
+    }
+
+    @FXML
+    private void handleAddRun() {
+        QcLot lot = selectedLot();
+        if (lot == null) {
+            showStatus("Select a lot first.", true);
+            return;
+        }
+        double value;
+        try {
+            value = Double.parseDouble(valueField.getText().trim());
+        } catch (NumberFormatException e) {
+            showStatus("Enter the QC value as a number.", true);
+            return;
+        }
+        try {
+            QcRun run = qcService.recordRun(lot.getId(), value, LocalDateTime.now(), currentUsername(), "MANUAL");
+            valueField.clear();
+            if (run.isRejected()) {
+                showStatus("REJECTED (" + run.getViolations() + "): results of " + testName(lot.getTest())
+                        + " are held until QC passes.", true);
+            } else if (run.getViolations() != null) {
+                showStatus("Warning (" + run.getViolations() + "): run accepted.", false);
+            } else if (run.getZScore() == null) {
+                showStatus("Recorded. Collecting runs: " + (QcService.MIN_POINTS - lot.getPointCount() - 1)
+                        + " more needed without target values.", false);
+            } else {
+                showStatus("In control.", false);
+            }
+            loadLots();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            showStatus("This lot was updated from another station. Please enter the value again.", true);
+            loadLots();
+        } catch (Exception e) {
+            showStatus(e.getMessage(), true);
+        }
+    }
+
+    @FXML
+    private void handleImport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import QC Results");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("QC files (CSV, ASTM, HL7)", "*.csv", "*.txt", "*.astm", "*.hl7"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(lotTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            QcService.ImportSummary summary = qcService.importFile(file.toPath(), currentUsername());
+            loadLots();
+            StringBuilder text = new StringBuilder()
+                    .append(summary.recorded()).append(" of ").append(summary.records()).append(" values recorded, ")
+                    .append(summary.rejected()).append(" rejected.");
+            if (!summary.errors().isEmpty()) {
+                text.append("\n\nNot recorded:\n")
+                        .append(String.join("\n", summary.errors().subList(0, Math.min(20, summary.errors().size()))));
+                if (summary.errors().size() > 20) {
+                    text.append("\n... and ").append(summary.errors().size() - 20).append(" more");
+                }
+            }
+            Alert alert = new Alert(summary.errors().isEmpty() ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING);
+            alert.setTitle("QC Import");
+            alert.setHeaderText(summary.file());
+            alert.setContentText(text.toString());
+            alert.showAndWait();
+        } catch (Exception e) {
+            e.printStackTrace();
+            showStatus("Import failed: " + e.getMessage(), true);
+        }
+    }
+
+    @FXML
+    private void handleNewMaterial() {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("New QC Material");
+        dialog.setHeaderText(null);
+        ButtonType saveType = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(saveType, ButtonType.CANCEL);
+
+        TextField name = new TextField();
+        name.setPromptText("e.g. Assayed Chemistry Control");
+        TextField manufacturer = new TextField();
+        TextField level = new TextField();
+        level.setPromptText("e.g. Level 1");
+        GridPane grid = formGrid();
+        grid.addRow(0, new Label("Name:"), name);
+        grid.addRow(1, new Label("Manufacturer:"), manufacturer);
+        grid.addRow(2, new Label("Level:"), level);
+        dialog.getDialogPane().setContent(grid);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != saveType) {
+            return;
+        }
+        if (name.getText().isBlank()) {
+            showStatus("The material needs a name.", true);
+            return;
+        }
+        QcMaterial material = new QcMaterial();
+        material.setName(name.getText().trim());
+        material.setManufacturer(blankToNull(manufacturer.getText()));
+        material.setLevel(blankToNull(level.getText()));
+        materialRepository.save(material);
+        showStatus("Material saved. Add a lot for each test it controls.", false);
+    }
+
+    @FXML
+    private void handleNewLot() {
+        showLotDialog(new QcLot());
+    }
+
+    @FXML
+    private void handleEditLot() {
+        QcLot lot = selectedLot();
+        if (lot == null) {
+            showStatus("Select a lot first.", true);
+            return;
+        }
+        showLotDialog(lot);
+    }
+
+    @FXML
+    private void handleWithdrawLot() {
+        QcLot lot = selectedLot();
+        if (lot == null) {
+            return;
+        }
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                "Withdraw lot " + lot.getLotNumber() + " for " + testName(lot.getTest())
+                        + "? It will no longer take runs or hold results.");
+        confirm.setHeaderText(null);
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
+            qcService.withdrawLot(lot.getId());
+            lotTable.getSelectionModel().clearSelection();
+            loadLots();
+        }
+    }
+
+    private void showLotDialog(QcLot lot) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle(lot.getId() == null ? "New QC Lot" : "Edit QC Lot");
+        dialog.setHeaderText(null);
+        ButtonType saveType = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(saveType, ButtonType.CANCEL);
+
+        ComboBox<QcMaterial> material = new ComboBox<>(
+                FXCollections.observableArrayList(materialRepository.findByActiveTrue()));
+        material.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(QcMaterial m) {
+                return m == null ? "" : m.getName() + (m.getLevel() != null ? " (" + m.getLevel() + ")" : "");
+            }
+
+            @Override
+            public QcMaterial fromString(String s) {
+                return null;
+            }
+        });
+        material.setValue(lot.getMaterial());
+        ComboBox<TestDefinition> test = new ComboBox<>(FXCollections.observableArrayList(testRepository.findByActiveTrue()));
+        test.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(TestDefinition t) {
+                return t == null ? "" : testName(t);
+            }
+
+            @Override
+            public TestDefinition fromString(String s) {
+                return null;
+            }
+        });
+        test.setValue(lot.getTest());
+        TextField lotNumber = new TextField(lot.getLotNumber());
+        lotNumber.setPromptText("As sent by the analyzer");
+        DatePicker expiry = new DatePicker(lot.getExpiryDate());
+        localeFormatService.applyDatePickerLocale(expiry);
+        TextField targetMean = new TextField(lot.getTargetMean() != null ? lot.getTargetMean().toString() : "");
+        targetMean.setPromptText("blank = from the first " + QcService.MIN_POINTS + " runs");
+        TextField targetSd = new TextField(lot.getTargetSd() != null ? lot.getTargetSd().toString() : "");
+        targetSd.setPromptText("blank = from the first " + QcService.MIN_POINTS + " runs");
+
+        GridPane grid = formGrid();
+        grid.addRow(0, new Label("Material:"), material);
+        grid.addRow(1, new Label("Test:"), test);
+        grid.addRow(2, new Label("Lot Number:"), lotNumber);
+        grid.addRow(3, new Label("Expiry:"), expiry);
+        grid.addRow(4, new Label("Target Mean:"), targetMean);
+        grid.addRow(5, new Label("Target SD:"), targetSd);
+        dialog.getDialogPane().setContent(grid);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != saveType) {
+            return;
+        }
+        if (material.getValue() == null || test.getValue() == null || lotNumber.getText().isBlank()) {
+            showStatus("Material, test and lot number are required.", true);
+            return;
+        }
+        try {
+            lot.setMaterial(material.getValue());
+            lot.setTest(test.getValue());
+            lot.setLotNumber(lotNumber.getText().trim());
+            lot.setExpiryDate(expiry.getValue());
+            lot.setTargetMean(targetMean.getText().isBlank() ? null : Double.parseDouble(targetMean.getText().trim()));
+            lot.setTargetSd(targetSd.getText().isBlank() ? null : Double.parseDouble(targetSd.getText().trim()));
+            qcService.saveLot(lot);
+            showStatus("Lot saved.", false);
+        } catch (NumberFormatException e) {
+            showStatus("Target mean and SD must be numbers.", true);
+        } catch (Exception e) {
+            showStatus(e.getMessage(), true);
+        }
+        loadLots();
+    }
+
+    @FXML
+    private void handleClose() {
+        Stage stage = (Stage) lotTable.getScene().getWindow();
+        stage.close();
+    }
+
+    private QcLot selectedLot() {
+        return lotTable.getSelectionModel().getSelectedItem();
+    }
+
+    private String statsText(QcLot lot) {
+        RunningStats stats = QcService.stats(lot);
+        if (stats.count() < 2) {
+            return "n=" + stats.count();
+        }
+        double cv = stats.mean() != 0 ? 100 * stats.sd() / Math.abs(stats.mean()) : Double.NaN;
+        return "n=" + stats.count() + "  " + format(stats.mean()) + " ± " + format(stats.sd())
+                + (Double.isNaN(cv) ? "" : String.format("  CV %.1f%%", cv));
+    }
+
+    private static String statusText(QcLot lot) {
+        if (lot.isBlocked()) {
+            return "REJECTED";
+        }
+        if (lot.getExpiryDate() != null && lot.getExpiryDate().isBefore(java.time.LocalDate.now())) {
+            return "EXPIRED";
+        }
+        return QcService.limits(lot) == null ? "COLLECTING" : "IN CONTROL";
+    }
+
+    private void showStatus(String message, boolean error) {
+        statusLabel.setText(message);
+        statusLabel.setStyle(error ? "-fx-text-fill: #c0392b;" : "-fx-text-fill: #27ae60;");
+    }
+
+    private static GridPane formGrid() {
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 20, 10, 10));
+        return grid;
+    }
+
+    private static String currentUsername() {
+        User user = SessionManager.getCurrentUser();
+        return user != null ? user.getUsername() : "unknown";
+    }
+
+    private static String testName(TestDefinition test) {
+        if (test == null) {
+            return "";
+        }
+        return test.getShortCode() != null && !test.getShortCode().isBlank()
+                ? test.getShortCode() + " - " + test.getTestName()
+                : test.getTestName();
+    }
+
+    private static String format(Double value) {
+        if (value == null) {
+            return "-";
+        }
+        return java.math.BigDecimal.valueOf(value).round(new java.math.MathContext(4)).stripTrailingZeros()
+                .toPlainString();
+    }
+
+    private static String blankToNull(String text) {
+        return text == null || text.isBlank() ? null : text.trim();
+    }
+}
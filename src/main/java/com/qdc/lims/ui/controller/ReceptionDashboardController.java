@@ -1,9 +1,15 @@
 package com.qdc.lims.ui.controller;
 
+import com.qdc.lims.service.AutoVerificationService;
 import com.qdc.lims.service.BrandingService;
+import com.qdc.lims.service.CriticalAlertService;
+import com.qdc.lims.service.CumulativeReportService;
 import com.qdc.lims.ui.SessionManager;
 import com.qdc.lims.ui.navigation.DashboardSwitchService;
 import com.qdc.lims.ui.navigation.DashboardType;
+import com.qdc.lims.ui.navigation.ReusableView;
+import com.qdc.lims.ui.util.CriticalAlertPanel;
+import com.qdc.lims.ui.util.CumulativeReportDialog;
 import com.qdc.lims.ui.util.LogoutUtil;
 import com.qdc.lims.entity.LabOrder;
 import com.qdc.lims.entity.LabResult;
@@ -13,6 +19,7 @@ import com.qdc.lims.entity.TestDefinition;
 import com.qdc.lims.entity.User; // <--- ADDED THIS IMPORT TO FIX THE ERROR
 import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.service.OrderHistoryService;
 import org.hibernate.Hibernate;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
@@ -60,13 +67,17 @@ import javafx.util.Duration;
  * Handles patient registration, order creation, and report delivery workflow.
  */
 @Component("receptionDashboardController")
-public class ReceptionDashboardController {
+public class ReceptionDashboardController implements ReusableView {
 
     private final ApplicationContext applicationContext;
     private final LabOrderRepository labOrderRepository;
+    private final OrderHistoryService orderHistory;
     private final DashboardSwitchService dashboardSwitchService;
     private final BrandingService brandingService;
     private final LocaleFormatService localeFormatService;
+    private final CumulativeReportService cumulativeReportService;
+    private final CriticalAlertService criticalAlertService;
+    private final AutoVerificationService autoVerificationService;
 
     // Auto-refresh timer for real-time count updates
     private Timeline autoRefreshTimeline;
@@ -102,6 +113,8 @@ public class ReceptionDashboardController {
     private VBox readyPanel;
     @FXML
     private VBox pendingPanel;
+    @FXML
+    private VBox criticalAlertBox;
 
     // FXML Components - Orders Table
     @FXML
@@ -160,14 +173,22 @@ public class ReceptionDashboardController {
 
     public ReceptionDashboardController(ApplicationContext applicationContext,
             LabOrderRepository labOrderRepository,
+            OrderHistoryService orderHistory,
             DashboardSwitchService dashboardSwitchService,
             BrandingService brandingService,
-            LocaleFormatService localeFormatService) {
+            LocaleFormatService localeFormatService,
+            CumulativeReportService cumulativeReportService,
+            CriticalAlertService criticalAlertService,
+            AutoVerificationService autoVerificationService) {
         this.applicationContext = applicationContext;
         this.labOrderRepository = labOrderRepository;
+        this.orderHistory = orderHistory;
         this.dashboardSwitchService = dashboardSwitchService;
         this.brandingService = brandingService;
         this.localeFormatService = localeFormatService;
+        this.cumulativeReportService = cumulativeReportService;
+        this.criticalAlertService = criticalAlertService;
+        this.autoVerificationService = autoVerificationService;
     }
 
     @FXML
@@ -180,6 +201,9 @@ public class ReceptionDashboardController {
         initializeDeliveredDateRange();
         loadOrders();
         startAutoRefresh();
+        if (criticalAlertBox != null) {
+            criticalAlertBox.getChildren().add(new CriticalAlertPanel(criticalAlertService, localeFormatService));
+        }
 
         // --- CORRECTED INITIALIZATION LOGIC ---
         // We must wait for the Scene/Window to be ready to get the Stage
@@ -217,10 +241,28 @@ public class ReceptionDashboardController {
         applyBranding();
     }
 
+    /**
+     * Cached view shown again, possibly for another receptionist.
+     */
+    @Override
+    public void onReattach() {
+        User user = SessionManager.getCurrentUser();
+        if (user != null) {
+            if (userLabel != null)
+                userLabel.setText(user.getUsername());
+            if (welcomeLabel != null)
+                welcomeLabel.setText("Welcome, " + user.getUsername());
+        }
+        loadOrders();
+        startAutoRefresh();
+        applyBranding();
+    }
+
     /**
      * Starts automatic refresh of order counts every 10 seconds.
      */
     private void startAutoRefresh() {
+        stopAutoRefresh();
         autoRefreshTimeline = new Timeline(new KeyFrame(Duration.seconds(10), event -> {
             new Thread(() -> {
                 try {
@@ -388,6 +430,8 @@ public class ReceptionDashboardController {
 
         deliveredActionCol.setCellFactory(col -> new TableCell<LabOrder, Void>() {
             private final Button reprintBtn = new Button("Reprint");
+            private final Button historyBtn = new Button("History");
+            private final HBox pane = new HBox(5);
             {
                 reprintBtn.setStyle(
                         "-fx-background-color: #3498db; -fx-text-fill: white; -fx-font-size: 11; -fx-padding: 3 10;");
@@ -395,6 +439,12 @@ public class ReceptionDashboardController {
                     LabOrder order = getTableView().getItems().get(getIndex());
                     handleReprintReport(order);
                 });
+                historyBtn.setStyle(
+                        "-fx-background-color: #7f8c8d; -fx-text-fill: white; -fx-font-size: 11; -fx-padding: 3 10;");
+                historyBtn.setOnAction(e -> {
+                    LabOrder order = getTableView().getItems().get(getIndex());
+                    showCumulativeReport(order);
+                });
             }
 
             @Override
@@ -405,7 +455,12 @@ public class ReceptionDashboardController {
                     return;
                 }
                 LabOrder order = getTableView().getItems().get(getIndex());
-                setGraphic(order != null && order.isReprintRequired() ? reprintBtn : null);
+                if (order != null && order.isReprintRequired()) {
+                    pane.getChildren().setAll(reprintBtn, historyBtn);
+                } else {
+                    pane.getChildren().setAll(historyBtn);
+                }
+                setGraphic(pane);
             }
         });
 
@@ -756,6 +811,9 @@ public class ReceptionDashboardController {
     }
 
     private void markAsDelivered(LabOrder order) {
+        if (!releasable(order)) {
+            return;
+        }
         try {
             order.setReportDelivered(true);
             order.setDeliveryDate(LocalDateTime.now());
@@ -775,6 +833,18 @@ public class ReceptionDashboardController {
         }
     }
 
+    private void showCumulativeReport(LabOrder order) {
+        if (order == null || order.getPatient() == null) {
+            return;
+        }
+        try {
+            CumulativeReportDialog.show(mainContainer.getScene().getWindow(), cumulativeReportService,
+                    localeFormatService, order.getPatient().getId());
+        } catch (Exception e) {
+            showError("Failed to load cumulative report: " + e.getMessage());
+        }
+    }
+
     private void markReprintCompleted(LabOrder order) {
         try {
             order.setReprintRequired(false);
@@ -791,7 +861,24 @@ public class ReceptionDashboardController {
         }
     }
 
+    /**
+     * Checks the order as saved now against the QC blocks and, with auto-verification on,
+     * its verification; shows why if the report must be held back.
+     */
+    private boolean releasable(LabOrder order) {
+        LabOrder current = labOrderRepository.findById(order.getId()).orElse(order);
+        List<String> holds = autoVerificationService.releaseHolds(current);
+        if (holds.isEmpty()) {
+            return true;
+        }
+        showError("Report for Order #" + order.getId() + " cannot be released yet:\n" + String.join("\n", holds));
+        return false;
+    }
+
     private boolean printReport(LabOrder order) {
+        if (!releasable(order)) {
+            return false;
+        }
         PrinterJob job = PrinterJob.createPrinterJob();
         if (job != null && job.showPrintDialog(mainContainer.getScene().getWindow())) {
             PageLayout pageLayout = job.getJobSettings().getPageLayout();
@@ -1350,7 +1437,7 @@ public class ReceptionDashboardController {
             LocalDateTime startDt = start.atStartOfDay();
             LocalDateTime endDt = end.atTime(23, 59, 59);
 
-            List<LabOrder> orders = labOrderRepository.findByOrderDateBetween(startDt, endDt);
+            List<LabOrder> orders = orderHistory.findByOrderDateBetween(startDt, endDt);
             if (!query.isEmpty()) {
                 orders = orders.stream()
                         .filter(order -> matchesReceiptQuery(order, query))
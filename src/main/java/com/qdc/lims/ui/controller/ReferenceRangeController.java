@@ -39,6 +39,9 @@ public class ReferenceRangeController {
     @FXML
     private TableColumn<ReferenceRange, String> normalRangeColumn;
 
+    @FXML
+    private TableColumn<ReferenceRange, String> criticalColumn;
+
     @FXML
     private ComboBox<String> genderCombo;
 
@@ -54,6 +57,12 @@ public class ReferenceRangeController {
     @FXML
     private TextField maxValField;
 
+    @FXML
+    private TextField criticalLowField;
+
+    @FXML
+    private TextField criticalHighField;
+
     @FXML
     private Button addButton;
 
@@ -96,6 +105,13 @@ public class ReferenceRangeController {
             return new SimpleStringProperty(r.getMinVal() + " - " + r.getMaxVal() + " " + currentTest.getUnit());
         });
 
+        criticalColumn.setCellValueFactory(cellData -> {
+            ReferenceRange r = cellData.getValue();
+            String low = r.getCriticalLow() != null ? "< " + r.getCriticalLow().toPlainString() : "";
+            String high = r.getCriticalHigh() != null ? "> " + r.getCriticalHigh().toPlainString() : "";
+            return new SimpleStringProperty((low + " " + high).trim());
+        });
+
         rangesTable.setItems(rangesList);
 
         rangesTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
@@ -111,6 +127,8 @@ public class ReferenceRangeController {
         setupNumericField(maxAgeField);
         setupDecimalField(minValField);
         setupDecimalField(maxValField);
+        setupDecimalField(criticalLowField);
+        setupDecimalField(criticalHighField);
     }
 
     private void setupNumericField(TextField field) {
@@ -163,6 +181,10 @@ public class ReferenceRangeController {
             int maxAge = Integer.parseInt(maxAgeField.getText());
             java.math.BigDecimal minVal = new java.math.BigDecimal(minValField.getText());
             java.math.BigDecimal maxVal = new java.math.BigDecimal(maxValField.getText());
+            java.math.BigDecimal criticalLow = criticalLowField.getText().isEmpty() ? null
+                    : new java.math.BigDecimal(criticalLowField.getText());
+            java.math.BigDecimal criticalHigh = criticalHighField.getText().isEmpty() ? null
+                    : new java.math.BigDecimal(criticalHighField.getText());
 
             if (minAge > maxAge) {
                 showAlert("Validation Error", "Min Age cannot be greater than Max Age.");
@@ -172,6 +194,11 @@ public class ReferenceRangeController {
                 showAlert("Validation Error", "Min Value cannot be greater than Max Value.");
                 return;
             }
+            if ((criticalLow != null && criticalLow.compareTo(minVal) > 0)
+                    || (criticalHigh != null && criticalHigh.compareTo(maxVal) < 0)) {
+                showAlert("Validation Error", "Critical limits must lie outside the normal range.");
+                return;
+            }
 
             ReferenceRange range = new ReferenceRange();
             range.setTest(currentTest);
@@ -180,6 +207,8 @@ public class ReferenceRangeController {
             range.setMaxAge(maxAge);
             range.setMinVal(minVal);
             range.setMaxVal(maxVal);
+            range.setCriticalLow(criticalLow);
+            range.setCriticalHigh(criticalHigh);
 
             referenceRangeRepository.save(range);
             refreshData();
@@ -226,6 +255,8 @@ public class ReferenceRangeController {
         maxAgeField.clear();
         minValField.clear();
         maxValField.clear();
+        criticalLowField.clear();
+        criticalHighField.clear();
         genderCombo.setValue("Both");
     }
 
@@ -4,22 +4,28 @@ import com.qdc.lims.ui.SessionManager;
 import com.qdc.lims.entity.LabOrder;
 import com.qdc.lims.entity.LabResult;
 import com.qdc.lims.repository.LabOrderRepository;
-import com.qdc.lims.repository.LabResultRepository;
+import com.qdc.lims.service.DeltaCheckService;
 import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.service.ResultMergeService;
 import com.qdc.lims.service.ResultService;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
+import javafx.geometry.Insets;
 import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * JavaFX controller for entering test results.
@@ -27,6 +33,9 @@ import java.util.TimerTask;
 @Component("resultEntryController")
 public class ResultEntryController {
 
+    // Merge rounds with the technician before giving up on an order that keeps changing
+    private static final int MAX_MERGE_ROUNDS = 3;
+
     @FXML
     private Label orderInfoLabel;
 
@@ -67,19 +76,28 @@ public class ResultEntryController {
     private Button saveButton;
 
     private final LabOrderRepository orderRepository;
-    private final LabResultRepository resultRepository;
     private final ResultService resultService;
     private final LocaleFormatService localeFormatService;
+    private final DeltaCheckService deltaCheckService;
+    private final ResultMergeService resultMergeService;
     private LabOrder currentOrder;
 
+    // Values as loaded, the common base when another technician saves the same order
+    private Map<Long, String> loadedValues = Map.of();
+
+    // Patient's previous values, loaded once per order for the delta check while typing
+    private Map<Long, DeltaCheckService.Baseline> deltaBaselines = Map.of();
+
     public ResultEntryController(LabOrderRepository orderRepository,
-            LabResultRepository resultRepository,
             ResultService resultService,
-            LocaleFormatService localeFormatService) {
+            LocaleFormatService localeFormatService,
+            DeltaCheckService deltaCheckService,
+            ResultMergeService resultMergeService) {
         this.orderRepository = orderRepository;
-        this.resultRepository = resultRepository;
         this.resultService = resultService;
         this.localeFormatService = localeFormatService;
+        this.deltaCheckService = deltaCheckService;
+        this.resultMergeService = resultMergeService;
     }
 
     public void setOrder(LabOrder order) {
@@ -239,10 +257,12 @@ public class ResultEntryController {
 
         // 5. STATUS COLUMN
         statusColumn.setCellValueFactory(cellData -> {
-            if (cellData.getValue().isAbnormal()) {
-                return new SimpleStringProperty(cellData.getValue().getRemarks());
+            LabResult result = cellData.getValue();
+            String status = result.isAbnormal() ? result.getRemarks() : "Normal";
+            if (result.getDeltaFlag() != null) {
+                status = status + " / DELTA";
             }
-            return new SimpleStringProperty("Normal");
+            return new SimpleStringProperty(status);
         });
 
         statusColumn.setCellFactory(column -> new TableCell<LabResult, String>() {
@@ -253,17 +273,25 @@ public class ResultEntryController {
                 // Always clear style first
                 setText(null);
                 setStyle("");
+                setTooltip(null);
 
                 if (empty || item == null) {
                     return;
                 }
 
                 setText(item);
-                if ("HIGH".equals(item) || "LOW".equals(item)) {
+                if (item.startsWith("HIGH") || item.startsWith("LOW")) {
                     setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-font-weight: bold;");
+                } else if (item.endsWith("DELTA")) {
+                    setStyle("-fx-background-color: #f39c12; -fx-text-fill: white; -fx-font-weight: bold;");
                 } else if ("Normal".equals(item)) {
                     setStyle("-fx-background-color: #27ae60; -fx-text-fill: white; -fx-font-weight: bold;");
                 }
+
+                LabResult result = getTableRow() != null ? getTableRow().getItem() : null;
+                if (result != null && result.getDeltaFlag() != null) {
+                    setTooltip(new Tooltip(result.getDeltaFlag()));
+                }
             }
         });
     }
@@ -301,6 +329,11 @@ public class ResultEntryController {
         orderDateLabel.setText(localeFormatService.formatDateTime(currentOrder.getOrderDate()));
 
         // Load results
+        deltaBaselines = deltaCheckService.baselines(currentOrder);
+        loadedValues = new HashMap<>();
+        for (LabResult result : currentOrder.getResults()) {
+            loadedValues.put(result.getId(), result.getResultValue());
+        }
         resultsTable.setItems(FXCollections.observableArrayList(currentOrder.getResults()));
 
         // Auto-focus the first result cell for immediate data entry
@@ -316,9 +349,14 @@ public class ResultEntryController {
     private void autoCalculateStatus(LabResult result) {
         String value = result.getResultValue();
         if (value == null || value.trim().isEmpty()) {
+            result.setDeltaFlag(null);
             return;
         }
 
+        var definition = result.getTestDefinition();
+        result.setDeltaFlag(deltaCheckService.deltaFlag(definition, value,
+                deltaBaselines.get(definition.getId())));
+
         try {
             java.math.BigDecimal numValue = new java.math.BigDecimal(value.trim());
             var test = result.getTestDefinition();
@@ -344,152 +382,127 @@ public class ResultEntryController {
 
     @FXML
     private void handleSaveResults() {
-        try {
-            // Commit any pending table edits
-            resultsTable.refresh();
-
-            // Get current user for audit
-            String currentUser = SessionManager.getCurrentUser() != null
-                    ? SessionManager.getCurrentUser().getUsername()
-                    : "UNKNOWN";
-
-            // Check how many results are entered
-            int enteredCount = 0;
-            int totalCount = resultsTable.getItems().size();
-            for (LabResult result : resultsTable.getItems()) {
-                if (result.getResultValue() != null && !result.getResultValue().trim().isEmpty()) {
-                    enteredCount++;
-                }
-            }
+        // Commit any pending table edits
+        resultsTable.refresh();
 
-            if (enteredCount == 0) {
-                showError("No results to save. Please enter at least one result value.");
+        // Get current user for audit
+        String currentUser = currentUsername();
+
+        // Check how many results are entered
+        if (countEntered(resultsTable.getItems()) == 0) {
+            showError("No results to save. Please enter at least one result value.");
+            return;
+        }
+
+        // Check if this is an edit of a completed order (correction scenario)
+        boolean isEditingCompletedOrder = "COMPLETED".equals(currentOrder.getStatus());
+        String editReason = null;
+        if (isEditingCompletedOrder && currentOrder.isReportDelivered()) {
+            TextInputDialog dialog = new TextInputDialog();
+            dialog.setTitle("Edit Delivered Report");
+            dialog.setHeaderText("Report was already delivered.");
+            dialog.setContentText("Enter reason for edit:");
+            editReason = dialog.showAndWait().orElse("").trim();
+            if (editReason.isEmpty()) {
+                showError("Edit reason is required for delivered reports.");
                 return;
             }
+        }
 
-            // Check if this is an edit of a completed order (correction scenario)
-            boolean isEditingCompletedOrder = "COMPLETED".equals(currentOrder.getStatus());
-
-            // Save all results with values
-            // If editing a completed order, just save and show success - no status change
-            // needed
-            if (isEditingCompletedOrder) {
-                String editReason = null;
-                if (currentOrder.isReportDelivered()) {
-                    TextInputDialog dialog = new TextInputDialog();
-                    dialog.setTitle("Edit Delivered Report");
-                    dialog.setHeaderText("Report was already delivered.");
-                    dialog.setContentText("Enter reason for edit:");
-                    editReason = dialog.showAndWait().orElse("").trim();
-                    if (editReason.isEmpty()) {
-                        showError("Edit reason is required for delivered reports.");
-                        return;
-                    }
+        // Save the window in one call: calculated tests, delta flags, alerts and reflex
+        // tests follow from the values that changed since the order was loaded
+        Long orderId = currentOrder.getId();
+        Map<Long, ResultService.ResultEdit> edits = collectEdits();
+        String reason = editReason;
+        inBackground("Failed to save results", () -> {
+            String merged = saveEdits(orderId, edits, currentUser, reason);
+            if (merged == null) {
+                return;
+            }
+            Platform.runLater(() -> {
+                loadOrderData();
+                if (isEditingCompletedOrder) {
+                    finishCorrection(merged);
+                } else {
+                    finishPendingSave(merged);
                 }
+            });
+        });
+    }
 
-                currentOrder.setResults(new ArrayList<>(resultsTable.getItems()));
-                try {
-                    resultService.saveEditedResults(currentOrder, editReason);
-                } catch (ObjectOptimisticLockingFailureException e) {
-                    showError("This order was updated by another user. Please refresh and try again.");
-                    return;
-                }
+    /**
+     * A completed order was corrected: reports it and closes the window.
+     */
+    private void finishCorrection(String merged) {
+        if (!merged.isEmpty()) {
+            showSuccess(merged);
+        } else if (currentOrder.isReportDelivered()) {
+            showSuccess("Results updated. Reprint required for Reception.");
+        } else {
+            showSuccess("Results corrected and saved successfully!");
+        }
+        closeAfterDelay();
+    }
 
-                if (currentOrder.isReportDelivered()) {
-                    showSuccess("Results updated. Reprint required for Reception.");
-                } else {
-                    showSuccess("Results corrected and saved successfully!");
-                }
+    /**
+     * Values of a pending order were saved and the order reloaded: completes it when
+     * every result has a value, otherwise asks.
+     */
+    private void finishPendingSave(String merged) {
+        String prefix = merged.isEmpty() ? "" : merged + " ";
 
-                // Close window after a short delay
-                Timer timer = new Timer();
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        Platform.runLater(() -> handleClose());
-                        timer.cancel();
-                    }
-                }, 1500);
-                return;
-            }
+        // Reloaded: calculated values and reflex tests added by the save are on the order
+        int enteredCount = countEntered(currentOrder.getResults());
+        int totalCount = currentOrder.getResults().size();
 
-            // Save all results with values (pending orders)
-            for (LabResult result : resultsTable.getItems()) {
-                if (result.getResultValue() != null && !result.getResultValue().trim().isEmpty()) {
-                    result.setPerformedBy(currentUser);
-                    result.setPerformedAt(LocalDateTime.now());
-                    try {
-                        resultRepository.save(result);
-                    } catch (ObjectOptimisticLockingFailureException e) {
-                        showError("A result was updated by another user. Please refresh and try again.");
-                        return;
-                    }
-                }
-            }
+        // For pending orders: Check if all results are entered - if so, auto-complete
+        // If not all entered, ask user if they want to mark as completed anyway
+        boolean shouldComplete = false;
 
-            // For pending orders: Check if all results are entered - if so, auto-complete
-            // If not all entered, ask user if they want to mark as completed anyway
-            boolean shouldComplete = false;
-
-            if (enteredCount == totalCount) {
-                // All results entered - auto-complete
-                shouldComplete = true;
-            } else {
-                // Not all results entered - ask user
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Incomplete Results");
-                alert.setHeaderText("Not all results have been entered");
-                alert.setContentText("Only " + enteredCount + " of " + totalCount +
-                        " tests have results. Do you want to mark this order as completed anyway?");
-
-                ButtonType completeBtn = new ButtonType("Mark Completed", ButtonBar.ButtonData.YES);
-                ButtonType saveOnlyBtn = new ButtonType("Save Only", ButtonBar.ButtonData.NO);
-                alert.getButtonTypes().setAll(completeBtn, saveOnlyBtn);
-
-                ButtonType response = alert.showAndWait().orElse(saveOnlyBtn);
-                shouldComplete = (response == completeBtn);
-            }
+        if (enteredCount == totalCount) {
+            // All results entered - auto-complete
+            shouldComplete = true;
+        } else {
+            // Not all results entered - ask user
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("Incomplete Results");
+            alert.setHeaderText("Not all results have been entered");
+            alert.setContentText("Only " + enteredCount + " of " + totalCount +
+                    " tests have results. Do you want to mark this order as completed anyway?");
 
-            if (shouldComplete) {
-                // Mark order as completed using ResultService for proper transaction handling
-                System.out.println("[ResultEntryController] Auto-completing order after save");
-                currentOrder.setResults(new ArrayList<>(resultsTable.getItems()));
-                resultService.saveResultsFromForm(currentOrder);
-
-                showSuccess("Results saved and Order #" + currentOrder.getId() + " marked as COMPLETED!");
-
-                // Close window after a short delay
-                Timer timer = new Timer();
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        Platform.runLater(() -> handleClose());
-                        timer.cancel();
-                    }
-                }, 1500);
-            } else {
-                showSuccess("Saved " + enteredCount + " result(s). Order remains pending.");
-                loadOrderData();
-            }
+            ButtonType completeBtn = new ButtonType("Mark Completed", ButtonBar.ButtonData.YES);
+            ButtonType saveOnlyBtn = new ButtonType("Save Only", ButtonBar.ButtonData.NO);
+            alert.getButtonTypes().setAll(completeBtn, saveOnlyBtn);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Failed to save results: " + e.getMessage());
+            ButtonType response = alert.showAndWait().orElse(saveOnlyBtn);
+            shouldComplete = (response == completeBtn);
         }
+
+        if (!shouldComplete) {
+            showSuccess(prefix + "Saved " + enteredCount + " result(s). Order remains pending.");
+            return;
+        }
+
+        // Mark order as completed using ResultService for proper transaction handling
+        System.out.println("[ResultEntryController] Auto-completing order after save");
+        Long orderId = currentOrder.getId();
+        inBackground("Failed to complete order", () -> {
+            resultMergeService.withRetry(() -> {
+                resultService.updateStatus(orderId);
+                return null;
+            });
+            Platform.runLater(() -> {
+                showSuccess(prefix + "Results saved and Order #" + orderId + " marked as COMPLETED!");
+                closeAfterDelay();
+            });
+        });
     }
 
     @FXML
     private void handleMarkCompleted() {
         // Validate all results are entered
-        boolean allEntered = true;
-        int enteredCount = 0;
-        for (LabResult result : resultsTable.getItems()) {
-            if (result.getResultValue() != null && !result.getResultValue().trim().isEmpty()) {
-                enteredCount++;
-            } else {
-                allEntered = false;
-            }
-        }
+        int enteredCount = countEntered(resultsTable.getItems());
+        boolean allEntered = enteredCount == resultsTable.getItems().size();
 
         if (enteredCount == 0) {
             showError("No results have been entered. Please enter at least one result before completing.");
@@ -508,31 +521,208 @@ public class ResultEntryController {
             }
         }
 
-        try {
-            System.out.println("[ResultEntryController] Mark completed - calling ResultService.saveResultsFromForm()");
+        System.out.println("[ResultEntryController] Mark completed - merging edits, then updating the status");
 
-            // Use the ResultService which has proper transaction handling
-            // First, update the order with current results from the form
-            currentOrder.setResults(new ArrayList<>(resultsTable.getItems()));
-            resultService.saveResultsFromForm(currentOrder);
+        // Values another user saved since the order was loaded are kept unless changed here
+        Long orderId = currentOrder.getId();
+        Map<Long, ResultService.ResultEdit> edits = collectEdits();
+        String currentUser = currentUsername();
+        inBackground("Failed to complete order", () -> {
+            String merged = saveEdits(orderId, edits, currentUser, null);
+            if (merged == null) {
+                return;
+            }
+            resultMergeService.withRetry(() -> {
+                resultService.updateStatus(orderId);
+                return null;
+            });
 
             System.out.println("[ResultEntryController] Order completed successfully!");
-            showSuccess("Order #" + currentOrder.getId() + " marked as COMPLETED!");
-
-            // Close window after a short delay (non-blocking)
-            Timer timer = new Timer();
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    Platform.runLater(() -> handleClose());
-                    timer.cancel();
+            Platform.runLater(() -> {
+                showSuccess((merged.isEmpty() ? "" : merged + " ") + "Order #" + orderId + " marked as COMPLETED!");
+                closeAfterDelay();
+            });
+        });
+    }
+
+    /**
+     * This window's values, each with the value it had when the order was loaded.
+     */
+    private Map<Long, ResultService.ResultEdit> collectEdits() {
+        Map<Long, ResultService.ResultEdit> edits = new HashMap<>();
+        for (LabResult result : resultsTable.getItems()) {
+            edits.put(result.getId(), new ResultService.ResultEdit(loadedValues.get(result.getId()),
+                    result.getResultValue()));
+        }
+        return edits;
+    }
+
+    /**
+     * Saves this window's values in one service call, on top of whatever another
+     * technician saved on the order since it was loaded, and asks which value to keep
+     * where both changed the same result. Runs off the FX thread; the question is asked
+     * on it. On failure the order is reloaded and the reason shown.
+     *
+     * @return summary of the merge with another user's save (empty if there was none),
+     *         or null if nothing more should be done
+     */
+    private String saveEdits(Long orderId, Map<Long, ResultService.ResultEdit> edits, String currentUser,
+            String editReason) {
+        int applied = 0;
+        int adopted = -1;
+        boolean conflicted = false;
+        for (int round = 0; round < MAX_MERGE_ROUNDS && !edits.isEmpty(); round++) {
+            ResultService.MergeOutcome outcome;
+            try {
+                outcome = resultMergeService.merge(orderId, edits, currentUser, editReason);
+            } catch (ObjectOptimisticLockingFailureException e) {
+                reloadWithError("This order is being saved by another user right now. Check the values and save again.");
+                return null;
+            }
+            applied += outcome.applied();
+            if (adopted < 0) {
+                adopted = outcome.adopted();
+            }
+            if (outcome.conflicts().isEmpty()) {
+                edits = Map.of();
+                break;
+            }
+
+            conflicted = true;
+            List<ResultService.ResultConflict> conflicts = outcome.conflicts();
+            Map<Long, String> keepMine = CompletableFuture
+                    .supplyAsync(() -> resolveConflicts(conflicts), Platform::runLater)
+                    .join();
+            if (keepMine == null) {
+                reloadWithError("Kept the other user's values for " + conflicts.size() + " result(s).");
+                return null;
+            }
+            // The chosen values now replace what the other technician saved
+            edits = new HashMap<>();
+            for (ResultService.ResultConflict conflict : conflicts) {
+                if (keepMine.containsKey(conflict.resultId())) {
+                    edits.put(conflict.resultId(), new ResultService.ResultEdit(conflict.theirs(), conflict.mine()));
                 }
-            }, 1500);
+            }
+        }
+        if (!edits.isEmpty()) {
+            reloadWithError("The results are still being changed by another user. Check the values and save again.");
+            return null;
+        }
+        if (adopted <= 0 && !conflicted) {
+            return "";
+        }
+        System.out.println("[ResultEntryController] Merged with a concurrent save on order " + orderId);
+        return "Merged with another user's save: " + applied + " of your value(s) saved"
+                + (adopted > 0 ? ", " + adopted + " of theirs kept" : "") + ".";
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Failed to complete order: " + e.getMessage());
+    /**
+     * Runs a save off the FX thread, so database round trips and retry pauses do not
+     * freeze the window. The save button stays disabled until it is done.
+     */
+    private void inBackground(String failure, Runnable save) {
+        if (saveButton != null) {
+            saveButton.setDisable(true);
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                save.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> showError(failure + ": " + e.getMessage()));
+            } finally {
+                Platform.runLater(() -> {
+                    if (saveButton != null) {
+                        saveButton.setDisable(false);
+                    }
+                });
+            }
+        }, "result-save");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void reloadWithError(String message) {
+        Platform.runLater(() -> {
+            loadOrderData();
+            showError(message);
+        });
+    }
+
+    private void closeAfterDelay() {
+        // Close window after a short delay (non-blocking)
+        Timer timer = new Timer();
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                Platform.runLater(() -> handleClose());
+                timer.cancel();
+            }
+        }, 1500);
+    }
+
+    private static int countEntered(List<LabResult> results) {
+        int entered = 0;
+        for (LabResult result : results) {
+            if (result.getResultValue() != null && !result.getResultValue().trim().isEmpty()) {
+                entered++;
+            }
+        }
+        return entered;
+    }
+
+    private static String currentUsername() {
+        return SessionManager.getCurrentUser() != null
+                ? SessionManager.getCurrentUser().getUsername()
+                : "UNKNOWN";
+    }
+
+    /**
+     * Shows the results both technicians changed and lets this one choose per result.
+     *
+     * @return values to keep from this window by result ID, or null if cancelled
+     */
+    private Map<Long, String> resolveConflicts(List<ResultService.ResultConflict> conflicts) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Results Changed by Another User");
+        dialog.setHeaderText("These results were saved by another user while you were editing.\n"
+                + "Choose the value to keep for each.");
+        ButtonType applyType = new ButtonType("Save Choices", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(applyType, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 150, 10, 10));
+        grid.addRow(0, new Label("Test"), new Label("Was"), new Label("Yours"), new Label("Theirs"));
+
+        Map<Long, RadioButton> mineButtons = new LinkedHashMap<>();
+        int row = 1;
+        for (ResultService.ResultConflict conflict : conflicts) {
+            ToggleGroup group = new ToggleGroup();
+            RadioButton mine = new RadioButton(conflict.mine());
+            RadioButton theirs = new RadioButton(conflict.theirs()
+                    + (conflict.theirsBy() != null ? " (" + conflict.theirsBy() + ")" : ""));
+            mine.setToggleGroup(group);
+            theirs.setToggleGroup(group);
+            theirs.setSelected(true);
+            grid.addRow(row++, new Label(conflict.testName()),
+                    new Label(conflict.base().isEmpty() ? "-" : conflict.base()), mine, theirs);
+            mineButtons.put(conflict.resultId(), mine);
+        }
+        dialog.getDialogPane().setContent(grid);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != applyType) {
+            return null;
+        }
+        Map<Long, String> keepMine = new HashMap<>();
+        for (ResultService.ResultConflict conflict : conflicts) {
+            if (mineButtons.get(conflict.resultId()).isSelected()) {
+                keepMine.put(conflict.resultId(), conflict.mine());
+            }
         }
+        return keepMine;
     }
 
     @FXML
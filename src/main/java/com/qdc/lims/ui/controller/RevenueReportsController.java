@@ -1,8 +1,9 @@
 package com.qdc.lims.ui.controller;
 
+import com.qdc.lims.config.ReplicaRouting;
 import com.qdc.lims.entity.LabOrder;
-import com.qdc.lims.repository.LabOrderRepository;
 import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.service.OrderHistoryService;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
@@ -29,7 +30,7 @@ import java.util.List;
 public class RevenueReportsController {
 
     @Autowired
-    private LabOrderRepository orderRepository;
+    private OrderHistoryService orderHistory;
     @Autowired
     private ApplicationContext applicationContext;
     @Autowired
@@ -118,7 +119,7 @@ public class RevenueReportsController {
 
     @FXML
     private void handleGenerateReport() {
-        if (orderRepository == null) {
+        if (orderHistory == null) {
             System.err.println("OrderRepository is null! Spring injection failed.");
             return;
         }
@@ -131,7 +132,8 @@ public class RevenueReportsController {
                 LocalDateTime startDateTime = start.atStartOfDay();
                 LocalDateTime endDateTime = end.atTime(23, 59, 59);
 
-                List<LabOrder> orders = orderRepository.findByOrderDateBetween(startDateTime, endDateTime);
+                List<LabOrder> orders = ReplicaRouting.call(
+                        () -> orderHistory.findByOrderDateBetween(startDateTime, endDateTime));
 
                 // Filter for outstanding payments if checkbox is selected
                 if (outstandingOnlyBox.isSelected()) {
@@ -199,6 +199,18 @@ public class TestDefinitionsController {
         deptCombo.setItems(FXCollections.observableArrayList(testDefinitionService.findAllDepartments()));
         deptCombo.setValue(test.getDepartment());
         TextField price = new TextField(test.getPrice() != null ? test.getPrice().toString() : "");
+        TextField deltaAbsolute = new TextField(test.getDeltaAbsolute() != null ? test.getDeltaAbsolute().toString() : "");
+        deltaAbsolute.setPromptText("e.g. 2.0 (blank = off)");
+        TextField deltaPercent = new TextField(test.getDeltaPercent() != null ? test.getDeltaPercent().toString() : "");
+        deltaPercent.setPromptText("e.g. 25 (blank = off)");
+        TextField deltaWindow = new TextField(test.getDeltaWindowDays() != null ? test.getDeltaWindowDays().toString() : "");
+        deltaWindow.setPromptText("blank = any age");
+        TextField criticalLow = new TextField(test.getCriticalLow() != null ? test.getCriticalLow().toString() : "");
+        criticalLow.setPromptText("blank = none");
+        TextField criticalHigh = new TextField(test.getCriticalHigh() != null ? test.getCriticalHigh().toString() : "");
+        criticalHigh.setPromptText("blank = none");
+        TextField formula = new TextField(test.getFormula() != null ? test.getFormula() : "");
+        formula.setPromptText("e.g. TC - HDL - TG / 5 (blank = entered)");
 
         grid.add(new Label("Test Name:"), 0, 0);
         grid.add(name, 1, 0);
@@ -208,6 +220,18 @@ public class TestDefinitionsController {
         grid.add(deptCombo, 1, 2);
         grid.add(new Label("Price:"), 0, 3);
         grid.add(price, 1, 3);
+        grid.add(new Label("Delta Limit (abs):"), 0, 4);
+        grid.add(deltaAbsolute, 1, 4);
+        grid.add(new Label("Delta Limit (%):"), 0, 5);
+        grid.add(deltaPercent, 1, 5);
+        grid.add(new Label("Delta Window (days):"), 0, 6);
+        grid.add(deltaWindow, 1, 6);
+        grid.add(new Label("Critical Below:"), 0, 7);
+        grid.add(criticalLow, 1, 7);
+        grid.add(new Label("Critical Above:"), 0, 8);
+        grid.add(criticalHigh, 1, 8);
+        grid.add(new Label("Formula:"), 0, 9);
+        grid.add(formula, 1, 9);
 
         dialog.getDialogPane().setContent(grid);
 
@@ -223,6 +247,38 @@ public class TestDefinitionsController {
                 } catch (NumberFormatException e) {
                     // Ignore invalid price input and leave the prior value.
                 }
+                // Blank turns the delta check off; invalid input leaves the prior value.
+                try {
+                    String abs = deltaAbsolute.getText().trim();
+                    test.setDeltaAbsolute(abs.isEmpty() ? null : new java.math.BigDecimal(abs));
+                } catch (NumberFormatException e) {
+                    // Keep prior value
+                }
+                try {
+                    String pct = deltaPercent.getText().trim();
+                    test.setDeltaPercent(pct.isEmpty() ? null : new java.math.BigDecimal(pct));
+                } catch (NumberFormatException e) {
+                    // Keep prior value
+                }
+                try {
+                    String days = deltaWindow.getText().trim();
+                    test.setDeltaWindowDays(days.isEmpty() ? null : Integer.valueOf(days));
+                } catch (NumberFormatException e) {
+                    // Keep prior value
+                }
+                try {
+                    String low = criticalLow.getText().trim();
+                    test.setCriticalLow(low.isEmpty() ? null : new java.math.BigDecimal(low));
+                } catch (NumberFormatException e) {
+                    // Keep prior value
+                }
+                try {
+                    String high = criticalHigh.getText().trim();
+                    test.setCriticalHigh(high.isEmpty() ? null : new java.math.BigDecimal(high));
+                } catch (NumberFormatException e) {
+                    // Keep prior value
+                }
+                test.setFormula(formula.getText().trim().isEmpty() ? null : formula.getText().trim());
                 return test;
             }
             return null;
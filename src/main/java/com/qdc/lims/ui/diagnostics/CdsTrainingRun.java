@@ -0,0 +1,86 @@
+package com.qdc.lims.ui.diagnostics;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import com.qdc.lims.service.AuthService;
+import com.qdc.lims.ui.navigation.DashboardType;
+import com.qdc.lims.ui.navigation.ViewFactory;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import org.springframework.context.ApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exercises the common startup paths for the AppCDS training run ({@code -Dqdc.cds.training=true}).
+ * <p>
+ * The classes loaded here end up in the shared archive written by
+ * {@code -XX:ArchiveClassesAtExit}: the login check, every dashboard, the most used
+ * work screens and the PDF library. Views are built into detached scenes and never shown.
+ */
+public final class CdsTrainingRun {
+
+    private static final List<String> WORK_SCREENS = List.of(
+            "/fxml/patient_registration.fxml",
+            "/fxml/create_order.fxml",
+            "/fxml/lab_worklist.fxml",
+            "/fxml/result_entry.fxml");
+
+    private CdsTrainingRun() {
+    }
+
+    /**
+     * @return whether this JVM was started as a CDS training run
+     */
+    public static boolean isTrainingRun() {
+        return Boolean.getBoolean("qdc.cds.training");
+    }
+
+    /**
+     * Loads the views and services a user touches right after startup.
+     *
+     * @param context the running application context
+     */
+    public static void run(ApplicationContext context) {
+        String username = System.getProperty("qdc.cds.training.username");
+        String password = System.getProperty("qdc.cds.training.password");
+        if (username != null && !username.isBlank() && password != null && !password.isBlank()) {
+            boolean ok = context.getBean(AuthService.class).authenticate(username, password);
+            System.out.println("[CDS training] Login as " + username + (ok ? " succeeded" : " failed"));
+        }
+
+        List<String> views = new ArrayList<>();
+        for (DashboardType type : DashboardType.values()) {
+            views.add(type.getFxmlPath());
+        }
+        views.addAll(WORK_SCREENS);
+
+        ViewFactory viewFactory = context.getBean(ViewFactory.class);
+        for (String view : views) {
+            try {
+                Parent root = viewFactory.load(view).root();
+                new Scene(root);
+                root.applyCss();
+                System.out.println("[CDS training] Loaded " + view);
+            } catch (Exception e) {
+                // A screen that needs a logged-in window can fail here; its classes are still loaded.
+                System.out.println("[CDS training] " + view + " failed: " + e.getMessage());
+            }
+        }
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Document document = new Document();
+            PdfWriter.getInstance(document, out);
+            document.open();
+            document.add(new Paragraph("CDS training"));
+            document.close();
+            System.out.println("[CDS training] Generated sample PDF (" + out.size() + " bytes)");
+        } catch (Exception e) {
+            System.out.println("[CDS training] PDF generation failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.qdc.lims.ui.diagnostics;
+
+import com.qdc.lims.ui.AppPaths;
+import javafx.application.Platform;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the JavaFX Application Thread for stalls.
+ * <p>
+ * A daemon thread posts a no-op ping with {@link Platform#runLater(Runnable)} every period
+ * and measures how long the FX thread takes to run it. When a ping has been waiting longer
+ * than the threshold, the FX thread stack and the last SQL it prepared are appended to
+ * {@code Logs/fx-stalls.log} (rolled over to {@code fx-stalls.log.1} when it grows too large).
+ * Each stall is reported once, however long it lasts.
+ */
+@Component
+public class FxThreadWatchdog {
+
+    private static final long MAX_LOG_BYTES = 2L * 1024 * 1024;
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final boolean enabled;
+    private final long periodMillis;
+    private final long thresholdMillis;
+
+    private final AtomicLong stallCount = new AtomicLong();
+    private final AtomicLong longestStallMillis = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+    private volatile Thread fxThread;
+    private volatile long pingPostedAt;
+    private volatile boolean currentPingReported;
+
+    public FxThreadWatchdog(@Value("${qdc.diagnostics.fx-watchdog.enabled:true}") boolean enabled,
+            @Value("${qdc.diagnostics.fx-watchdog.period-ms:250}") long periodMillis,
+            @Value("${qdc.diagnostics.fx-watchdog.threshold-ms:1000}") long thresholdMillis) {
+        this.enabled = enabled;
+        this.periodMillis = Math.max(50, periodMillis);
+        this.thresholdMillis = Math.max(this.periodMillis, thresholdMillis);
+    }
+
+    /**
+     * Starts watching the FX thread. Must be called once the JavaFX toolkit is running.
+     */
+    public synchronized void start() {
+        if (!enabled || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        System.out.println("[FxThreadWatchdog] Watching FX thread (period " + periodMillis
+                + " ms, threshold " + thresholdMillis + " ms)");
+    }
+
+    /**
+     * Stops the watchdog thread.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Number of stalls detected since startup.
+     */
+    public long getStallCount() {
+        return stallCount.get();
+    }
+
+    /**
+     * Longest completed stall since startup, in milliseconds.
+     */
+    public long getLongestStallMillis() {
+        return longestStallMillis.get();
+    }
+
+    private void tick() {
+        try {
+            long postedAt = pingPostedAt;
+            long now = System.currentTimeMillis();
+            if (postedAt == 0) {
+                postPing(now);
+                return;
+            }
+
+            long lag = now - postedAt;
+            if (lag >= thresholdMillis && !currentPingReported) {
+                currentPingReported = true;
+                stallCount.incrementAndGet();
+                writeReport(postedAt, lag);
+            }
+        } catch (Exception e) {
+            System.err.println("[FxThreadWatchdog] Tick failed: " + e.getMessage());
+        }
+    }
+
+    private void postPing(long now) {
+        currentPingReported = false;
+        pingPostedAt = now;
+        Platform.runLater(() -> {
+            fxThread = Thread.currentThread();
+            long lag = System.currentTimeMillis() - pingPostedAt;
+            if (currentPingReported) {
+                longestStallMillis.accumulateAndGet(lag, Math::max);
+                appendToLog("Stall ended after " + lag + " ms" + System.lineSeparator());
+            }
+            pingPostedAt = 0;
+        });
+    }
+
+    private void writeReport(long postedAt, long lag) {
+        StringBuilder report = new StringBuilder();
+        report.append("=== FX thread stall #").append(stallCount.get())
+                .append(" at ").append(LocalDateTime.now().format(TS))
+                .append(" (no response for ").append(lag).append(" ms) ===")
+                .append(System.lineSeparator());
+
+        Thread thread = fxThread;
+        if (thread == null) {
+            report.append("FX thread not yet identified").append(System.lineSeparator());
+        } else {
+            report.append("Thread state: ").append(thread.getState()).append(System.lineSeparator());
+            for (StackTraceElement element : thread.getStackTrace()) {
+                report.append("    at ").append(element).append(System.lineSeparator());
+            }
+
+            SqlInFlightTracker.SqlSample sql = SqlInFlightTracker.lastSqlFor(thread);
+            if (sql != null && sql.preparedAtMillis() >= postedAt) {
+                report.append("SQL prepared during stall (")
+                        .append(System.currentTimeMillis() - sql.preparedAtMillis())
+                        .append(" ms ago): ").append(sql.sql()).append(System.lineSeparator());
+            }
+        }
+
+        System.err.println("[FxThreadWatchdog] FX thread blocked for " + lag + " ms, see fx-stalls.log");
+        appendToLog(report.toString());
+    }
+
+    private synchronized void appendToLog(String text) {
+        Path logFile = AppPaths.logsDir().resolve("fx-stalls.log");
+        try {
+            Files.createDirectories(logFile.getParent());
+            if (Files.exists(logFile) && Files.size(logFile) > MAX_LOG_BYTES) {
+                Files.move(logFile, logFile.resolveSibling("fx-stalls.log.1"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.writeString(logFile, text, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("[FxThreadWatchdog] Could not write stall log: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.qdc.lims.ui.diagnostics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate statement inspector that remembers the last SQL prepared on each thread.
+ * <p>
+ * Registered through {@code spring.jpa.properties.hibernate.session_factory.statement_inspector},
+ * so Hibernate instantiates it reflectively and the state has to live in static fields.
+ * The SQL text is returned unchanged.
+ */
+public class SqlInFlightTracker implements StatementInspector {
+
+    private static final Map<Thread, SqlSample> LAST_SQL = new ConcurrentHashMap<>();
+
+    /**
+     * Last statement seen on a thread, with the wall-clock time it was prepared.
+     */
+    public record SqlSample(String sql, long preparedAtMillis) {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        LAST_SQL.put(Thread.currentThread(), new SqlSample(sql, System.currentTimeMillis()));
+        return sql;
+    }
+
+    /**
+     * Returns the last SQL prepared on the given thread, or {@code null} if none was seen.
+     */
+    public static SqlSample lastSqlFor(Thread thread) {
+        if (thread == null) {
+            return null;
+        }
+        LAST_SQL.keySet().removeIf(t -> !t.isAlive());
+        return LAST_SQL.get(thread);
+    }
+}
@@ -0,0 +1,113 @@
+package com.qdc.lims.ui.diagnostics;
+
+import com.qdc.lims.ui.AppPaths;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects startup phase timings and writes a report once the main window is up.
+ * <p>
+ * Phases are measured from JVM start. Spring bean instantiation steps are captured
+ * with a {@link BufferingApplicationStartup} so the report can list the slowest beans.
+ * The latest report is kept in {@code Logs/startup-timings.log}.
+ */
+public final class StartupTimings {
+
+    private static final long JVM_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static final BufferingApplicationStartup APPLICATION_STARTUP = new BufferingApplicationStartup(10_000);
+    private static final List<String> PHASES = new ArrayList<>();
+    private static final List<String> TASKS = new ArrayList<>();
+    private static long lastMarkMillis = JVM_START_MILLIS;
+
+    private StartupTimings() {
+    }
+
+    /**
+     * Startup recorder to pass to the Spring application builder.
+     */
+    public static BufferingApplicationStartup applicationStartup() {
+        return APPLICATION_STARTUP;
+    }
+
+    /**
+     * Records the end of a startup phase.
+     *
+     * @param phase phase name
+     */
+    public static synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        PHASES.add(String.format("%-32s +%5d ms  (at %5d ms)", phase, now - lastMarkMillis, now - JVM_START_MILLIS));
+        lastMarkMillis = now;
+    }
+
+    /**
+     * Records how long a startup task took.
+     *
+     * @param task   task name
+     * @param millis duration in milliseconds
+     */
+    public static synchronized void recordTask(String task, long millis) {
+        TASKS.add(String.format("%-32s %5d ms  [%s]", task, millis, Thread.currentThread().getName()));
+    }
+
+    /**
+     * Writes the report to the console and the startup log.
+     */
+    public static synchronized void report() {
+        StringBuilder report = new StringBuilder();
+        report.append("=== Startup timings ").append(LocalDateTime.now()).append(" ===").append(System.lineSeparator());
+        report.append("Total: ").append(System.currentTimeMillis() - JVM_START_MILLIS).append(" ms since JVM start")
+                .append(System.lineSeparator());
+
+        report.append(System.lineSeparator()).append("Phases:").append(System.lineSeparator());
+        PHASES.forEach(line -> report.append("  ").append(line).append(System.lineSeparator()));
+
+        if (!TASKS.isEmpty()) {
+            report.append(System.lineSeparator()).append("Startup tasks (parallel):").append(System.lineSeparator());
+            TASKS.forEach(line -> report.append("  ").append(line).append(System.lineSeparator()));
+        }
+
+        report.append(System.lineSeparator()).append("Slowest beans (inclusive of dependencies):")
+                .append(System.lineSeparator());
+        StartupTimeline timeline = APPLICATION_STARTUP.drainBufferedTimeline();
+        timeline.getEvents().stream()
+                .filter(event -> "spring.beans.instantiate".equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(10)
+                .forEach(event -> report.append(String.format("  %-48s %5d ms%n",
+                        beanName(event.getStartupStep()), event.getDuration().toMillis())));
+
+        System.out.print(report);
+
+        Path logFile = AppPaths.logsDir().resolve("startup-timings.log");
+        try {
+            Files.createDirectories(logFile.getParent());
+            Files.writeString(logFile, report.toString(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not write startup timings: " + e.getMessage());
+        }
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Runtime diagnostics for the desktop client.
+ * <p>
+ * Includes the FX Application Thread stall watchdog and the SQL tracking hook
+ * that lets stall reports show which statement was running on the blocked thread,
+ * plus the startup phase timing report.
+ */
+package com.qdc.lims.ui.diagnostics;
@@ -4,13 +4,11 @@ import com.qdc.lims.service.BrandingService;
 import com.qdc.lims.ui.SessionManager;
 import com.qdc.lims.entity.Role;
 import com.qdc.lims.entity.User;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ComboBox;
 import javafx.stage.Stage;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -20,12 +18,12 @@ import java.util.Set;
 @Service
 public class DashboardSwitchService {
 
-    private final ApplicationContext applicationContext;
     private final BrandingService brandingService;
+    private final ViewFactory viewFactory;
 
-    public DashboardSwitchService(ApplicationContext applicationContext, BrandingService brandingService) {
-        this.applicationContext = applicationContext;
+    public DashboardSwitchService(BrandingService brandingService, ViewFactory viewFactory) {
         this.brandingService = brandingService;
+        this.viewFactory = viewFactory;
     }
 
     /**
@@ -110,16 +108,15 @@ public class DashboardSwitchService {
         }
 
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(targetDashboard.getFxmlPath()));
-            loader.setControllerFactory(applicationContext::getBean);
-            Parent root = loader.load();
-
             // Update the Role in SessionManager for this specific window
             SessionManager.setRole(currentStage, targetDashboard.name());
 
+            // Cached per window; a re-used root keeps the scene it was first shown in.
+            Parent root = viewFactory.getView(currentStage, targetDashboard.getFxmlPath()).root();
+
             // Tag the stage so branding can be applied consistently.
             brandingService.tagStage(currentStage, targetDashboard.getWindowTitle());
-            currentStage.setScene(new Scene(root));
+            currentStage.setScene(root.getScene() != null ? root.getScene() : new Scene(root));
 
             // Resize logic (Customize sizes as needed)
             if (targetDashboard == DashboardType.ADMIN) {
@@ -141,6 +138,22 @@ public class DashboardSwitchService {
         }
     }
 
+    /**
+     * Pre-builds the other dashboards a user can switch to, so the first switch is instant.
+     *
+     * @param user    the logged-in user
+     * @param current the dashboard being shown now
+     */
+    public void prewarmDashboards(User user, DashboardType current) {
+        List<String> paths = new ArrayList<>();
+        for (DashboardType type : getAccessibleDashboards(user)) {
+            if (type != current) {
+                paths.add(type.getFxmlPath());
+            }
+        }
+        viewFactory.prewarm(paths);
+    }
+
     public DashboardType getDefaultDashboard(Stage stage) {
         User user = SessionManager.getUser(stage);
         if (user == null || user.getRoles() == null)
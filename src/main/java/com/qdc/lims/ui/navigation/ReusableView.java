@@ -0,0 +1,17 @@
+package com.qdc.lims.ui.navigation;
+
+/**
+ * Implemented by controllers whose views are cached by {@link ViewFactory}.
+ * <p>
+ * A cached view keeps its nodes and state; when it is shown again (possibly in a
+ * window that now belongs to another user) the controller refreshes the
+ * user-specific parts here instead of being rebuilt.
+ */
+public interface ReusableView {
+
+    /**
+     * Called on the FX thread when a cached view is handed out again, after the
+     * session for the target window has been updated.
+     */
+    void onReattach();
+}
@@ -0,0 +1,211 @@
+package com.qdc.lims.ui.navigation;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads FXML views and keeps them for reuse.
+ * <p>
+ * Views are cached per owner (a session {@code Tab} or a {@code Stage}) so switching
+ * back to a dashboard re-attaches the existing nodes instead of parsing and
+ * building them again. Most controllers are Spring singletons whose {@code @FXML}
+ * fields point at the view loaded last, so a cached view is only reused while its
+ * controller is still bound to it; otherwise it is loaded fresh.
+ * <p>
+ * After login, {@link #prewarm(Collection)} reads the FXML and creates the
+ * controller beans on a background thread, then builds the views on the FX thread
+ * one per pulse so the UI stays responsive.
+ */
+@Component
+public class ViewFactory {
+
+    private static final Pattern CONTROLLER_ATTR = Pattern.compile("fx:controller\\s*=\\s*\"([^\"]+)\"");
+
+    /**
+     * A loaded view and its controller.
+     */
+    public record LoadedView(Parent root, Object controller) {
+    }
+
+    private final ApplicationContext applicationContext;
+
+    private final Map<String, byte[]> fxmlSource = new ConcurrentHashMap<>();
+
+    // FX thread only
+    private final Map<Object, Map<String, LoadedView>> viewsByOwner = new WeakHashMap<>();
+    private final Map<String, LoadedView> prewarmed = new HashMap<>();
+    private final Map<Object, Parent> boundRoots = new IdentityHashMap<>();
+
+    public ViewFactory(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Returns the view for an owner, reusing a cached one when possible.
+     * Must be called on the FX thread.
+     *
+     * @param owner    the tab or stage the view is shown in
+     * @param fxmlPath classpath path of the FXML file
+     * @return the view and its controller
+     * @throws IOException if the FXML cannot be loaded
+     */
+    public LoadedView getView(Object owner, String fxmlPath) throws IOException {
+        Map<String, LoadedView> ownerViews = viewsByOwner.computeIfAbsent(owner, key -> new HashMap<>());
+
+        LoadedView cached = ownerViews.get(fxmlPath);
+        if (cached != null && isStillBound(cached)) {
+            reattach(cached);
+            return cached;
+        }
+
+        LoadedView warm = prewarmed.remove(fxmlPath);
+        if (warm != null && isStillBound(warm)) {
+            ownerViews.put(fxmlPath, warm);
+            reattach(warm);
+            return warm;
+        }
+
+        LoadedView fresh = load(fxmlPath);
+        ownerViews.put(fxmlPath, fresh);
+        return fresh;
+    }
+
+    /**
+     * Loads a view without caching it.
+     *
+     * @param fxmlPath classpath path of the FXML file
+     * @return the view and its controller
+     * @throws IOException if the FXML cannot be loaded
+     */
+    public LoadedView load(String fxmlPath) throws IOException {
+        URL location = getClass().getResource(fxmlPath);
+        if (location == null) {
+            throw new IOException("FXML not found: " + fxmlPath);
+        }
+
+        FXMLLoader loader = new FXMLLoader(location);
+        loader.setControllerFactory(applicationContext::getBean);
+        Parent root;
+        try (InputStream in = new ByteArrayInputStream(readSource(fxmlPath, location))) {
+            root = loader.load(in);
+        }
+
+        Object controller = loader.getController();
+        if (controller != null) {
+            boundRoots.put(controller, root);
+        }
+        return new LoadedView(root, controller);
+    }
+
+    /**
+     * Drops the views cached for an owner (tab closed, user logged out).
+     *
+     * @param owner the tab or stage
+     */
+    public void release(Object owner) {
+        viewsByOwner.remove(owner);
+    }
+
+    /**
+     * Prepares views the user is likely to open next. FXML is read and controllers
+     * are created in the background; views nobody is showing are then built on the
+     * FX thread, one per pulse.
+     *
+     * @param fxmlPaths classpath paths of the FXML files
+     */
+    public void prewarm(Collection<String> fxmlPaths) {
+        if (fxmlPaths.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            for (String path : fxmlPaths) {
+                try {
+                    URL location = getClass().getResource(path);
+                    if (location == null) {
+                        continue;
+                    }
+                    byte[] source = readSource(path, location);
+                    Matcher matcher = CONTROLLER_ATTR.matcher(new String(source, StandardCharsets.UTF_8));
+                    if (matcher.find()) {
+                        applicationContext.getBean(Class.forName(matcher.group(1)));
+                    }
+                } catch (Exception e) {
+                    // Only a warm-up; the real load reports errors.
+                    System.err.println("[ViewFactory] Could not pre-load " + path + ": " + e.getMessage());
+                }
+            }
+            Platform.runLater(() -> buildNext(new ArrayDeque<>(fxmlPaths)));
+        }, "view-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void buildNext(Deque<String> remaining) {
+        String path = remaining.poll();
+        if (path == null) {
+            return;
+        }
+        if (!prewarmed.containsKey(path) && !isShown(path)) {
+            try {
+                prewarmed.put(path, load(path));
+            } catch (Exception e) {
+                System.err.println("[ViewFactory] Could not pre-build " + path + ": " + e.getMessage());
+            }
+        }
+        Platform.runLater(() -> buildNext(remaining));
+    }
+
+    /**
+     * A view is "shown" if any owner has a live (still bound) copy. Building another
+     * copy would steal the singleton controller from it.
+     */
+    private boolean isShown(String fxmlPath) {
+        for (Map<String, LoadedView> views : viewsByOwner.values()) {
+            LoadedView view = views.get(fxmlPath);
+            if (view != null && isStillBound(view)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isStillBound(LoadedView view) {
+        return view.controller() == null || boundRoots.get(view.controller()) == view.root();
+    }
+
+    private void reattach(LoadedView view) {
+        if (view.controller() instanceof ReusableView reusable) {
+            reusable.onReattach();
+        }
+    }
+
+    private byte[] readSource(String fxmlPath, URL location) throws IOException {
+        byte[] source = fxmlSource.get(fxmlPath);
+        if (source == null) {
+            try (InputStream in = location.openStream()) {
+                source = in.readAllBytes();
+            }
+            fxmlSource.put(fxmlPath, source);
+        }
+        return source;
+    }
+}
@@ -1,7 +1,7 @@
 /**
  * Navigation primitives and dashboard switching utilities.
  * <p>
- * Defines dashboard types and the services that switch active dashboards per
- * window.
+ * Defines dashboard types, the services that switch active dashboards per
+ * window, and the view factory that caches and pre-builds dashboard views.
  */
 package com.qdc.lims.ui.navigation;
@@ -0,0 +1,168 @@
+package com.qdc.lims.ui.util;
+
+import com.qdc.lims.entity.CriticalAlert;
+import com.qdc.lims.entity.User;
+import com.qdc.lims.service.CriticalAlertService;
+import com.qdc.lims.service.LocaleFormatService;
+import com.qdc.lims.ui.SessionManager;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Banner listing the open critical-value alerts, most urgent first, each with an
+ * Acknowledge button. It refreshes when the alert service pushes a change and, for
+ * alerts from other stations, every {@link #POLL_SECONDS}; it only listens while it is
+ * shown and is hidden while there are no open alerts.
+ */
+public final class CriticalAlertPanel extends VBox {
+
+    private static final int METRICS_DAYS = 30;
+    private static final int MAX_ROWS = 5;
+    private static final int POLL_SECONDS = 30;
+
+    private final CriticalAlertService alertService;
+    private final LocaleFormatService localeFormatService;
+    private final Consumer<CriticalAlert> listener = alert -> Platform.runLater(this::refresh);
+    private final Timeline poll = new Timeline(new KeyFrame(javafx.util.Duration.seconds(POLL_SECONDS),
+            e -> refresh()));
+
+    /**
+     * Creates the panel; add it to a dashboard container.
+     *
+     * @param alertService        critical alert service
+     * @param localeFormatService date formatting
+     */
+    public CriticalAlertPanel(CriticalAlertService alertService, LocaleFormatService localeFormatService) {
+        this.alertService = alertService;
+        this.localeFormatService = localeFormatService;
+        setSpacing(4);
+        setPadding(new Insets(6, 15, 6, 15));
+        setStyle("-fx-background-color: #fdecea; -fx-border-color: #e74c3c; -fx-border-width: 0 0 2 0;");
+        managedProperty().bind(visibleProperty());
+        setVisible(false);
+        poll.setCycleCount(Animation.INDEFINITE);
+
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null) {
+                alertService.addListener(listener);
+                refresh();
+                poll.play();
+            } else {
+                alertService.removeListener(listener);
+                poll.stop();
+            }
+        });
+    }
+
+    /**
+     * Reloads the open alerts and the acknowledgement figures.
+     */
+    public void refresh() {
+        List<CriticalAlert> alerts;
+        try {
+            alerts = alertService.openAlerts();
+        } catch (Exception e) {
+            System.err.println("[CriticalAlertPanel] Could not load alerts: " + e.getMessage());
+            return;
+        }
+        getChildren().clear();
+        setVisible(!alerts.isEmpty());
+        if (alerts.isEmpty()) {
+            return;
+        }
+
+        Label title = new Label("CRITICAL VALUES (" + alerts.size() + ")");
+        title.setStyle("-fx-font-weight: bold; -fx-text-fill: #c0392b;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox header = new HBox(10, title, spacer, metricsLabel());
+        header.setAlignment(Pos.CENTER_LEFT);
+        getChildren().add(header);
+
+        for (CriticalAlert alert : alerts.subList(0, Math.min(MAX_ROWS, alerts.size()))) {
+            getChildren().add(row(alert));
+        }
+        if (alerts.size() > MAX_ROWS) {
+            getChildren().add(new Label("... and " + (alerts.size() - MAX_ROWS) + " more"));
+        }
+    }
+
+    private HBox row(CriticalAlert alert) {
+        Label text = new Label(String.format("%s  %s (%s)  %s = %s %s  [%s]  raised %s",
+                "#" + alert.getOrderId(),
+                nullToEmpty(alert.getPatientName()),
+                nullToEmpty(alert.getMrn()),
+                alert.getTestName(),
+                alert.getResultValue(),
+                nullToEmpty(alert.getUnit()),
+                alert.getCriticalLimit(),
+                localeFormatService.formatDateTime(alert.getRaisedAt())));
+        text.setStyle("-fx-text-fill: #922b21;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+
+        Button ack = new Button("Acknowledge");
+        ack.setStyle("-fx-background-color: #c0392b; -fx-text-fill: white; -fx-font-size: 11; -fx-cursor: hand;");
+        ack.setOnAction(e -> acknowledge(alert));
+
+        HBox row = new HBox(10, text, spacer, ack);
+        row.setAlignment(Pos.CENTER_LEFT);
+        return row;
+    }
+
+    private void acknowledge(CriticalAlert alert) {
+        User user = getScene() != null && getScene().getWindow() instanceof Stage stage
+                ? SessionManager.getUser(stage)
+                : SessionManager.getCurrentUser();
+        String username = user != null ? user.getUsername() : "unknown";
+        try {
+            alertService.acknowledge(alert.getId(), username);
+        } catch (Exception e) {
+            Alert error = new Alert(Alert.AlertType.ERROR, "Could not acknowledge alert: " + e.getMessage());
+            error.showAndWait();
+        }
+        refresh();
+    }
+
+    private Label metricsLabel() {
+        LocalDateTime now = LocalDateTime.now();
+        CriticalAlertService.AckMetrics metrics = alertService.metrics(now.minusDays(METRICS_DAYS), now);
+        String text = metrics.acknowledged() == 0
+                ? "Last " + METRICS_DAYS + " days: " + metrics.raised() + " raised"
+                : String.format("Last %d days: %d raised, acknowledged in median %s, 90%% %s, longest %s",
+                        METRICS_DAYS, metrics.raised(), format(metrics.median()), format(metrics.p90()),
+                        format(metrics.longest()));
+        Label label = new Label(text);
+        label.setStyle("-fx-font-size: 11; -fx-text-fill: #7f8c8d;");
+        return label;
+    }
+
+    private static String format(Duration duration) {
+        long minutes = duration.toMinutes();
+        if (minutes < 1) {
+            return duration.toSeconds() + "s";
+        }
+        return minutes < 60 ? minutes + "m" : (minutes / 60) + "h " + (minutes % 60) + "m";
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
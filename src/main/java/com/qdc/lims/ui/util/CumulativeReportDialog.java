@@ -0,0 +1,227 @@
+package com.qdc.lims.ui.util;
+
+import com.qdc.lims.dto.CumulativeReport;
+import com.qdc.lims.dto.PatientVisit;
+import com.qdc.lims.dto.ResultPoint;
+import com.qdc.lims.service.CumulativeReportService;
+import com.qdc.lims.service.LocaleFormatService;
+import javafx.event.ActionEvent;
+import javafx.geometry.Insets;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.GridPane;
+import javafx.scene.shape.Polyline;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preview of a patient's cumulative report: tests by visit with a trend line per
+ * test, paged through older visits, with the same page exportable as PDF.
+ */
+public final class CumulativeReportDialog {
+
+    private static final double SPARK_WIDTH = 80;
+    private static final double SPARK_HEIGHT = 16;
+
+    private final CumulativeReportService reportService;
+    private final LocaleFormatService localeFormatService;
+    private final Long patientId;
+
+    // Cursors of the pages shown before the current one, for "Newer Visits"
+    private final Deque<Long> newerPages = new ArrayDeque<>();
+    private Long currentCursor;
+    private CumulativeReport current;
+
+    private CumulativeReportDialog(CumulativeReportService reportService, LocaleFormatService localeFormatService,
+            Long patientId) {
+        this.reportService = reportService;
+        this.localeFormatService = localeFormatService;
+        this.patientId = patientId;
+    }
+
+    /**
+     * Opens the preview for a patient, starting with the newest visits.
+     *
+     * @param owner               owning window
+     * @param reportService       cumulative report service
+     * @param localeFormatService date formatting
+     * @param patientId           patient id
+     */
+    public static void show(Window owner, CumulativeReportService reportService,
+            LocaleFormatService localeFormatService, Long patientId) {
+        new CumulativeReportDialog(reportService, localeFormatService, patientId).open(owner);
+    }
+
+    private void open(Window owner) {
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(owner);
+        dialog.setTitle("Cumulative Report");
+        dialog.setResizable(true);
+
+        ButtonType newerType = new ButtonType("Newer Visits", ButtonBar.ButtonData.BACK_PREVIOUS);
+        ButtonType olderType = new ButtonType("Older Visits", ButtonBar.ButtonData.NEXT_FORWARD);
+        ButtonType pdfType = new ButtonType("Save PDF...", ButtonBar.ButtonData.OTHER);
+        dialog.getDialogPane().getButtonTypes().addAll(newerType, olderType, pdfType, ButtonType.CLOSE);
+
+        ScrollPane scroll = new ScrollPane();
+        scroll.setPrefSize(900, 500);
+        dialog.getDialogPane().setContent(scroll);
+
+        Button newer = (Button) dialog.getDialogPane().lookupButton(newerType);
+        Button older = (Button) dialog.getDialogPane().lookupButton(olderType);
+        Button pdf = (Button) dialog.getDialogPane().lookupButton(pdfType);
+
+        Runnable refresh = () -> {
+            dialog.setHeaderText(current.patientName() + "  (MRN " + current.mrn() + ")");
+            scroll.setContent(buildMatrix(current));
+            newer.setDisable(newerPages.isEmpty());
+            older.setDisable(current.olderThanOrderId() == null);
+        };
+
+        // These buttons page in place instead of closing the dialog
+        newer.addEventFilter(ActionEvent.ACTION, e -> {
+            e.consume();
+            currentCursor = newerPages.pop();
+            load(currentCursor);
+            refresh.run();
+        });
+        older.addEventFilter(ActionEvent.ACTION, e -> {
+            e.consume();
+            newerPages.push(currentCursor == null ? Long.MAX_VALUE : currentCursor);
+            currentCursor = current.olderThanOrderId();
+            load(currentCursor);
+            refresh.run();
+        });
+        pdf.addEventFilter(ActionEvent.ACTION, e -> {
+            e.consume();
+            savePdf(dialog.getDialogPane().getScene().getWindow());
+        });
+
+        load(null);
+        refresh.run();
+        dialog.showAndWait();
+    }
+
+    private void load(Long cursor) {
+        Long before = cursor == null || cursor == Long.MAX_VALUE ? null : cursor;
+        current = reportService.load(patientId, before, CumulativeReportService.DEFAULT_VISITS, null);
+    }
+
+    private GridPane buildMatrix(CumulativeReport report) {
+        GridPane grid = new GridPane();
+        grid.setHgap(14);
+        grid.setVgap(4);
+        grid.setPadding(new Insets(10));
+
+        if (report.tests().isEmpty()) {
+            grid.add(new Label("No reported results."), 0, 0);
+            return grid;
+        }
+
+        int col = 0;
+        grid.add(header("Test"), col++, 0);
+        grid.add(header("Unit"), col++, 0);
+        grid.add(header("Range"), col++, 0);
+        for (PatientVisit visit : report.visits()) {
+            String hold = report.heldVisits().get(visit.orderId());
+            Label visitHeader = header(localeFormatService.formatDate(visit.orderDate().toLocalDate())
+                    + "\n#" + visit.orderId() + (hold != null ? "\nHeld" : ""));
+            if (hold != null) {
+                visitHeader.setTooltip(new Tooltip(hold));
+                visitHeader.setStyle("-fx-font-weight: bold; -fx-text-fill: #f39c12;");
+            }
+            grid.add(visitHeader, col++, 0);
+        }
+        grid.add(header("Trend"), col, 0);
+
+        int row = 1;
+        String department = null;
+        for (CumulativeReport.TestTrend test : report.tests()) {
+            if (!test.department().equals(department)) {
+                department = test.department();
+                Label section = new Label(department);
+                section.setStyle("-fx-font-weight: bold; -fx-text-fill: #555555; -fx-padding: 6 0 0 0;");
+                grid.add(section, 0, row++, report.visits().size() + 4, 1);
+            }
+
+            Map<Long, ResultPoint> byOrder = new HashMap<>();
+            test.points().forEach(p -> byOrder.put(p.orderId(), p));
+            col = 0;
+            grid.add(new Label(test.testName()), col++, row);
+            grid.add(new Label(test.unit()), col++, row);
+            grid.add(new Label(test.referenceRange()), col++, row);
+            List<BigDecimal> series = new ArrayList<>();
+            for (PatientVisit visit : report.visits()) {
+                ResultPoint point = byOrder.get(visit.orderId());
+                Label value = new Label(point != null ? point.value() : "");
+                if (point != null && point.abnormal()) {
+                    value.setStyle("-fx-text-fill: #e74c3c; -fx-font-weight: bold;");
+                }
+                grid.add(value, col++, row);
+                if (point != null && point.numericValue() != null) {
+                    series.add(point.numericValue());
+                }
+            }
+            if (series.size() > 1) {
+                grid.add(sparkline(series), col, row);
+            }
+            row++;
+        }
+        return grid;
+    }
+
+    private static Label header(String text) {
+        Label label = new Label(text);
+        label.setStyle("-fx-font-weight: bold;");
+        return label;
+    }
+
+    private static Polyline sparkline(List<BigDecimal> values) {
+        BigDecimal min = values.stream().min(BigDecimal::compareTo).orElseThrow();
+        BigDecimal max = values.stream().max(BigDecimal::compareTo).orElseThrow();
+        double span = max.subtract(min).doubleValue();
+        Polyline line = new Polyline();
+        for (int i = 0; i < values.size(); i++) {
+            double share = span == 0 ? 0.5 : values.get(i).subtract(min).doubleValue() / span;
+            line.getPoints().addAll(SPARK_WIDTH * i / (values.size() - 1), SPARK_HEIGHT * (1 - share));
+        }
+        line.setStyle("-fx-stroke: #2c3e50; -fx-stroke-width: 1.2;");
+        return line;
+    }
+
+    private void savePdf(Window owner) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Save Cumulative Report");
+        chooser.setInitialFileName("cumulative-" + current.mrn() + ".pdf");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF", "*.pdf"));
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) {
+            return;
+        }
+        try {
+            Long before = currentCursor == null || currentCursor == Long.MAX_VALUE ? null : currentCursor;
+            Files.write(file.toPath(),
+                    reportService.generatePdf(patientId, before, CumulativeReportService.DEFAULT_VISITS, null));
+        } catch (Exception e) {
+            Alert error = new Alert(Alert.AlertType.ERROR);
+            error.setContentText("Could not save report: " + e.getMessage());
+            error.show();
+        }
+    }
+}
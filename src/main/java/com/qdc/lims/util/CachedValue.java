@@ -0,0 +1,73 @@
+package com.qdc.lims.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A value loaded on first use and kept for a fixed time, for lookup tables compiled from
+ * rows that rarely change (rules, formulas, QC blocks).
+ * <p>
+ * The value is reloaded on the first {@link #get()} after {@link #invalidate()} or once
+ * it is older than the time to live, so changes saved on another station are picked up
+ * within that time. Readers never block; two threads that find it stale at the same moment
+ * may both load it. A value whose load started before {@link #invalidate()} is returned
+ * to its caller but never served again, so the next reader sees the change.
+ *
+ * @param <T> the cached value, treated as immutable
+ */
+public final class CachedValue<T> {
+
+    private final long ttlMillis;
+    private final Supplier<T> loader;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Entry<T> entry;
+
+    /**
+     * @param ttlMillis how long a loaded value is used
+     * @param loader    loads the value; called outside any lock
+     */
+    public CachedValue(long ttlMillis, Supplier<T> loader) {
+        this.ttlMillis = ttlMillis;
+        this.loader = loader;
+    }
+
+    /**
+     * The cached value, loaded first if there is none or it has expired.
+     *
+     * @return the value
+     */
+    public T get() {
+        Entry<T> current = entry;
+        long loading = generation.get();
+        if (current != null && current.generation == loading
+                && System.currentTimeMillis() - current.loadedAt <= ttlMillis) {
+            return current.value;
+        }
+        T value = loader.get();
+        entry = new Entry<>(value, loading, System.currentTimeMillis());
+        return value;
+    }
+
+    /**
+     * Drops the value so the next {@link #get()} loads it again; call after the rows it
+     * is built from change. Inside a transaction it is dropped again when the transaction
+     * ends, since a reader may have reloaded the rows as they were before the commit.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private record Entry<T>(T value, long generation, long loadedAt) {
+    }
+}
@@ -0,0 +1,3 @@
+-- LabOrderRepository: findOpenWithTests (batch result entry). Orders still in the lab
+-- are a small, moving share of the table; the partial index holds only those.
+create index idx_lab_order_open on lab_order (id) where status not in ('COMPLETED', 'CANCELLED');
@@ -0,0 +1,294 @@
+-- Baseline schema: the tables Hibernate created with ddl-auto=update up to this version.
+-- Existing databases are baselined at version 1 and skip this script.
+
+create table department (
+    id integer generated by default as identity,
+    name varchar(255) not null unique,
+    code varchar(255),
+    active boolean,
+    primary key (id)
+);
+
+create table doctors (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    clinic_name varchar(255),
+    mobile varchar(255),
+    commission_percentage float(53),
+    active boolean not null,
+    primary key (id)
+);
+
+create table suppliers (
+    id bigint generated by default as identity,
+    company_name varchar(255) not null,
+    contact_person varchar(255),
+    mobile varchar(255),
+    email varchar(255),
+    address varchar(255),
+    active boolean not null,
+    primary key (id)
+);
+
+create table inventory_items (
+    id bigint generated by default as identity,
+    version bigint,
+    item_name varchar(255) not null unique,
+    current_stock float(53),
+    min_threshold float(53),
+    unit varchar(255),
+    average_cost float(53),
+    preferred_supplier_id bigint,
+    active boolean not null,
+    primary key (id),
+    constraint fk_inventory_items_supplier foreign key (preferred_supplier_id) references suppliers
+);
+
+create table lab_info (
+    id bigint not null,
+    lab_name varchar(255),
+    address varchar(255),
+    phone_number varchar(255),
+    city varchar(255),
+    tag_line varchar(255),
+    email varchar(255),
+    website varchar(255),
+    primary key (id)
+);
+
+create table patients (
+    id bigint generated by default as identity,
+    version bigint,
+    mrn varchar(255) not null unique,
+    cnic varchar(255) unique,
+    full_name varchar(255) not null,
+    age integer not null,
+    city varchar(255),
+    mobile_number varchar(255),
+    date_of_birth date,
+    gender varchar(255),
+    registration_date date,
+    primary key (id)
+);
+
+create index idx_mrn on patients (mrn);
+create index idx_cnic on patients (cnic);
+
+create table test_categories (
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    description varchar(255),
+    is_active boolean not null,
+    primary key (id)
+);
+
+create table test_definition (
+    id bigint generated by default as identity,
+    test_name varchar(255) not null,
+    short_code varchar(255),
+    department_id integer not null,
+    unit varchar(255),
+    min_range numeric(38,2),
+    max_range numeric(38,2),
+    price numeric(38,2),
+    active boolean,
+    primary key (id),
+    constraint fk_test_definition_department foreign key (department_id) references department
+);
+
+create table panel (
+    id integer generated by default as identity,
+    panel_name varchar(255) not null,
+    department_id integer,
+    active boolean,
+    primary key (id),
+    constraint fk_panel_department foreign key (department_id) references department
+);
+
+create table panel_tests (
+    panel_id integer not null,
+    test_id bigint not null,
+    constraint fk_panel_tests_panel foreign key (panel_id) references panel,
+    constraint fk_panel_tests_test foreign key (test_id) references test_definition
+);
+
+create table reference_range (
+    id bigint generated by default as identity,
+    test_id bigint not null,
+    gender varchar(255),
+    min_age integer,
+    max_age integer,
+    min_val numeric(38,2),
+    max_val numeric(38,2),
+    primary key (id),
+    constraint fk_reference_range_test foreign key (test_id) references test_definition
+);
+
+create table test_consumption (
+    id bigint generated by default as identity,
+    test_id bigint not null,
+    item_id bigint not null,
+    quantity float(53),
+    primary key (id),
+    constraint fk_test_consumption_test foreign key (test_id) references test_definition,
+    constraint fk_test_consumption_item foreign key (item_id) references inventory_items
+);
+
+create table test_recipes (
+    id bigint generated by default as identity,
+    test_id bigint not null,
+    item_id bigint not null,
+    quantity float(53) not null,
+    primary key (id),
+    constraint fk_test_recipes_test foreign key (test_id) references test_definition,
+    constraint fk_test_recipes_item foreign key (item_id) references inventory_items
+);
+
+create table permissions (
+    id bigint generated by default as identity,
+    name varchar(100) not null unique,
+    description varchar(200),
+    category varchar(50),
+    active boolean not null,
+    primary key (id)
+);
+
+create table roles (
+    id bigint generated by default as identity,
+    name varchar(50) not null unique,
+    description varchar(200),
+    active boolean not null,
+    primary key (id)
+);
+
+create table role_permissions (
+    role_id bigint not null,
+    permission_id bigint not null,
+    primary key (role_id, permission_id),
+    constraint fk_role_permissions_role foreign key (role_id) references roles,
+    constraint fk_role_permissions_permission foreign key (permission_id) references permissions
+);
+
+create table users (
+    id bigint generated by default as identity,
+    version bigint,
+    username varchar(50) not null unique,
+    password varchar(255) not null,
+    full_name varchar(100) not null,
+    email varchar(100) unique,
+    phone_number varchar(20),
+    active boolean not null,
+    account_non_expired boolean not null,
+    account_non_locked boolean not null,
+    credentials_non_expired boolean not null,
+    created_at timestamp(6),
+    last_login_at timestamp(6),
+    notes varchar(500),
+    primary key (id)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role_id bigint not null,
+    primary key (user_id, role_id),
+    constraint fk_user_roles_user foreign key (user_id) references users,
+    constraint fk_user_roles_role foreign key (role_id) references roles
+);
+
+create table system_configurations (
+    config_key varchar(255) not null,
+    config_value varchar(1000),
+    description varchar(255),
+    category varchar(255),
+    primary key (config_key)
+);
+
+create table lab_order (
+    id bigint generated by default as identity,
+    version bigint,
+    patient_id bigint not null,
+    doctor_id bigint,
+    order_date timestamp(6),
+    status varchar(255),
+    total_amount float(53),
+    is_report_delivered boolean not null,
+    delivery_date timestamp(6),
+    results_edited boolean default false not null,
+    results_edited_at timestamp(6),
+    results_edited_by varchar(255),
+    results_edit_reason varchar(255),
+    reprint_required boolean default false not null,
+    reprint_count integer default 0,
+    last_reprint_at timestamp(6),
+    last_reprint_by varchar(255),
+    discount_amount float(53),
+    tax_amount float(53),
+    paid_amount float(53),
+    balance_due float(53),
+    primary key (id),
+    constraint fk_lab_order_patient foreign key (patient_id) references patients,
+    constraint fk_lab_order_doctor foreign key (doctor_id) references doctors
+);
+
+create table lab_result (
+    id bigint generated by default as identity,
+    version bigint,
+    order_id bigint,
+    test_id bigint,
+    result_value varchar(255),
+    is_abnormal boolean not null,
+    remarks varchar(255),
+    performed_by varchar(255),
+    performed_at timestamp(6),
+    status varchar(255),
+    primary key (id),
+    constraint fk_lab_result_order foreign key (order_id) references lab_order,
+    constraint fk_lab_result_test foreign key (test_id) references test_definition
+);
+
+create table commission_ledger (
+    id bigint generated by default as identity,
+    order_id bigint not null unique,
+    doctor_id bigint not null,
+    total_bill_amount float(53),
+    commission_percentage float(53),
+    calculated_amount float(53),
+    paid_amount float(53),
+    transaction_date date,
+    status varchar(255),
+    payment_date date,
+    primary key (id),
+    constraint fk_commission_ledger_order foreign key (order_id) references lab_order,
+    constraint fk_commission_ledger_doctor foreign key (doctor_id) references doctors
+);
+
+create table payments (
+    id bigint generated by default as identity,
+    type varchar(255) not null,
+    category varchar(255) not null,
+    description varchar(255) not null,
+    amount float(53) not null,
+    payment_method varchar(255),
+    reference_number varchar(255),
+    transaction_date timestamp(6),
+    recorded_by_user_id bigint,
+    remarks varchar(255),
+    primary key (id),
+    constraint fk_payments_user foreign key (recorded_by_user_id) references users
+);
+
+create table supplier_ledger (
+    id bigint generated by default as identity,
+    supplier_id bigint not null,
+    transaction_date date,
+    description varchar(255),
+    invoice_number varchar(255),
+    invoice_date date,
+    due_date date,
+    bill_amount float(53),
+    paid_amount float(53),
+    balance_due float(53),
+    remarks varchar(255),
+    primary key (id),
+    constraint fk_supplier_ledger_supplier foreign key (supplier_id) references suppliers
+);
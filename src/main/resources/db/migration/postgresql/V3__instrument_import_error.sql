@@ -0,0 +1,18 @@
+-- Error queue for analyzer results that could not be matched to a pending result.
+
+create table instrument_import_error (
+    id bigint generated by default as identity,
+    received_at timestamp(6),
+    instrument varchar(255),
+    source_file varchar(255),
+    sample_id varchar(255),
+    test_code varchar(255),
+    result_value varchar(255),
+    units varchar(255),
+    reason varchar(500),
+    resolved boolean not null,
+    primary key (id)
+);
+
+-- InstrumentImportErrorRepository: findByResolvedFalseOrderByReceivedAtDesc, countByResolvedFalse
+create index idx_instrument_import_error_open on instrument_import_error (received_at) where not resolved;
@@ -0,0 +1,3 @@
+-- Calculated tests: formula over other tests' short codes.
+
+alter table test_definition add column formula varchar(500);
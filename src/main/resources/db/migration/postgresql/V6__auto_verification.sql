@@ -0,0 +1,39 @@
+-- Auto-verification: verification state on orders, analyzer flags on results, critical limits
+-- on tests and the rules with their hit counters.
+
+alter table lab_order add column verified_at timestamp(6);
+alter table lab_order add column verified_by varchar(255);
+alter table lab_order add column auto_verified boolean default false not null;
+alter table lab_order add column verification_hold varchar(500);
+
+alter table lab_result add column instrument_flags varchar(255);
+
+alter table test_definition add column critical_low numeric(38,2);
+alter table test_definition add column critical_high numeric(38,2);
+
+create table auto_verify_rule (
+    id bigint generated by default as identity,
+    check_type varchar(255) not null,
+    test_id bigint,
+    enabled boolean not null,
+    evaluated_count bigint not null,
+    held_count bigint not null,
+    primary key (id),
+    constraint fk_auto_verify_rule_test foreign key (test_id) references test_definition
+);
+
+-- Default rule set for every test (auto-verification itself stays off until qdc.autoverify.enabled=true)
+insert into auto_verify_rule (check_type, test_id, enabled, evaluated_count, held_count) values
+    ('RESULT_PRESENT', null, true, 0, 0),
+    ('WITHIN_RANGE', null, true, 0, 0),
+    ('DELTA_PASSED', null, true, 0, 0),
+    ('NO_CRITICAL', null, true, 0, 0),
+    ('INSTRUMENT_FLAGS_CLEAR', null, true, 0, 0),
+    ('NUMERIC_VALUE', null, false, 0, 0);
+
+-- Orders completed before verification existed do not go to the review queue
+update lab_order set verified_at = coalesce(results_edited_at, order_date), verified_by = 'MIGRATION'
+where status = 'COMPLETED';
+
+-- LabOrderRepository.findAwaitingVerification, countAwaitingVerification
+create index idx_lab_order_review on lab_order (order_date) where verified_at is null;
@@ -0,0 +1,30 @@
+-- Critical values: per-range critical limits and the alert queue with acknowledgements.
+
+alter table reference_range add column critical_low numeric(38,2);
+alter table reference_range add column critical_high numeric(38,2);
+
+create table critical_alert (
+    id bigint generated by default as identity,
+    order_id bigint,
+    result_id bigint,
+    patient_id bigint,
+    patient_name varchar(255),
+    mrn varchar(255),
+    test_name varchar(255),
+    result_value varchar(255),
+    unit varchar(255),
+    critical_limit varchar(255),
+    severity float(53) not null,
+    raised_at timestamp(6),
+    raised_by varchar(255),
+    acknowledged_at timestamp(6),
+    acknowledged_by varchar(255),
+    primary key (id)
+);
+
+-- CriticalAlertRepository.findByAcknowledgedAtIsNull
+create index idx_critical_alert_open on critical_alert (raised_at) where acknowledged_at is null;
+-- CriticalAlertRepository.findByResultIdInAndAcknowledgedAtIsNull
+create index idx_critical_alert_result on critical_alert (result_id);
+-- CriticalAlertRepository.findByRaisedAtBetween
+create index idx_critical_alert_raised on critical_alert (raised_at);
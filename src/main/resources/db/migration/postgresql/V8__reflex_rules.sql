@@ -0,0 +1,21 @@
+-- Reflex testing: rules that add a test to the order when a result of another test meets
+-- a condition.
+
+create table reflex_rule (
+    id bigint generated by default as identity,
+    trigger_test_id bigint not null,
+    condition_type varchar(255) not null,
+    threshold varchar(100),
+    reflex_test_id bigint not null,
+    enabled boolean not null,
+    fired_count bigint not null,
+    primary key (id),
+    constraint fk_reflex_rule_trigger foreign key (trigger_test_id) references test_definition,
+    constraint fk_reflex_rule_reflex foreign key (reflex_test_id) references test_definition
+);
+
+-- Abnormal TSH adds FT4, where both tests exist; switched off until the lab enables it
+insert into reflex_rule (trigger_test_id, condition_type, threshold, reflex_test_id, enabled, fired_count)
+select t.id, 'ABNORMAL', null, f.id, false, 0
+from test_definition t, test_definition f
+where upper(t.short_code) = 'TSH' and upper(f.short_code) = 'FT4';
@@ -0,0 +1,67 @@
+-- OrderArchiveService: orders moved out of the live tables once they are finished and older
+-- than qdc.archive.after-months. Same columns as lab_order, lab_result and commission_ledger,
+-- without keys to the live tables. A migration that adds a column to one of those tables
+-- adds it to the archive table as well.
+
+create table if not exists lab_order_archive (
+    id bigint not null,
+    version bigint,
+    patient_id bigint not null,
+    doctor_id bigint,
+    order_date timestamp,
+    status varchar(255),
+    total_amount double,
+    is_report_delivered boolean not null,
+    delivery_date timestamp,
+    results_edited boolean default false not null,
+    results_edited_at timestamp,
+    results_edited_by varchar(255),
+    results_edit_reason varchar(255),
+    reprint_required boolean default false not null,
+    reprint_count integer default 0,
+    last_reprint_at timestamp,
+    last_reprint_by varchar(255),
+    discount_amount double,
+    tax_amount double,
+    paid_amount double,
+    balance_due double,
+    verified_at timestamp,
+    verified_by varchar(255),
+    auto_verified boolean default false not null,
+    verification_hold varchar(500)
+);
+
+create table if not exists lab_result_archive (
+    id bigint not null,
+    version bigint,
+    order_id bigint,
+    test_id bigint,
+    result_value varchar(255),
+    is_abnormal boolean not null,
+    remarks varchar(255),
+    performed_by varchar(255),
+    performed_at timestamp,
+    status varchar(255),
+    delta_flag varchar(255),
+    instrument_flags varchar(255)
+);
+
+create table if not exists commission_ledger_archive (
+    id bigint not null,
+    order_id bigint not null,
+    doctor_id bigint not null,
+    total_bill_amount double,
+    commission_percentage double,
+    calculated_amount double,
+    paid_amount double,
+    transaction_date date,
+    status varchar(255),
+    payment_date date
+);
+
+-- OrderHistoryService: archived orders by id, date window and patient; results by order
+create unique index if not exists idx_lab_order_archive_id on lab_order_archive (id);
+create index if not exists idx_lab_order_archive_date on lab_order_archive (order_date);
+create index if not exists idx_lab_order_archive_patient on lab_order_archive (patient_id);
+create index if not exists idx_lab_result_archive_order on lab_result_archive (order_id);
+create index if not exists idx_commission_archive_date on commission_ledger_archive (transaction_date);
@@ -0,0 +1,51 @@
+-- Indexes for the repository queries. Each comment names the methods an index serves;
+-- RepositoryQueryPlanTest checks that none of them falls back to a full table scan.
+
+-- LabOrderRepository: findByOrderDateBetween, countByOrderDateBetween
+create index if not exists idx_lab_order_order_date on lab_order (order_date);
+-- LabOrderRepository: findByStatusAndOrderDateBetween, countByStatusAndOrderDateBetween,
+-- findByStatusAndIsReportDeliveredFalseAndOrderDateBetween, countByStatus, count*WithResults
+create index if not exists idx_lab_order_status_date on lab_order (status, order_date);
+-- LabOrderRepository: findByPatientIdOrderByIdDesc
+create index if not exists idx_lab_order_patient on lab_order (patient_id, id);
+-- SQLite only uses a partial index when the query repeats its condition; booleans are
+-- compared as 0/1 and a date range implies the date is not null.
+drop index if exists idx_lab_order_delivered;
+drop index if exists idx_lab_order_reprint;
+-- LabOrderRepository: findByIsReportDeliveredTrueAndDeliveryDateBetween
+create index idx_lab_order_delivered on lab_order (delivery_date) where delivery_date is not null;
+-- LabOrderRepository: findByReprintRequiredTrue (only a handful of rows are ever flagged)
+create index idx_lab_order_reprint on lab_order (id) where reprint_required = 1;
+-- LabOrderRepository: findByBalanceDueGreaterThan (almost every order has 0 due)
+create index if not exists idx_lab_order_balance_due on lab_order (balance_due);
+
+-- LabOrder.results and the result lookups by order
+create index if not exists idx_lab_result_order on lab_result (order_id);
+
+-- CommissionLedgerRepository: findByDoctorIdAndStatus, countByDoctorIdAndStatus,
+-- getTotalCommissionByDoctorAndStatus, findByDoctorId, findByDoctor
+create index if not exists idx_commission_doctor_status on commission_ledger (doctor_id, status);
+-- CommissionLedgerRepository: findByDoctorIdAndTransactionDateBetween
+create index if not exists idx_commission_doctor_date on commission_ledger (doctor_id, transaction_date);
+-- CommissionLedgerRepository: findByStatus, countByStatus, getTotalCommissionByStatus
+create index if not exists idx_commission_status on commission_ledger (status);
+-- CommissionLedgerRepository: findByTransactionDateBetween
+create index if not exists idx_commission_date on commission_ledger (transaction_date);
+
+-- PaymentRepository: findByTypeAndTransactionDateBetween, findByType
+create index if not exists idx_payments_type_date on payments (type, transaction_date);
+-- PaymentRepository: findByTransactionDateBetween
+create index if not exists idx_payments_date on payments (transaction_date);
+-- PaymentRepository: findByCategory
+create index if not exists idx_payments_category on payments (category);
+
+-- SupplierLedgerRepository: findBySupplierIdOrderByTransactionDateDesc
+create index if not exists idx_supplier_ledger_supplier_date on supplier_ledger (supplier_id, transaction_date);
+-- SupplierLedgerRepository: existsBySupplierIdAndInvoiceNumber
+create index if not exists idx_supplier_ledger_invoice on supplier_ledger (supplier_id, invoice_number);
+-- SupplierLedgerRepository: findByTransactionDateBetween
+create index if not exists idx_supplier_ledger_date on supplier_ledger (transaction_date);
+
+-- ReferenceRangeRepository.findByTestId, TestConsumptionRepository.findByTestId
+create index if not exists idx_reference_range_test on reference_range (test_id);
+create index if not exists idx_test_consumption_test on test_consumption (test_id);
@@ -0,0 +1,40 @@
+-- Delta check: per-test limits, the flag on each result and the latest value per patient and test.
+
+alter table test_definition add column delta_absolute numeric(38,2);
+alter table test_definition add column delta_percent numeric(38,2);
+alter table test_definition add column delta_window_days integer;
+
+alter table lab_result add column delta_flag varchar(255);
+
+create table patient_latest_result (
+    id integer not null,
+    patient_id bigint not null,
+    test_id bigint not null,
+    result_id bigint,
+    order_id bigint,
+    result_value varchar(255),
+    result_at timestamp,
+    previous_result_id bigint,
+    previous_order_id bigint,
+    previous_value varchar(255),
+    previous_at timestamp,
+    primary key (id),
+    constraint uk_patient_latest_result unique (patient_id, test_id)
+);
+
+-- Seed from the results entered so far: newest and second newest order per patient and test
+with ranked as (
+    select o.patient_id, r.test_id, r.id as result_id, o.id as order_id, r.result_value,
+           coalesce(r.performed_at, o.order_date) as result_at,
+           row_number() over (partition by o.patient_id, r.test_id order by o.id desc, r.id desc) as rn
+    from lab_result r
+    join lab_order o on o.id = r.order_id
+    where r.test_id is not null and r.result_value is not null and trim(r.result_value) <> ''
+)
+insert into patient_latest_result (patient_id, test_id, result_id, order_id, result_value, result_at,
+        previous_result_id, previous_order_id, previous_value, previous_at)
+select cur.patient_id, cur.test_id, cur.result_id, cur.order_id, cur.result_value, cur.result_at,
+       prev.result_id, prev.order_id, prev.result_value, prev.result_at
+from ranked cur
+left join ranked prev on prev.patient_id = cur.patient_id and prev.test_id = cur.test_id and prev.rn = 2
+where cur.rn = 1;
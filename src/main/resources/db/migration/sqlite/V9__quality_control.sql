@@ -0,0 +1,52 @@
+-- Quality control: control materials, lots with their Levey-Jennings statistics and
+-- Westgard state, and the QC runs entered or imported for each lot.
+
+create table qc_material (
+    id integer not null,
+    name varchar(255) not null,
+    manufacturer varchar(255),
+    level varchar(255),
+    active boolean not null,
+    primary key (id)
+);
+
+create table qc_lot (
+    id integer not null,
+    version bigint,
+    material_id bigint not null,
+    lot_number varchar(255) not null,
+    test_id bigint not null,
+    expiry_date date,
+    target_mean double,
+    target_sd double,
+    active boolean not null,
+    point_count bigint not null,
+    running_mean double not null,
+    running_m2 double not null,
+    last_z double,
+    side_run integer not null,
+    one_sd_run integer not null,
+    two_sd_run integer not null,
+    blocked boolean not null,
+    blocked_reason varchar(255),
+    primary key (id),
+    constraint fk_qc_lot_material foreign key (material_id) references qc_material,
+    constraint fk_qc_lot_test foreign key (test_id) references test_definition
+);
+
+create table qc_run (
+    id integer not null,
+    lot_id bigint not null,
+    qc_value double not null,
+    run_at timestamp,
+    entered_by varchar(255),
+    source varchar(255),
+    z_score double,
+    violations varchar(255),
+    rejected boolean not null,
+    primary key (id),
+    constraint fk_qc_run_lot foreign key (lot_id) references qc_lot
+);
+
+-- Levey-Jennings chart: latest runs of a lot
+create index idx_qc_run_lot on qc_run (lot_id, run_at);
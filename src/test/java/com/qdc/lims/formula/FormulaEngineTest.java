@@ -0,0 +1,189 @@
+package com.qdc.lims.formula;
+
+import com.qdc.lims.entity.LabResult;
+import com.qdc.lims.entity.Patient;
+import com.qdc.lims.entity.TestDefinition;
+import com.qdc.lims.repository.TestDefinitionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formula parsing and evaluation, and the dependency handling of {@link FormulaEngine}
+ * over a fixed set of test definitions.
+ */
+class FormulaEngineTest {
+
+	@Test
+	void operatorsFollowPrecedenceAndAssociativity() {
+		assertEquals(14, eval("2 + 3 * 4"));
+		assertEquals(20, eval("(2 + 3) * 4"));
+		assertEquals(3, eval("10 - 4 - 3"));
+		assertEquals(2, eval("12 / 3 / 2"));
+		// ^ is right-associative and binds tighter than unary minus
+		assertEquals(512, eval("2 ^ 3 ^ 2"));
+		assertEquals(-4, eval("-2 ^ 2"));
+		assertEquals(0.5, eval("2 ^ -1"));
+		assertEquals(18, eval("2 * 3 ^ 2"));
+		assertEquals(1, eval("1 + 2 < 4 && 3 > 2"));
+		assertEquals(1, eval("0 || !0"));
+		assertEquals(0, eval("1 != 1"));
+		assertEquals(1.5e3, eval("1.5e3"));
+		assertEquals(7, eval("if(max(1, 5) >= 5, round(6.5), 0)"));
+		assertEquals(3.14, eval("round(3.14159, 2)"));
+	}
+
+	@Test
+	void variablesAreBoundToSlotsInFirstUseOrder() {
+		Formula ldl = Formula.compile("TC - HDL - TG / 5");
+		assertEquals(List.of("TC", "HDL", "TG"), ldl.variables());
+		assertEquals(130, ldl.evaluate(new double[] { 200, 50, 100 }));
+
+		Formula bracketed = Formula.compile("[t-bil] - [d-bil] + t-bil");
+		assertEquals(List.of("T-BIL", "D-BIL", "T", "BIL"), bracketed.variables());
+	}
+
+	@Test
+	void invalidFormulasReportThePosition() {
+		IllegalArgumentException dangling = assertThrows(IllegalArgumentException.class,
+				() -> Formula.compile("2 +"));
+		assertTrue(dangling.getMessage().startsWith("Unexpected end of formula at position 4"),
+				dangling.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> Formula.compile("(1 + 2"));
+		assertThrows(IllegalArgumentException.class, () -> Formula.compile("1 2"));
+		assertThrows(IllegalArgumentException.class, () -> Formula.compile("foo(1)"));
+		assertThrows(IllegalArgumentException.class, () -> Formula.compile("min()"));
+		assertThrows(IllegalArgumentException.class, () -> Formula.compile("[]"));
+		assertThrows(IllegalArgumentException.class, () -> Formula.compile(" "));
+	}
+
+	@Test
+	void validateRejectsCyclesSelfReferencesAndUnknownCodes() {
+		FormulaEngine engine = new FormulaEngine(repository(
+				test(1L, "A", "B + 1"),
+				test(2L, "B", "C * 2"),
+				test(3L, "C", null)));
+
+		IllegalArgumentException cycle = assertThrows(IllegalArgumentException.class,
+				() -> engine.validate(test(3L, "C", "A - 1")));
+		assertEquals("Circular formula: C -> A -> B -> C", cycle.getMessage());
+
+		IllegalArgumentException self = assertThrows(IllegalArgumentException.class,
+				() -> engine.validate(test(3L, "C", "c + 1")));
+		assertEquals("Formula of C refers to itself", self.getMessage());
+
+		IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+				() -> engine.validate(test(4L, "D", "A + X")));
+		assertEquals("Unknown test code in formula: X", unknown.getMessage());
+
+		engine.validate(test(4L, "D", "A + B + AGE * FEMALE"));
+	}
+
+	@Test
+	void recalculateEvaluatesDownstreamTestsInRankOrder() {
+		// Listed with the dependent test first, so only the ranking puts GLOB before AG
+		TestDefinition ag = test(1L, "AG", "ALB / GLOB");
+		TestDefinition glob = test(2L, "GLOB", "TP - ALB");
+		TestDefinition tp = test(3L, "TP", null);
+		TestDefinition alb = test(4L, "ALB", null);
+		TestDefinition loopX = test(5L, "X", "Y + 1");
+		TestDefinition loopY = test(6L, "Y", "X + ALB");
+		FormulaEngine engine = new FormulaEngine(repository(ag, glob, tp, alb, loopX, loopY));
+
+		LabResult agResult = result(ag, "");
+		LabResult globResult = result(glob, "5");
+		LabResult tpResult = result(tp, "7");
+		LabResult albResult = result(alb, "4");
+		LabResult xResult = result(loopX, "");
+		LabResult yResult = result(loopY, "");
+		List<LabResult> order = List.of(agResult, globResult, tpResult, albResult, xResult, yResult);
+
+		List<LabResult> updated = engine.recalculate(new Patient(), order, List.of(albResult));
+
+		assertEquals(List.of(globResult, agResult), updated);
+		assertEquals("3", globResult.getResultValue());
+		assertEquals("1.33", agResult.getResultValue());
+		// Circular formulas are left out of the graph
+		assertEquals("", xResult.getResultValue());
+		assertEquals("", yResult.getResultValue());
+	}
+
+	@Test
+	void recalculateSkipsMissingInputsAndUndefinedValues() {
+		TestDefinition ratio = test(1L, "RATIO", "A / B");
+		TestDefinition a = test(2L, "A", null);
+		TestDefinition b = test(3L, "B", null);
+		TestDefinition egfr = test(4L, "EGFR", "A * if(FEMALE, 2, 1) + AGE");
+		FormulaEngine engine = new FormulaEngine(repository(ratio, a, b, egfr));
+
+		LabResult ratioResult = result(ratio, "9");
+		LabResult aResult = result(a, "3");
+		LabResult bResult = result(b, "0");
+		LabResult egfrResult = result(egfr, "");
+		List<LabResult> order = List.of(ratioResult, aResult, bResult, egfrResult);
+
+		Patient patient = new Patient();
+		patient.setGender("Female");
+		patient.setAge(40);
+		assertEquals(List.of(egfrResult), engine.recalculate(patient, order, List.of(aResult)));
+		assertEquals("9", ratioResult.getResultValue());
+		assertEquals("46", egfrResult.getResultValue());
+
+		bResult.setResultValue("pending");
+		patient.setAge(null);
+		assertEquals(List.of(), engine.recalculate(patient, order, List.of(aResult, bResult)));
+	}
+
+	@Test
+	void formatKeepsAtMostTwoDecimals() {
+		assertEquals("3.33", FormulaEngine.format(10.0 / 3));
+		assertEquals("4.1", FormulaEngine.format(4.10));
+		assertEquals("120", FormulaEngine.format(120.0));
+		assertEquals("0", FormulaEngine.format(-0.001));
+	}
+
+	private static double eval(String expression) {
+		return Formula.compile(expression).evaluate(new double[0]);
+	}
+
+	private static TestDefinition test(Long id, String code, String formula) {
+		TestDefinition test = new TestDefinition();
+		test.setId(id);
+		test.setTestName(code);
+		test.setShortCode(code);
+		test.setFormula(formula);
+		test.setActive(true);
+		return test;
+	}
+
+	private static LabResult result(TestDefinition test, String value) {
+		LabResult result = new LabResult();
+		result.setTestDefinition(test);
+		result.setResultValue(value);
+		return result;
+	}
+
+	/**
+	 * Repository stub answering the two queries the engine makes from a fixed list.
+	 */
+	private static TestDefinitionRepository repository(TestDefinition... tests) {
+		List<TestDefinition> all = List.of(tests);
+		Map<String, Object> answers = Map.of(
+				"findAll", all,
+				"findByFormulaIsNotNull", all.stream().filter(t -> t.getFormula() != null).toList());
+		return (TestDefinitionRepository) Proxy.newProxyInstance(FormulaEngineTest.class.getClassLoader(),
+				new Class<?>[] { TestDefinitionRepository.class }, (proxy, method, args) -> {
+					Object answer = answers.get(method.getName());
+					if (answer == null || (args != null && args.length > 0)) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					return answer;
+				});
+	}
+}
@@ -0,0 +1,143 @@
+package com.qdc.lims.instrument;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Parses fixed ASTM and HL7 result files and checks every field of the records produced.
+ */
+class InstrumentParserTest {
+
+	private static final char STX = 0x02;
+	private static final char ETX = 0x03;
+	private static final char ETB = 0x17;
+	private static final char VT = 0x0b;
+	private static final char FS = 0x1c;
+
+	@Test
+	void astmRecordsCarrySampleCodeValueUnitsFlagsAndStatus() throws IOException {
+		List<InstrumentRecord> records = parse("""
+				H|\\^&|||Cobas^1.0|||||||P|1
+				P|1||MRN-1
+				O|1|12345||^^^GLU\\^^^NA
+				R|1|^^^GLU|5.4|mmol/L||H||F
+				R|2|^^^NA|140|mmol/L||N||F
+				R|3|K|4&S&5|mmol/L||||X
+				L|1|N
+				""");
+
+		assertEquals(3, records.size());
+		assertEquals(new InstrumentRecord("Cobas", "12345", "GLU", "5.4", "mmol/L", "H", "F", 4), records.get(0));
+		assertEquals(new InstrumentRecord("Cobas", "12345", "NA", "140", "mmol/L", "N", "F", 5), records.get(1));
+		// Code sent alone, escaped component delimiter in the value, test not performed
+		InstrumentRecord notDone = records.get(2);
+		assertEquals("K", notDone.testCode());
+		assertEquals("4^5", notDone.value());
+		assertNull(notDone.flags());
+		assertTrue(notDone.notPerformed());
+		assertFalse(records.get(0).notPerformed());
+	}
+
+	@Test
+	void astmUsesSpecimenIdWhenSampleIdIsEmptyAndResetsItPerPatient() throws IOException {
+		List<InstrumentRecord> records = parse("""
+				H|\\^&|||AU480
+				P|1
+				O|1||S-77^1^3
+				R|1|^^^ALT|42|U/L
+				P|2
+				R|1|^^^AST|30|U/L
+				""");
+
+		assertEquals("S-77", records.get(0).sampleId());
+		assertNull(records.get(1).sampleId());
+		assertEquals("AU480", records.get(1).instrument());
+	}
+
+	@Test
+	void astmFramesAreUnwrappedAndEtbSplitRecordsJoined() throws IOException {
+		List<InstrumentRecord> records = parse(
+				STX + "1H|\\^&|||AU480" + ETX + "A1\n"
+						+ STX + "2O|1|S-9" + ETX + "B2\n"
+						+ STX + "3R|1|^^^ALT|4" + ETB + "C3\n"
+						+ STX + "42|U/L||N||F" + ETX + "D4\n"
+						+ STX + "5L|1" + ETX + "E5\n");
+
+		assertEquals(1, records.size());
+		assertEquals(new InstrumentRecord("AU480", "S-9", "ALT", "42", "U/L", "N", "F", 4), records.get(0));
+	}
+
+	@Test
+	void hl7ObxSegmentsAreReadPerValueType() throws IOException {
+		List<InstrumentRecord> records = parse(VT + "MSH|^~\\&|SYSMEX|LAB|LIS|QDC|20240101120000||ORU^R01|1|P|2.5\r\n"
+				+ "PID|1||MRN-1\r\n"
+				+ "OBR|1|PL-1|F-9|CBC\r\n"
+				+ "OBX|1|NM|WBC^White cells|1|7.2|10*9/L|4-11|N|||F\r\n"
+				+ "OBX|2|SN|CRP||<^5|mg/L||L|||F\r\n"
+				+ "OBX|3|CE|BG||A^A Pos|||N|||F\r\n"
+				+ "OBX|4|ST|NOTE||a\\F\\b||||||C\r\n"
+				+ FS + "\r\n");
+
+		assertEquals(4, records.size());
+		assertEquals(new InstrumentRecord("SYSMEX", "F-9", "WBC", "7.2", "10*9/L", "N", "F", 4), records.get(0));
+		assertEquals("<5", records.get(1).value());
+		assertEquals("L", records.get(1).flags());
+		assertEquals("A Pos", records.get(2).value());
+		assertEquals("a|b", records.get(3).value());
+		assertEquals("C", records.get(3).status());
+	}
+
+	@Test
+	void hl7SampleIdFallsBackToPlacerThenSpecimenAndResetsPerMessage() throws IOException {
+		List<InstrumentRecord> records = parse("""
+				MSH|^~\\&|XN1000
+				OBR|1|PL-2
+				OBX|1|NM|HGB||13.1|g/dL
+				MSH|^~\\&|XN2000
+				OBR|1
+				SPM|1|SP-3
+				OBX|1|NM|HGB||12.0|g/dL
+				MSH|^~\\&|XN3000
+				OBX|1|NM|HGB||11.5|g/dL
+				""");
+
+		assertEquals("PL-2", records.get(0).sampleId());
+		assertEquals("XN2000", records.get(1).instrument());
+		assertEquals("SP-3", records.get(1).sampleId());
+		assertNull(records.get(2).sampleId());
+	}
+
+	@Test
+	void detectPicksTheParserFromTheFirstRecordAndRewinds() throws IOException {
+		BufferedReader astm = new BufferedReader(new StringReader("\n" + STX + "1H|\\^&|||AU480" + ETX + "\n"));
+		assertInstanceOf(AstmParser.class, InstrumentFileParser.detect(astm));
+		assertEquals("", astm.readLine());
+
+		BufferedReader hl7 = new BufferedReader(new StringReader(VT + "MSH|^~\\&|XN\r\n"));
+		assertInstanceOf(Hl7Parser.class, InstrumentFileParser.detect(hl7));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> InstrumentFileParser.detect(new BufferedReader(new StringReader("Sample,Test,Value\n"))));
+		assertThrows(IllegalArgumentException.class,
+				() -> InstrumentFileParser.detect(new BufferedReader(new StringReader("\n\n"))));
+	}
+
+	private static List<InstrumentRecord> parse(String file) throws IOException {
+		BufferedReader in = new BufferedReader(new StringReader(file));
+		List<InstrumentRecord> records = new ArrayList<>();
+		InstrumentFileParser.detect(in).parse(in, records::add);
+		return records;
+	}
+}
@@ -0,0 +1,141 @@
+package com.qdc.lims.qc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Westgard rules and the run counters they are computed from, and the running mean and SD
+ * of a control lot, for fixed sequences of points.
+ */
+class WestgardTest {
+
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	void singlePointsBeyondTwoAndThreeSd() {
+		Westgard rules = fresh();
+		assertEquals(List.of(), rules.add(0.5));
+		assertEquals(List.of(Westgard.Rule.R_1_2S), rules.add(-2.5));
+		assertFalse(Westgard.rejects(List.of(Westgard.Rule.R_1_2S)));
+		List<Westgard.Rule> threeSd = fresh().add(3.2);
+		assertEquals(List.of(Westgard.Rule.R_1_2S, Westgard.Rule.R_1_3S), threeSd);
+		assertTrue(Westgard.rejects(threeSd));
+		assertEquals("1-2s, 1-3s", Westgard.labels(threeSd));
+	}
+
+	@Test
+	void twoPointsBeyondTwoSdOnTheSameSide() {
+		Westgard rules = fresh();
+		rules.add(2.1);
+		assertEquals(List.of(Westgard.Rule.R_1_2S, Westgard.Rule.R_2_2S), rules.add(2.4));
+		assertEquals(2, rules.twoSdRun());
+
+		// Opposite sides are R-4s, not 2-2s
+		Westgard across = fresh();
+		across.add(2.1);
+		assertEquals(List.of(Westgard.Rule.R_1_2S, Westgard.Rule.R_R_4S), across.add(-2.2));
+		assertEquals(-1, across.twoSdRun());
+		assertEquals(-1, across.oneSdRun());
+		assertEquals(-1, across.sideRun());
+
+		// A point inside 2 SD breaks the run
+		Westgard broken = fresh();
+		broken.add(2.1);
+		broken.add(1.5);
+		assertEquals(List.of(Westgard.Rule.R_1_2S), broken.add(2.1));
+		assertEquals(1, broken.twoSdRun());
+	}
+
+	@Test
+	void rangeRuleNeedsBothPointsBeyondTwoSd() {
+		Westgard rules = fresh();
+		rules.add(1.9);
+		assertEquals(List.of(Westgard.Rule.R_1_2S), rules.add(-2.5));
+		assertEquals(List.of(Westgard.Rule.R_1_2S, Westgard.Rule.R_R_4S), rules.add(2.1));
+	}
+
+	@Test
+	void fourPointsBeyondOneSdOnTheSameSide() {
+		Westgard rules = fresh();
+		assertEquals(List.of(), rules.add(-1.2));
+		assertEquals(List.of(), rules.add(-1.5));
+		assertEquals(List.of(), rules.add(-1.1));
+		assertEquals(List.of(Westgard.Rule.R_4_1S), rules.add(-1.9));
+		assertEquals(-4, rules.oneSdRun());
+		assertEquals(-4, rules.sideRun());
+		assertEquals(0, rules.twoSdRun());
+		assertEquals(List.of(), rules.add(0.8));
+		assertEquals(0, rules.oneSdRun());
+		assertEquals(1, rules.sideRun());
+	}
+
+	@Test
+	void tenPointsOnTheSameSideOfTheMean() {
+		Westgard rules = fresh();
+		for (int i = 0; i < 9; i++) {
+			assertEquals(List.of(), rules.add(0.3));
+		}
+		assertEquals(9, rules.sideRun());
+		assertEquals(List.of(Westgard.Rule.R_10X), rules.add(0.1));
+		assertEquals(List.of(Westgard.Rule.R_10X), rules.add(0.2));
+		// A point exactly on the mean resets the run
+		assertEquals(List.of(), rules.add(0.0));
+		assertEquals(0, rules.sideRun());
+	}
+
+	@Test
+	void resumesFromStoredCounters() {
+		Westgard rules = new Westgard(2.5, 3, 3, 1);
+		assertEquals(List.of(Westgard.Rule.R_1_2S, Westgard.Rule.R_2_2S, Westgard.Rule.R_4_1S), rules.add(2.2));
+		assertEquals(2.2, rules.lastZ(), EPSILON);
+		assertEquals(4, rules.sideRun());
+
+		Westgard after = new Westgard(null, -9, 0, 0);
+		assertEquals(List.of(Westgard.Rule.R_10X), after.add(-0.4));
+		assertNull(new Westgard(null, 0, 0, 0).lastZ());
+	}
+
+	@Test
+	void runningStatsMatchesTheTwoPassSampleSd() {
+		double[] values = { 4.9, 5.1, 5.0, 5.3, 4.7, 5.2, 4.8 };
+		RunningStats stats = new RunningStats(0, 0, 0);
+		assertTrue(Double.isNaN(stats.sd()));
+		for (double value : values) {
+			stats.add(value);
+		}
+		assertEquals(7, stats.count());
+		assertEquals(5.0, stats.mean(), EPSILON);
+		// Squared deviations: 0.01 + 0.01 + 0 + 0.09 + 0.09 + 0.04 + 0.04 = 0.28
+		assertEquals(0.28, stats.m2(), EPSILON);
+		assertEquals(Math.sqrt(0.28 / 6), stats.sd(), EPSILON);
+	}
+
+	@Test
+	void runningStatsResumesAndKeepsPrecisionOnLargeOffsets() {
+		RunningStats first = new RunningStats(0, 0, 0);
+		first.add(10);
+		first.add(12);
+		RunningStats resumed = new RunningStats(first.count(), first.mean(), first.m2());
+		resumed.add(14);
+		assertEquals(12, resumed.mean(), EPSILON);
+		assertEquals(2, resumed.sd(), EPSILON);
+
+		// A naive sum of squares loses the SD entirely at this magnitude
+		RunningStats large = new RunningStats(0, 0, 0);
+		for (double value : new double[] { 1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16 }) {
+			large.add(value);
+		}
+		assertEquals(1e9 + 10, large.mean(), EPSILON);
+		assertEquals(Math.sqrt(30), large.sd(), 1e-6);
+	}
+
+	private static Westgard fresh() {
+		return new Westgard(null, 0, 0, 0);
+	}
+}
@@ -0,0 +1,349 @@
+package com.qdc.lims.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@code EXPLAIN QUERY PLAN} for the repository queries on the hot tables against a
+ * SQLite database built by the Flyway migrations and seeded with a few years of orders.
+ * <p>
+ * The SQL mirrors what Hibernate generates for each repository method. A plan step that
+ * scans a table or a whole index (other than a partial one) fails the test, so a query added without a supporting
+ * index, or an index dropped from the migrations, is caught here. Statistics are not
+ * gathered, so the planner takes any index it can use; the test checks that one exists.
+ * Dashboard totals over all open or completed orders and the patient name search are
+ * not listed: they read most of the table by design.
+ */
+class RepositoryQueryPlanTest {
+
+	private static final int PATIENTS = 5_000;
+	private static final int ORDERS = 40_000;
+	private static final int DOCTORS = 40;
+	private static final int SUPPLIERS = 20;
+
+	private static final Pattern INDEX_IN_STEP = Pattern.compile("USING (?:COVERING )?INDEX (\\w+)");
+
+	private record PlannedQuery(String method, String sql, Object... params) {
+	}
+
+	@TempDir
+	static Path dataDir;
+
+	private static Connection conn;
+
+	@BeforeAll
+	static void createSeededDatabase() throws Exception {
+		String url = "jdbc:sqlite:" + dataDir.resolve("plan-test.db");
+		Flyway.configure()
+				.dataSource(url, null, null)
+				.locations("classpath:db/migration/sqlite")
+				.load()
+				.migrate();
+		conn = DriverManager.getConnection(url);
+		conn.setAutoCommit(false);
+		seed(new Random(42));
+		conn.commit();
+	}
+
+	@AfterAll
+	static void close() throws Exception {
+		if (conn != null) {
+			conn.close();
+		}
+	}
+
+	@Test
+	void repositoryQueriesUseIndexes() throws Exception {
+		Timestamp from = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+		Timestamp to = Timestamp.valueOf(LocalDateTime.now());
+		Date fromDate = Date.valueOf(LocalDate.now().minusDays(30));
+		Date toDate = Date.valueOf(LocalDate.now());
+
+		List<PlannedQuery> queries = List.of(
+				new PlannedQuery("LabOrderRepository.findByOrderDateBetween",
+						"select * from lab_order o where o.order_date between ? and ?", from, to),
+				new PlannedQuery("LabOrderRepository.countByOrderDateBetween",
+						"select count(o.id) from lab_order o where o.order_date between ? and ?", from, to),
+				new PlannedQuery("LabOrderRepository.findByStatusAndOrderDateBetween",
+						"select * from lab_order o where o.status = ? and o.order_date between ? and ?",
+						"PENDING", from, to),
+				new PlannedQuery("LabOrderRepository.countByStatusAndOrderDateBetween",
+						"select count(o.id) from lab_order o where o.status = ? and o.order_date between ? and ?",
+						"COMPLETED", from, to),
+				new PlannedQuery("LabOrderRepository.findByStatusAndIsReportDeliveredFalseAndOrderDateBetween",
+						"select * from lab_order o where o.status = ? and o.is_report_delivered = 0"
+								+ " and o.order_date between ? and ?",
+						"COMPLETED", from, to),
+				new PlannedQuery("LabOrderRepository.findByIsReportDeliveredTrueAndDeliveryDateBetween",
+						"select * from lab_order o where o.is_report_delivered = 1 and o.delivery_date between ? and ?",
+						from, to),
+				new PlannedQuery("LabOrderRepository.findByReprintRequiredTrue",
+						"select * from lab_order o where o.reprint_required = 1"),
+				new PlannedQuery("LabOrderRepository.findAwaitingVerification",
+						"select * from lab_order o where o.verified_at is null and o.status = 'COMPLETED'"
+								+ " order by o.order_date"),
+				new PlannedQuery("LabOrderRepository.countAwaitingVerification",
+						"select count(o.id) from lab_order o where o.verified_at is null and o.status = 'COMPLETED'"),
+				new PlannedQuery("LabOrderRepository.findOpenWithTests",
+						"select distinct o.* from lab_order o join lab_result r on r.order_id = o.id"
+								+ " where o.status not in ('COMPLETED', 'CANCELLED') and o.is_report_delivered = 0"
+								+ " and r.test_id in (?, ?) order by o.id",
+						1L, 2L),
+				new PlannedQuery("LabOrderRepository.findByPatientIdOrderByIdDesc",
+						"select * from lab_order o where o.patient_id = ? order by o.id desc", 17L),
+				new PlannedQuery("LabOrderRepository.countByStatus",
+						"select count(o.id) from lab_order o where o.status = ?", "PENDING"),
+				new PlannedQuery("LabOrderRepository.findByBalanceDueGreaterThan",
+						"select * from lab_order o where o.balance_due > ?", 0.0),
+				new PlannedQuery("LabOrder.results",
+						"select * from lab_result r where r.order_id = ?", 1234L),
+				new PlannedQuery("LabOrderRepository.findVisits",
+						"select o.id, o.order_date from lab_order o where o.patient_id = ? and o.id < ?"
+								+ " order by o.id desc limit 11",
+						17L, 30_000L),
+				new PlannedQuery("LabResultRepository.findResultPoints",
+						"select r.test_id, o.id, o.order_date, r.result_value, r.is_abnormal from lab_result r"
+								+ " join lab_order o on o.id = r.order_id"
+								+ " where o.id in (?, ?, ?) and r.result_value is not null and r.result_value <> ''",
+						1234L, 1300L, 1400L),
+				new PlannedQuery("PatientLatestResultRepository.findByPatientIdAndTestIdIn",
+						"select * from patient_latest_result l where l.patient_id = ? and l.test_id in (?, ?)",
+						17L, 1L, 2L),
+				new PlannedQuery("CriticalAlertRepository.findByAcknowledgedAtIsNull",
+						"select * from critical_alert a where a.acknowledged_at is null"),
+				new PlannedQuery("CriticalAlertRepository.findByResultIdInAndAcknowledgedAtIsNull",
+						"select * from critical_alert a where a.result_id in (?, ?) and a.acknowledged_at is null",
+						11L, 12L),
+				new PlannedQuery("CriticalAlertRepository.findByRaisedAtBetween",
+						"select * from critical_alert a where a.raised_at between ? and ?", from, to),
+				new PlannedQuery("QcRunRepository.findByLotIdOrderByRunAtDescIdDesc",
+						"select * from qc_run r where r.lot_id = ? order by r.run_at desc, r.id desc limit 60", 1L),
+				new PlannedQuery("CommissionLedgerRepository.findByDoctorIdAndStatus",
+						"select * from commission_ledger c where c.doctor_id = ? and c.status = ?", 3L, "UNPAID"),
+				new PlannedQuery("CommissionLedgerRepository.getTotalCommissionByDoctorAndStatus",
+						"select coalesce(sum(c.calculated_amount), 0.0) from commission_ledger c"
+								+ " where c.doctor_id = ? and c.status = ?",
+						3L, "UNPAID"),
+				new PlannedQuery("CommissionLedgerRepository.findByDoctorId",
+						"select * from commission_ledger c where c.doctor_id = ?", 3L),
+				new PlannedQuery("CommissionLedgerRepository.findByStatus",
+						"select * from commission_ledger c where c.status = ?", "UNPAID"),
+				new PlannedQuery("CommissionLedgerRepository.getTotalCommissionByStatus",
+						"select coalesce(sum(c.calculated_amount), 0.0) from commission_ledger c where c.status = ?",
+						"UNPAID"),
+				new PlannedQuery("CommissionLedgerRepository.findByTransactionDateBetween",
+						"select * from commission_ledger c where c.transaction_date between ? and ?",
+						fromDate, toDate),
+				new PlannedQuery("CommissionLedgerRepository.findByDoctorIdAndTransactionDateBetween",
+						"select * from commission_ledger c where c.doctor_id = ? and c.transaction_date between ? and ?",
+						3L, fromDate, toDate),
+				new PlannedQuery("CommissionLedger.labOrder (by order)",
+						"select * from commission_ledger c where c.order_id = ?", 1234L),
+				new PlannedQuery("PaymentRepository.findByType",
+						"select * from payments p where p.type = ?", "EXPENSE"),
+				new PlannedQuery("PaymentRepository.findByCategory",
+						"select * from payments p where p.category = ?", "RENT"),
+				new PlannedQuery("PaymentRepository.findByTransactionDateBetween",
+						"select * from payments p where p.transaction_date between ? and ?", from, to),
+				new PlannedQuery("PaymentRepository.findByTypeAndTransactionDateBetween",
+						"select * from payments p where p.type = ? and p.transaction_date between ? and ?",
+						"INCOME", from, to),
+				new PlannedQuery("SupplierLedgerRepository.findBySupplierIdOrderByTransactionDateDesc",
+						"select * from supplier_ledger s where s.supplier_id = ? order by s.transaction_date desc", 2L),
+				new PlannedQuery("SupplierLedgerRepository.existsBySupplierIdAndInvoiceNumber",
+						"select s.id from supplier_ledger s where s.supplier_id = ? and s.invoice_number = ? limit 1",
+						2L, "INV-100"),
+				new PlannedQuery("SupplierLedgerRepository.findByTransactionDateBetween",
+						"select * from supplier_ledger s where s.transaction_date between ? and ?", fromDate, toDate),
+				new PlannedQuery("PatientRepository.findByMrn",
+						"select * from patients p where p.mrn = ?", "MRN-00100"),
+				new PlannedQuery("PatientRepository.existsByCnic",
+						"select p.id from patients p where p.cnic = ? limit 1", "35202-0000100-1"));
+
+		Set<String> partialIndexes = partialIndexes();
+		List<String> scans = new ArrayList<>();
+		for (PlannedQuery query : queries) {
+			for (String step : plan(query)) {
+				// A partial index only holds the rows its condition selects, so reading it whole is fine
+				Matcher index = INDEX_IN_STEP.matcher(step);
+				boolean partial = index.find() && partialIndexes.contains(index.group(1));
+				if (step.startsWith("SCAN ") && !partial) {
+					scans.add(query.method() + ": " + step);
+				}
+			}
+		}
+		assertTrue(scans.isEmpty(), "Queries scanning a whole table or index:\n" + String.join("\n", scans));
+	}
+
+	@Test
+	void archiveTablesHaveEveryLiveColumn() throws Exception {
+		// OrderArchiveService copies the live columns; a migration that adds one to a live
+		// table has to add it to the archive table too
+		List<String> missing = new ArrayList<>();
+		for (String live : List.of("lab_order", "lab_result", "commission_ledger")) {
+			Set<String> archived = columns(live + "_archive");
+			for (String column : columns(live)) {
+				if (!archived.contains(column)) {
+					missing.add(live + "_archive." + column);
+				}
+			}
+		}
+		assertTrue(missing.isEmpty(), "Archive columns missing from the migrations: " + missing);
+	}
+
+	private static Set<String> columns(String table) throws Exception {
+		Set<String> names = new HashSet<>();
+		try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, "%")) {
+			while (rs.next()) {
+				names.add(rs.getString("COLUMN_NAME").toLowerCase());
+			}
+		}
+		return names;
+	}
+
+	private static Set<String> partialIndexes() throws Exception {
+		Set<String> names = new HashSet<>();
+		try (Statement st = conn.createStatement();
+				ResultSet rs = st.executeQuery(
+						"select name from sqlite_master where type = 'index' and lower(sql) like '% where %'")) {
+			while (rs.next()) {
+				names.add(rs.getString(1));
+			}
+		}
+		return names;
+	}
+
+	private static List<String> plan(PlannedQuery query) throws Exception {
+		List<String> steps = new ArrayList<>();
+		try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + query.sql())) {
+			for (int i = 0; i < query.params().length; i++) {
+				ps.setObject(i + 1, query.params()[i]);
+			}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					steps.add(rs.getString("detail"));
+				}
+			}
+		}
+		return steps;
+	}
+
+	private static void seed(Random random) throws Exception {
+		try (Statement st = conn.createStatement()) {
+			st.execute("insert into department (id, name, active) values (1, 'Pathology', 1)");
+			st.execute("insert into test_definition (id, test_name, department_id, active) values (1, 'CBC', 1, 1)");
+			st.execute("insert into users (id, username, password, full_name, active, account_non_expired,"
+					+ " account_non_locked, credentials_non_expired) values (1, 'admin', 'x', 'Admin', 1, 1, 1, 1)");
+		}
+		batch("insert into doctors (id, name, active) values (?, ?, 1)", DOCTORS,
+				(ps, i) -> {
+					ps.setLong(1, i + 1);
+					ps.setString(2, "Dr. " + i);
+				});
+		batch("insert into suppliers (id, company_name, active) values (?, ?, 1)", SUPPLIERS,
+				(ps, i) -> {
+					ps.setLong(1, i + 1);
+					ps.setString(2, "Supplier " + i);
+				});
+		batch("insert into patients (id, mrn, cnic, full_name, age) values (?, ?, ?, ?, ?)", PATIENTS,
+				(ps, i) -> {
+					ps.setLong(1, i + 1);
+					ps.setString(2, String.format("MRN-%05d", i));
+					ps.setString(3, String.format("35202-%07d-1", i));
+					ps.setString(4, "Patient " + i);
+					ps.setInt(5, 1 + random.nextInt(90));
+				});
+
+		// About three years of orders, most of them completed and collected
+		LocalDateTime start = LocalDateTime.now().minusYears(3);
+		long span = Duration.between(start, LocalDateTime.now()).toMinutes();
+		batch("insert into lab_order (id, patient_id, doctor_id, order_date, status, total_amount,"
+				+ " is_report_delivered, delivery_date, reprint_required, paid_amount, balance_due)"
+				+ " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", ORDERS,
+				(ps, i) -> {
+					LocalDateTime ordered = start.plusMinutes(span * i / ORDERS);
+					int roll = random.nextInt(100);
+					String status = roll < 90 ? "COMPLETED" : roll < 95 ? "PENDING" : "CANCELLED";
+					boolean delivered = "COMPLETED".equals(status) && random.nextInt(100) < 95;
+					double balance = random.nextInt(100) < 2 ? 200.0 : 0.0;
+					ps.setLong(1, i + 1);
+					ps.setLong(2, 1 + random.nextInt(PATIENTS));
+					ps.setLong(3, 1 + random.nextInt(DOCTORS));
+					ps.setTimestamp(4, Timestamp.valueOf(ordered));
+					ps.setString(5, status);
+					ps.setDouble(6, 1500.0);
+					ps.setBoolean(7, delivered);
+					ps.setTimestamp(8, delivered ? Timestamp.valueOf(ordered.plusDays(1)) : null);
+					ps.setBoolean(9, random.nextInt(1000) == 0);
+					ps.setDouble(10, 1500.0 - balance);
+					ps.setDouble(11, balance);
+				});
+		batch("insert into lab_result (order_id, test_id, result_value, is_abnormal, status)"
+				+ " values (?, 1, '13.5', 0, 'COMPLETED')", ORDERS * 3,
+				(ps, i) -> ps.setLong(1, i / 3 + 1));
+		batch("insert into commission_ledger (order_id, doctor_id, total_bill_amount, commission_percentage,"
+				+ " calculated_amount, transaction_date, status) values (?, ?, 1500, 10, 150, ?, ?)", ORDERS / 2,
+				(ps, i) -> {
+					ps.setLong(1, i * 2L + 1);
+					ps.setLong(2, 1 + random.nextInt(DOCTORS));
+					ps.setDate(3, Date.valueOf(start.toLocalDate().plusDays(i * 1095L / (ORDERS / 2))));
+					ps.setString(4, random.nextInt(100) < 5 ? "UNPAID" : "PAID");
+				});
+		batch("insert into payments (type, category, description, amount, transaction_date)"
+				+ " values (?, ?, 'seed', 100, ?)", ORDERS / 4,
+				(ps, i) -> {
+					ps.setString(1, i % 3 == 0 ? "EXPENSE" : "INCOME");
+					ps.setString(2, i % 5 == 0 ? "RENT" : "MISC");
+					ps.setTimestamp(3, Timestamp.valueOf(start.plusMinutes(span * i / (ORDERS / 4))));
+				});
+		batch("insert into supplier_ledger (supplier_id, transaction_date, invoice_number, bill_amount)"
+				+ " values (?, ?, ?, 500)", ORDERS / 10,
+				(ps, i) -> {
+					ps.setLong(1, 1 + random.nextInt(SUPPLIERS));
+					ps.setDate(2, Date.valueOf(start.toLocalDate().plusDays(i * 1095L / (ORDERS / 10))));
+					ps.setString(3, "INV-" + i);
+				});
+	}
+
+	@FunctionalInterface
+	private interface RowBinder {
+		void bind(PreparedStatement ps, int row) throws Exception;
+	}
+
+	private static void batch(String sql, int rows, RowBinder binder) throws Exception {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			for (int i = 0; i < rows; i++) {
+				binder.bind(ps, i);
+				ps.addBatch();
+				if (i % 1_000 == 999) {
+					ps.executeBatch();
+				}
+			}
+			ps.executeBatch();
+		}
+	}
+}